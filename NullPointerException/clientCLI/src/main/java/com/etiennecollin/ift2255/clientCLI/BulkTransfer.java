@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI;
+
+import com.etiennecollin.ift2255.clientCLI.models.data.BulkLoader;
+import com.etiennecollin.ift2255.clientCLI.models.data.DataMap;
+import com.etiennecollin.ift2255.clientCLI.models.data.Database;
+import com.etiennecollin.ift2255.clientCLI.models.data.Durability;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * The `BulkTransfer` class is a command importing the DataMaps of the database from a directory of JSON Lines files,
+ * or exporting them to one. It must be run while the application is stopped.
+ * <p>
+ * The database is opened with the storage engine and the layout chosen by the same system properties as the
+ * application, but its changes are only persisted when the command ends, so that an import writes each file once.
+ */
+public class BulkTransfer {
+    /**
+     * Private constructor preventing the instantiation of the command.
+     */
+    private BulkTransfer() {
+    }
+
+    /**
+     * The main method that imports or exports the data of the default save path.
+     *
+     * @param args The command-line arguments, containing {@code import} or {@code export} and the directory of the
+     *             files.
+     */
+    public static void main(String[] args) {
+        if (args.length != 2 || !(args[0].equals("import") || args[0].equals("export"))) {
+            System.out.println("Usage: BulkTransfer import|export <directory>");
+            return;
+        }
+
+        long start = System.nanoTime();
+        Map<DataMap, Long> counts;
+        try (Database db = UniShop.openDatabase(Durability.ON_SHUTDOWN)) {
+            BulkLoader loader = new BulkLoader(db);
+            Path directory = Path.of(args[1]);
+            counts = args[0].equals("import") ? loader.importDirectory(directory) : loader.exportDirectory(directory);
+        }
+
+        long total = 0;
+        for (Map.Entry<DataMap, Long> entry : counts.entrySet()) {
+            System.out.println((args[0].equals("import") ? "Imported " : "Exported ") + entry.getValue() + " objects of " + entry.getKey());
+            total += entry.getValue();
+        }
+        System.out.println("Transferred " + total + " objects in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
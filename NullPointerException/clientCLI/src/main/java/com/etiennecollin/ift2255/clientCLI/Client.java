@@ -10,10 +10,13 @@ package com.etiennecollin.ift2255.clientCLI;
 public class Client {
     /**
      * The main method that initializes the UniShop instance and renders views.
+     * The pending changes of the database are persisted when the application exits.
      *
      * @param args The command-line arguments (not used in this application).
      */
     public static void main(String[] args) {
-        UniShop.getInstance().getRenderer().renderViews();
+        UniShop uniShop = UniShop.getInstance();
+        Runtime.getRuntime().addShutdownHook(new Thread(uniShop::close, "database-shutdown"));
+        uniShop.getRenderer().renderViews();
     }
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI;
+
+import com.etiennecollin.ift2255.clientCLI.models.data.*;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The `Migrate` class is a command copying the legacy serialized files of the default save path to a directory in the
+ * format of another storage engine. It must be run while the application is stopped.
+ * <p>
+ * The command can be run again after an interruption, resuming from its progress file in the target directory, and
+ * verifies the number of objects and the identifiers of every DataMap once done. The files of the target directory
+ * then replace those of the save path, and the application is started with the new engine.
+ */
+public class Migrate {
+    /**
+     * Private constructor preventing the instantiation of the command.
+     */
+    private Migrate() {
+    }
+
+    /**
+     * The main method that migrates the data of the default save path.
+     *
+     * @param args The command-line arguments, containing the name of the target storage engine and the target
+     *             directory.
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: Migrate <engine> <directory>");
+            return;
+        }
+
+        StorageEngine engine = StorageEngine.parse(args[0]);
+        String savePath = new JavaSerializedDatabase(false).savePath;
+        Path directory = Path.of(args[1]).toAbsolutePath().normalize();
+        if (directory.equals(Path.of(savePath).toAbsolutePath().normalize())) {
+            System.out.println("The target directory must not be the save path");
+            return;
+        }
+        directory.toFile().mkdirs();
+
+        List<DataMap> mismatches;
+        try (JavaSerializedDatabase source = new JavaSerializedDatabase(savePath, false); Database target = engine.open(directory + File.separator, Durability.SYNC)) {
+            Migration migration = new Migration(source, target, directory.resolve(Migration.PROGRESS_FILENAME).toFile(), Migration.DEFAULT_BATCH_SIZE);
+            for (MigrationReport report : migration.migrate((progress) -> System.out.printf("%s: %d/%d objects (%.0f/s)%n", progress.dataMap(), progress.migratedCount(), progress.totalCount(), progress.objectsPerSecond()))) {
+                System.out.println("Migrated " + report.totalCount() + " objects of " + report.dataMap() + " in " + report.migrateMillis() + " ms");
+            }
+            mismatches = migration.verify();
+        }
+
+        if (mismatches.isEmpty()) {
+            System.out.println("Verified every DataMap. Move the files of " + directory + " to " + savePath + " and start the application with -Dunishop.engine=" + engine.name());
+        } else {
+            System.out.println("The objects of " + mismatches + " differ between the save path and " + directory);
+        }
+    }
+}
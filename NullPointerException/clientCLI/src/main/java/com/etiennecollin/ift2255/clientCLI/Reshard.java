@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI;
+
+import com.etiennecollin.ift2255.clientCLI.models.data.JavaSerializedDatabase;
+import com.etiennecollin.ift2255.clientCLI.models.data.ShardedDatabase;
+
+/**
+ * The `Reshard` class is a command moving the orders, notifications, likes and carts of the database into a new number
+ * of shards. It must be run while the application is stopped.
+ */
+public class Reshard {
+    /**
+     * Private constructor preventing the instantiation of the command.
+     */
+    private Reshard() {
+    }
+
+    /**
+     * The main method that reshards the data of the default save path.
+     *
+     * @param args The command-line arguments, containing the new number of shards.
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.out.println("Usage: Reshard <shard count>");
+            return;
+        }
+
+        String savePath = new JavaSerializedDatabase(false).savePath;
+        int previousShardCount = ShardedDatabase.getShardCount(savePath);
+        int shardCount = Integer.parseInt(args[0]);
+        ShardedDatabase.reshard(savePath, shardCount);
+        System.out.println("Resharded the data from " + previousShardCount + " to " + shardCount + " shards");
+    }
+}
@@ -9,11 +9,28 @@ import com.etiennecollin.ift2255.clientCLI.controllers.ProfileController;
 import com.etiennecollin.ift2255.clientCLI.controllers.ShopController;
 import com.etiennecollin.ift2255.clientCLI.controllers.TicketController;
 import com.etiennecollin.ift2255.clientCLI.models.*;
+import com.etiennecollin.ift2255.clientCLI.models.data.DataMap;
 import com.etiennecollin.ift2255.clientCLI.models.data.Database;
-import com.etiennecollin.ift2255.clientCLI.models.data.JavaSerializedDatabase;
+import com.etiennecollin.ift2255.clientCLI.models.data.Durability;
+import com.etiennecollin.ift2255.clientCLI.models.data.MappedProductDatabase;
+import com.etiennecollin.ift2255.clientCLI.models.data.PartitionedOrderDatabase;
+import com.etiennecollin.ift2255.clientCLI.models.data.RetentionCompactor;
+import com.etiennecollin.ift2255.clientCLI.models.data.RetentionPolicy;
+import com.etiennecollin.ift2255.clientCLI.models.data.Snapshot;
+import com.etiennecollin.ift2255.clientCLI.models.data.StorageEngine;
+import com.etiennecollin.ift2255.clientCLI.models.data.TieredDatabase;
+import com.etiennecollin.ift2255.clientCLI.models.data.WarmUpReport;
 import com.etiennecollin.ift2255.clientCLI.views.MainMenu;
 import com.etiennecollin.ift2255.clientCLI.views.ViewRenderer;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Period;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * The main class representing the UniShop application. It serves as a singleton and
  * provides access to various models, controllers, and the view renderer.
@@ -28,6 +45,14 @@ public class UniShop {
      * The db field holds the reference to the Database object used by the UniShop instance.
      */
     private final Database db;
+    /**
+     * The compactor removing the notifications past their retention policy.
+     */
+    private final RetentionCompactor compactor;
+    /**
+     * Whether the database was closed, so that it is only closed once when the user quits and the shutdown hook runs.
+     */
+    private final AtomicBoolean closed = new AtomicBoolean();
     /**
      * The renderer field is responsible for rendering Views in the UniShop instance.
      * It is used to manage the user interface of the application.
@@ -74,7 +99,13 @@ public class UniShop {
      * Private constructor to initialize the UniShop instance with default models and controllers.
      */
     private UniShop() {
-        this.db = new JavaSerializedDatabase();
+        // SYNC, INTERVAL(ms) or ON_SHUTDOWN, only deferring the writes of the serialized engine
+        this.db = openDatabase(Durability.parse(System.getProperty("unishop.durability", "SYNC")));
+        for (WarmUpReport report : db.warmUp(EnumSet.allOf(DataMap.class))) {
+            System.out.println("Loaded " + report.objectCount() + " objects of " + report.dataMap() + " in " + report.loadMillis() + " ms");
+        }
+        Map<DataMap, RetentionPolicy> policies = retentionPolicies();
+        this.compactor = new RetentionCompactor(db, policies, policies.isEmpty() ? 0 : TimeUnit.HOURS.toMillis(1));
         this.auth = new AuthenticationModel(db);
         this.profile = new ProfileModel(db);
         this.shop = new ShopModel(db);
@@ -91,6 +122,48 @@ public class UniShop {
         this.renderer.addNextView(new MainMenu(authController), true);
     }
 
+    /**
+     * Opens the database of the application, with the storage engine, the shards and the layout chosen by the system
+     * properties.
+     *
+     * @param durability The durability policy of the storage engine.
+     *
+     * @return The database.
+     */
+    static Database openDatabase(Durability durability) {
+        // SERIALIZED, PAGED, OPERATION_LOG or LSM
+        StorageEngine engine = StorageEngine.parse(System.getProperty("unishop.engine", "SERIALIZED"));
+        // Must match the number of shards the data was split into by Reshard
+        int shardCount = Integer.parseInt(System.getProperty("unishop.shards", "1"));
+        Database engineDb = engine.open(durability, shardCount);
+        // When false, the orders are stored, and sharded, by the storage engine instead of in one file per month
+        if (Boolean.parseBoolean(System.getProperty("unishop.partitionOrders", "true"))) {
+            engineDb = new PartitionedOrderDatabase(engineDb, engine.createCodec());
+        }
+        // The finished orders and tickets older than this number of days are moved to the archive
+        engineDb = new TieredDatabase(engineDb, Period.ofDays(Integer.parseInt(System.getProperty("unishop.archiveAfterDays", "90"))));
+        return new MappedProductDatabase(engineDb);
+    }
+
+    /**
+     * Gets the retention policies chosen by the system properties. Every notification is kept unless a limit is set.
+     *
+     * @return The policy of each DataMap of which the objects are removed, empty if no limit is set.
+     */
+    static Map<DataMap, RetentionPolicy> retentionPolicies() {
+        // Every hour, the notifications older than this number of days are removed
+        String notificationMaxAgeDays = System.getProperty("unishop.notificationMaxAgeDays");
+        // Every hour, the oldest notifications of each user beyond this number are removed
+        String notificationsPerUser = System.getProperty("unishop.notificationsPerUser");
+        if (notificationMaxAgeDays == null && notificationsPerUser == null) {
+            return Map.of();
+        }
+
+        Duration maxAge = notificationMaxAgeDays != null ? Duration.ofDays(Integer.parseInt(notificationMaxAgeDays)) : null;
+        int maxPerOwner = notificationsPerUser != null ? Integer.parseInt(notificationsPerUser) : RetentionPolicy.UNLIMITED;
+        return Map.of(DataMap.NOTIFICATIONS, new RetentionPolicy(maxAge, maxPerOwner));
+    }
+
     /**
      * Gets the instance of the UniShop singleton. If it doesn't exist, a new instance is created.
      *
@@ -192,4 +265,34 @@ public class UniShop {
     public TicketController getTicketController() {
         return ticketController;
     }
+
+    /**
+     * Backs up the database to a directory while the application keeps running. The files are pinned at a single
+     * point in time and then copied, so the writes made during the copy are not part of the backup.
+     *
+     * @param target The directory to which the files are copied.
+     *
+     * @return The number of bytes copied.
+     *
+     * @throws UnsupportedOperationException If the storage engine cannot take snapshots.
+     * @throws RuntimeException              If a file could not be copied.
+     */
+    public long backup(Path target) throws UnsupportedOperationException, RuntimeException {
+        try (Snapshot snapshot = new Snapshot(target)) {
+            db.snapshot(snapshot);
+            return snapshot.write();
+        }
+    }
+
+    /**
+     * Persists the pending changes of the database and releases its resources. Does nothing if already closed.
+     */
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+
+        compactor.close();
+        db.close();
+    }
 }
@@ -9,6 +9,7 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Scanner;
 import java.util.function.Consumer;
@@ -407,21 +408,41 @@ public class Utils {
      * @param itemDisplayer A Consumer that displays an individual item.
      * @param itemMenuName  A Function that returns a string representing the menu name for an individual item.
      * @param action        A Function that defines the action to be performed on selected items. Return false to quit menu, true to continue in menu.
-     * @param itemUpdater   A Function defines how to update the item in items after an action has been performed.
+     * @param itemUpdater   A Function defines how to update the item in the displayed page after an action has been performed.
      */
     public static <T> void prettyPaginationMenu(List<T> items, int itemsPerPage, String actionName, Consumer<T> itemDisplayer, Function<T, String> itemMenuName, Function<T, Boolean> action, Function<T, T> itemUpdater) {
+        prettyPaginationMenu(items.iterator(), itemsPerPage, actionName, itemDisplayer, itemMenuName, action, itemUpdater);
+    }
+
+    /**
+     * Displays a paginated menu for a sequence of items, allowing the user to perform actions on the items.
+     * The items are pulled one page at a time, only when the user asks to see more, so that a sequence read lazily
+     * from the database is never loaded whole.
+     *
+     * @param <T>           The type of elements in the menu.
+     * @param items         The iterator over the items to be displayed in the menu.
+     * @param itemsPerPage  The number of items to display per page.
+     * @param actionName    The name of the action to perform on selected items.
+     * @param itemDisplayer A Consumer that displays an individual item.
+     * @param itemMenuName  A Function that returns a string representing the menu name for an individual item.
+     * @param action        A Function that defines the action to be performed on selected items. Return false to quit menu, true to continue in menu.
+     * @param itemUpdater   A Function defines how to update the item in the displayed page after an action has been performed.
+     */
+    public static <T> void prettyPaginationMenu(Iterator<T> items, int itemsPerPage, String actionName, Consumer<T> itemDisplayer, Function<T, String> itemMenuName, Function<T, Boolean> action, Function<T, T> itemUpdater) {
         outerLoop:
-        for (int i = 0; i < items.size(); i += itemsPerPage) {
-            int itemsOnPage = Math.min(itemsPerPage, items.size() - i);
+        for (int i = 0; items.hasNext(); i += itemsPerPage) {
+            ArrayList<T> page = new ArrayList<>(itemsPerPage);
+            while (page.size() < itemsPerPage && items.hasNext()) {
+                page.add(items.next());
+            }
             clearConsole();
 
-            System.out.println(prettify("Page from " + (i + 1) + " to " + (i + itemsOnPage) + ":"));
+            System.out.println(prettify("Page from " + (i + 1) + " to " + (i + page.size()) + ":"));
 
             ArrayList<String> itemMenuNames = new ArrayList<>();
             itemMenuNames.add("Go back");
 
-            for (int j = i; j < i + itemsOnPage; j++) {
-                T item = items.get(j);
+            for (T item : page) {
                 itemDisplayer.accept(item);
                 itemMenuNames.add(itemMenuName.apply(item));
             }
@@ -430,7 +451,7 @@ public class Utils {
             ArrayList<String> options = new ArrayList<>();
             options.add("Go back");
             options.add(actionName);
-            if (i + itemsOnPage < items.size()) {
+            if (items.hasNext()) {
                 options.add("See more");
             }
 
@@ -446,15 +467,15 @@ public class Utils {
                         int index = prettyMenu("Select", itemMenuNames);
                         if (index == 0) break;
 
-                        int itemIndex = i + index - 1;
-                        T item = items.get(itemIndex);
+                        int itemIndex = index - 1;
+                        T item = page.get(itemIndex);
 
                         boolean continueMenu = action.apply(item);
 
                         if (!continueMenu) {
                             break outerLoop;
                         } else if (itemUpdater != null) {
-                            items.set(itemIndex, itemUpdater.apply(item));
+                            page.set(itemIndex, itemUpdater.apply(item));
                         }
                     }
                     case 2 -> {
@@ -478,10 +499,11 @@ public class Utils {
     }
 
     /**
-     * Closes the scanner, releasing system resources.
+     * Closes the scanner and the database, persisting their pending changes and releasing system resources.
      */
     public static void quit() {
         scanner.close();
+        UniShop.getInstance().close();
     }
 
     /**
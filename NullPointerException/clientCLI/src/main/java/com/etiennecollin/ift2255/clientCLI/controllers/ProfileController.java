@@ -13,9 +13,12 @@ import com.etiennecollin.ift2255.clientCLI.models.data.*;
 import com.etiennecollin.ift2255.clientCLI.views.*;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * The ProfileController class is responsible for managing user profiles, interactions, and social activities.
@@ -94,6 +97,17 @@ public class ProfileController {
         return profileModel.getBuyer(buyerId);
     }
 
+    /**
+     * Retrieves a batch of buyers by their UUIDs.
+     *
+     * @param buyerIds The UUIDs of the buyers.
+     *
+     * @return The buyers found, by UUID.
+     */
+    public Map<UUID, Buyer> getBuyers(Collection<UUID> buyerIds) {
+        return profileModel.getBuyers(buyerIds);
+    }
+
     /**
      * Retrieves a list of notifications for the currently authenticated user.
      *
@@ -103,6 +117,18 @@ public class ProfileController {
         return profileModel.getNotifications(Session.getInstance().getUserId());
     }
 
+    /**
+     * Streams the notifications of the currently authenticated user, from the oldest to the newest, reading the first
+     * page alone. The notifications of unknown creation time come last.
+     *
+     * @param pageSize The maximum number of notifications read before the first is shown.
+     *
+     * @return A stream of the notifications of the currently authenticated user.
+     */
+    public Stream<Notification> streamNotifications(int pageSize) {
+        return profileModel.streamNotifications(Session.getInstance().getUserId(), pageSize);
+    }
+
     /**
      * Removes a notification with the specified identifier.
      *
@@ -381,6 +407,39 @@ public class ProfileController {
         return socialModel.getReviewsByAuthor(authorId);
     }
 
+    /**
+     * Counts the reviews written by a specific author.
+     *
+     * @param authorId The UUID of the author.
+     *
+     * @return The number of reviews written by the author.
+     */
+    public long countReviewsByAuthor(UUID authorId) {
+        return socialModel.countReviewsByAuthor(authorId);
+    }
+
+    /**
+     * Counts the likes for reviews by a specific buyer.
+     *
+     * @param buyerId The UUID of the buyer.
+     *
+     * @return The number of reviews liked by the buyer.
+     */
+    public long countReviewLikesByBuyer(UUID buyerId) {
+        return socialModel.countLikes(null, buyerId, LikeType.Review);
+    }
+
+    /**
+     * Counts the likes for products by a specific buyer.
+     *
+     * @param buyerId The UUID of the buyer.
+     *
+     * @return The number of products liked by the buyer.
+     */
+    public long countProductLikesByBuyer(UUID buyerId) {
+        return socialModel.countLikes(null, buyerId, LikeType.Product);
+    }
+
     /**
      * Logs out the current user, clearing the view history and displaying the main menu.
      */
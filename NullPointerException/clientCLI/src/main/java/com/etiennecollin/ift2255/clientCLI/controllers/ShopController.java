@@ -22,6 +22,7 @@ import java.time.YearMonth;
 import java.util.HashSet;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Controller class responsible for handling operations related to the online shop.
@@ -101,6 +102,24 @@ public class ShopController {
         return shopModel.getProducts(category, subCategory, minRating, minLikes, onPromo, sellerId);
     }
 
+    /**
+     * Streams the products based on category, subcategory, and seller ID, sorted by title, reading the first page
+     * alone.
+     *
+     * @param category    The main category of the products.
+     * @param subCategory The subcategory of the products.
+     * @param minRating   The minimum average rating of the products.
+     * @param minLikes    The minimum number of likes on the products.
+     * @param onPromo     Whether the product is having a promotion or not.
+     * @param sellerId    The UUID of the seller.
+     * @param pageSize    The maximum number of products read before the first is shown.
+     *
+     * @return A stream of products based on the specified criteria.
+     */
+    public Stream<Product> streamProducts(ProductCategory category, Enum<?> subCategory, int minRating, int minLikes, boolean onPromo, UUID sellerId, int pageSize) {
+        return shopModel.streamProducts(category, subCategory, minRating, minLikes, onPromo, sellerId, pageSize);
+    }
+
     /**
      * Searches for products based on title or description containing the specified search string.
      *
@@ -123,6 +142,17 @@ public class ShopController {
         return shopModel.searchProducts((product) -> product.getSellerId().equals(sellerId));
     }
 
+    /**
+     * Counts the products offered by a specific seller.
+     *
+     * @param sellerId The UUID of the seller.
+     *
+     * @return The number of products offered by the seller.
+     */
+    public long countProductsBySeller(UUID sellerId) {
+        return shopModel.countProductsBySeller(sellerId);
+    }
+
     /**
      * Retrieves the list of sellers associated with products in the given category.
      *
@@ -491,6 +521,17 @@ public class ShopController {
         return shopModel.getOrders(Session.getInstance().getUserId(), null);
     }
 
+    /**
+     * Streams the orders placed by the buyer, from the oldest to the newest, reading the first page alone.
+     *
+     * @param pageSize The maximum number of orders read before the first is shown.
+     *
+     * @return A stream of orders placed by the buyer.
+     */
+    public Stream<Order> streamBuyerOrders(int pageSize) {
+        return shopModel.streamOrders(Query.<Order>where(DataMap.ORDERS, Query.equal("buyerId", Session.getInstance().getUserId())).orderBy("orderDate", true), pageSize);
+    }
+
     /**
      * Retrieves a list of orders associated with a specific seller.
      *
@@ -502,6 +543,17 @@ public class ShopController {
         return shopModel.getOrders(null, sellerId);
     }
 
+    /**
+     * Counts the orders sold by a specific seller.
+     *
+     * @param sellerId The UUID of the seller.
+     *
+     * @return The number of orders sold by the seller.
+     */
+    public long countSellerOrders(UUID sellerId) {
+        return shopModel.countOrdersBySeller(sellerId);
+    }
+
     /**
      * Retrieves the order associated with the order ID.
      *
@@ -556,7 +608,7 @@ public class ShopController {
      */
     public List<Order> getPendingSellerOrders() {
         UUID sellerId = Session.getInstance().getUserId();
-        return shopModel.getOrders((order) -> order.getSellerId().equals(sellerId) && order.getState() == OrderState.InProduction);
+        return shopModel.getOrders(Query.where(DataMap.ORDERS, Query.equal("sellerId", sellerId), Query.equal("state", OrderState.InProduction)));
     }
 
     /**
@@ -111,7 +111,7 @@ public class TicketController {
      * @return A {@link Ticket} object representing the ticket associated with the specified order.
      */
     public Ticket getTicketForOrder(UUID orderId) {
-        List<Ticket> matches = ticketModel.getTickets(t -> t.getOrderId().equals(orderId));
+        List<Ticket> matches = ticketModel.getTickets(Query.where(DataMap.TICKETS, Query.equal("orderId", orderId)));
         if (matches.isEmpty()) {
             return null;
         } else {
@@ -153,9 +153,9 @@ public class TicketController {
         UUID userId = Session.getInstance().getUserId();
 
         if (Session.getInstance().getUserType() == UserType.Buyer) {
-            return ticketModel.getTickets((ticket) -> ticket.getBuyerId().equals(userId));
+            return ticketModel.getTickets(Query.where(DataMap.TICKETS, Query.equal("buyerId", userId)));
         } else {
-            return ticketModel.getTickets((ticket) -> ticket.getSellerId().equals(userId));
+            return ticketModel.getTickets(Query.where(DataMap.TICKETS, Query.equal("sellerId", userId)));
         }
     }
 
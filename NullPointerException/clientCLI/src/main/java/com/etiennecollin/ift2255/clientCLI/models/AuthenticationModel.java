@@ -119,7 +119,7 @@ public class AuthenticationModel {
      * @return {@code true} if the username is available, {@code false} otherwise.
      */
     public boolean isBuyerNameAvailable(String username) {
-        return db.<Buyer>get(DataMap.BUYERS, (buyer) -> buyer.getUsername().equalsIgnoreCase(username)).size() == 0;
+        return !db.<Buyer>exists(DataMap.BUYERS, (buyer) -> buyer.getUsername().equalsIgnoreCase(username));
     }
 
     /**
@@ -130,7 +130,7 @@ public class AuthenticationModel {
      * @return {@code true} if the name is available, {@code false} otherwise.
      */
     public boolean isSellerNameAvailable(String name) {
-        return db.<Seller>get(DataMap.SELLERS, (seller) -> seller.getName().equalsIgnoreCase(name)).size() == 0;
+        return !db.<Seller>exists(DataMap.SELLERS, (seller) -> seller.getName().equalsIgnoreCase(name));
     }
 
     /**
@@ -7,9 +7,12 @@ package com.etiennecollin.ift2255.clientCLI.models;
 import com.etiennecollin.ift2255.clientCLI.OperationResult;
 import com.etiennecollin.ift2255.clientCLI.models.data.*;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * The {@code ProfileModel} class provides functionality related to user profiles.
@@ -38,7 +41,20 @@ public class ProfileModel {
      * @return A list of notifications associated with the specified user.
      */
     public List<Notification> getNotifications(UUID userId) {
-        return db.get(DataMap.NOTIFICATIONS, (n) -> n.getUserId().equals(userId));
+        return db.getOwned(DataMap.NOTIFICATIONS, userId, KeyPredicate.of((n) -> n.getUserId().equals(userId)));
+    }
+
+    /**
+     * Streams the notifications associated with the specified user, from the oldest to the newest, reading the first
+     * page alone. The notifications of unknown creation time, saved before it was recorded, come last.
+     *
+     * @param userId   The unique identifier of the user for whom notifications are retrieved.
+     * @param pageSize The maximum number of notifications read before the first is shown.
+     *
+     * @return A stream of the notifications associated with the specified user.
+     */
+    public Stream<Notification> streamNotifications(UUID userId, int pageSize) {
+        return db.stream(Query.<Notification>where(DataMap.NOTIFICATIONS, Query.equal("userId", userId)).orderBy("creationTime", true, 0L), pageSize);
     }
 
     /**
@@ -47,7 +63,7 @@ public class ProfileModel {
      * @param notificationId The unique identifier of the notification to be removed.
      */
     public void removeNotification(UUID notificationId) {
-        db.remove(DataMap.NOTIFICATIONS, (n) -> n.getId().equals(notificationId));
+        db.remove(DataMap.NOTIFICATIONS, notificationId);
     }
 
     /**
@@ -79,6 +95,17 @@ public class ProfileModel {
         return db.get(DataMap.BUYERS, userId);
     }
 
+    /**
+     * Retrieves a batch of buyers based on their unique identifiers.
+     *
+     * @param userIds The unique identifiers of the buyers.
+     *
+     * @return The buyers found, by unique identifier.
+     */
+    public Map<UUID, Buyer> getBuyers(Collection<UUID> userIds) {
+        return db.getAll(DataMap.BUYERS, userIds);
+    }
+
     /**
      * Retrieves the buyer profile associated with the specified username.
      *
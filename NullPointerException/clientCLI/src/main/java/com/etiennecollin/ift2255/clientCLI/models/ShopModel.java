@@ -13,6 +13,7 @@ import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.*;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import static com.etiennecollin.ift2255.clientCLI.Utils.formatMoney;
 
@@ -110,7 +111,53 @@ public class ShopModel {
      * @return A list of products that match the specified criteria.
      */
     public List<Product> getProducts(ProductCategory category, Enum<?> subCategory, int minRating, int minLikes, boolean onPromo, UUID sellerId) {
-        return db.get(DataMap.PRODUCTS, (product) -> (category == null || product.getCategory() == category) && (subCategory == null || product.getSubCategory() == subCategory) && product.getRating() >= minRating && product.getLikes() >= minLikes && (!onPromo || product.getPromoDiscount() != 0 || product.getPromoFidelityPoints() != 0) && (sellerId == null || product.getSellerId().equals(sellerId)));
+        return db.get(productsQuery(category, subCategory, minRating, minLikes, onPromo, sellerId));
+    }
+
+    /**
+     * Streams the products matching specified criteria, sorted by title, reading the first page alone.
+     *
+     * @param category    The product category (can be {@code null}).
+     * @param subCategory The product sub-category (can be {@code null}).
+     * @param minRating   The minimum average rating of the products.
+     * @param minLikes    The minimum number of likes on the products.
+     * @param onPromo     Whether the product is having a promotion or not.
+     * @param sellerId    The unique identifier of the seller (can be {@code null}).
+     * @param pageSize    The maximum number of products read before the first is shown.
+     *
+     * @return A stream of the products that match the specified criteria.
+     */
+    public Stream<Product> streamProducts(ProductCategory category, Enum<?> subCategory, int minRating, int minLikes, boolean onPromo, UUID sellerId, int pageSize) {
+        return db.stream(productsQuery(category, subCategory, minRating, minLikes, onPromo, sellerId).orderBy("title", true), pageSize);
+    }
+
+    /**
+     * Builds the query on the products matching specified criteria.
+     *
+     * @param category    The product category (can be {@code null}).
+     * @param subCategory The product sub-category (can be {@code null}).
+     * @param minRating   The minimum average rating of the products.
+     * @param minLikes    The minimum number of likes on the products.
+     * @param onPromo     Whether the product is having a promotion or not.
+     * @param sellerId    The unique identifier of the seller (can be {@code null}).
+     *
+     * @return The query on the products.
+     */
+    private Query<Product> productsQuery(ProductCategory category, Enum<?> subCategory, int minRating, int minLikes, boolean onPromo, UUID sellerId) {
+        ArrayList<Query.Condition> conditions = new ArrayList<>(List.of(Query.atLeast("rating", minRating), Query.atLeast("likes", minLikes)));
+        if (category != null) {
+            conditions.add(Query.equal("category", category));
+        }
+        if (subCategory != null) {
+            conditions.add(Query.equal("subCategory", subCategory));
+        }
+        if (onPromo) {
+            conditions.add(Query.or(Query.not(Query.equal("promoDiscount", 0)), Query.not(Query.equal("promoFidelityPoints", 0))));
+        }
+        if (sellerId != null) {
+            conditions.add(Query.equal("sellerId", sellerId));
+        }
+        return Query.where(DataMap.PRODUCTS, conditions.toArray(new Query.Condition[0]));
     }
 
     /**
@@ -124,6 +171,17 @@ public class ShopModel {
         return db.get(DataMap.PRODUCTS, predicate);
     }
 
+    /**
+     * Counts the products offered by a specific seller.
+     *
+     * @param sellerId The unique identifier of the seller.
+     *
+     * @return The number of products offered by the seller.
+     */
+    public long countProductsBySeller(UUID sellerId) {
+        return db.count(Query.where(DataMap.PRODUCTS, Query.equal("sellerId", sellerId)));
+    }
+
     /**
      * Creates a new book or manual product and adds it to the database.
      *
@@ -290,17 +348,17 @@ public class ShopModel {
         HashSet<Like> sendTo = new HashSet<>();
 
         // Send to buyers who follow the seller
-        List<Like> sellerFollowers = db.get(DataMap.LIKES, (Like like) -> like.getLikedEntityId().equals(seller.getId()));
+        List<Like> sellerFollowers = db.getOwned(DataMap.LIKES, seller.getId(), KeyPredicate.of((Like like) -> like.getLikedEntityId().equals(seller.getId())));
         sendTo.addAll(sellerFollowers);
 
         // Send to buyers who follow the product
-        List<Like> productFollowers = db.get(DataMap.LIKES, (Like like) -> like.getLikedEntityId().equals(product.getId()));
+        List<Like> productFollowers = db.getOwned(DataMap.LIKES, product.getId(), KeyPredicate.of((Like like) -> like.getLikedEntityId().equals(product.getId())));
         sendTo.addAll(productFollowers);
 
         // Send to buyers who follow a buyer who follows the product
         productFollowers.forEach((like) -> {
             UUID userId = like.getUserId();
-            List<Like> followersOfFollowers = db.get(DataMap.LIKES, (Like like2) -> like2.getLikedEntityId().equals(userId));
+            List<Like> followersOfFollowers = db.getOwned(DataMap.LIKES, userId, KeyPredicate.of((Like like2) -> like2.getLikedEntityId().equals(userId)));
             sendTo.addAll(followersOfFollowers);
         });
 
@@ -335,7 +393,7 @@ public class ShopModel {
 
         boolean result;
 
-        List<CartProduct> existingEntries = cartDb.get(DataMap.CARTS, (cartProd) -> cartProd.getBuyerId().equals(buyerId) && cartProd.getProductId().equals(productId));
+        List<CartProduct> existingEntries = cartDb.getOwned(DataMap.CARTS, buyerId, KeyPredicate.of((cartProd) -> cartProd.getBuyerId().equals(buyerId) && cartProd.getProductId().equals(productId)));
         if (!existingEntries.isEmpty()) {
             CartProduct existingEntry = existingEntries.get(0);
             int newQuantity = existingEntry.getQuantity() + quantity;
@@ -545,8 +603,9 @@ public class ShopModel {
      * @return A list of tuples containing cart product details and associated product information.
      */
     public List<Tuple<CartProduct, Product>> getCart(UUID buyerId) {
-        List<CartProduct> cartProductList = db.get(DataMap.CARTS, (cartProduct -> cartProduct.getBuyerId().equals(buyerId)));
-        return cartProductList.stream().map((cartProd) -> new Tuple<CartProduct, Product>(cartProd, db.get(DataMap.PRODUCTS, cartProd.getProductId()))).toList();
+        List<CartProduct> cartProductList = db.getOwned(DataMap.CARTS, buyerId, KeyPredicate.of((cartProduct) -> cartProduct.getBuyerId().equals(buyerId)));
+        Map<UUID, Product> products = db.getAll(DataMap.PRODUCTS, cartProductList.stream().map(CartProduct::getProductId).toList());
+        return cartProductList.stream().map((cartProd) -> new Tuple<CartProduct, Product>(cartProd, products.get(cartProd.getProductId()))).toList();
     }
 
     /**
@@ -557,7 +616,7 @@ public class ShopModel {
      * @return An {@code OperationResult} indicating the success or failure of the operation.
      */
     public OperationResult emptyCart(UUID buyerId) {
-        boolean result = db.<CartProduct>remove(DataMap.CARTS, (cartProduct) -> cartProduct.getBuyerId().equals(buyerId));
+        boolean result = db.<CartProduct>remove(DataMap.CARTS, KeyPredicate.of((cartProduct) -> cartProduct.getBuyerId().equals(buyerId)));
         if (result) {
             return new OperationResult(true, "Cart emptied.");
         } else {
@@ -585,7 +644,7 @@ public class ShopModel {
      * @return A list of orders that match the specified criteria.
      */
     public List<Order> getOrders(UUID buyerId, UUID sellerId) {
-        return db.get(DataMap.ORDERS, (order) -> {
+        KeyPredicate<Order> predicate = KeyPredicate.of((order) -> {
             if (order.getBuyerId().equals(buyerId) && sellerId == null) {
                 return true;
             } else if (order.getSellerId().equals(sellerId) && buyerId == null) {
@@ -594,6 +653,7 @@ public class ShopModel {
                 return order.getBuyerId().equals(buyerId) && order.getSellerId().equals(sellerId);
             }
         });
+        return buyerId != null ? db.getOwned(DataMap.ORDERS, buyerId, predicate) : db.getByIndex(SecondaryIndex.ORDER_SELLER, sellerId, predicate);
     }
 
     /**
@@ -607,6 +667,40 @@ public class ShopModel {
         return db.get(DataMap.ORDERS, predicate);
     }
 
+    /**
+     * Retrieves orders based on a query.
+     *
+     * @param query The query on the orders.
+     *
+     * @return A list of orders that match the specified query.
+     */
+    public List<Order> getOrders(Query<Order> query) {
+        return db.get(query);
+    }
+
+    /**
+     * Streams the orders matching a query, reading the first page alone.
+     *
+     * @param query    The query on the orders.
+     * @param pageSize The maximum number of orders read before the first is shown.
+     *
+     * @return A stream of the orders that match the specified query.
+     */
+    public Stream<Order> streamOrders(Query<Order> query, int pageSize) {
+        return db.stream(query, pageSize);
+    }
+
+    /**
+     * Counts the orders sold by a specific seller.
+     *
+     * @param sellerId The unique identifier of the seller.
+     *
+     * @return The number of orders sold by the seller.
+     */
+    public long countOrdersBySeller(UUID sellerId) {
+        return db.count(Query.where(DataMap.ORDERS, Query.equal("sellerId", sellerId)));
+    }
+
     /**
      * Updates the shipment information for a specific order, marking it as in transit.
      *
@@ -654,7 +748,7 @@ public class ShopModel {
         }
 
         if (order.getState() == OrderState.InTransit) {
-            List<Ticket> ticketIfReplacement = db.<Ticket>get(DataMap.TICKETS, t -> orderId.equals(t.getReplacementOrderId()));
+            List<Ticket> ticketIfReplacement = db.<Ticket>get(DataMap.TICKETS, KeyPredicate.of(t -> orderId.equals(t.getReplacementOrderId())));
             if (!ticketIfReplacement.isEmpty()) {
                 db.<Ticket>update(DataMap.TICKETS, t -> t.setState(TicketState.Closed), ticketIfReplacement.get(0).getId());
             }
@@ -9,6 +9,7 @@ import com.etiennecollin.ift2255.clientCLI.models.data.*;
 import com.etiennecollin.ift2255.clientCLI.models.data.products.Product;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -69,7 +70,7 @@ public class SocialModel {
      * @return {@code true} if the user has liked the entity, {@code false} otherwise.
      */
     public boolean isLiked(UUID likedEntity, UUID likedByUser) {
-        return !db.<Like>get(DataMap.LIKES, (entry) -> entry.getLikedEntityId().equals(likedEntity) && entry.getUserId().equals(likedByUser)).isEmpty();
+        return db.exists(Query.where(DataMap.LIKES, Query.equal("likedEntityId", likedEntity), Query.equal("userId", likedByUser)));
     }
 
     /**
@@ -88,7 +89,7 @@ public class SocialModel {
                 return new OperationResult(false, "You cannot like your own review.");
             }
 
-            List<Like> likes = db.get(DataMap.LIKES, (like) -> like.getLikedEntityId().equals(reviewId));
+            List<Like> likes = db.getOwned(DataMap.LIKES, reviewId, KeyPredicate.of((like) -> like.getLikedEntityId().equals(reviewId)));
             Optional<Like> likedByUser = likes.stream().filter((like) -> like.getUserId().equals(userId)).findFirst();
 
             if (likedByUser.isEmpty()) {
@@ -124,7 +125,7 @@ public class SocialModel {
                 return new OperationResult(true, "Marked as inappropriate.");
             }
 
-            List<Like> likes = db.get(DataMap.LIKES, (like) -> like.getLikedEntityId().equals(reviewId));
+            List<Like> likes = db.getOwned(DataMap.LIKES, reviewId, KeyPredicate.of((like) -> like.getLikedEntityId().equals(reviewId)));
             db.<Review>update(DataMap.REVIEWS, r -> r.setIsReported(true), reviewId);
 
             if (likes.size() > 0) {
@@ -150,7 +151,7 @@ public class SocialModel {
         Buyer user = db.get(DataMap.BUYERS, userId);
 
         if (seller != null) {
-            List<Like> likes = db.get(DataMap.LIKES, (like) -> like.getLikedEntityId().equals(sellerId));
+            List<Like> likes = db.getOwned(DataMap.LIKES, sellerId, KeyPredicate.of((like) -> like.getLikedEntityId().equals(sellerId)));
             Optional<Like> likedByUser = likes.stream().filter((like) -> like.getUserId().equals(userId)).findFirst();
 
             if (likedByUser.isEmpty()) {
@@ -184,7 +185,7 @@ public class SocialModel {
         Buyer user = db.get(DataMap.BUYERS, userId);
 
         if (buyer != null) {
-            List<Like> likes = db.get(DataMap.LIKES, (like) -> like.getLikedEntityId().equals(buyerId));
+            List<Like> likes = db.getOwned(DataMap.LIKES, buyerId, KeyPredicate.of((like) -> like.getLikedEntityId().equals(buyerId)));
             Optional<Like> likedByUser = likes.stream().filter((like) -> like.getUserId().equals(userId)).findFirst();
 
             if (likedByUser.isEmpty()) {
@@ -217,7 +218,20 @@ public class SocialModel {
      * @return A list of likes that match the specified criteria.
      */
     public List<Like> getLikes(UUID likee, UUID liker, LikeType type) {
-        return db.get(DataMap.LIKES, (like) -> (likee == null || like.getLikedEntityId().equals(likee)) && (liker == null || like.getUserId().equals(liker)) && (type == null || like.getLikeType() == type));
+        return db.get(likesQuery(likee, liker, type));
+    }
+
+    /**
+     * Counts the likes matching specified criteria.
+     *
+     * @param likee The unique identifier of the entity being liked (can be {@code null}).
+     * @param liker The unique identifier of the user who liked the entity (can be {@code null}).
+     * @param type  The type of entity being liked (can be {@code null}).
+     *
+     * @return The number of likes that match the specified criteria.
+     */
+    public long countLikes(UUID likee, UUID liker, LikeType type) {
+        return db.count(likesQuery(likee, liker, type));
     }
 
     /**
@@ -228,7 +242,7 @@ public class SocialModel {
      * @return A list of reviews associated with the specified product.
      */
     public List<Review> getReviewsByProduct(UUID productId) {
-        return db.get(DataMap.REVIEWS, (review) -> review.getProductId().equals(productId));
+        return db.getByIndex(SecondaryIndex.REVIEW_PRODUCT, productId, KeyPredicate.of((Review review) -> review.getProductId().equals(productId)));
     }
 
     /**
@@ -239,7 +253,18 @@ public class SocialModel {
      * @return A list of reviews written by the specified author.
      */
     public List<Review> getReviewsByAuthor(UUID authorId) {
-        return db.get(DataMap.REVIEWS, (review) -> review.getAuthorId().equals(authorId));
+        return db.getByIndex(SecondaryIndex.REVIEW_AUTHOR, authorId, KeyPredicate.of((Review review) -> review.getAuthorId().equals(authorId)));
+    }
+
+    /**
+     * Counts the reviews written by a specific author.
+     *
+     * @param authorId The unique identifier of the review author.
+     *
+     * @return The number of reviews written by the specified author.
+     */
+    public long countReviewsByAuthor(UUID authorId) {
+        return db.count(Query.where(DataMap.REVIEWS, Query.equal("authorId", authorId)));
     }
 
     /**
@@ -289,7 +314,7 @@ public class SocialModel {
      * @return The review written by the specified author for the specified product, or {@code null} if not found.
      */
     public Review getReview(UUID productId, UUID authorId) {
-        List<Review> reviews = db.get(DataMap.REVIEWS, (r) -> r.getAuthorId().equals(authorId) && r.getProductId().equals(productId));
+        List<Review> reviews = db.getByIndex(SecondaryIndex.REVIEW_PRODUCT, productId, KeyPredicate.of((Review r) -> r.getAuthorId().equals(authorId) && r.getProductId().equals(productId)));
         if (reviews.size() == 0) {
             return null;
         } else {
@@ -303,9 +328,32 @@ public class SocialModel {
      * @param productId The unique identifier of the product.
      */
     private void updateProductRating(UUID productId) {
-        List<Review> reviews = db.get(DataMap.REVIEWS, (review) -> review.getProductId().equals(productId));
+        List<Review> reviews = db.getByIndex(SecondaryIndex.REVIEW_PRODUCT, productId, KeyPredicate.of((Review review) -> review.getProductId().equals(productId)));
         int totalRating = reviews.stream().map(Review::getRating).reduce(0, Integer::sum);
         int ratingAverage = totalRating / reviews.size();
         db.<Product>update(DataMap.PRODUCTS, prod -> prod.setRating(ratingAverage), productId);
     }
+
+    /**
+     * Builds the query on the likes matching specified criteria.
+     *
+     * @param likee The unique identifier of the entity being liked (can be {@code null}).
+     * @param liker The unique identifier of the user who liked the entity (can be {@code null}).
+     * @param type  The type of entity being liked (can be {@code null}).
+     *
+     * @return The query on the likes.
+     */
+    private Query<Like> likesQuery(UUID likee, UUID liker, LikeType type) {
+        ArrayList<Query.Condition> conditions = new ArrayList<>();
+        if (likee != null) {
+            conditions.add(Query.equal("likedEntityId", likee));
+        }
+        if (liker != null) {
+            conditions.add(Query.equal("userId", liker));
+        }
+        if (type != null) {
+            conditions.add(Query.equal("likeType", type));
+        }
+        return Query.where(DataMap.LIKES, conditions.toArray(new Query.Condition[0]));
+    }
 }
@@ -12,6 +12,7 @@ import com.etiennecollin.ift2255.clientCLI.models.data.products.Product;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.function.Predicate;
 
@@ -59,6 +60,19 @@ public class TicketingModel {
         return db.get(DataMap.TICKETS, predicate);
     }
 
+    /**
+     * Retrieves the tickets matching a query, which are looked up through the secondary index of the tickets on the
+     * field the query requires, such as the buyer or the seller.
+     *
+     * @param query The query on the tickets.
+     *
+     * @return A list of tickets that match the specified query.
+     */
+    public List<Ticket> getTickets(Query<Ticket> query) {
+        updateTickets();
+        return db.get(query);
+    }
+
     /**
      * Updates the state of tickets based on specific criteria, such as canceling tickets that are overdue for return shipments.
      * This method is responsible for maintaining the consistency of ticket states in the system.
@@ -78,7 +92,7 @@ public class TicketingModel {
      * @return An {@code OperationResult} indicating the success or failure of the operation.
      */
     public OperationResult createManualTicket(UUID orderId, ArrayList<Tuple<Product, Integer>> products, String description, TicketCause cause) {
-        if (db.<Ticket>get(DataMap.TICKETS, (ticket) -> ticket.getOrderId().equals(orderId)).size() != 0) {
+        if (db.exists(Query.where(DataMap.TICKETS, Query.equal("orderId", orderId)))) {
             return new OperationResult(false, "A ticket has already been created for this order.");
         }
 
@@ -115,7 +129,7 @@ public class TicketingModel {
      * @return An {@code OperationResult} indicating the success or failure of the operation.
      */
     public OperationResult createAutoTicket(UUID orderId, ArrayList<Tuple<Product, Integer>> products, TicketCause cause, UUID replacementOrderId) {
-        if (db.<Ticket>get(DataMap.TICKETS, (ticket) -> ticket.getOrderId().equals(orderId)).size() != 0) {
+        if (db.exists(Query.where(DataMap.TICKETS, Query.equal("orderId", orderId)))) {
             return new OperationResult(false, "A ticket has already been created for this order.");
         }
 
@@ -173,8 +187,9 @@ public class TicketingModel {
             ArrayList<Tuple<Product, Integer>> productTupleList = new ArrayList<>();
             int totalReplacementCost = 0;
             int totalFidelityPointsEarned = 0;
+            Map<UUID, Product> products = db.getAll(DataMap.PRODUCTS, cartProductList.stream().map(CartProduct::getProductId).toList());
             for (CartProduct cartProduct : cartProductList) {
-                Product prod = db.get(DataMap.PRODUCTS, cartProduct.getProductId());
+                Product prod = products.get(cartProduct.getProductId());
                 productTupleList.add(new Tuple<>(prod, cartProduct.getQuantity()));
 
                 int price = prod.getTotalPrice() * cartProduct.getQuantity();
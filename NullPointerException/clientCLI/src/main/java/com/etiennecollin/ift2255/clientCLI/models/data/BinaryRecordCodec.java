@@ -0,0 +1,571 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import com.etiennecollin.ift2255.clientCLI.Tuple;
+import com.etiennecollin.ift2255.clientCLI.models.data.products.*;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Implementation of the RecordCodec interface using a compact binary format with an explicit layout per class.
+ * <p>
+ * The layout of a class is the list of its instance fields, from its topmost superclass down to the class itself and
+ * sorted by name within each class. Values are written without any descriptor:
+ * <ul>
+ *     <li>{@code UUID} as two longs,</li>
+ *     <li>{@code LocalDate} as its epoch day and {@code YearMonth} as its number of months since year 0,</li>
+ *     <li>enums as their ordinal,</li>
+ *     <li>strings as their length followed by their UTF-8 bytes.</li>
+ * </ul>
+ * Ints, dates, ordinals and lengths are written as variable-length integers, so that small values such as quantities
+ * or ratings take a single byte. Null dates, ordinals and strings are written as 0 and the other values are shifted by
+ * one.
+ * <p>
+ * Values whose declared type does not determine their class, such as the products of an {@link Order}, are preceded
+ * by the tag of their class in {@link #TYPES}.
+ * <p>
+ * Objects are decoded by reading the values of their fields, then building an instance through the reader of their
+ * class in {@link #READERS}, which passes the values to a decode constructor or to the public constructor setting
+ * every field. No field is written reflectively and no value, such as an identifier, is generated for the instance.
+ */
+public class BinaryRecordCodec implements RecordCodec {
+    /**
+     * The classes that can be written with a tag, in tag order.
+     * Classes must only be appended to this list so that the tags of existing records stay valid.
+     */
+    static final List<Class<?>> TYPES = List.of(Buyer.class, Seller.class, CartProduct.class, Order.class, Review.class, Like.class, Notification.class, Ticket.class, BookOrManual.class, IT.class, LearningResource.class, OfficeEquipment.class, StationeryArticle.class, PaymentMethod.class, Shipment.class, Tuple.class, ArrayList.class, Integer.class, String.class, UUID.class, LocalDate.class, YearMonth.class, BookOrManualGenre.class, ITCategory.class, LearningResourceType.class, OfficeEquipmentCategory.class, StationeryArticleCategory.class, ProductCategory.class, LikeType.class, OrderState.class, TicketCause.class, TicketState.class);
+    /**
+     * The reader building an instance of each class of {@link #TYPES} which is decoded field by field, from the decoded
+     * values of its fields.
+     */
+    private static final Map<Class<?>, Function<DecodedFields, Object>> READERS = Map.ofEntries(
+            Map.entry(Buyer.class, Buyer::new),
+            Map.entry(Seller.class, Seller::new),
+            Map.entry(CartProduct.class, CartProduct::new),
+            Map.entry(Order.class, Order::new),
+            Map.entry(Review.class, Review::new),
+            Map.entry(Like.class, Like::new),
+            Map.entry(Notification.class, Notification::new),
+            Map.entry(Ticket.class, Ticket::new),
+            Map.entry(BookOrManual.class, BookOrManual::new),
+            Map.entry(IT.class, IT::new),
+            Map.entry(LearningResource.class, LearningResource::new),
+            Map.entry(OfficeEquipment.class, OfficeEquipment::new),
+            Map.entry(StationeryArticle.class, StationeryArticle::new),
+            Map.entry(PaymentMethod.class, (fields) -> new PaymentMethod(fields.getInt("moneyUsed"), fields.getInt("fidelityPointsUsed"), fields.getInt("returnMoneyUsed"))),
+            Map.entry(Shipment.class, Shipment::new),
+            Map.entry(Tuple.class, (fields) -> new Tuple<>(fields.get("first"), fields.get("second")))
+    );
+    /**
+     * The tag written in place of a null value of undetermined class.
+     */
+    private static final int NULL_TAG = 0;
+    /**
+     * The value written in place of a null date, ordinal or string.
+     */
+    private static final int NULL_VALUE = 0;
+    /**
+     * The tag of each class of {@link #TYPES}.
+     */
+    private final Map<Class<?>, Integer> tags = new HashMap<>();
+    /**
+     * The layout of each class written so far.
+     */
+    private final Map<Class<?>, Layout> layouts = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a BinaryRecordCodec.
+     */
+    public BinaryRecordCodec() {
+        for (int i = 0; i < TYPES.size(); i++) {
+            tags.put(TYPES.get(i), i + 1);
+        }
+    }
+
+    /**
+     * Builds the layout of a class.
+     *
+     * @param type The class.
+     *
+     * @return The layout of the class.
+     */
+    private static Layout layoutOf(Class<?> type) {
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+            hierarchy.add(0, c);
+        }
+
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c : hierarchy) {
+            Arrays.stream(c.getDeclaredFields()).filter((field) -> (field.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT)) == 0).sorted(Comparator.comparing(Field::getName)).forEach((field) -> {
+                field.setAccessible(true);
+                fields.add(field);
+            });
+        }
+        return new Layout(type, READERS.get(type), fields.toArray(new Field[0]));
+    }
+
+    /**
+     * Writes an unsigned variable-length integer, 7 bits per byte with the high bit set on all bytes but the last.
+     *
+     * @param output The output to which the integer is written.
+     * @param value  The integer, interpreted as unsigned.
+     *
+     * @throws IOException If the integer could not be written.
+     */
+    static void writeVarInt(DataOutput output, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    /**
+     * Reads an unsigned variable-length integer written by {@link #writeVarInt(DataOutput, int)}.
+     *
+     * @param input The input from which the integer is read.
+     *
+     * @return The integer.
+     *
+     * @throws IOException If the integer could not be read.
+     */
+    static int readVarInt(DataInput input) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            int b = input.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    /**
+     * Maps a signed integer to an unsigned one so that integers close to zero have a short variable-length encoding.
+     *
+     * @param value The signed integer.
+     *
+     * @return The unsigned integer.
+     */
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    /**
+     * Reverts {@link #zigZag(int)}.
+     *
+     * @param value The unsigned integer.
+     *
+     * @return The signed integer.
+     */
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes an object to an output, preceded by the tag of its class.
+     *
+     * @param object The object to encode.
+     * @param output The output to which the object is written.
+     *
+     * @throws IOException If the class of the object or of one of its values is not supported.
+     */
+    @Override
+    public void encode(DatabaseObject object, DataOutput output) throws IOException {
+        writeTagged(output, object, Set.of());
+    }
+
+    /**
+     * Writes an object to an output without some of its fields, preceded by the tag of its class.
+     * Storage engines use it to store some fields of an object apart from the others.
+     *
+     * @param object        The object to encode.
+     * @param output        The output to which the object is written.
+     * @param skippedFields The names of the fields of the object which are not written.
+     *
+     * @throws IOException If the class of the object or of one of its values is not supported.
+     */
+    public void encode(DatabaseObject object, DataOutput output, Set<String> skippedFields) throws IOException {
+        writeTagged(output, object, skippedFields);
+    }
+
+    /**
+     * Reads an object written by {@link #encode(DatabaseObject, DataOutput)}.
+     *
+     * @param input The input from which the object is read.
+     *
+     * @return The decoded object.
+     *
+     * @throws IOException If the input does not contain a supported object.
+     */
+    @Override
+    public DatabaseObject decode(DataInput input) throws IOException {
+        return (DatabaseObject) readTagged(input, Set.of());
+    }
+
+    /**
+     * Reads an object written by {@link #encode(DatabaseObject, DataOutput, Set)}.
+     * The skipped fields are left to the default value of their type.
+     *
+     * @param input         The input from which the object is read.
+     * @param skippedFields The names of the fields of the object which were not written.
+     *
+     * @return The decoded object.
+     *
+     * @throws IOException If the input does not contain a supported object.
+     */
+    public DatabaseObject decode(DataInput input, Set<String> skippedFields) throws IOException {
+        return (DatabaseObject) readTagged(input, skippedFields);
+    }
+
+    /**
+     * Writes an object to an output, preceded by the tag of its class.
+     * Its key fields are written first, preceded by their length in bytes, so that they can be read without the
+     * others.
+     *
+     * @param object    The object to encode.
+     * @param output    The output to which the object is written.
+     * @param keyFields The names of the key fields of the object.
+     *
+     * @throws IOException If the class of the object or of one of its values is not supported.
+     */
+    @Override
+    public void encodeKeyed(DatabaseObject object, DataOutput output, Set<String> keyFields) throws IOException {
+        Integer tag = tags.get(object.getClass());
+        if (tag == null) {
+            throw new IOException("Unsupported type " + object.getClass().getName());
+        }
+        output.writeByte(tag);
+
+        Layout layout = layouts.computeIfAbsent(object.getClass(), BinaryRecordCodec::layoutOf);
+        ByteArrayOutputStream keys = new ByteArrayOutputStream();
+        try {
+            DataOutputStream keyOutput = new DataOutputStream(keys);
+            for (Field field : layout.fields()) {
+                if (keyFields.contains(field.getName())) {
+                    writeValue(keyOutput, field.getType(), field.get(object));
+                }
+            }
+            writeVarInt(output, keys.size());
+            output.write(keys.toByteArray());
+
+            for (Field field : layout.fields()) {
+                if (!keyFields.contains(field.getName())) {
+                    writeValue(output, field.getType(), field.get(object));
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Reads the key fields of an object written by {@link #encodeKeyed(DatabaseObject, DataOutput, Set)}, leaving
+     * its other fields to the default value of their type.
+     *
+     * @param input     The input from which the object is read.
+     * @param keyFields The names of the key fields of the object.
+     *
+     * @return The object with only its key fields decoded.
+     *
+     * @throws IOException If the input does not contain a supported object.
+     */
+    @Override
+    public DatabaseObject decodeKeys(DataInput input, Set<String> keyFields) throws IOException {
+        return readKeyed(input, keyFields, false);
+    }
+
+    /**
+     * Reads a whole object written by {@link #encodeKeyed(DatabaseObject, DataOutput, Set)}.
+     *
+     * @param input     The input from which the object is read.
+     * @param keyFields The names of the key fields of the object.
+     *
+     * @return The decoded object.
+     *
+     * @throws IOException If the input does not contain a supported object.
+     */
+    @Override
+    public DatabaseObject decodeKeyed(DataInput input, Set<String> keyFields) throws IOException {
+        return readKeyed(input, keyFields, true);
+    }
+
+    /**
+     * Gets the fields of a class in the order in which they are written.
+     *
+     * @param type The class.
+     *
+     * @return The fields of the class, made accessible.
+     */
+    Field[] getFields(Class<?> type) {
+        return layouts.computeIfAbsent(type, BinaryRecordCodec::layoutOf).fields().clone();
+    }
+
+    /**
+     * Instantiates a class through its reader from the decoded values of its fields.
+     *
+     * @param type   The class.
+     * @param values The decoded value of each field, by field name. The fields without a value keep the default value
+     *               of their type.
+     *
+     * @return The new instance.
+     *
+     * @throws IOException If the class has no reader.
+     */
+    Object newInstance(Class<?> type, Map<String, Object> values) throws IOException {
+        return layouts.computeIfAbsent(type, BinaryRecordCodec::layoutOf).newInstance(values);
+    }
+
+    /**
+     * Writes a value whose class is determined by its declared type.
+     *
+     * @param output   The output to which the value is written.
+     * @param declared The declared type of the value.
+     * @param value    The value.
+     *
+     * @throws IOException If the value could not be written.
+     */
+    private void writeValue(DataOutput output, Class<?> declared, Object value) throws IOException {
+        if (declared == int.class) {
+            writeVarInt(output, zigZag((int) value));
+        } else if (declared == long.class) {
+            output.writeLong((long) value);
+        } else if (declared == boolean.class) {
+            output.writeBoolean((boolean) value);
+        } else if (declared == double.class) {
+            output.writeDouble((double) value);
+        } else if (declared == String.class) {
+            if (value == null) {
+                writeVarInt(output, NULL_VALUE);
+            } else {
+                byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+                writeVarInt(output, bytes.length + 1);
+                output.write(bytes);
+            }
+        } else if (declared == UUID.class) {
+            output.writeBoolean(value != null);
+            if (value != null) {
+                output.writeLong(((UUID) value).getMostSignificantBits());
+                output.writeLong(((UUID) value).getLeastSignificantBits());
+            }
+        } else if (declared == LocalDate.class) {
+            writeVarInt(output, value == null ? NULL_VALUE : zigZag((int) ((LocalDate) value).toEpochDay()) + 1);
+        } else if (declared == YearMonth.class) {
+            writeVarInt(output, value == null ? NULL_VALUE : zigZag(((YearMonth) value).getYear() * 12 + ((YearMonth) value).getMonthValue() - 1) + 1);
+        } else if (declared.isEnum()) {
+            writeVarInt(output, value == null ? NULL_VALUE : ((Enum<?>) value).ordinal() + 1);
+        } else {
+            writeTagged(output, value, Set.of());
+        }
+    }
+
+    /**
+     * Reads a value whose class is determined by its declared type.
+     *
+     * @param input    The input from which the value is read.
+     * @param declared The declared type of the value.
+     *
+     * @return The value.
+     *
+     * @throws IOException If the value could not be read.
+     */
+    private Object readValue(DataInput input, Class<?> declared) throws IOException {
+        if (declared == int.class) {
+            return unZigZag(readVarInt(input));
+        } else if (declared == long.class) {
+            return input.readLong();
+        } else if (declared == boolean.class) {
+            return input.readBoolean();
+        } else if (declared == double.class) {
+            return input.readDouble();
+        } else if (declared == String.class) {
+            int length = readVarInt(input);
+            if (length == NULL_VALUE) {
+                return null;
+            }
+            byte[] bytes = new byte[length - 1];
+            input.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        } else if (declared == UUID.class) {
+            return input.readBoolean() ? new UUID(input.readLong(), input.readLong()) : null;
+        } else if (declared == LocalDate.class) {
+            int epochDay = readVarInt(input);
+            return epochDay == NULL_VALUE ? null : LocalDate.ofEpochDay(unZigZag(epochDay - 1));
+        } else if (declared == YearMonth.class) {
+            int months = readVarInt(input);
+            if (months == NULL_VALUE) {
+                return null;
+            }
+            months = unZigZag(months - 1);
+            return YearMonth.of(Math.floorDiv(months, 12), Math.floorMod(months, 12) + 1);
+        } else if (declared.isEnum()) {
+            int ordinal = readVarInt(input);
+            return ordinal == NULL_VALUE ? null : declared.getEnumConstants()[ordinal - 1];
+        } else {
+            return readTagged(input, Set.of());
+        }
+    }
+
+    /**
+     * Writes a value preceded by the tag of its class.
+     *
+     * @param output        The output to which the value is written.
+     * @param value         The value.
+     * @param skippedFields The names of the fields of the value which are not written.
+     *
+     * @throws IOException If the class of the value is not supported.
+     */
+    private void writeTagged(DataOutput output, Object value, Set<String> skippedFields) throws IOException {
+        if (value == null) {
+            output.writeByte(NULL_TAG);
+            return;
+        }
+
+        Class<?> type = value.getClass();
+        Integer tag = tags.get(type);
+        if (tag == null) {
+            throw new IOException("Unsupported type " + type.getName());
+        }
+        output.writeByte(tag);
+
+        if (type == Integer.class) {
+            writeValue(output, int.class, value);
+        } else if (type == ArrayList.class) {
+            List<?> list = (List<?>) value;
+            writeVarInt(output, list.size());
+            for (Object element : list) {
+                writeTagged(output, element, Set.of());
+            }
+        } else if (type == String.class || type == UUID.class || type == LocalDate.class || type == YearMonth.class || type.isEnum()) {
+            writeValue(output, type, value);
+        } else {
+            Layout layout = layouts.computeIfAbsent(type, BinaryRecordCodec::layoutOf);
+            try {
+                for (Field field : layout.fields()) {
+                    if (!skippedFields.contains(field.getName())) {
+                        writeValue(output, field.getType(), field.get(value));
+                    }
+                }
+            } catch (IllegalAccessException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    /**
+     * Reads a value preceded by the tag of its class.
+     *
+     * @param input         The input from which the value is read.
+     * @param skippedFields The names of the fields of the value which were not written.
+     *
+     * @return The value.
+     *
+     * @throws IOException If the tag is not a supported class.
+     */
+    private Object readTagged(DataInput input, Set<String> skippedFields) throws IOException {
+        int tag = input.readUnsignedByte();
+        if (tag == NULL_TAG) {
+            return null;
+        }
+        if (tag > TYPES.size()) {
+            throw new IOException("Unknown type tag " + tag);
+        }
+
+        Class<?> type = TYPES.get(tag - 1);
+        if (type == Integer.class) {
+            return readValue(input, int.class);
+        } else if (type == ArrayList.class) {
+            int size = readVarInt(input);
+            ArrayList<Object> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(readTagged(input, Set.of()));
+            }
+            return list;
+        } else if (type == String.class || type == UUID.class || type == LocalDate.class || type == YearMonth.class || type.isEnum()) {
+            return readValue(input, type);
+        } else {
+            Layout layout = layouts.computeIfAbsent(type, BinaryRecordCodec::layoutOf);
+            HashMap<String, Object> values = new HashMap<>();
+            for (Field field : layout.fields()) {
+                if (!skippedFields.contains(field.getName())) {
+                    values.put(field.getName(), readValue(input, field.getType()));
+                }
+            }
+            return layout.newInstance(values);
+        }
+    }
+
+    /**
+     * Reads an object written by {@link #encodeKeyed(DatabaseObject, DataOutput, Set)}.
+     *
+     * @param input     The input from which the object is read.
+     * @param keyFields The names of the key fields of the object.
+     * @param whole     Whether the fields written after the key fields are read.
+     *
+     * @return The object.
+     *
+     * @throws IOException If the input does not contain a supported object.
+     */
+    private DatabaseObject readKeyed(DataInput input, Set<String> keyFields, boolean whole) throws IOException {
+        int tag = input.readUnsignedByte();
+        if (tag == NULL_TAG || tag > TYPES.size()) {
+            throw new IOException("Unknown type tag " + tag);
+        }
+
+        Layout layout = layouts.computeIfAbsent(TYPES.get(tag - 1), BinaryRecordCodec::layoutOf);
+        readVarInt(input);
+        HashMap<String, Object> values = new HashMap<>();
+        for (Field field : layout.fields()) {
+            if (keyFields.contains(field.getName())) {
+                values.put(field.getName(), readValue(input, field.getType()));
+            }
+        }
+        if (whole) {
+            for (Field field : layout.fields()) {
+                if (!keyFields.contains(field.getName())) {
+                    values.put(field.getName(), readValue(input, field.getType()));
+                }
+            }
+        }
+        return (DatabaseObject) layout.newInstance(values);
+    }
+
+    /**
+     * The explicit layout of a class.
+     *
+     * @param type   The class.
+     * @param reader The reader building an instance of the class from the values of its fields, or null if it cannot be
+     *               decoded.
+     * @param fields The fields of the class in the order in which they are written.
+     */
+    private record Layout(Class<?> type, Function<DecodedFields, Object> reader, Field[] fields) {
+        /**
+         * Builds an instance of the class from the decoded values of its fields.
+         *
+         * @param values The decoded value of each field, by field name.
+         *
+         * @return The new instance.
+         *
+         * @throws IOException If the class has no reader.
+         */
+        Object newInstance(Map<String, Object> values) throws IOException {
+            if (reader == null) {
+                throw new IOException("No reader for type " + type.getName());
+            }
+            return reader.apply(new DecodedFields(values));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * A Bloom filter of identifiers, which tells with certainty that an identifier was never added to it.
+ * <p>
+ * Each identifier sets a few bits of a bit array, chosen by hashes derived from its two halves. An identifier of which
+ * one of the bits is unset was never added, while an identifier of which every bit is set was added or is a false
+ * positive. The size of the array and the number of hashes are chosen from the expected number of identifiers so that
+ * false positives happen at a given rate.
+ */
+public class BloomFilter {
+    /**
+     * The rate of false positives used when none is configured.
+     */
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+    /**
+     * The bits of the filter.
+     */
+    private final long[] bits;
+    /**
+     * The number of bits of the filter.
+     */
+    private final long bitCount;
+    /**
+     * The number of bits set by each identifier.
+     */
+    private final int hashCount;
+
+    /**
+     * Constructs an empty BloomFilter.
+     *
+     * @param bitCount  The number of bits of the filter, a positive multiple of 64.
+     * @param hashCount The number of bits set by each identifier.
+     */
+    private BloomFilter(long bitCount, int hashCount) {
+        this.bits = new long[(int) (bitCount / Long.SIZE)];
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Creates an empty filter sized for a number of identifiers.
+     *
+     * @param expectedCount     The number of identifiers expected to be added.
+     * @param falsePositiveRate The rate of false positives once the expected number of identifiers was added.
+     *
+     * @return The filter.
+     *
+     * @throws IllegalArgumentException If the rate of false positives is not strictly between 0 and 1.
+     */
+    public static BloomFilter create(int expectedCount, double falsePositiveRate) throws IllegalArgumentException {
+        checkFalsePositiveRate(falsePositiveRate);
+
+        int count = Math.max(expectedCount, 1);
+        long bitCount = (long) Math.ceil(-count * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        bitCount = Math.max(Long.SIZE, (bitCount + Long.SIZE - 1) / Long.SIZE * Long.SIZE);
+        int hashCount = Math.max(1, (int) Math.round((double) bitCount / count * Math.log(2)));
+        return new BloomFilter(bitCount, hashCount);
+    }
+
+    /**
+     * Checks that a rate of false positives can be used to size a filter.
+     *
+     * @param falsePositiveRate The rate of false positives.
+     *
+     * @throws IllegalArgumentException If the rate is not strictly between 0 and 1.
+     */
+    static void checkFalsePositiveRate(double falsePositiveRate) throws IllegalArgumentException {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("The rate of false positives must be between 0 and 1");
+        }
+    }
+
+    /**
+     * Reads a filter written by {@link #writeTo(DataOutput)}.
+     *
+     * @param input The stream.
+     *
+     * @return The filter.
+     *
+     * @throws IOException If the filter could not be read.
+     */
+    public static BloomFilter readFrom(DataInput input) throws IOException {
+        long bitCount = input.readLong();
+        int hashCount = input.readInt();
+        if (bitCount <= 0 || bitCount % Long.SIZE != 0 || hashCount <= 0) {
+            throw new IOException("Invalid Bloom filter");
+        }
+
+        BloomFilter filter = new BloomFilter(bitCount, hashCount);
+        for (int i = 0; i < filter.bits.length; i++) {
+            filter.bits[i] = input.readLong();
+        }
+        return filter;
+    }
+
+    /**
+     * Adds an identifier to the filter.
+     *
+     * @param id The identifier.
+     */
+    public void add(UUID id) {
+        long hash1 = mix(id.getMostSignificantBits());
+        long hash2 = mix(id.getLeastSignificantBits()) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Checks if an identifier may have been added to the filter.
+     *
+     * @param id The identifier.
+     *
+     * @return False if the identifier was never added, true if it was or if it is a false positive.
+     */
+    public boolean mightContain(UUID id) {
+        long hash1 = mix(id.getMostSignificantBits());
+        long hash2 = mix(id.getLeastSignificantBits()) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the filter to a stream.
+     *
+     * @param output The stream.
+     *
+     * @throws IOException If the filter could not be written.
+     */
+    public void writeTo(DataOutput output) throws IOException {
+        output.writeLong(bitCount);
+        output.writeInt(hashCount);
+        for (long word : bits) {
+            output.writeLong(word);
+        }
+    }
+
+    /**
+     * Gets the size of the filter once written.
+     *
+     * @return The size in bytes.
+     */
+    public long getSize() {
+        return Long.BYTES + Integer.BYTES + (long) bits.length * Long.BYTES;
+    }
+
+    /**
+     * Spreads the bits of a half of an identifier, since the random identifiers have fixed version and variant bits.
+     *
+     * @param value The half of the identifier.
+     *
+     * @return The hash of the half.
+     */
+    private static long mix(long value) {
+        // The finalizer of MurmurHash3
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
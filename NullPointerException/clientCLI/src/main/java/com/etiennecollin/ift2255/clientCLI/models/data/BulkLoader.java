@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Imports and exports the DataMaps of a database as JSON Lines, one object per line in the format of
+ * {@link JsonLinesCodec}.
+ * <p>
+ * The files are streamed, so only a batch of objects is held in memory at a time whatever their size. The imported
+ * objects are added to the database one batch at a time, letting the storage engine write a whole batch at once
+ * instead of one object per call.
+ */
+public class BulkLoader {
+    /**
+     * The number of objects added to the database at once when none is configured.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 10_000;
+    /**
+     * The extension of the files of the DataMaps.
+     */
+    static final String EXTENSION = ".jsonl";
+    /**
+     * The database to which the objects are imported or from which they are exported.
+     */
+    private final Database db;
+    /**
+     * The codec of the lines.
+     */
+    private final JsonLinesCodec codec = new JsonLinesCodec();
+    /**
+     * The number of objects added to the database at once.
+     */
+    private final int batchSize;
+
+    /**
+     * Constructs a BulkLoader adding {@value #DEFAULT_BATCH_SIZE} objects at once.
+     *
+     * @param db The database to which the objects are imported or from which they are exported.
+     */
+    public BulkLoader(Database db) {
+        this(db, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructs a BulkLoader.
+     *
+     * @param db        The database to which the objects are imported or from which they are exported.
+     * @param batchSize The number of objects added to the database at once.
+     *
+     * @throws IllegalArgumentException If the batch size is not positive.
+     */
+    public BulkLoader(Database db, int batchSize) throws IllegalArgumentException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size must be positive");
+        }
+        this.db = db;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Gets the name of the file of a DataMap in an import or export directory.
+     *
+     * @param dataMap The DataMap.
+     *
+     * @return The name of the file.
+     */
+    public static String getFilename(DataMap dataMap) {
+        return dataMap.getBaseName() + EXTENSION;
+    }
+
+    /**
+     * Imports the objects of every DataMap which has a file in a directory. The DataMaps without a file are skipped.
+     *
+     * @param directory The directory containing the files.
+     *
+     * @return The number of objects imported for each DataMap which had a file.
+     *
+     * @throws RuntimeException If a file could not be read or contains an invalid line, or if the objects could not
+     *                          be added.
+     */
+    public Map<DataMap, Long> importDirectory(Path directory) throws RuntimeException {
+        EnumMap<DataMap, Long> counts = new EnumMap<>(DataMap.class);
+        for (DataMap dataMap : DataMap.values()) {
+            Path file = directory.resolve(getFilename(dataMap));
+            if (!Files.exists(file)) {
+                continue;
+            }
+
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                counts.put(dataMap, importFrom(dataMap, reader));
+            } catch (IOException e) {
+                throw new RuntimeException("Could not load the data");
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Exports the objects of every DataMap to its file in a directory, replacing the existing files.
+     *
+     * @param directory The directory containing the files, which is created if needed.
+     *
+     * @return The number of objects exported for each DataMap.
+     *
+     * @throws RuntimeException If a file could not be written.
+     */
+    public Map<DataMap, Long> exportDirectory(Path directory) throws RuntimeException {
+        EnumMap<DataMap, Long> counts = new EnumMap<>(DataMap.class);
+        try {
+            Files.createDirectories(directory);
+            for (DataMap dataMap : DataMap.values()) {
+                try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve(getFilename(dataMap)), StandardCharsets.UTF_8)) {
+                    counts.put(dataMap, exportTo(dataMap, writer));
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not save the data");
+        }
+        return counts;
+    }
+
+    /**
+     * Imports the objects of a DataMap from lines of JSON, adding them one batch at a time. The blank lines are
+     * skipped. The batches added before an invalid line are kept.
+     *
+     * @param dataMap The DataMap.
+     * @param reader  The reader of the lines.
+     *
+     * @return The number of objects imported.
+     *
+     * @throws RuntimeException If the lines could not be read, if a line is invalid or if a batch could not be added.
+     */
+    public long importFrom(DataMap dataMap, BufferedReader reader) throws RuntimeException {
+        ArrayList<DatabaseObject> batch = new ArrayList<>(batchSize);
+        long count = 0;
+        long lineNumber = 0;
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                try {
+                    batch.add(codec.decode(line));
+                } catch (IOException e) {
+                    throw new RuntimeException("Invalid object on line " + lineNumber + " of " + getFilename(dataMap) + ": " + e.getMessage());
+                }
+                if (batch.size() == batchSize) {
+                    count += addBatch(dataMap, batch);
+                    // The list is not reused, as an engine may keep the list it was given
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not load the data");
+        }
+        return count + addBatch(dataMap, batch);
+    }
+
+    /**
+     * Exports the objects of a DataMap as lines of JSON.
+     *
+     * @param dataMap The DataMap.
+     * @param writer  The writer of the lines, which is flushed but not closed.
+     *
+     * @return The number of objects exported.
+     *
+     * @throws RuntimeException If the lines could not be written.
+     */
+    public long exportTo(DataMap dataMap, Writer writer) throws RuntimeException {
+        long[] count = {0};
+        try {
+            // The objects are written by the filter, which rejects them all, so the database never builds a list of
+            // the whole DataMap
+            db.get(dataMap, (DatabaseObject object) -> {
+                try {
+                    writer.write(codec.encode(object));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                count[0]++;
+                return false;
+            });
+            writer.flush();
+        } catch (IOException | UncheckedIOException e) {
+            throw new RuntimeException("Could not save the data");
+        }
+        return count[0];
+    }
+
+    /**
+     * Adds a batch of objects to the database.
+     *
+     * @param dataMap The DataMap of the objects.
+     * @param batch   The objects.
+     *
+     * @return The number of objects added.
+     *
+     * @throws RuntimeException If the objects could not be added.
+     */
+    private int addBatch(DataMap dataMap, ArrayList<DatabaseObject> batch) throws RuntimeException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        if (!db.add(dataMap, batch)) {
+            throw new RuntimeException("Could not save the data");
+        }
+        return batch.size();
+    }
+}
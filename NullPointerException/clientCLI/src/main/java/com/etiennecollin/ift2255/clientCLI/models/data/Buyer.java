@@ -9,6 +9,10 @@ package com.etiennecollin.ift2255.clientCLI.models.data;
  * Each instance of this class corresponds to a specific buyer with additional information.
  */
 public class Buyer extends User {
+    /**
+     * The version of the serialized form, pinned so that the buyers already saved can still be read.
+     */
+    private static final long serialVersionUID = 9203068078302152903L;
     /**
      * The last name of the buyer.
      */
@@ -46,6 +50,19 @@ public class Buyer extends User {
         this.setFidelityPoints(fidelityPoints);
     }
 
+    /**
+     * Constructs a Buyer from the fields decoded by a {@link RecordCodec}.
+     *
+     * @param fields The decoded fields.
+     */
+    Buyer(DecodedFields fields) {
+        super(fields);
+        this.lastName = fields.get("lastName");
+        this.firstName = fields.get("firstName");
+        this.username = fields.get("username");
+        this.fidelityPoints = fields.getInt("fidelityPoints");
+    }
+
     /**
      * Gets the unique username of the buyer.
      *
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hit and miss counters of a cache for a single {@link DataMap}.
+ * A hit is a read served from memory, a miss is a read that had to load the data from disk.
+ */
+public class CacheStatistics {
+    /**
+     * The number of reads served from memory.
+     */
+    private final AtomicLong hits = new AtomicLong();
+    /**
+     * The number of reads that had to load the data from disk.
+     */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Constructs a CacheStatistics with no read recorded yet.
+     */
+    CacheStatistics() {
+    }
+
+    /**
+     * Records a read served from memory.
+     */
+    void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    /**
+     * Records a read that had to load the data from disk.
+     */
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    /**
+     * Gets the number of reads served from memory.
+     *
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of reads that had to load the data from disk.
+     *
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the ratio of reads served from memory over all reads.
+     *
+     * @return The hit ratio between 0 and 1, or 0 if no read was recorded.
+     */
+    public double getHitRatio() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Returns a string representation of the counters.
+     *
+     * @return The string representation.
+     */
+    @Override
+    public String toString() {
+        return "hits=" + getHits() + ", misses=" + getMisses();
+    }
+}
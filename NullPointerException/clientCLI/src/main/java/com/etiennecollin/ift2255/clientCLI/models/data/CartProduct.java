@@ -11,6 +11,10 @@ import java.util.UUID;
  * Each instance of this class corresponds to a specific product in a specific buyer's cart.
  */
 public class CartProduct extends DatabaseObject {
+    /**
+     * The version of the serialized form, pinned so that the cart products already saved can still be read.
+     */
+    private static final long serialVersionUID = -6437658211679007817L;
     /**
      * The unique identifier of the buyer associated with this cart product.
      */
@@ -37,6 +41,18 @@ public class CartProduct extends DatabaseObject {
         this.quantity = quantity;
     }
 
+    /**
+     * Constructs a CartProduct from the fields decoded by a {@link RecordCodec}.
+     *
+     * @param fields The decoded fields.
+     */
+    CartProduct(DecodedFields fields) {
+        super(fields);
+        this.buyerId = fields.get("buyerId");
+        this.productId = fields.get("productId");
+        this.quantity = fields.getInt("quantity");
+    }
+
     /**
      * Gets the unique identifier of the buyer associated with this cart product.
      *
@@ -0,0 +1,15 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+/**
+ * A record representing the objects removed from a DataMap by a run of a {@link RetentionCompactor}.
+ *
+ * @param dataMap        The DataMap that was compacted.
+ * @param removedCount   The number of objects removed.
+ * @param reclaimedBytes The size of the removed objects once encoded by a {@link BinaryRecordCodec}, in bytes.
+ * @param compactMillis  The time taken to compact the DataMap, in milliseconds.
+ */
+public record CompactionReport(DataMap dataMap, int removedCount, long reclaimedBytes, long compactMillis) {}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Enum representing the compression applied to the files of a {@link DataMap}.
+ * <p>
+ * Compressed files are zlib streams compressed block by block as they are written and decompressed as they are read,
+ * so neither side holds the whole file in memory. Both levels are read the same way and an uncompressed file is
+ * recognized by the header of Java serialization, so the compression of a DataMap can be changed without converting
+ * its existing file.
+ */
+public enum Compression {
+    /**
+     * No compression.
+     */
+    NONE(Deflater.NO_COMPRESSION),
+    /**
+     * The fastest Deflate level, which already removes most of the repeated strings.
+     */
+    FAST(Deflater.BEST_SPEED),
+    /**
+     * The default Deflate level, smaller files for a slower save.
+     */
+    DEFLATE(Deflater.DEFAULT_COMPRESSION);
+    /**
+     * The size in bytes of the blocks given to the compressor and to the decompressor.
+     */
+    private static final int BLOCK_SIZE = 64 * 1024;
+    /**
+     * The first two bytes of an uncompressed Java serialization stream.
+     */
+    private static final int SERIALIZATION_MAGIC = 0xACED;
+    /**
+     * The Deflate level of the compression.
+     */
+    private final int level;
+
+    /**
+     * Constructs a Compression with the specified Deflate level.
+     *
+     * @param level The Deflate level of the compression.
+     */
+    Compression(int level) {
+        this.level = level;
+    }
+
+    /**
+     * Wraps a stream so that the bytes written to it are compressed.
+     *
+     * @param output The stream to which the compressed bytes are written.
+     *
+     * @return The stream compressing the bytes, or the stream itself if there is no compression.
+     */
+    public OutputStream compress(OutputStream output) {
+        if (this == NONE) {
+            return output;
+        }
+
+        // The compressor is given whole blocks, as it is slow on the small writes made by object streams
+        Deflater deflater = new Deflater(level);
+        return new BufferedOutputStream(new DeflaterOutputStream(output, deflater, BLOCK_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    deflater.end();
+                }
+            }
+        }, BLOCK_SIZE);
+    }
+
+    /**
+     * Wraps a stream so that the bytes read from it are decompressed if they were compressed.
+     *
+     * @param input The stream from which the bytes of a file are read.
+     *
+     * @return The stream decompressing the bytes, or a buffered stream over the input if they were not compressed.
+     *
+     * @throws IOException If the header of the stream could not be read.
+     */
+    public static InputStream decompress(InputStream input) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(input, BLOCK_SIZE);
+        buffered.mark(2);
+        int header = (buffered.read() << 8) | buffered.read();
+        buffered.reset();
+
+        if (header == SERIALIZATION_MAGIC) {
+            return buffered;
+        }
+        return new BufferedInputStream(new InflaterInputStream(buffered, new Inflater(), BLOCK_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inf.end();
+                }
+            }
+        }, BLOCK_SIZE);
+    }
+}
@@ -4,8 +4,14 @@
 
 package com.etiennecollin.ift2255.clientCLI.models.data;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * Enum representing mappings between different types of data and their corresponding file names.
+ * Each data type also lists its key fields, the fields besides the identifier on which most filters are based.
  */
 public enum DataMap {
     /**
@@ -19,43 +25,51 @@ public enum DataMap {
     /**
      * Represents the mapping between the "Product" data type and the "products.txt" file.
      */
-    PRODUCTS("products.txt"),
+    PRODUCTS("products.txt", "sellerId"),
     /**
      * Represents the mapping between the "Cart" data type and the "carts.txt" file.
      */
-    CARTS("carts.txt"),
+    CARTS("carts.txt", "buyerId", "productId"),
     /**
      * Represents the mapping between the "Order" data type and the "orders.txt" file.
      */
-    ORDERS("orders.txt"),
+    ORDERS("orders.txt", "buyerId", "sellerId", "state"),
     /**
      * Represents the mapping between the "Review" data type and the "reviews.txt" file.
      */
-    REVIEWS("reviews.txt"),
+    REVIEWS("reviews.txt", "authorId", "productId"),
     /**
      * Represents the mapping between the "Like" data type and the "likes.txt" file.
      */
-    LIKES("likes.txt"),
+    LIKES("likes.txt", "likedEntityId", "likeType", "userId"),
     /**
      * Represents the mapping between the "Notification" data type and the "notifications.txt" file.
      */
-    NOTIFICATIONS("notifications.txt"),
+    NOTIFICATIONS("notifications.txt", "userId"),
     /**
      * Represents the mapping between the "Ticket" data type and the "tickets.txt" file.
      */
-    TICKETS("tickets.txt");
+    TICKETS("tickets.txt", "orderId", "replacementOrderId");
     /**
      * The filename associated with the data type.
      */
     private final String filename;
+    /**
+     * The names of the key fields of the data type, including the identifier.
+     */
+    private final Set<String> keyFields;
 
     /**
-     * Constructs a DataMap with the specified filename.
+     * Constructs a DataMap with the specified filename and key fields.
      *
-     * @param filename The filename associated with the data type.
+     * @param filename  The filename associated with the data type.
+     * @param keyFields The names of the key fields of the data type, besides the identifier.
      */
-    DataMap(String filename) {
+    DataMap(String filename, String... keyFields) {
         this.filename = filename;
+        HashSet<String> fields = new HashSet<>(Arrays.asList(keyFields));
+        fields.add("id");
+        this.keyFields = Collections.unmodifiableSet(fields);
     }
 
     /**
@@ -66,4 +80,23 @@ public enum DataMap {
     String getFilename() {
         return filename;
     }
+
+    /**
+     * Gets the filename associated with the data type, without its extension.
+     * Storage engines use it to name their own files for the data type.
+     *
+     * @return The filename without its extension.
+     */
+    String getBaseName() {
+        return filename.substring(0, filename.lastIndexOf('.'));
+    }
+
+    /**
+     * Gets the names of the key fields of the data type, which a {@link KeyPredicate} may read.
+     *
+     * @return The names of the key fields, including the identifier.
+     */
+    public Set<String> getKeyFields() {
+        return keyFields;
+    }
 }
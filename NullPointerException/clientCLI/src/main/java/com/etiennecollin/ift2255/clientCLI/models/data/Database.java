@@ -4,15 +4,16 @@
 
 package com.etiennecollin.ift2255.clientCLI.models.data;
 
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Interface representing a database with CRUD operations for DatabaseObjects.
  */
-public interface Database {
+public interface Database extends AutoCloseable {
     /**
      * Retrieves a DatabaseObject from the database based on its unique identifier.
      *
@@ -102,4 +103,178 @@ public interface Database {
      * @return True if the removal is successful, false otherwise.
      */
     <T extends DatabaseObject> boolean remove(DataMap dataMap, Predicate<T> filter);
+
+    /**
+     * Retrieves the DatabaseObjects of a single owner that match a filter.
+     * The owner of an order or a cart product is its buyer, the owner of a notification is its user and the owner of
+     * a like is the liked entity. Databases splitting a data type by owner only search the part holding the owner,
+     * while the others search the whole data type.
+     *
+     * @param dataMap The data map specifying the type of objects to retrieve.
+     * @param ownerId The unique identifier of the owner of the objects.
+     * @param filter  The filter predicate to apply, which must only match objects of the owner.
+     * @param <T>     The type of DatabaseObject.
+     *
+     * @return A list of DatabaseObjects that match the filter.
+     */
+    default <T extends DatabaseObject> List<T> getOwned(DataMap dataMap, UUID ownerId, Predicate<T> filter) {
+        return get(dataMap, filter);
+    }
+
+    /**
+     * Retrieves a batch of DatabaseObjects based on their unique identifiers, in a single pass over the data type.
+     *
+     * @param dataMap The data map specifying the type of objects to retrieve.
+     * @param ids     The unique identifiers of the objects to retrieve.
+     * @param <T>     The type of DatabaseObject.
+     *
+     * @return The DatabaseObjects found, by identifier. The identifiers of missing objects have no entry.
+     */
+    default <T extends DatabaseObject> Map<UUID, T> getAll(DataMap dataMap, Collection<UUID> ids) {
+        HashSet<UUID> wanted = new HashSet<>(ids);
+        HashMap<UUID, T> found = HashMap.newHashMap(wanted.size());
+        if (!wanted.isEmpty()) {
+            // The filter is not a KeyPredicate, so that the objects found are decoded whole
+            get(dataMap, Query.observing((T object) -> wanted.contains(object.getId()), () -> found.size() == wanted.size(), (object) -> found.putIfAbsent(object.getId(), object)));
+        }
+        return found;
+    }
+
+    /**
+     * Retrieves the DatabaseObjects having a key in a secondary index that match a filter.
+     * Databases maintaining the index only test the objects having the key, while the others search the whole data
+     * type.
+     *
+     * @param index  The secondary index, which specifies the type of objects to retrieve.
+     * @param key    The value of the indexed field of the objects.
+     * @param filter The filter predicate to apply, which must only match objects having the key.
+     * @param <T>    The type of DatabaseObject.
+     *
+     * @return A list of DatabaseObjects that match the filter.
+     */
+    default <T extends DatabaseObject> List<T> getByIndex(SecondaryIndex index, UUID key, Predicate<T> filter) {
+        SecondaryIndex owner = SecondaryIndex.ownerOf(index.getDataMap());
+        return index == owner ? getOwned(index.getDataMap(), key, filter) : get(index.getDataMap(), filter);
+    }
+
+    /**
+     * Retrieves the DatabaseObjects matching a query, sorted and paged as stated by the query.
+     * The candidates are looked up through the secondary index expected to hold the fewest of them, if the query
+     * allows any. Databases without indexes filter all their objects once.
+     *
+     * @param query The query.
+     * @param <T>   The type of DatabaseObject.
+     *
+     * @return The page of DatabaseObjects matching the query.
+     */
+    default <T extends DatabaseObject> List<T> get(Query<T> query) {
+        return query.run(this, (index, key) -> Query.UNINDEXED);
+    }
+
+    /**
+     * Streams the DatabaseObjects matching a query, sorted and paged as stated by the query. The first page is read
+     * alone, and the matches following it are read with a single run of the query once it is used up, so that the
+     * query is run at most twice however many pages are read. The second run starts after the last object of the
+     * first page in the order of the query, so that the objects added or removed in between do not shift it.
+     *
+     * @param query    The query.
+     * @param pageSize The maximum number of objects of the first page.
+     * @param <T>      The type of DatabaseObject.
+     *
+     * @return The stream of DatabaseObjects matching the query.
+     *
+     * @throws IllegalArgumentException If the page size is not positive.
+     */
+    default <T extends DatabaseObject> Stream<T> stream(Query<T> query, int pageSize) throws IllegalArgumentException {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new QueryCursor<>(this, query, pageSize), Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Counts the DatabaseObjects that match a filter, without building the list of the matches.
+     *
+     * @param dataMap The data map specifying the type of objects to count.
+     * @param filter  The filter predicate to apply.
+     * @param <T>     The type of DatabaseObject.
+     *
+     * @return The number of DatabaseObjects matching the filter.
+     */
+    default <T extends DatabaseObject> long count(DataMap dataMap, Predicate<T> filter) {
+        long[] count = {0};
+        get(dataMap, Query.observing(filter, () -> false, (object) -> count[0]++));
+        return count[0];
+    }
+
+    /**
+     * Checks whether any DatabaseObject matches a filter, without building the list of the matches.
+     * The filter is no longer tested once a match is found.
+     *
+     * @param dataMap The data map specifying the type of objects to check.
+     * @param filter  The filter predicate to apply.
+     * @param <T>     The type of DatabaseObject.
+     *
+     * @return True if an object matches the filter, false otherwise.
+     */
+    default <T extends DatabaseObject> boolean exists(DataMap dataMap, Predicate<T> filter) {
+        boolean[] found = {false};
+        get(dataMap, Query.observing(filter, () -> found[0], (object) -> found[0] = true));
+        return found[0];
+    }
+
+    /**
+     * Counts the DatabaseObjects matching a query, within its page, without building the list of the matches.
+     *
+     * @param query The query.
+     * @param <T>   The type of DatabaseObject.
+     *
+     * @return The number of DatabaseObjects matching the query.
+     */
+    default <T extends DatabaseObject> long count(Query<T> query) {
+        return query.count(this, (index, key) -> Query.UNINDEXED, false);
+    }
+
+    /**
+     * Checks whether any DatabaseObject matches a query, within its page, without building the list of the matches.
+     *
+     * @param query The query.
+     * @param <T>   The type of DatabaseObject.
+     *
+     * @return True if an object matches the query, false otherwise.
+     */
+    default <T extends DatabaseObject> boolean exists(Query<T> query) {
+        return count(query.page(query.offset(), Math.min(query.limit(), 1))) > 0;
+    }
+
+    /**
+     * Loads DataMaps in advance so that their first queries are served from memory.
+     * Does nothing by default, for databases which do not keep their data in memory.
+     *
+     * @param dataMaps The DataMaps to load.
+     *
+     * @return The report of each DataMap that was loaded.
+     */
+    default List<WarmUpReport> warmUp(Set<DataMap> dataMaps) {
+        return List.of();
+    }
+
+    /**
+     * Pins the files of every DataMap in a snapshot, as they are at a single point in time, without blocking the
+     * writes longer than needed to pin them. The snapshot is then written by {@link Snapshot#write()}.
+     * Unsupported by default.
+     *
+     * @param snapshot The snapshot in which the files are pinned.
+     *
+     * @throws UnsupportedOperationException If the database cannot take snapshots.
+     * @throws RuntimeException              If a file could not be pinned.
+     */
+    default void snapshot(Snapshot snapshot) throws UnsupportedOperationException, RuntimeException {
+        throw new UnsupportedOperationException("This database cannot take snapshots");
+    }
+
+    /**
+     * Persists the pending changes and releases the resources held by the database.
+     * Does nothing by default, for databases persisting every change immediately.
+     */
+    @Override
+    default void close() {
+    }
 }
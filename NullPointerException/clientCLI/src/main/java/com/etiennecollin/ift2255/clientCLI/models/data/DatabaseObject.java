@@ -12,6 +12,10 @@ import java.util.UUID;
  * Abstract class representing an object that can be stored in a database.
  */
 public abstract class DatabaseObject implements Serializable {
+    /**
+     * The version of the serialized form, pinned so that the objects already saved can still be read.
+     */
+    private static final long serialVersionUID = -2352732293229800623L;
     /**
      * The unique identifier of the object.
      */
@@ -24,6 +28,15 @@ public abstract class DatabaseObject implements Serializable {
         this.id = UUID.randomUUID();
     }
 
+    /**
+     * Constructs a DatabaseObject from the fields decoded by a {@link RecordCodec}.
+     *
+     * @param fields The decoded fields.
+     */
+    protected DatabaseObject(DecodedFields fields) {
+        this.id = fields.get("id");
+    }
+
     /**
      * Overrides the default hashCode method to use the identifier for hashing.
      *
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.util.Map;
+
+/**
+ * The values of the fields of an object decoded by a {@link RecordCodec}, by field name, from which the decode
+ * constructor of its class sets its fields.
+ * <p>
+ * A field which was not decoded, such as a field other than a key field of an object of which only the key fields are
+ * decoded, has the default value of its type.
+ */
+public final class DecodedFields {
+    /**
+     * The decoded value of each field, by field name.
+     */
+    private final Map<String, Object> values;
+
+    /**
+     * Constructs a DecodedFields with the specified values.
+     *
+     * @param values The decoded value of each field, by field name.
+     */
+    DecodedFields(Map<String, Object> values) {
+        this.values = values;
+    }
+
+    /**
+     * Gets the value of a field of a reference type.
+     *
+     * @param field The name of the field.
+     * @param <V>   The type of the field.
+     *
+     * @return The value, or null if the field was not decoded.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V get(String field) {
+        // The values are read with the declared type of their field
+        return (V) values.get(field);
+    }
+
+    /**
+     * Gets the value of an int field.
+     *
+     * @param field The name of the field.
+     *
+     * @return The value, or 0 if the field was not decoded.
+     */
+    public int getInt(String field) {
+        Object value = values.get(field);
+        return value == null ? 0 : (int) value;
+    }
+
+    /**
+     * Gets the value of a long field.
+     *
+     * @param field The name of the field.
+     *
+     * @return The value, or 0 if the field was not decoded.
+     */
+    public long getLong(String field) {
+        Object value = values.get(field);
+        return value == null ? 0 : (long) value;
+    }
+
+    /**
+     * Gets the value of a boolean field.
+     *
+     * @param field The name of the field.
+     *
+     * @return The value, or false if the field was not decoded.
+     */
+    public boolean getBoolean(String field) {
+        Object value = values.get(field);
+        return value != null && (boolean) value;
+    }
+}
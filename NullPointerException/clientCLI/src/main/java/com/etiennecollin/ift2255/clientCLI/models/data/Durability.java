@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+/**
+ * The policy deciding when the changes made to a {@link DataMap} are persisted to disk.
+ * <ul>
+ *     <li>{@link #SYNC}: every change is persisted before the operation returns.</li>
+ *     <li>{@link #interval(long)}: changes are persisted by a background flusher at a fixed interval.</li>
+ *     <li>{@link #ON_SHUTDOWN}: changes are only persisted when the database is closed.</li>
+ * </ul>
+ * With the last two policies, successive changes to the same DataMap are coalesced into a single write.
+ */
+public final class Durability {
+    /**
+     * The policy persisting every change before the operation returns.
+     */
+    public static final Durability SYNC = new Durability(Level.SYNC, 0);
+    /**
+     * The policy persisting the changes only when the database is closed.
+     */
+    public static final Durability ON_SHUTDOWN = new Durability(Level.ON_SHUTDOWN, 0);
+    /**
+     * The level of the policy.
+     */
+    private final Level level;
+    /**
+     * The delay in milliseconds between two flushes, for the interval level.
+     */
+    private final long intervalMillis;
+
+    /**
+     * Constructs a Durability policy.
+     *
+     * @param level          The level of the policy.
+     * @param intervalMillis The delay in milliseconds between two flushes, for the interval level.
+     */
+    private Durability(Level level, long intervalMillis) {
+        this.level = level;
+        this.intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Gets the policy persisting the changes in the background at a fixed interval.
+     *
+     * @param intervalMillis The delay in milliseconds between two flushes.
+     *
+     * @return The policy.
+     *
+     * @throws IllegalArgumentException If the delay is not positive.
+     */
+    public static Durability interval(long intervalMillis) throws IllegalArgumentException {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("The flush interval must be positive");
+        }
+        return new Durability(Level.INTERVAL, intervalMillis);
+    }
+
+    /**
+     * Parses a policy from its name, either {@code SYNC}, {@code ON_SHUTDOWN} or {@code INTERVAL(ms)}.
+     *
+     * @param s The name of the policy.
+     *
+     * @return The policy.
+     *
+     * @throws IllegalArgumentException If the name is not a valid policy.
+     */
+    public static Durability parse(String s) throws IllegalArgumentException {
+        String name = s.trim().toUpperCase();
+        if (name.equals("SYNC")) {
+            return SYNC;
+        } else if (name.equals("ON_SHUTDOWN")) {
+            return ON_SHUTDOWN;
+        } else if (name.startsWith("INTERVAL(") && name.endsWith(")")) {
+            try {
+                return interval(Long.parseLong(name.substring("INTERVAL(".length(), name.length() - 1).trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid flush interval: " + s);
+            }
+        }
+        throw new IllegalArgumentException("Invalid durability: " + s);
+    }
+
+    /**
+     * Checks if every change is persisted before the operation returns.
+     *
+     * @return True if the policy is {@link #SYNC}, false otherwise.
+     */
+    public boolean isSync() {
+        return level == Level.SYNC;
+    }
+
+    /**
+     * Checks if the changes are persisted by a background flusher.
+     *
+     * @return True if the policy is an interval policy, false otherwise.
+     */
+    public boolean isInterval() {
+        return level == Level.INTERVAL;
+    }
+
+    /**
+     * Gets the delay between two flushes of an interval policy.
+     *
+     * @return The delay in milliseconds, or 0 if the policy is not an interval policy.
+     */
+    public long getIntervalMillis() {
+        return intervalMillis;
+    }
+
+    /**
+     * Returns the name of the policy, as accepted by {@link #parse(String)}.
+     *
+     * @return The name of the policy.
+     */
+    @Override
+    public String toString() {
+        return level == Level.INTERVAL ? "INTERVAL(" + intervalMillis + ")" : level.name();
+    }
+
+    /**
+     * The levels of durability.
+     */
+    private enum Level {
+        SYNC, INTERVAL, ON_SHUTDOWN
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.io.*;
+
+/**
+ * Implementation of the RecordCodec interface using Java serialization.
+ * Each record carries its own class descriptors, which makes it self-describing but large.
+ */
+public class JavaSerializationCodec implements RecordCodec {
+    /**
+     * Constructs a JavaSerializationCodec.
+     */
+    public JavaSerializationCodec() {
+    }
+
+    /**
+     * Writes an object to an output as a length-prefixed Java serialization stream.
+     *
+     * @param object The object to encode.
+     * @param output The output to which the object is written.
+     *
+     * @throws IOException If the object could not be written.
+     */
+    @Override
+    public void encode(DatabaseObject object, DataOutput output) throws IOException {
+        byte[] bytes = encode(object);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * Reads an object written by {@link #encode(DatabaseObject, DataOutput)}.
+     *
+     * @param input The input from which the object is read.
+     *
+     * @return The decoded object.
+     *
+     * @throws IOException If the object could not be read.
+     */
+    @Override
+    public DatabaseObject decode(DataInput input) throws IOException {
+        byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        return decode(bytes);
+    }
+
+    /**
+     * Encodes an object to a Java serialization stream.
+     *
+     * @param object The object to encode.
+     *
+     * @return The encoded object.
+     */
+    @Override
+    public byte[] encode(DatabaseObject object) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(object);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not save the data");
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes an object from a Java serialization stream.
+     *
+     * @param bytes The encoded object.
+     *
+     * @return The decoded object.
+     */
+    @Override
+    public DatabaseObject decode(byte[] bytes) {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (DatabaseObject) input.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            throw new RuntimeException("Could not load the data");
+        }
+    }
+}
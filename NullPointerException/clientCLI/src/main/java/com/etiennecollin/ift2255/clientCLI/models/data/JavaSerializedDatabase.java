@@ -8,34 +8,351 @@ import com.etiennecollin.ift2255.clientCLI.Client;
 
 import java.io.*;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.UUID;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.ToLongBiFunction;
 import java.util.stream.Collectors;
 
 /**
  * Implementation of the Database interface using Java serialization for data storage.
+ * <p>
+ * In cached mode, the list of each {@link DataMap} stays in memory after its first load. Reads are then served from
+ * memory and writes update the resident list before persisting it to disk. The resident list of a DataMap is indexed by
+ * ID on its first lookup by ID, so that the lookups, updates and removals by ID do not scan the list. Likewise, it is
+ * grouped by key on its first lookup through a {@link SecondaryIndex}, so that the lookup only tests the objects having
+ * the key. Both indexes are kept in sync with the writes, and are rebuilt when a write replaces the list. The
+ * objects added to and read from a resident list are copies, so that an object held by a caller, such as a product
+ * stored in an order, is never changed by a later update of the list.
+ * <p>
+ * The {@link Durability} of the database decides when the resident lists are persisted. Unless it is
+ * {@link Durability#SYNC}, a write only marks its DataMap as dirty and the dirty DataMaps are persisted together by
+ * {@link #flush()}, either periodically by a background flusher or when the database is closed.
+ * <p>
+ * The file of each DataMap can be compressed with its own {@link Compression}.
+ * <p>
+ * A {@link BloomFilter} of the identifiers of each DataMap is saved next to its file, stamped with the size and the
+ * modification time of the file it was built from. A lookup by ID of an object the filter rules out returns without
+ * reading the list. A filter which does not match its file is ignored and rebuilt on the next load of the list.
  */
 public class JavaSerializedDatabase implements Database {
+    /**
+     * The codec copying the objects added to and read from the resident lists.
+     */
+    private static final RecordCodec COPIER = new BinaryRecordCodec();
     /**
      * The path where the serialized data is stored.
      */
     public final String savePath;
+    /**
+     * Whether the lists of the DataMaps are kept in memory after their first load.
+     */
+    private final boolean cached;
+    /**
+     * The resident list of each DataMap loaded while in cached mode.
+     */
+    private final EnumMap<DataMap, List<? extends DatabaseObject>> cache = new EnumMap<>(DataMap.class);
+    /**
+     * The cache hit and miss counters of each DataMap.
+     */
+    private final EnumMap<DataMap, CacheStatistics> statistics = new EnumMap<>(DataMap.class);
+    /**
+     * The policy deciding when the changes are persisted to disk.
+     */
+    private final Durability durability;
+    /**
+     * The DataMaps whose resident list has changes that are not persisted yet.
+     */
+    private final EnumSet<DataMap> dirty = EnumSet.noneOf(DataMap.class);
+    /**
+     * The executor running the background flusher, or null if the durability is not an interval policy.
+     */
+    private final ScheduledExecutorService flusher;
+    /**
+     * The compression applied to the file of each DataMap.
+     */
+    private final EnumMap<DataMap, Compression> compressions = new EnumMap<>(DataMap.class);
+    /**
+     * The filter of the identifiers of each DataMap of which the file was saved or loaded with a filter, stamped with
+     * the file it was built from.
+     */
+    private final EnumMap<DataMap, StampedFilter> filters = new EnumMap<>(DataMap.class);
+    /**
+     * The rate of false positives of the filters built from now on.
+     */
+    private double falsePositiveRate = BloomFilter.DEFAULT_FALSE_POSITIVE_RATE;
+    /**
+     * The index by ID of the resident list of each DataMap looked up by ID while in cached mode.
+     */
+    private final EnumMap<DataMap, IdIndex> indexes = new EnumMap<>(DataMap.class);
+    /**
+     * The groups by key of the resident lists looked up through each secondary index while in cached mode.
+     */
+    private final EnumMap<SecondaryIndex, KeyIndex> keyIndexes = new EnumMap<>(SecondaryIndex.class);
 
     /**
-     * Constructs a JavaSerializedDatabase object.
+     * Constructs a JavaSerializedDatabase object which loads the data from disk on every operation.
      */
     public JavaSerializedDatabase() {
+        this(false);
+    }
+
+    /**
+     * Constructs a JavaSerializedDatabase object storing its files next to the application.
+     *
+     * @param cached Whether the lists of the DataMaps are kept in memory after their first load.
+     */
+    public JavaSerializedDatabase(boolean cached) {
+        this(cached, Durability.SYNC);
+    }
+
+    /**
+     * Constructs a JavaSerializedDatabase object storing its files next to the application.
+     *
+     * @param cached     Whether the lists of the DataMaps are kept in memory after their first load.
+     * @param durability The policy deciding when the changes are persisted to disk.
+     *
+     * @throws IllegalArgumentException If the changes are not persisted synchronously while not in cached mode.
+     */
+    public JavaSerializedDatabase(boolean cached, Durability durability) throws IllegalArgumentException {
+        this(defaultSavePath(), cached, durability);
+    }
+
+    /**
+     * Constructs a JavaSerializedDatabase object storing its files in the specified directory.
+     *
+     * @param savePath The path of the directory where the serialized data is stored, ending with a separator.
+     * @param cached   Whether the lists of the DataMaps are kept in memory after their first load.
+     */
+    public JavaSerializedDatabase(String savePath, boolean cached) {
+        this(savePath, cached, Durability.SYNC);
+    }
+
+    /**
+     * Constructs a JavaSerializedDatabase object storing its files in the specified directory.
+     *
+     * @param savePath   The path of the directory where the serialized data is stored, ending with a separator.
+     * @param cached     Whether the lists of the DataMaps are kept in memory after their first load.
+     * @param durability The policy deciding when the changes are persisted to disk.
+     *
+     * @throws IllegalArgumentException If the changes are not persisted synchronously while not in cached mode.
+     */
+    @SuppressWarnings("this-escape")
+    public JavaSerializedDatabase(String savePath, boolean cached, Durability durability) throws IllegalArgumentException {
+        if (!cached && !durability.isSync()) {
+            throw new IllegalArgumentException("Deferred writes require the cached mode");
+        }
+
+        this.savePath = savePath;
+        this.cached = cached;
+        this.durability = durability;
+        for (DataMap dataMap : DataMap.values()) {
+            statistics.put(dataMap, new CacheStatistics());
+            compressions.put(dataMap, Compression.NONE);
+        }
+
+        if (durability.isInterval()) {
+            flusher = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+                Thread thread = new Thread(runnable, "database-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // A flush only writes the DataMaps marked dirty, and no write can mark one before the constructor returns
+            flusher.scheduleWithFixedDelay(this::flushQuietly, durability.getIntervalMillis(), durability.getIntervalMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Gets the directory containing the application, where the data is stored by default.
+     *
+     * @return The path of the directory, ending with a separator.
+     */
+    static String defaultSavePath() {
         try {
             // Inspired by https://stackoverflow.com/a/3627527
-            savePath = new File(Client.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getParentFile() + "/";
+            return new File(Client.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getParentFile() + "/";
         } catch (URISyntaxException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Checks whether the lists of the DataMaps are kept in memory after their first load.
+     *
+     * @return True if the database is in cached mode, false otherwise.
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    /**
+     * Gets the cache hit and miss counters of a DataMap.
+     * The counters stay at zero when the database is not in cached mode.
+     *
+     * @param dataMap The DataMap for which to get the counters.
+     *
+     * @return The cache statistics of the DataMap.
+     */
+    public CacheStatistics getCacheStatistics(DataMap dataMap) {
+        return statistics.get(dataMap);
+    }
+
+    /**
+     * Gets the policy deciding when the changes are persisted to disk.
+     *
+     * @return The durability of the database.
+     */
+    public Durability getDurability() {
+        return durability;
+    }
+
+    /**
+     * Gets the compression applied to the file of a DataMap.
+     *
+     * @param dataMap The DataMap.
+     *
+     * @return The compression of the DataMap.
+     */
+    public synchronized Compression getCompression(DataMap dataMap) {
+        return compressions.get(dataMap);
+    }
+
+    /**
+     * Sets the compression applied to the file of a DataMap from its next save.
+     * Files saved with another compression can still be loaded.
+     *
+     * @param dataMap     The DataMap.
+     * @param compression The compression to apply.
+     */
+    public synchronized void setCompression(DataMap dataMap, Compression compression) {
+        compressions.put(dataMap, compression);
+    }
+
+    /**
+     * Sets the rate of false positives of the {@link BloomFilter} of the DataMaps, from their next save or load.
+     *
+     * @param falsePositiveRate The rate of false positives, strictly between 0 and 1.
+     *
+     * @throws IllegalArgumentException If the rate is not strictly between 0 and 1.
+     */
+    public synchronized void setFalsePositiveRate(double falsePositiveRate) throws IllegalArgumentException {
+        BloomFilter.checkFalsePositiveRate(falsePositiveRate);
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Checks if a DataMap has changes that are not persisted yet.
+     *
+     * @param dataMap The DataMap to check.
+     *
+     * @return True if the DataMap is dirty, false otherwise.
+     */
+    public synchronized boolean isDirty(DataMap dataMap) {
+        return dirty.contains(dataMap);
+    }
+
+    /**
+     * Persists the resident list of every dirty DataMap.
+     *
+     * @throws RuntimeException If a DataMap could not be persisted. It stays dirty and the others are still persisted.
+     */
+    public synchronized void flush() throws RuntimeException {
+        RuntimeException failure = null;
+        for (Iterator<DataMap> iterator = dirty.iterator(); iterator.hasNext(); ) {
+            DataMap dataMap = iterator.next();
+            try {
+                save(cache.get(dataMap), dataMap.getFilename(), compressions.get(dataMap));
+                saveFilter(dataMap, cache.get(dataMap));
+                iterator.remove();
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Stops the background flusher and persists the pending changes.
+     */
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        flush();
+    }
+
+    /**
+     * Loads the DataMaps which are not resident yet concurrently, each on its own virtual thread.
+     * Does nothing when the database is not in cached mode.
+     *
+     * @param dataMaps The DataMaps to load.
+     *
+     * @return The report of each DataMap that was loaded.
+     *
+     * @throws RuntimeException If the load was interrupted.
+     */
+    @Override
+    public List<WarmUpReport> warmUp(Set<DataMap> dataMaps) throws RuntimeException {
+        if (!cached) {
+            return List.of();
+        }
+
+        ArrayList<Future<WarmUpReport>> loads = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (DataMap dataMap : dataMaps) {
+                if (!isResident(dataMap)) {
+                    loads.add(executor.submit(() -> warmUp(dataMap)));
+                }
+            }
+        }
+
+        ArrayList<WarmUpReport> reports = new ArrayList<>();
+        try {
+            for (Future<WarmUpReport> load : loads) {
+                reports.add(load.get());
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Could not load the data");
+        }
+        return reports;
+    }
+
+    /**
+     * Persists the pending changes, then pins the file of every DataMap. The files are replaced rather than modified
+     * by the later writes, so the writes are only blocked while the files are opened.
+     *
+     * @param snapshot The snapshot in which the files are pinned.
+     *
+     * @throws RuntimeException If the pending changes could not be persisted or a file could not be pinned.
+     */
+    @Override
+    public synchronized void snapshot(Snapshot snapshot) throws RuntimeException {
+        flush();
+        for (DataMap dataMap : DataMap.values()) {
+            snapshot.pin(new File(savePath + dataMap.getFilename()));
+        }
+    }
+
+    /**
+     * Drops the resident lists so that the next read of every DataMap loads it from disk.
+     * The pending changes are persisted first.
+     */
+    public synchronized void invalidateCache() {
+        flush();
+        cache.clear();
+        indexes.clear();
+        keyIndexes.clear();
+    }
+
     /**
      * Gets a specific object from the database based on its ID.
      *
@@ -45,18 +362,56 @@ public class JavaSerializedDatabase implements Database {
      *
      * @return The object with the specified ID, or null if not found.
      */
-    public <T extends DatabaseObject> T get(DataMap dataMap, UUID id) {
-        String path = dataMap.getFilename();
+    public synchronized <T extends DatabaseObject> T get(DataMap dataMap, UUID id) {
+        BloomFilter filter = getFilter(dataMap);
+        if (filter != null && !filter.mightContain(id)) {
+            return null;
+        }
 
-        List<T> data = load(path);
-        if (data != null) {
-            List<T> matches = data.stream().filter((entry) -> entry.getId().equals(id)).collect(Collectors.toCollection(ArrayList::new));
-            if (matches.size() > 0) {
-                return matches.get(0);
+        List<T> data = read(dataMap);
+        return data != null ? copyOf(find(dataMap, data, id)) : null;
+    }
+
+    /**
+     * Gets a batch of objects from the database based on their IDs, reading the list of the DataMap once.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param ids     The IDs of the objects.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The objects found, by ID.
+     */
+    @Override
+    public synchronized <T extends DatabaseObject> Map<UUID, T> getAll(DataMap dataMap, Collection<UUID> ids) {
+        BloomFilter filter = getFilter(dataMap);
+        HashSet<UUID> wanted = new HashSet<>();
+        for (UUID id : ids) {
+            if (filter == null || filter.mightContain(id)) {
+                wanted.add(id);
             }
         }
 
-        return null;
+        HashMap<UUID, T> found = HashMap.newHashMap(wanted.size());
+        List<T> data = wanted.isEmpty() ? null : read(dataMap);
+        if (data == null) {
+            return found;
+        }
+
+        if (cached) {
+            for (UUID id : wanted) {
+                T object = find(dataMap, data, id);
+                if (object != null) {
+                    found.put(id, copyOf(object));
+                }
+            }
+        } else {
+            for (T object : data) {
+                if (wanted.contains(object.getId())) {
+                    found.putIfAbsent(object.getId(), object);
+                }
+            }
+        }
+        return found;
     }
 
     /**
@@ -68,17 +423,118 @@ public class JavaSerializedDatabase implements Database {
      *
      * @return A list of objects that match the filter.
      */
-    public <T extends DatabaseObject> List<T> get(DataMap dataMap, Predicate<T> filter) {
-        String path = dataMap.getFilename();
-
-        List<T> data = load(path);
+    public synchronized <T extends DatabaseObject> List<T> get(DataMap dataMap, Predicate<T> filter) {
+        List<T> data = read(dataMap);
         if (data != null) {
-            return data.stream().filter(filter).collect(Collectors.toCollection(ArrayList::new));
+            return data.stream().filter(filter).map(this::copyOf).collect(Collectors.toCollection(ArrayList::new));
         }
 
         return new ArrayList<>();
     }
 
+    /**
+     * Gets the objects of a single owner that match a filter, through the secondary index on the owner in cached mode.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param ownerId The ID of the owner of the objects.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return A list of objects that match the filter.
+     */
+    @Override
+    public <T extends DatabaseObject> List<T> getOwned(DataMap dataMap, UUID ownerId, Predicate<T> filter) {
+        SecondaryIndex owner = SecondaryIndex.ownerOf(dataMap);
+        return owner != null ? getByIndex(owner, ownerId, filter) : get(dataMap, filter);
+    }
+
+    /**
+     * Gets the objects having a key in a secondary index that match a filter. In cached mode, only the objects having
+     * the key are tested.
+     *
+     * @param index  The secondary index.
+     * @param key    The value of the indexed field of the objects.
+     * @param filter The filter predicate.
+     * @param <T>    The type of object which extends {@link DatabaseObject}.
+     *
+     * @return A list of objects that match the filter.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized <T extends DatabaseObject> List<T> getByIndex(SecondaryIndex index, UUID key, Predicate<T> filter) {
+        if (!cached) {
+            return get(index.getDataMap(), filter);
+        }
+
+        List<T> data = read(index.getDataMap());
+        ArrayList<T> matches = new ArrayList<>();
+        for (DatabaseObject object : group(index, data).keys().getOrDefault(key, new ArrayList<>())) {
+            // An index only refers to objects of the DataMap it was built for
+            if (filter.test((T) object)) {
+                matches.add(copyOf((T) object));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Gets the objects matching a query. In cached mode, the query is planned with the number of objects having each
+     * key in the secondary indexes.
+     *
+     * @param query The query.
+     * @param <T>   The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The page of objects matching the query.
+     */
+    @Override
+    public synchronized <T extends DatabaseObject> List<T> get(Query<T> query) {
+        return query.run(this, groupSizes());
+    }
+
+    /**
+     * Counts the objects that match a filter, without building the list of the matches.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The number of objects matching the filter.
+     */
+    @Override
+    public synchronized <T extends DatabaseObject> long count(DataMap dataMap, Predicate<T> filter) {
+        List<T> data = read(dataMap);
+        return data != null ? data.stream().filter(filter).count() : 0;
+    }
+
+    /**
+     * Checks whether any object matches a filter, stopping at the first match.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if an object matches the filter, false otherwise.
+     */
+    @Override
+    public synchronized <T extends DatabaseObject> boolean exists(DataMap dataMap, Predicate<T> filter) {
+        List<T> data = read(dataMap);
+        return data != null && data.stream().anyMatch(filter);
+    }
+
+    /**
+     * Counts the objects matching a query within its page. In cached mode, a query made of a single condition on a
+     * secondary index is counted from the sizes of its groups.
+     *
+     * @param query The query.
+     * @param <T>   The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The number of objects matching the query.
+     */
+    @Override
+    public synchronized <T extends DatabaseObject> long count(Query<T> query) {
+        return query.count(this, groupSizes(), cached);
+    }
+
     /**
      * Adds a single object to the database.
      *
@@ -88,17 +544,17 @@ public class JavaSerializedDatabase implements Database {
      *
      * @return True if the addition was successful, false otherwise.
      */
-    public <T extends DatabaseObject> boolean add(DataMap dataMap, T object) {
-        String path = dataMap.getFilename();
-
-        List<T> data = load(path);
+    public synchronized <T extends DatabaseObject> boolean add(DataMap dataMap, T object) {
+        List<T> data = read(dataMap);
         if (data == null) {
             data = new ArrayList<>();
         }
 
-        data.add(object);
+        T copy = copyOf(object);
+        data.add(copy);
+        indexAdded(dataMap, data, List.of(copy));
         try {
-            save(data, path);
+            write(dataMap, data);
             return true;
         } catch (RuntimeException e) {
             System.out.println(e.getMessage());
@@ -115,17 +571,17 @@ public class JavaSerializedDatabase implements Database {
      *
      * @return True if the addition was successful, false otherwise.
      */
-    public <T extends DatabaseObject> boolean add(DataMap dataMap, List<T> objects) {
-        String path = dataMap.getFilename();
-
-        List<T> data = load(path);
+    public synchronized <T extends DatabaseObject> boolean add(DataMap dataMap, List<T> objects) {
+        List<T> data = read(dataMap);
         if (data == null) {
             data = new ArrayList<>();
         }
 
-        data.addAll(objects);
+        List<T> copies = objects.stream().map(this::copyOf).toList();
+        data.addAll(copies);
+        indexAdded(dataMap, data, copies);
         try {
-            save(data, path);
+            write(dataMap, data);
             return true;
         } catch (RuntimeException e) {
             System.out.println(e.getMessage());
@@ -143,17 +599,15 @@ public class JavaSerializedDatabase implements Database {
      *
      * @return True if the update was successful, false otherwise.
      */
-    public <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, UUID id) {
-        String path = dataMap.getFilename();
-
-        List<T> data = load(path);
-        if (data != null) {
-            List<T> filteredData = data.stream().filter((entry) -> entry.getId().equals(id)).collect(Collectors.toCollection(ArrayList::new));
-            if (!filteredData.isEmpty()) {
-                update.accept(filteredData.get(0));
-                save(data, path);
-                return true;
-            }
+    public synchronized <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, UUID id) {
+        List<T> data = read(dataMap);
+        T object = data != null ? find(dataMap, data, id) : null;
+        if (object != null) {
+            EnumMap<SecondaryIndex, UUID> keys = groupedKeys(dataMap, object);
+            update.accept(object);
+            dropChangedKeys(keys, object);
+            write(dataMap, data);
+            return true;
         }
 
         return false;
@@ -169,15 +623,17 @@ public class JavaSerializedDatabase implements Database {
      *
      * @return True if the update was successful, false otherwise.
      */
-    public <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, Predicate<T> filter) {
-        String path = dataMap.getFilename();
-
-        List<T> data = load(path);
+    public synchronized <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, Predicate<T> filter) {
+        List<T> data = read(dataMap);
         if (data != null) {
             List<T> filteredData = data.stream().filter(filter).collect(Collectors.toCollection(ArrayList::new));
             if (!filteredData.isEmpty()) {
-                filteredData.forEach(update);
-                save(data, path);
+                for (T object : filteredData) {
+                    EnumMap<SecondaryIndex, UUID> keys = groupedKeys(dataMap, object);
+                    update.accept(object);
+                    dropChangedKeys(keys, object);
+                }
+                write(dataMap, data);
                 return true;
             }
         }
@@ -194,16 +650,30 @@ public class JavaSerializedDatabase implements Database {
      *
      * @return True if the removal was successful, false otherwise.
      */
-    public <T extends DatabaseObject> boolean remove(DataMap dataMap, UUID id) {
-        String path = dataMap.getFilename();
-
-        List<T> data = load(path);
-        if (data != null) {
-            List<T> filteredData = data.stream().filter((v) -> !v.getId().equals(id)).collect(Collectors.toCollection(ArrayList::new));
-            if (data.size() > filteredData.size()) {
-                save(filteredData, path);
-                return true;
+    public synchronized <T extends DatabaseObject> boolean remove(DataMap dataMap, UUID id) {
+        List<T> data = read(dataMap);
+        T removed = data != null ? find(dataMap, data, id) : null;
+        if (removed != null) {
+            int size = data.size();
+            // The list keeps its order, so the objects after the removed one are still shifted
+            data.removeIf((v) -> v.getId().equals(id));
+            IdIndex index = indexes.get(dataMap);
+            if (index != null && index.list() == data) {
+                index.ids().remove(id);
+            }
+            for (SecondaryIndex secondaryIndex : SecondaryIndex.of(dataMap)) {
+                KeyIndex keyIndex = keyIndexes.get(secondaryIndex);
+                if (keyIndex != null && keyIndex.list() == data) {
+                    if (size - data.size() > 1) {
+                        // Duplicates of the ID may have other keys, so the list is grouped again on the next lookup
+                        keyIndexes.remove(secondaryIndex);
+                    } else {
+                        keyIndex.keys().getOrDefault(secondaryIndex.keyOf(removed), new ArrayList<>()).remove(removed);
+                    }
+                }
             }
+            write(dataMap, data);
+            return true;
         }
 
         return false;
@@ -218,14 +688,12 @@ public class JavaSerializedDatabase implements Database {
      *
      * @return True if the removal was successful, false otherwise.
      */
-    public <T extends DatabaseObject> boolean remove(DataMap dataMap, Predicate<T> filter) {
-        String path = dataMap.getFilename();
-
-        List<T> data = load(path);
+    public synchronized <T extends DatabaseObject> boolean remove(DataMap dataMap, Predicate<T> filter) {
+        List<T> data = read(dataMap);
         if (data != null) {
             List<T> filteredData = data.stream().filter((v) -> !filter.test(v)).collect(Collectors.toCollection(ArrayList::new));
             if (data.size() > filteredData.size()) {
-                save(filteredData, path);
+                write(dataMap, filteredData);
                 return true;
             }
         }
@@ -233,6 +701,340 @@ public class JavaSerializedDatabase implements Database {
         return false;
     }
 
+    /**
+     * Reads the list of a DataMap, from memory if it is resident or from disk otherwise.
+     *
+     * @param dataMap The DataMap to read.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The list of objects, or null if there is no data for the DataMap and the database is not in cached mode.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends DatabaseObject> List<T> read(DataMap dataMap) {
+        if (!cached) {
+            return loadWithFilter(dataMap);
+        }
+
+        // The cache keeps the lists untyped, but the list of a DataMap was only ever filled with objects of its type
+        List<T> data = (List<T>) cache.get(dataMap);
+        if (data != null) {
+            statistics.get(dataMap).recordHit();
+            return data;
+        }
+
+        statistics.get(dataMap).recordMiss();
+        data = loadWithFilter(dataMap);
+        if (data == null) {
+            data = new ArrayList<>();
+        }
+        cache.put(dataMap, data);
+        return data;
+    }
+
+    /**
+     * Copies an object added to or read from a resident list. In uncached mode, the object is returned as is, since
+     * every read already loads new objects from disk and every write saves the objects to disk.
+     *
+     * @param object The object to copy, or null.
+     * @param <T>    The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The copy of the object, or null if the object is null.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends DatabaseObject> T copyOf(T object) {
+        if (!cached || object == null) {
+            return object;
+        }
+
+        // The codec decodes an object into an instance of the class it was encoded from
+        return (T) COPIER.decode(COPIER.encode(object));
+    }
+
+    /**
+     * Finds the first object with an ID in the list of a DataMap, through the index of the list in cached mode.
+     *
+     * @param dataMap The DataMap of the list.
+     * @param data    The list of objects of the DataMap.
+     * @param id      The ID of the object.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The object, or null if not found.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends DatabaseObject> T find(DataMap dataMap, List<T> data, UUID id) {
+        if (cached) {
+            IdIndex index = indexes.get(dataMap);
+            if (index == null || index.list() != data) {
+                // The resident list was replaced since it was indexed, or was never indexed
+                HashMap<UUID, DatabaseObject> ids = HashMap.newHashMap(data.size());
+                for (T object : data) {
+                    ids.putIfAbsent(object.getId(), object);
+                }
+                index = new IdIndex(data, ids);
+                indexes.put(dataMap, index);
+            }
+            // The index of a DataMap only maps the IDs of its own objects
+            return (T) index.ids().get(id);
+        }
+
+        for (T object : data) {
+            if (object.getId().equals(id)) {
+                return object;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds objects appended to the list of a DataMap to the index of the list, if it is indexed.
+     *
+     * @param dataMap The DataMap of the list.
+     * @param data    The list of objects of the DataMap.
+     * @param objects The objects appended to the list.
+     */
+    private void indexAdded(DataMap dataMap, List<? extends DatabaseObject> data, List<? extends DatabaseObject> objects) {
+        IdIndex index = indexes.get(dataMap);
+        if (index != null && index.list() == data) {
+            for (DatabaseObject object : objects) {
+                index.ids().putIfAbsent(object.getId(), object);
+            }
+        }
+
+        for (SecondaryIndex secondaryIndex : SecondaryIndex.of(dataMap)) {
+            KeyIndex keyIndex = keyIndexes.get(secondaryIndex);
+            if (keyIndex != null && keyIndex.list() == data) {
+                for (DatabaseObject object : objects) {
+                    keyIndex.keys().computeIfAbsent(secondaryIndex.keyOf(object), (key) -> new ArrayList<>()).add(object);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the groups by key of a resident list in a secondary index, grouping the list if it was replaced since it was
+     * grouped or was never grouped.
+     *
+     * @param index The secondary index.
+     * @param data  The resident list of the DataMap of the index.
+     *
+     * @return The groups by key of the list.
+     */
+    private KeyIndex group(SecondaryIndex index, List<? extends DatabaseObject> data) {
+        KeyIndex keyIndex = keyIndexes.get(index);
+        if (keyIndex == null || keyIndex.list() != data) {
+            HashMap<UUID, ArrayList<DatabaseObject>> keys = new HashMap<>();
+            for (DatabaseObject object : data) {
+                keys.computeIfAbsent(index.keyOf(object), (key) -> new ArrayList<>()).add(object);
+            }
+            keyIndex = new KeyIndex(data, keys);
+            keyIndexes.put(index, keyIndex);
+        }
+        return keyIndex;
+    }
+
+    /**
+     * Gets the function planning the queries, which gives the number of objects having a key in a secondary index in
+     * cached mode, and marks every index as unindexed otherwise, since the objects are then filtered whole.
+     *
+     * @return The function estimating the number of objects having a key in an index.
+     */
+    private ToLongBiFunction<SecondaryIndex, UUID> groupSizes() {
+        if (!cached) {
+            return (index, key) -> Query.UNINDEXED;
+        }
+
+        return (index, key) -> {
+            List<? extends DatabaseObject> group = group(index, read(index.getDataMap())).keys().get(key);
+            return group != null ? group.size() : 0;
+        };
+    }
+
+    /**
+     * Gets the keys of an object in the secondary indexes in which its DataMap is grouped.
+     *
+     * @param dataMap The DataMap of the object.
+     * @param object  The object.
+     *
+     * @return The key of the object in each grouped index.
+     */
+    private EnumMap<SecondaryIndex, UUID> groupedKeys(DataMap dataMap, DatabaseObject object) {
+        EnumMap<SecondaryIndex, UUID> keys = new EnumMap<>(SecondaryIndex.class);
+        for (SecondaryIndex index : SecondaryIndex.of(dataMap)) {
+            if (keyIndexes.containsKey(index)) {
+                keys.put(index, index.keyOf(object));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Drops the groups of the secondary indexes in which an updated object changed key, so that they are grouped again
+     * on their next lookup with the object in the order of the list.
+     *
+     * @param keys   The keys of the object in the grouped indexes before the update.
+     * @param object The updated object.
+     */
+    private void dropChangedKeys(EnumMap<SecondaryIndex, UUID> keys, DatabaseObject object) {
+        for (Map.Entry<SecondaryIndex, UUID> entry : keys.entrySet()) {
+            if (!Objects.equals(entry.getValue(), entry.getKey().keyOf(object))) {
+                keyIndexes.remove(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Checks if the list of a DataMap is resident.
+     *
+     * @param dataMap The DataMap to check.
+     *
+     * @return True if the list is in memory, false otherwise.
+     */
+    private synchronized boolean isResident(DataMap dataMap) {
+        return cache.containsKey(dataMap);
+    }
+
+    /**
+     * Loads the list of a DataMap from disk and makes it resident.
+     * The file is read without holding the lock of the database, and a list made resident in the meantime is kept.
+     *
+     * @param dataMap The DataMap to load.
+     *
+     * @return The report of the load.
+     */
+    private WarmUpReport warmUp(DataMap dataMap) {
+        long start = System.nanoTime();
+        List<DatabaseObject> loaded = load(dataMap.getFilename());
+        List<? extends DatabaseObject> data = loaded != null ? loaded : new ArrayList<>();
+
+        List<? extends DatabaseObject> resident;
+        synchronized (this) {
+            resident = cache.computeIfAbsent(dataMap, (key) -> data);
+            if (resident == data && loaded != null && getFilter(dataMap) == null) {
+                saveFilter(dataMap, loaded);
+            }
+        }
+        return new WarmUpReport(dataMap, resident.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Flushes the pending changes, reporting a failure instead of throwing it.
+     * Runs periodically on the background flusher.
+     */
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Persists the list of a DataMap and, in cached mode, makes it the resident list.
+     * Unless the durability is {@link Durability#SYNC}, the list is only made resident and its DataMap marked dirty.
+     * If persisting fails, the resident list is dropped so that the next read reflects the disk.
+     *
+     * @param dataMap The DataMap to write.
+     * @param data    The complete list of objects of the DataMap.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     */
+    private <T extends DatabaseObject> void write(DataMap dataMap, List<T> data) {
+        if (!durability.isSync()) {
+            // The filter is rebuilt when the list is flushed, the lookups scan the list until then
+            cache.put(dataMap, data);
+            dirty.add(dataMap);
+            filters.remove(dataMap);
+            return;
+        }
+
+        try {
+            save(data, dataMap.getFilename(), compressions.get(dataMap));
+        } catch (RuntimeException e) {
+            cache.remove(dataMap);
+            filters.remove(dataMap);
+            throw e;
+        }
+        saveFilter(dataMap, data);
+
+        if (cached) {
+            cache.put(dataMap, data);
+        }
+    }
+
+    /**
+     * Loads the list of a DataMap from disk and, if its filter does not match its file, rebuilds and saves the filter.
+     *
+     * @param dataMap The DataMap to load.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The list of objects, or null if there is no data for the DataMap.
+     */
+    private <T extends DatabaseObject> List<T> loadWithFilter(DataMap dataMap) {
+        List<T> data = load(dataMap.getFilename());
+        if (data != null && getFilter(dataMap) == null) {
+            saveFilter(dataMap, data);
+        }
+        return data;
+    }
+
+    /**
+     * Gets the filter of a DataMap, reading it from disk if it is not in memory yet. In uncached mode, the file of the
+     * DataMap may have been written by another database since the filter was built, so the filter in memory is only
+     * used while the file still matches its stamp.
+     *
+     * @param dataMap The DataMap.
+     *
+     * @return The filter, or null if there is none matching the file of the DataMap.
+     */
+    private BloomFilter getFilter(DataMap dataMap) {
+        StampedFilter stamped = filters.get(dataMap);
+        File file = new File(savePath + dataMap.getFilename());
+        if (stamped != null && (cached || stamped.matches(file))) {
+            return stamped.filter();
+        }
+        if (cached && !durability.isSync() && dirty.contains(dataMap)) {
+            return null;
+        }
+
+        filters.remove(dataMap);
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(savePath + dataMap.getBaseName() + ".bloom")))) {
+            long length = input.readLong();
+            long lastModified = input.readLong();
+            if (length != file.length() || lastModified != file.lastModified()) {
+                return null;
+            }
+            stamped = new StampedFilter(length, lastModified, BloomFilter.readFrom(input));
+        } catch (IOException e) {
+            return null;
+        }
+        filters.put(dataMap, stamped);
+        return stamped.filter();
+    }
+
+    /**
+     * Builds the filter of a DataMap from its list and saves it, stamped with the file of the DataMap.
+     * A filter which could not be saved is only kept in memory.
+     *
+     * @param dataMap The DataMap.
+     * @param data    The complete list of objects of the DataMap, as saved in its file.
+     */
+    private void saveFilter(DataMap dataMap, List<? extends DatabaseObject> data) {
+        BloomFilter filter = BloomFilter.create(data.size(), falsePositiveRate);
+        for (DatabaseObject object : data) {
+            filter.add(object.getId());
+        }
+        File file = new File(savePath + dataMap.getFilename());
+        StampedFilter stamped = new StampedFilter(file.length(), file.lastModified(), filter);
+        filters.put(dataMap, stamped);
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(savePath + dataMap.getBaseName() + ".bloom", false)))) {
+            output.writeLong(stamped.length());
+            output.writeLong(stamped.lastModified());
+            filter.writeTo(output);
+        } catch (IOException e) {
+            System.out.println("Could not save the filter of " + dataMap);
+        }
+    }
+
     /**
      * Saves the current state of some data to the specified file path.
      *
@@ -241,25 +1043,41 @@ public class JavaSerializedDatabase implements Database {
      * @param <T>      The type of data.
      */
     protected <T> void save(T data, String filename) {
+        save(data, filename, Compression.NONE);
+    }
+
+    /**
+     * Saves the current state of some data to the specified file path, compressing it as it is written.
+     * The data is written to a new file which then replaces the previous one, so a file is never modified in place.
+     *
+     * @param data        Some data to store to the file.
+     * @param filename    The file name to which data needs to be saved.
+     * @param compression The compression applied to the file.
+     * @param <T>         The type of data.
+     */
+    protected <T> void save(T data, String filename, Compression compression) {
         File file = new File(savePath + filename);
+        File temporary = new File(savePath + filename + ".tmp");
         try {
-            file.createNewFile();
+            temporary.createNewFile();
         } catch (IOException e) {
             throw new RuntimeException("Could not create the save file");
         }
 
-        try (FileOutputStream outputFile = new FileOutputStream(file, false)) {
-            try (ObjectOutputStream output = new ObjectOutputStream(outputFile)) {
+        try (FileOutputStream outputFile = new FileOutputStream(temporary, false)) {
+            try (ObjectOutputStream output = new ObjectOutputStream(compression.compress(new BufferedOutputStream(outputFile)))) {
                 output.writeObject(data);
                 output.flush();
             }
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         } catch (IOException e) {
+            temporary.delete();
             throw new RuntimeException("Could not save the data");
         }
     }
 
     /**
-     * Loads data from the specified file path.
+     * Loads data from the specified file path, decompressing it as it is read if it was compressed.
      *
      * @param filename The file name from which data needs to be loaded.
      * @param <T>      The type of data.
@@ -268,11 +1086,47 @@ public class JavaSerializedDatabase implements Database {
      */
     protected <T> T load(String filename) {
         try (FileInputStream file = new FileInputStream(savePath + filename)) {
-            try (ObjectInputStream input = new ObjectInputStream(file)) {
+            try (ObjectInputStream input = new ObjectInputStream(Compression.decompress(file))) {
                 return (T) input.readObject();
             }
         } catch (IOException | ClassNotFoundException e) {
             return null;
         }
     }
+
+    /**
+     * The index by ID of a resident list.
+     *
+     * @param list The indexed list, which is replaced rather than modified when objects are removed by a filter.
+     * @param ids  The first object of each ID in the list.
+     */
+    private record IdIndex(List<? extends DatabaseObject> list, HashMap<UUID, DatabaseObject> ids) {}
+
+    /**
+     * The groups by key of a resident list in a secondary index.
+     *
+     * @param list The grouped list, which is replaced rather than modified when objects are removed by a filter.
+     * @param keys The objects of each key, in the order of the list.
+     */
+    private record KeyIndex(List<? extends DatabaseObject> list, HashMap<UUID, ArrayList<DatabaseObject>> keys) {}
+
+    /**
+     * The filter of a DataMap, stamped with the size and the modification time of the file it was built from.
+     *
+     * @param length       The size of the file in bytes.
+     * @param lastModified The modification time of the file, in milliseconds since the epoch.
+     * @param filter       The filter of the identifiers of the objects in the file.
+     */
+    private record StampedFilter(long length, long lastModified, BloomFilter filter) {
+        /**
+         * Checks if a file is still the one the filter was built from.
+         *
+         * @param file The file of the DataMap.
+         *
+         * @return True if the file has the size and the modification time of the stamp, false otherwise.
+         */
+        private boolean matches(File file) {
+            return file.length() == length && file.lastModified() == lastModified;
+        }
+    }
 }
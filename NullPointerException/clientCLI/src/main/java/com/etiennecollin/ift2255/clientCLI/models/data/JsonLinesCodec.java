@@ -0,0 +1,508 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Encodes objects as JSON on a single line, the format of the files of the bulk import and export.
+ * <p>
+ * An object is written as a JSON object holding the simple name of its class under {@value #TYPE_KEY}, followed by its
+ * fields in the layout of {@link BinaryRecordCodec}. Values whose declared type determines their class are written as
+ * plain JSON values: numbers and booleans as they are, and strings, identifiers, dates, months and enums as strings.
+ * The other values, such as the products of an {@link Order}, are written along with their class: lists as arrays,
+ * integers as numbers, strings as strings, and the other values as JSON objects holding their class and either their
+ * fields or their value under {@value #VALUE_KEY}.
+ * <p>
+ * The fields missing from a line are left to the value given by the constructor of their class and the unknown
+ * fields are ignored, so that the files written by another version of the application can still be imported.
+ */
+public class JsonLinesCodec {
+    /**
+     * The key holding the class of an object.
+     */
+    static final String TYPE_KEY = "@type";
+    /**
+     * The key holding the value of an object which has no fields, such as an identifier or an enum.
+     */
+    static final String VALUE_KEY = "value";
+    /**
+     * The codec providing the layout of each class.
+     */
+    private final BinaryRecordCodec layouts = new BinaryRecordCodec();
+    /**
+     * The classes that can be written, by simple name.
+     */
+    private final Map<String, Class<?>> types = new HashMap<>();
+
+    /**
+     * Constructs a JsonLinesCodec supporting the classes supported by {@link BinaryRecordCodec}.
+     */
+    public JsonLinesCodec() {
+        for (Class<?> type : BinaryRecordCodec.TYPES) {
+            types.put(type.getSimpleName(), type);
+        }
+    }
+
+    /**
+     * Checks if a class is written as a single JSON string.
+     *
+     * @param type The class.
+     *
+     * @return True if the class is a string, an identifier, a date, a month or an enum, false otherwise.
+     */
+    private static boolean isScalar(Class<?> type) {
+        return type == String.class || type == UUID.class || type == LocalDate.class || type == YearMonth.class || type.isEnum();
+    }
+
+    /**
+     * Appends a string to a JSON text, quoted and escaped.
+     *
+     * @param json  The JSON text.
+     * @param value The string.
+     */
+    private static void writeString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Encodes an object as a line of JSON, without the line separator.
+     *
+     * @param object The object to encode.
+     *
+     * @return The line.
+     *
+     * @throws IOException If the class of the object or of one of its values is not supported.
+     */
+    public String encode(DatabaseObject object) throws IOException {
+        StringBuilder json = new StringBuilder(256);
+        writeTagged(json, object);
+        return json.toString();
+    }
+
+    /**
+     * Decodes an object written by {@link #encode(DatabaseObject)}.
+     *
+     * @param line The line.
+     *
+     * @return The decoded object.
+     *
+     * @throws IOException If the line is not valid JSON or does not contain a supported object.
+     */
+    public DatabaseObject decode(String line) throws IOException {
+        Parser parser = new Parser(line);
+        Object tree = parser.parse();
+        try {
+            if (readTagged(tree) instanceof DatabaseObject object) {
+                return object;
+            }
+        } catch (ClassCastException | IllegalArgumentException | ArithmeticException | DateTimeException e) {
+            throw new IOException("Invalid value: " + e.getMessage());
+        }
+        throw new IOException("The line does not contain an object of the database");
+    }
+
+    /**
+     * Appends a value whose class is determined by its declared type to a JSON text.
+     *
+     * @param json     The JSON text.
+     * @param declared The declared type of the value.
+     * @param value    The value.
+     *
+     * @throws IOException If the value could not be written.
+     */
+    private void writeValue(StringBuilder json, Class<?> declared, Object value) throws IOException {
+        if (declared == int.class || declared == long.class || declared == boolean.class) {
+            json.append(value);
+        } else if (declared == double.class) {
+            if (!Double.isFinite((double) value)) {
+                throw new IOException("The number " + value + " cannot be written");
+            }
+            json.append(value);
+        } else if (isScalar(declared)) {
+            if (value == null) {
+                json.append("null");
+            } else {
+                writeString(json, declared.isEnum() ? ((Enum<?>) value).name() : value.toString());
+            }
+        } else {
+            writeTagged(json, value);
+        }
+    }
+
+    /**
+     * Appends a value along with its class to a JSON text.
+     *
+     * @param json  The JSON text.
+     * @param value The value.
+     *
+     * @throws IOException If the class of the value is not supported.
+     */
+    private void writeTagged(StringBuilder json, Object value) throws IOException {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+
+        Class<?> type = value.getClass();
+        if (types.get(type.getSimpleName()) != type) {
+            throw new IOException("Unsupported type " + type.getName());
+        }
+
+        if (type == Integer.class) {
+            json.append(value);
+        } else if (type == String.class) {
+            writeString(json, (String) value);
+        } else if (type == ArrayList.class) {
+            json.append('[');
+            List<?> list = (List<?>) value;
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                writeTagged(json, list.get(i));
+            }
+            json.append(']');
+        } else {
+            json.append('{');
+            writeString(json, TYPE_KEY);
+            json.append(':');
+            writeString(json, type.getSimpleName());
+            if (isScalar(type)) {
+                json.append(',');
+                writeString(json, VALUE_KEY);
+                json.append(':');
+                writeValue(json, type, value);
+            } else {
+                try {
+                    for (Field field : layouts.getFields(type)) {
+                        json.append(',');
+                        writeString(json, field.getName());
+                        json.append(':');
+                        writeValue(json, field.getType(), field.get(value));
+                    }
+                } catch (IllegalAccessException e) {
+                    throw new IOException(e);
+                }
+            }
+            json.append('}');
+        }
+    }
+
+    /**
+     * Converts a parsed JSON value to a value of a declared type.
+     *
+     * @param declared The declared type of the value.
+     * @param tree     The parsed JSON value.
+     *
+     * @return The value.
+     *
+     * @throws IOException If the JSON value does not match the declared type.
+     */
+    private Object readValue(Class<?> declared, Object tree) throws IOException {
+        if (declared.isPrimitive() && tree == null) {
+            throw new IOException("Missing value of type " + declared.getName());
+        }
+
+        if (declared == int.class) {
+            return ((BigDecimal) tree).intValueExact();
+        } else if (declared == long.class) {
+            return ((BigDecimal) tree).longValueExact();
+        } else if (declared == double.class) {
+            return ((BigDecimal) tree).doubleValue();
+        } else if (declared == boolean.class) {
+            return (Boolean) tree;
+        } else if (!isScalar(declared)) {
+            return readTagged(tree);
+        } else if (tree == null) {
+            return null;
+        }
+
+        String text = (String) tree;
+        if (declared == String.class) {
+            return text;
+        } else if (declared == UUID.class) {
+            return UUID.fromString(text);
+        } else if (declared == LocalDate.class) {
+            return LocalDate.parse(text);
+        } else if (declared == YearMonth.class) {
+            return YearMonth.parse(text);
+        }
+        for (Object constant : declared.getEnumConstants()) {
+            if (((Enum<?>) constant).name().equals(text)) {
+                return constant;
+            }
+        }
+        throw new IOException("Unknown constant " + text + " of " + declared.getSimpleName());
+    }
+
+    /**
+     * Converts a parsed JSON value written along with its class.
+     *
+     * @param tree The parsed JSON value.
+     *
+     * @return The value.
+     *
+     * @throws IOException If the class of the value is not supported.
+     */
+    private Object readTagged(Object tree) throws IOException {
+        if (tree == null) {
+            return null;
+        } else if (tree instanceof BigDecimal number) {
+            return number.intValueExact();
+        } else if (tree instanceof String text) {
+            return text;
+        } else if (tree instanceof List<?> elements) {
+            ArrayList<Object> list = new ArrayList<>(elements.size());
+            for (Object element : elements) {
+                list.add(readTagged(element));
+            }
+            return list;
+        }
+
+        Map<?, ?> fields = (Map<?, ?>) tree;
+        Class<?> type = types.get((String) fields.get(TYPE_KEY));
+        if (type == null) {
+            throw new IOException("Unknown type " + fields.get(TYPE_KEY));
+        } else if (type == Integer.class || type == ArrayList.class) {
+            return readTagged(fields.get(VALUE_KEY));
+        } else if (isScalar(type)) {
+            return readValue(type, fields.get(VALUE_KEY));
+        }
+
+        HashMap<String, Object> values = new HashMap<>();
+        for (Field field : layouts.getFields(type)) {
+            if (fields.containsKey(field.getName())) {
+                values.put(field.getName(), readValue(field.getType(), fields.get(field.getName())));
+            }
+        }
+        return layouts.newInstance(type, values);
+    }
+
+    /**
+     * Parses a JSON text into maps, lists, strings, numbers, booleans and nulls.
+     */
+    private static class Parser {
+        /**
+         * The JSON text.
+         */
+        private final String text;
+        /**
+         * The position of the next character to read.
+         */
+        private int position;
+
+        /**
+         * Constructs a Parser of a JSON text.
+         *
+         * @param text The JSON text.
+         */
+        Parser(String text) {
+            this.text = text;
+        }
+
+        /**
+         * Parses the whole text as a single value.
+         *
+         * @return The value.
+         *
+         * @throws IOException If the text is not a single valid JSON value.
+         */
+        Object parse() throws IOException {
+            Object value = parseValue();
+            skipWhitespace();
+            if (position < text.length()) {
+                throw error();
+            }
+            return value;
+        }
+
+        /**
+         * Parses the value starting at the current position.
+         *
+         * @return The value.
+         *
+         * @throws IOException If the value is not valid JSON.
+         */
+        private Object parseValue() throws IOException {
+            skipWhitespace();
+            if (position >= text.length()) {
+                throw error();
+            }
+
+            char c = text.charAt(position);
+            if (c == '{') {
+                position++;
+                LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+                if (consume('}')) {
+                    return map;
+                }
+                do {
+                    skipWhitespace();
+                    String key = parseString();
+                    expect(':');
+                    map.put(key, parseValue());
+                } while (consume(','));
+                expect('}');
+                return map;
+            } else if (c == '[') {
+                position++;
+                ArrayList<Object> list = new ArrayList<>();
+                if (consume(']')) {
+                    return list;
+                }
+                do {
+                    list.add(parseValue());
+                } while (consume(','));
+                expect(']');
+                return list;
+            } else if (c == '"') {
+                return parseString();
+            } else if (text.startsWith("true", position)) {
+                position += 4;
+                return true;
+            } else if (text.startsWith("false", position)) {
+                position += 5;
+                return false;
+            } else if (text.startsWith("null", position)) {
+                position += 4;
+                return null;
+            }
+
+            int start = position;
+            while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+                position++;
+            }
+            try {
+                return new BigDecimal(text.substring(start, position));
+            } catch (NumberFormatException e) {
+                position = start;
+                throw error();
+            }
+        }
+
+        /**
+         * Parses the string starting at the current position.
+         *
+         * @return The unescaped string.
+         *
+         * @throws IOException If the string is not valid JSON.
+         */
+        private String parseString() throws IOException {
+            if (position >= text.length() || text.charAt(position) != '"') {
+                throw error();
+            }
+            position++;
+
+            StringBuilder value = new StringBuilder();
+            while (position < text.length()) {
+                char c = text.charAt(position++);
+                if (c == '"') {
+                    return value.toString();
+                } else if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+
+                if (position >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append(escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > text.length()) {
+                            throw error();
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error();
+                        }
+                        position += 4;
+                    }
+                    default -> throw error();
+                }
+            }
+            throw error();
+        }
+
+        /**
+         * Skips the whitespace and the specified character if it is the next one.
+         *
+         * @param c The character.
+         *
+         * @return True if the character was skipped, false otherwise.
+         */
+        private boolean consume(char c) {
+            skipWhitespace();
+            if (position < text.length() && text.charAt(position) == c) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Skips the whitespace and the specified character, which must be the next one.
+         *
+         * @param c The character.
+         *
+         * @throws IOException If the next character is another one.
+         */
+        private void expect(char c) throws IOException {
+            if (!consume(c)) {
+                throw error();
+            }
+        }
+
+        /**
+         * Skips the whitespace at the current position.
+         */
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        /**
+         * Creates the error reporting an unexpected character at the current position.
+         *
+         * @return The error.
+         */
+        private IOException error() {
+            return new IOException("Malformed JSON at column " + (position + 1));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.util.function.Predicate;
+
+/**
+ * A filter which only reads the identifier and the key fields of the objects of its {@link DataMap}, as listed by
+ * {@link DataMap#getKeyFields()}.
+ * <p>
+ * Storage engines may test such a filter against objects of which only the key fields were decoded, and only decode
+ * the rest of the objects that match. A filter reading any other field must not be a KeyPredicate, since it would
+ * then see the default value of that field.
+ *
+ * @param <T> The type of object tested by the filter.
+ */
+@FunctionalInterface
+public interface KeyPredicate<T> extends Predicate<T> {
+    /**
+     * Marks a filter as only reading the key fields of its DataMap.
+     *
+     * @param filter The filter.
+     * @param <T>    The type of object tested by the filter.
+     *
+     * @return The filter, as a KeyPredicate.
+     */
+    static <T> KeyPredicate<T> of(KeyPredicate<T> filter) {
+        return filter;
+    }
+}
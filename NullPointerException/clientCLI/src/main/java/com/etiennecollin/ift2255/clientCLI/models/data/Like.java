@@ -10,6 +10,10 @@ import java.util.UUID;
  * Represents a like given by a user to a specific entity, extending DatabaseObject.
  */
 public class Like extends DatabaseObject {
+    /**
+     * The version of the serialized form, pinned so that the likes already saved can still be read.
+     */
+    private static final long serialVersionUID = 400289706108614136L;
     /**
      * The unique identifier of the entity that has been liked.
      * <p>
@@ -39,6 +43,18 @@ public class Like extends DatabaseObject {
         this.likeType = likeType;
     }
 
+    /**
+     * Constructs a Like from the fields decoded by a {@link RecordCodec}.
+     *
+     * @param fields The decoded fields.
+     */
+    Like(DecodedFields fields) {
+        super(fields);
+        this.likedEntityId = fields.get("likedEntityId");
+        this.userId = fields.get("userId");
+        this.likeType = fields.get("likeType");
+    }
+
     /**
      * Gets the unique identifier of the entity that has been liked.
      *
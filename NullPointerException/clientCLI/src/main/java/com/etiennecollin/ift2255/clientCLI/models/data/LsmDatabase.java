@@ -0,0 +1,1097 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Implementation of the Database interface storing each {@link DataMap} in a log-structured merge tree.
+ * <p>
+ * Writes go to a memtable, an in-memory map sorted by identifier, and are appended to a write-ahead log replayed on
+ * startup. Once the memtable passes a size limit, it is written sequentially to disk as a {@link SortedRun} of level
+ * 0 and the log is cleared. A background compactor merges the runs of level 0 into level 1 once there are
+ * {@value #LEVEL_0_RUN_LIMIT} of them, and the single run of each following level into the next one once it is
+ * {@value #LEVEL_SIZE_RATIO} times larger than the previous level may be. The runs of each DataMap are listed in a
+ * manifest, replaced atomically after every flush and compaction.
+ * <p>
+ * A point lookup reads the memtable, then the runs from the newest to the oldest, and stops at the first entry of the
+ * identifier. The runs of which the {@link BloomFilter} rules out the identifier are skipped without being read. A scan merges the memtable and every run, so it returns the objects in the order of their identifiers.
+ */
+public class LsmDatabase implements Database {
+    /**
+     * The number of runs of level 0 which triggers their compaction into level 1.
+     */
+    private static final int LEVEL_0_RUN_LIMIT = 4;
+    /**
+     * The ratio between the maximum sizes of two consecutive levels.
+     */
+    private static final int LEVEL_SIZE_RATIO = 10;
+    /**
+     * The default size in bytes of the memtable which triggers its flush.
+     */
+    private static final int DEFAULT_MEMTABLE_LIMIT = 4 * 1024 * 1024;
+    /**
+     * The path where the trees are stored.
+     */
+    public final String savePath;
+    /**
+     * The size in bytes of the memtable which triggers its flush.
+     */
+    private final int memtableLimit;
+    /**
+     * The codec encoding the objects stored in the entries.
+     */
+    private final RecordCodec codec;
+    /**
+     * The tree of each DataMap.
+     */
+    private final EnumMap<DataMap, LsmTree> trees = new EnumMap<>(DataMap.class);
+    /**
+     * The executor running the background compactor.
+     */
+    private final ExecutorService compactor;
+    /**
+     * The rate of false positives of the filters of the runs written from now on.
+     */
+    private volatile double falsePositiveRate = BloomFilter.DEFAULT_FALSE_POSITIVE_RATE;
+
+    /**
+     * Constructs an LsmDatabase storing its trees next to the application.
+     */
+    public LsmDatabase() {
+        this(JavaSerializedDatabase.defaultSavePath());
+    }
+
+    /**
+     * Constructs an LsmDatabase storing its trees in the specified directory.
+     *
+     * @param savePath The path of the directory where the trees are stored, ending with a separator.
+     */
+    public LsmDatabase(String savePath) {
+        this(savePath, DEFAULT_MEMTABLE_LIMIT);
+    }
+
+    /**
+     * Constructs an LsmDatabase storing its trees in the specified directory.
+     *
+     * @param savePath      The path of the directory where the trees are stored, ending with a separator.
+     * @param memtableLimit The size in bytes of the memtable which triggers its flush.
+     */
+    public LsmDatabase(String savePath, int memtableLimit) {
+        this(savePath, memtableLimit, new BinaryRecordCodec());
+    }
+
+    /**
+     * Constructs an LsmDatabase and opens the tree of every DataMap, replaying its write-ahead log.
+     *
+     * @param savePath      The path of the directory where the trees are stored, ending with a separator.
+     * @param memtableLimit The size in bytes of the memtable which triggers its flush.
+     * @param codec         The codec encoding the objects stored in the entries.
+     *
+     * @throws IllegalArgumentException If the size of the memtable is not positive.
+     */
+    public LsmDatabase(String savePath, int memtableLimit, RecordCodec codec) throws IllegalArgumentException {
+        if (memtableLimit <= 0) {
+            throw new IllegalArgumentException("The size of the memtable must be positive");
+        }
+
+        this.savePath = savePath;
+        this.memtableLimit = memtableLimit;
+        this.codec = codec;
+        compactor = Executors.newSingleThreadExecutor((runnable) -> {
+            Thread thread = new Thread(runnable, "lsm-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (DataMap dataMap : DataMap.values()) {
+            trees.put(dataMap, new LsmTree(dataMap));
+        }
+    }
+
+    /**
+     * Sets the rate of false positives of the {@link BloomFilter} of the runs written from now on. A lower rate reads
+     * fewer runs on lookups of identifiers which do not exist, for a larger filter in memory and on disk.
+     *
+     * @param falsePositiveRate The rate of false positives, strictly between 0 and 1.
+     *
+     * @throws IllegalArgumentException If the rate is not strictly between 0 and 1.
+     */
+    public void setFalsePositiveRate(double falsePositiveRate) throws IllegalArgumentException {
+        BloomFilter.checkFalsePositiveRate(falsePositiveRate);
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Gets a specific object from the database based on its ID.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param id      The ID of the object.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The object with the specified ID, or null if not found.
+     */
+    @Override
+    public <T extends DatabaseObject> T get(DataMap dataMap, UUID id) {
+        return trees.get(dataMap).get(id);
+    }
+
+    /**
+     * Gets a list of objects from the database based on a filter.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return A list of objects that match the filter.
+     */
+    @Override
+    public <T extends DatabaseObject> List<T> get(DataMap dataMap, Predicate<T> filter) {
+        return trees.get(dataMap).select(filter);
+    }
+
+    /**
+     * Adds a single object to the database.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param object  The object to add.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the addition was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean add(DataMap dataMap, T object) {
+        return add(dataMap, List.of(object));
+    }
+
+    /**
+     * Adds a list of objects to the database.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param objects The list of objects to add.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the addition was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean add(DataMap dataMap, List<T> objects) {
+        try {
+            trees.get(dataMap).add(objects);
+            return true;
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Updates a single object in the database.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param update  The update operation to perform on the object.
+     * @param id      The ID of the object to update.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the update was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, UUID id) {
+        return trees.get(dataMap).update(update, id);
+    }
+
+    /**
+     * Updates multiple objects in the database based on a filter.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param update  The update operation to perform on matching objects.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the update was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, Predicate<T> filter) {
+        return trees.get(dataMap).update(update, filter);
+    }
+
+    /**
+     * Removes a single object from the database based on its ID.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param id      The ID of the object to remove.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the removal was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean remove(DataMap dataMap, UUID id) {
+        return trees.get(dataMap).remove(id);
+    }
+
+    /**
+     * Removes multiple objects from the database based on a filter.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the removal was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean remove(DataMap dataMap, Predicate<T> filter) {
+        return trees.get(dataMap).remove(filter);
+    }
+
+    /**
+     * Writes the memtable of a DataMap to a run and merges all of its runs into a single one.
+     *
+     * @param dataMap The DataMap whose tree is compacted.
+     */
+    public void compact(DataMap dataMap) {
+        LsmTree tree = trees.get(dataMap);
+        tree.flush();
+        tree.compactAll();
+    }
+
+    /**
+     * Gets the number of runs on disk of a DataMap, over all levels.
+     *
+     * @param dataMap The DataMap whose tree is inspected.
+     *
+     * @return The number of runs.
+     */
+    public int getRunCount(DataMap dataMap) {
+        return trees.get(dataMap).getRunCount();
+    }
+
+    /**
+     * Pins the manifest, the runs and the write-ahead log of every tree in a snapshot. Each tree is pinned while it
+     * is briefly locked, so the writes to the other trees go on.
+     *
+     * @param snapshot The snapshot in which the files are pinned.
+     *
+     * @throws RuntimeException If a file could not be pinned.
+     */
+    @Override
+    public void snapshot(Snapshot snapshot) throws RuntimeException {
+        for (LsmTree tree : trees.values()) {
+            tree.snapshot(snapshot);
+        }
+    }
+
+    /**
+     * Stops the background compactor, writes the memtables to runs and closes the trees.
+     */
+    @Override
+    public void close() {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (LsmTree tree : trees.values()) {
+            tree.close();
+        }
+    }
+
+    /**
+     * Merges cursors sorted by identifier into a single cursor, keeping only the newest entry of each identifier.
+     */
+    private static class MergingCursor implements SortedRun.Cursor {
+        /**
+         * The next entry of each cursor which is not exhausted, ordered by identifier and then from the newest cursor.
+         */
+        private final PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparing((Head head) -> head.entry().id()).thenComparingInt(Head::age));
+        /**
+         * The merged cursors.
+         */
+        private final List<SortedRun.Cursor> cursors;
+        /**
+         * Whether the tombstones are dropped instead of being returned.
+         */
+        private final boolean dropTombstones;
+
+        /**
+         * Constructs a MergingCursor over cursors sorted from the newest to the oldest.
+         *
+         * @param cursors        The cursors, from the newest to the oldest.
+         * @param dropTombstones Whether the tombstones are dropped instead of being returned.
+         *
+         * @throws IOException If the first entries could not be read.
+         */
+        MergingCursor(List<SortedRun.Cursor> cursors, boolean dropTombstones) throws IOException {
+            this.cursors = cursors;
+            this.dropTombstones = dropTombstones;
+            for (int age = 0; age < cursors.size(); age++) {
+                advance(age);
+            }
+        }
+
+        @Override
+        public SortedRun.Entry next() throws IOException {
+            while (!heads.isEmpty()) {
+                Head head = heads.poll();
+                advance(head.age());
+                // The older entries of the same identifier are hidden by the newest one
+                while (!heads.isEmpty() && heads.peek().entry().id().equals(head.entry().id())) {
+                    advance(heads.poll().age());
+                }
+
+                if (head.entry().value() != null || !dropTombstones) {
+                    return head.entry();
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (SortedRun.Cursor cursor : cursors) {
+                cursor.close();
+            }
+        }
+
+        /**
+         * Reads the next entry of a cursor into the heads.
+         *
+         * @param age The index of the cursor, from the newest.
+         *
+         * @throws IOException If the entry could not be read.
+         */
+        private void advance(int age) throws IOException {
+            SortedRun.Entry entry = cursors.get(age).next();
+            if (entry != null) {
+                heads.add(new Head(entry, age));
+            }
+        }
+
+        /**
+         * The next entry of a cursor.
+         *
+         * @param entry The entry.
+         * @param age   The index of the cursor, from the newest.
+         */
+        private record Head(SortedRun.Entry entry, int age) {
+        }
+    }
+
+    /**
+     * The log-structured merge tree of a single DataMap.
+     */
+    private class LsmTree {
+        /**
+         * The names of the key fields of the DataMap.
+         */
+        private final Set<String> keyFields;
+        /**
+         * The base name of the files of the tree.
+         */
+        private final String baseName;
+        /**
+         * The write-ahead log of the memtable.
+         */
+        private final File log;
+        /**
+         * The manifest listing the runs of each level.
+         */
+        private final File manifest;
+        /**
+         * The entries written since the last flush, where a removed object has a null value.
+         */
+        private final TreeMap<UUID, byte[]> memtable = new TreeMap<>();
+        /**
+         * The runs of level 0, from the newest to the oldest.
+         */
+        private final ArrayList<SortedRun> level0 = new ArrayList<>();
+        /**
+         * The run of each following level, starting at level 1, or null if the level is empty.
+         */
+        private final ArrayList<SortedRun> levels = new ArrayList<>();
+        /**
+         * The lock held during a compaction, so that two compactions never merge the same runs.
+         */
+        private final Object compactionLock = new Object();
+        /**
+         * The approximate size in bytes of the memtable.
+         */
+        private long memtableSize;
+        /**
+         * The number used to name the next run.
+         */
+        private long nextRunNumber;
+        /**
+         * The stream appending entries to the write-ahead log.
+         */
+        private DataOutputStream output;
+
+        /**
+         * Opens the tree of a DataMap, loading the runs of its manifest and replaying its write-ahead log.
+         * Run files left by an interrupted flush or compaction are deleted.
+         *
+         * @param dataMap The DataMap stored in the tree.
+         */
+        LsmTree(DataMap dataMap) {
+            keyFields = dataMap.getKeyFields();
+            baseName = dataMap.getBaseName();
+            log = new File(savePath + baseName + ".wal");
+            manifest = new File(savePath + baseName + ".manifest");
+            try {
+                loadManifest();
+            } catch (IOException e) {
+                throw new RuntimeException("Could not load the data");
+            }
+            replay();
+            open(true);
+        }
+
+        /**
+         * Loads the runs listed in the manifest and deletes the other run files of the tree.
+         *
+         * @throws IOException If a run could not be opened.
+         */
+        private void loadManifest() throws IOException {
+            HashSet<String> listed = new HashSet<>();
+            if (manifest.exists()) {
+                for (String line : Files.readAllLines(manifest.toPath())) {
+                    String[] parts = line.split(" ");
+                    int level = Integer.parseInt(parts[0]);
+                    SortedRun run = new SortedRun(new File(savePath + parts[1]));
+                    if (level == 0) {
+                        level0.add(run);
+                    } else {
+                        while (levels.size() < level) {
+                            levels.add(null);
+                        }
+                        levels.set(level - 1, run);
+                    }
+                    listed.add(parts[1]);
+                    nextRunNumber = Math.max(nextRunNumber, Long.parseLong(parts[1].substring(baseName.length() + 1, parts[1].length() - ".run".length())) + 1);
+                }
+            }
+
+            File[] files = new File(savePath).listFiles((directory, name) -> name.startsWith(baseName + "-") && name.endsWith(".run") && !listed.contains(name));
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+        }
+
+        /**
+         * Writes the manifest listing the current runs, replacing the previous one atomically.
+         *
+         * @throws IOException If the manifest could not be written.
+         */
+        private void saveManifest() throws IOException {
+            StringBuilder lines = new StringBuilder();
+            for (SortedRun run : level0) {
+                lines.append(0).append(' ').append(run.getFile().getName()).append('\n');
+            }
+            for (int level = 1; level <= levels.size(); level++) {
+                SortedRun run = levels.get(level - 1);
+                if (run != null) {
+                    lines.append(level).append(' ').append(run.getFile().getName()).append('\n');
+                }
+            }
+
+            File written = new File(manifest.getPath() + ".tmp");
+            Files.writeString(written.toPath(), lines);
+            Files.move(written.toPath(), manifest.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        /**
+         * Rebuilds the memtable from the entries of the write-ahead log.
+         * An entry truncated by an interrupted write at the end of the log is discarded.
+         */
+        private void replay() {
+            if (!log.exists()) {
+                return;
+            }
+
+            long validLength = 0;
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(log)))) {
+                while (input.available() > 0) {
+                    SortedRun.Entry entry = SortedRun.readEntry(input);
+                    memtable.put(entry.id(), entry.value());
+                    memtableSize += sizeOf(entry.value());
+                    validLength += sizeOf(entry.value()) + Integer.BYTES;
+                }
+            } catch (EOFException e) {
+                try (RandomAccessFile raf = new RandomAccessFile(log, "rw")) {
+                    raf.setLength(validLength);
+                } catch (IOException ex) {
+                    throw new RuntimeException("Could not repair the log " + log.getName());
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not load the data");
+            }
+        }
+
+        /**
+         * Opens the stream appending entries to the write-ahead log.
+         *
+         * @param append Whether the entries already in the log are kept.
+         */
+        private void open(boolean append) {
+            try {
+                output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(log, append)));
+            } catch (IOException e) {
+                throw new RuntimeException("Could not create the save file");
+            }
+        }
+
+        /**
+         * Gets the approximate size in bytes of an entry of the memtable.
+         *
+         * @param value The value of the entry, or null for a tombstone.
+         *
+         * @return The size of the identifier and of the value.
+         */
+        private long sizeOf(byte[] value) {
+            return 2 * Long.BYTES + (value != null ? value.length : 0);
+        }
+
+        /**
+         * Gets the object with the specified identifier from the newest entry of the identifier.
+         *
+         * @param id  The identifier of the object.
+         * @param <T> The type of object which extends {@link DatabaseObject}.
+         *
+         * @return The object, or null if not found.
+         */
+        synchronized <T extends DatabaseObject> T get(UUID id) {
+            byte[] value = lookup(id);
+            return value != null ? decode(value) : null;
+        }
+
+        /**
+         * Gets the objects matching a filter by merging the memtable and every run.
+         *
+         * @param filter The filter predicate.
+         * @param <T>    The type of object which extends {@link DatabaseObject}.
+         *
+         * @return The objects that match the filter, in the order of their identifiers.
+         */
+        synchronized <T extends DatabaseObject> List<T> select(Predicate<T> filter) {
+            ArrayList<T> matches = new ArrayList<>();
+            try (MergingCursor cursor = new MergingCursor(sources(), true)) {
+                for (SortedRun.Entry entry = cursor.next(); entry != null; entry = cursor.next()) {
+                    T object = decodeIfMatches(entry.value(), filter);
+                    if (object != null) {
+                        matches.add(object);
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not load the data");
+            }
+            return matches;
+        }
+
+        /**
+         * Writes objects to the memtable.
+         *
+         * @param objects The objects to write.
+         */
+        synchronized void add(List<? extends DatabaseObject> objects) {
+            for (DatabaseObject object : objects) {
+                write(object.getId(), encode(object));
+            }
+            commit();
+        }
+
+        /**
+         * Updates the object with the specified identifier and writes its new state to the memtable.
+         *
+         * @param update The update operation to perform on the object.
+         * @param id     The identifier of the object.
+         * @param <T>    The type of object which extends {@link DatabaseObject}.
+         *
+         * @return True if the object was found, false otherwise.
+         */
+        synchronized <T extends DatabaseObject> boolean update(Consumer<T> update, UUID id) {
+            T object = get(id);
+            if (object == null) {
+                return false;
+            }
+
+            update.accept(object);
+            write(id, encode(object));
+            commit();
+            return true;
+        }
+
+        /**
+         * Updates the objects matching a filter and writes their new state to the memtable.
+         *
+         * @param update The update operation to perform on the matching objects.
+         * @param filter The filter predicate.
+         * @param <T>    The type of object which extends {@link DatabaseObject}.
+         *
+         * @return True if at least one object matched, false otherwise.
+         */
+        synchronized <T extends DatabaseObject> boolean update(Consumer<T> update, Predicate<T> filter) {
+            List<T> matches = select(filter);
+            for (T object : matches) {
+                update.accept(object);
+                write(object.getId(), encode(object));
+            }
+            commit();
+            return !matches.isEmpty();
+        }
+
+        /**
+         * Writes a tombstone for the object with the specified identifier.
+         *
+         * @param id The identifier of the object.
+         *
+         * @return True if the object was found, false otherwise.
+         */
+        synchronized boolean remove(UUID id) {
+            if (lookup(id) == null) {
+                return false;
+            }
+
+            write(id, null);
+            commit();
+            return true;
+        }
+
+        /**
+         * Writes a tombstone for each object matching a filter.
+         *
+         * @param filter The filter predicate.
+         * @param <T>    The type of object which extends {@link DatabaseObject}.
+         *
+         * @return True if at least one object was removed, false otherwise.
+         */
+        synchronized <T extends DatabaseObject> boolean remove(Predicate<T> filter) {
+            List<T> matches = select(filter);
+            for (T object : matches) {
+                write(object.getId(), null);
+            }
+            commit();
+            return !matches.isEmpty();
+        }
+
+        /**
+         * Gets the number of runs on disk, over all levels.
+         *
+         * @return The number of runs.
+         */
+        synchronized int getRunCount() {
+            return level0.size() + (int) levels.stream().filter(Objects::nonNull).count();
+        }
+
+        /**
+         * Writes an entry to the write-ahead log and to the memtable.
+         *
+         * @param id    The identifier of the object.
+         * @param value The encoded object, or null for a tombstone.
+         */
+        private void write(UUID id, byte[] value) {
+            try {
+                SortedRun.writeEntry(output, new SortedRun.Entry(id, value));
+            } catch (IOException e) {
+                throw new RuntimeException("Could not save the data");
+            }
+            memtable.put(id, value);
+            memtableSize += sizeOf(value);
+        }
+
+        /**
+         * Flushes the appended entries to the write-ahead log, then flushes the memtable if it passed its limit.
+         */
+        private void commit() {
+            try {
+                output.flush();
+            } catch (IOException e) {
+                throw new RuntimeException("Could not save the data");
+            }
+
+            if (memtableSize >= memtableLimit) {
+                flush();
+                compactor.execute(this::compactQuietly);
+            }
+        }
+
+        /**
+         * Writes the memtable to a new run of level 0 and clears the write-ahead log.
+         */
+        synchronized void flush() {
+            if (memtable.isEmpty()) {
+                return;
+            }
+
+            try {
+                Iterator<Map.Entry<UUID, byte[]>> entries = memtable.entrySet().iterator();
+                SortedRun run = SortedRun.write(newRunFile(), () -> {
+                    if (!entries.hasNext()) {
+                        return null;
+                    }
+                    Map.Entry<UUID, byte[]> entry = entries.next();
+                    return new SortedRun.Entry(entry.getKey(), entry.getValue());
+                }, memtable.size(), falsePositiveRate);
+                level0.add(0, run);
+                saveManifest();
+            } catch (IOException e) {
+                throw new RuntimeException("Could not save the data");
+            }
+
+            memtable.clear();
+            memtableSize = 0;
+            close(output);
+            // A new log is created instead of truncating the old one, which a snapshot may still be reading
+            log.delete();
+            open(false);
+        }
+
+        /**
+         * Compacts the levels of the tree until none is over its limit.
+         */
+        void compact() {
+            synchronized (compactionLock) {
+                boolean compacted = true;
+                while (compacted) {
+                    compacted = compactOnce();
+                }
+            }
+        }
+
+        /**
+         * Merges every run of the tree into a single run of its deepest level, dropping the tombstones.
+         */
+        void compactAll() {
+            synchronized (compactionLock) {
+                List<SortedRun> inputs = new ArrayList<>();
+                int outputLevel;
+                synchronized (this) {
+                    inputs.addAll(level0);
+                    levels.stream().filter(Objects::nonNull).forEach(inputs::add);
+                    outputLevel = Math.max(levels.size(), 1);
+                }
+                if (!inputs.isEmpty()) {
+                    merge(inputs, outputLevel, true);
+                }
+            }
+        }
+
+        /**
+         * Runs the next compaction of the tree, if a level is over its limit.
+         *
+         * @return True if a compaction was run, false otherwise.
+         */
+        private boolean compactOnce() {
+            List<SortedRun> inputs = new ArrayList<>();
+            int outputLevel;
+            boolean lastLevel;
+            synchronized (this) {
+                outputLevel = nextCompaction();
+                if (outputLevel == 0) {
+                    return false;
+                }
+
+                if (outputLevel == 1) {
+                    inputs.addAll(level0);
+                } else {
+                    inputs.add(levels.get(outputLevel - 2));
+                }
+                if (levels.size() >= outputLevel && levels.get(outputLevel - 1) != null) {
+                    inputs.add(levels.get(outputLevel - 1));
+                }
+                lastLevel = levels.size() <= outputLevel;
+            }
+
+            // The tombstones can only be dropped when there is no older run left for them to hide
+            merge(inputs, outputLevel, lastLevel);
+            return true;
+        }
+
+        /**
+         * Merges runs into a new run of a level and replaces them with it.
+         * The runs are merged without holding the lock of the tree, which is only taken to replace them, so the tree
+         * stays available during the merge and the runs flushed in the meantime are kept.
+         *
+         * @param inputs         The runs to merge, from the newest to the oldest.
+         * @param outputLevel    The level of the merged run.
+         * @param dropTombstones Whether the tombstones are dropped from the merged run.
+         */
+        private void merge(List<SortedRun> inputs, int outputLevel, boolean dropTombstones) {
+            File file;
+            synchronized (this) {
+                file = newRunFile();
+            }
+
+            SortedRun output;
+            try {
+                ArrayList<SortedRun.Cursor> cursors = new ArrayList<>();
+                int expectedCount = 0;
+                for (SortedRun input : inputs) {
+                    cursors.add(input.cursor());
+                    expectedCount += input.getEntryCount();
+                }
+                try (MergingCursor cursor = new MergingCursor(cursors, dropTombstones)) {
+                    output = SortedRun.write(file, cursor, expectedCount, falsePositiveRate);
+                }
+            } catch (IOException e) {
+                file.delete();
+                throw new RuntimeException("Could not compact the tree " + baseName);
+            }
+
+            synchronized (this) {
+                level0.removeAll(inputs);
+                levels.replaceAll((run) -> inputs.contains(run) ? null : run);
+                while (levels.size() < outputLevel) {
+                    levels.add(null);
+                }
+                levels.set(outputLevel - 1, output);
+                try {
+                    saveManifest();
+                } catch (IOException e) {
+                    throw new RuntimeException("Could not compact the tree " + baseName);
+                }
+                for (SortedRun input : inputs) {
+                    closeRun(input);
+                    input.getFile().delete();
+                }
+            }
+        }
+
+        /**
+         * Compacts the tree, reporting a failure instead of throwing it.
+         * Runs on the background compactor after each flush.
+         */
+        private void compactQuietly() {
+            try {
+                compact();
+            } catch (RuntimeException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+
+        /**
+         * Picks the next compaction, merging level 0 first and then the shallowest level over its limit.
+         *
+         * @return The level into which the compaction writes, or 0 if no level is over its limit.
+         */
+        private int nextCompaction() {
+            if (level0.size() >= LEVEL_0_RUN_LIMIT) {
+                return 1;
+            }
+
+            long limit = (long) memtableLimit * LEVEL_0_RUN_LIMIT;
+            for (int level = 1; level <= levels.size(); level++) {
+                SortedRun run = levels.get(level - 1);
+                if (run != null && run.getSize() > limit) {
+                    return level + 1;
+                }
+                limit *= LEVEL_SIZE_RATIO;
+            }
+            return 0;
+        }
+
+        /**
+         * Pins the manifest, the runs and the entries of the write-ahead log in a snapshot. The runs are never
+         * modified and the log is only appended to until it is replaced, so none of them is copied right away.
+         *
+         * @param snapshot The snapshot.
+         */
+        synchronized void snapshot(Snapshot snapshot) {
+            try {
+                output.flush();
+            } catch (IOException e) {
+                throw new RuntimeException("Could not save the data");
+            }
+
+            snapshot.pin(manifest);
+            for (SortedRun run : level0) {
+                snapshot.pin(run.getFile());
+            }
+            for (SortedRun run : levels) {
+                if (run != null) {
+                    snapshot.pin(run.getFile());
+                }
+            }
+            snapshot.pin(log, log.length());
+        }
+
+        /**
+         * Writes the memtable to a run and closes the write-ahead log and the runs.
+         */
+        synchronized void close() {
+            flush();
+            close(output);
+            for (SortedRun run : level0) {
+                closeRun(run);
+            }
+            for (SortedRun run : levels) {
+                if (run != null) {
+                    closeRun(run);
+                }
+            }
+        }
+
+        /**
+         * Gets the newest value of an identifier, from the memtable or from the runs from the newest to the oldest.
+         *
+         * @param id The identifier.
+         *
+         * @return The value, or null if the object does not exist or was removed.
+         */
+        private byte[] lookup(UUID id) {
+            if (memtable.containsKey(id)) {
+                return memtable.get(id);
+            }
+
+            try {
+                for (SortedRun run : level0) {
+                    SortedRun.Entry entry = run.get(id);
+                    if (entry != null) {
+                        return entry.value();
+                    }
+                }
+                for (SortedRun run : levels) {
+                    SortedRun.Entry entry = run != null ? run.get(id) : null;
+                    if (entry != null) {
+                        return entry.value();
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not load the data");
+            }
+            return null;
+        }
+
+        /**
+         * Opens a cursor over the memtable followed by a cursor over each run, from the newest to the oldest.
+         *
+         * @return The cursors.
+         *
+         * @throws IOException If a run could not be opened.
+         */
+        private List<SortedRun.Cursor> sources() throws IOException {
+            ArrayList<SortedRun.Cursor> cursors = new ArrayList<>();
+            Iterator<Map.Entry<UUID, byte[]>> entries = memtable.entrySet().iterator();
+            cursors.add(() -> {
+                if (!entries.hasNext()) {
+                    return null;
+                }
+                Map.Entry<UUID, byte[]> entry = entries.next();
+                return new SortedRun.Entry(entry.getKey(), entry.getValue());
+            });
+            for (SortedRun run : level0) {
+                cursors.add(run.cursor());
+            }
+            for (SortedRun run : levels) {
+                if (run != null) {
+                    cursors.add(run.cursor());
+                }
+            }
+            return cursors;
+        }
+
+        /**
+         * Gets the file of a new run.
+         *
+         * @return The file.
+         */
+        private File newRunFile() {
+            return new File(savePath + baseName + "-" + nextRunNumber++ + ".run");
+        }
+
+        /**
+         * Closes a run, reporting a failure instead of throwing it.
+         *
+         * @param run The run to close.
+         */
+        private void closeRun(SortedRun run) {
+            try {
+                run.close();
+            } catch (IOException e) {
+                System.out.println("Could not close the run " + run.getFile().getName());
+            }
+        }
+
+        /**
+         * Closes the stream appending entries to the write-ahead log.
+         *
+         * @param stream The stream.
+         */
+        private void close(DataOutputStream stream) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                System.out.println("Could not close the log " + log.getName());
+            }
+        }
+
+        /**
+         * Encodes an object with the key fields of the DataMap first.
+         *
+         * @param object The object to encode.
+         *
+         * @return The encoded object.
+         */
+        private byte[] encode(DatabaseObject object) {
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                codec.encodeKeyed(object, new DataOutputStream(bytes), keyFields);
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new RuntimeException("Could not save the data");
+            }
+        }
+
+        /**
+         * Decodes an object.
+         *
+         * @param value The encoded object.
+         * @param <T>   The type of object which extends {@link DatabaseObject}.
+         *
+         * @return The object.
+         */
+        @SuppressWarnings("unchecked")
+        private <T extends DatabaseObject> T decode(byte[] value) {
+            try {
+                // The runs of this tree only hold values of its DataMap
+                return (T) codec.decodeKeyed(new DataInputStream(new ByteArrayInputStream(value)), keyFields);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not load the data");
+            }
+        }
+
+        /**
+         * Decodes an object if it matches a filter.
+         * With a {@link KeyPredicate}, the filter is tested against the key fields before decoding the whole object.
+         *
+         * @param value  The encoded object.
+         * @param filter The filter predicate.
+         * @param <T>    The type of object which extends {@link DatabaseObject}.
+         *
+         * @return The object, or null if it does not match the filter.
+         */
+        @SuppressWarnings("unchecked")
+        private <T extends DatabaseObject> T decodeIfMatches(byte[] value, Predicate<T> filter) {
+            if (filter instanceof KeyPredicate) {
+                try {
+                    // The partial object only reaches the KeyPredicate, which reads its key fields
+                    T keys = (T) codec.decodeKeys(new DataInputStream(new ByteArrayInputStream(value)), keyFields);
+                    return filter.test(keys) ? decode(value) : null;
+                } catch (IOException e) {
+                    throw new RuntimeException("Could not load the data");
+                }
+            }
+            T object = decode(value);
+            return filter.test(object) ? object : null;
+        }
+    }
+}
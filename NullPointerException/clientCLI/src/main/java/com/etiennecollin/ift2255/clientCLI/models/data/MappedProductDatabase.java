@@ -0,0 +1,564 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import com.etiennecollin.ift2255.clientCLI.models.data.products.Product;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Implementation of the Database interface storing the products in a {@link MappedProductTable} and delegating every
+ * other {@link DataMap} to another database.
+ * <p>
+ * The products are kept in memory and written through to the table. An update that only changes the price, quantity,
+ * rating, likes or promotion of a product is written in place in the table instead of rewriting the product. The
+ * products added and read are copies of the resident ones, so that a product held by a caller, such as a product
+ * stored in an order, is never changed by a later update.
+ * <p>
+ * On the first start, the products of the delegate are moved to the table, so that the delegate does not keep a stale
+ * copy of the products, which would be imported again if every product was later removed.
+ */
+public class MappedProductDatabase implements Database {
+    /**
+     * The database storing every DataMap other than the products.
+     */
+    private final Database delegate;
+    /**
+     * The codec encoding the fields of the products stored in the heap.
+     */
+    private final BinaryRecordCodec codec = new BinaryRecordCodec();
+    /**
+     * The table storing the products.
+     */
+    private final MappedProductTable table;
+    /**
+     * The resident products, in the order of their slots.
+     */
+    private final LinkedHashMap<UUID, Product> products = new LinkedHashMap<>();
+    /**
+     * The time taken to load the products from the table, in milliseconds.
+     */
+    private final long loadMillis;
+
+    /**
+     * Constructs a MappedProductDatabase storing its table next to the application.
+     *
+     * @param delegate The database storing every DataMap other than the products.
+     */
+    public MappedProductDatabase(Database delegate) {
+        this(delegate, JavaSerializedDatabase.defaultSavePath());
+    }
+
+    /**
+     * Constructs a MappedProductDatabase and loads the products from its table.
+     * If the table is empty, the products of the delegate are moved into it, and are only removed from the delegate
+     * once the table is forced to the storage device.
+     *
+     * @param delegate The database storing every DataMap other than the products.
+     * @param savePath The path of the directory where the table is stored, ending with a separator.
+     */
+    public MappedProductDatabase(Database delegate, String savePath) {
+        this.delegate = delegate;
+        String baseName = savePath + DataMap.PRODUCTS.getBaseName();
+        this.table = new MappedProductTable(new File(baseName + ".table"), new File(baseName + ".heap"), codec);
+
+        if (table.getUsedSlots() == 0) {
+            List<Product> imported = delegate.get(DataMap.PRODUCTS, (p) -> true);
+            for (Product product : imported) {
+                table.insert(product);
+            }
+            if (!imported.isEmpty()) {
+                table.flush();
+                delegate.remove(DataMap.PRODUCTS, (p) -> true);
+            }
+        }
+        long start = System.nanoTime();
+        for (Product product : table.load()) {
+            products.put(product.getId(), product);
+        }
+        this.loadMillis = (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * Gets a specific object from the database based on its ID.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param id      The ID of the object.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The object with the specified ID, or null if not found.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends DatabaseObject> T get(DataMap dataMap, UUID id) {
+        if (dataMap != DataMap.PRODUCTS) {
+            return delegate.get(dataMap, id);
+        }
+
+        synchronized (table) {
+            // Only reached for PRODUCTS, so the caller asked for a product
+            return (T) copyOf(products.get(id));
+        }
+    }
+
+    /**
+     * Gets a batch of objects from the database based on their IDs, from the table for the products.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param ids     The IDs of the objects.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The objects found, by ID.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends DatabaseObject> Map<UUID, T> getAll(DataMap dataMap, Collection<UUID> ids) {
+        if (dataMap != DataMap.PRODUCTS) {
+            return delegate.getAll(dataMap, ids);
+        }
+
+        HashMap<UUID, T> found = HashMap.newHashMap(ids.size());
+        synchronized (table) {
+            for (UUID id : ids) {
+                Product product = products.get(id);
+                if (product != null) {
+                    // The table only holds products, the type of the PRODUCTS objects asked for
+                    found.put(id, (T) copyOf(product));
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Gets a list of objects from the database based on a filter.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return A list of objects that match the filter.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends DatabaseObject> List<T> get(DataMap dataMap, Predicate<T> filter) {
+        if (dataMap != DataMap.PRODUCTS) {
+            return delegate.get(dataMap, filter);
+        }
+
+        synchronized (table) {
+            ArrayList<T> matches = new ArrayList<>();
+            for (Product product : matching(filter)) {
+                // Only reached for PRODUCTS, so the caller asked for products
+                matches.add((T) copyOf(product));
+            }
+            return matches;
+        }
+    }
+
+    /**
+     * Gets the objects of a single owner that match a filter.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param ownerId The ID of the owner of the objects.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return A list of objects that match the filter.
+     */
+    @Override
+    public <T extends DatabaseObject> List<T> getOwned(DataMap dataMap, UUID ownerId, Predicate<T> filter) {
+        if (dataMap != DataMap.PRODUCTS) {
+            return delegate.getOwned(dataMap, ownerId, filter);
+        }
+
+        return get(dataMap, filter);
+    }
+
+    /**
+     * Gets the objects having a key in a secondary index that match a filter.
+     *
+     * @param index  The secondary index.
+     * @param key    The value of the indexed field of the objects.
+     * @param filter The filter predicate.
+     * @param <T>    The type of object which extends {@link DatabaseObject}.
+     *
+     * @return A list of objects that match the filter.
+     */
+    @Override
+    public <T extends DatabaseObject> List<T> getByIndex(SecondaryIndex index, UUID key, Predicate<T> filter) {
+        if (index.getDataMap() != DataMap.PRODUCTS) {
+            return delegate.getByIndex(index, key, filter);
+        }
+
+        return get(DataMap.PRODUCTS, filter);
+    }
+
+    /**
+     * Gets the objects matching a query.
+     *
+     * @param query The query.
+     * @param <T>   The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The page of objects matching the query.
+     */
+    @Override
+    public <T extends DatabaseObject> List<T> get(Query<T> query) {
+        if (query.dataMap() != DataMap.PRODUCTS) {
+            return delegate.get(query);
+        }
+
+        return query.run(this, (index, key) -> Query.UNINDEXED);
+    }
+
+    /**
+     * Counts the objects that match a filter, without building the list of the matches.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The number of objects matching the filter.
+     */
+    @Override
+    public <T extends DatabaseObject> long count(DataMap dataMap, Predicate<T> filter) {
+        if (dataMap != DataMap.PRODUCTS) {
+            return delegate.count(dataMap, filter);
+        }
+
+        return Database.super.count(dataMap, filter);
+    }
+
+    /**
+     * Checks whether any object matches a filter, without building the list of the matches.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if an object matches the filter, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean exists(DataMap dataMap, Predicate<T> filter) {
+        if (dataMap != DataMap.PRODUCTS) {
+            return delegate.exists(dataMap, filter);
+        }
+
+        return Database.super.exists(dataMap, filter);
+    }
+
+    /**
+     * Counts the objects matching a query within its page, without building the list of the matches.
+     *
+     * @param query The query.
+     * @param <T>   The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The number of objects matching the query.
+     */
+    @Override
+    public <T extends DatabaseObject> long count(Query<T> query) {
+        if (query.dataMap() != DataMap.PRODUCTS) {
+            return delegate.count(query);
+        }
+
+        return Database.super.count(query);
+    }
+
+    /**
+     * Adds a single object to the database.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param object  The object to add.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the addition was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean add(DataMap dataMap, T object) {
+        return add(dataMap, List.of(object));
+    }
+
+    /**
+     * Adds a list of objects to the database.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param objects The list of objects to add.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the addition was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean add(DataMap dataMap, List<T> objects) {
+        if (dataMap != DataMap.PRODUCTS) {
+            return delegate.add(dataMap, objects);
+        }
+
+        synchronized (table) {
+            try {
+                for (T object : objects) {
+                    Product product = copyOf((Product) object);
+                    table.insert(product);
+                    products.put(product.getId(), product);
+                }
+                return true;
+            } catch (RuntimeException e) {
+                System.out.println(e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Updates a single object in the database.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param update  The update operation to perform on the object.
+     * @param id      The ID of the object to update.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the update was successful, false otherwise.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, UUID id) {
+        if (dataMap != DataMap.PRODUCTS) {
+            return delegate.update(dataMap, update, id);
+        }
+
+        synchronized (table) {
+            Product product = products.get(id);
+            if (product == null) {
+                return false;
+            }
+
+            // The update of a PRODUCTS object is given a product
+            apply(product, (Consumer<Product>) update);
+            return true;
+        }
+    }
+
+    /**
+     * Updates multiple objects in the database based on a filter.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param update  The update operation to perform on matching objects.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the update was successful, false otherwise.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, Predicate<T> filter) {
+        if (dataMap != DataMap.PRODUCTS) {
+            return delegate.update(dataMap, update, filter);
+        }
+
+        synchronized (table) {
+            List<Product> matches = matching(filter);
+            for (Product match : matches) {
+                // The update of a PRODUCTS object is given a product
+                apply(match, (Consumer<Product>) update);
+            }
+            return !matches.isEmpty();
+        }
+    }
+
+    /**
+     * Removes a single object from the database based on its ID.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param id      The ID of the object to remove.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the removal was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean remove(DataMap dataMap, UUID id) {
+        if (dataMap != DataMap.PRODUCTS) {
+            return delegate.remove(dataMap, id);
+        }
+
+        synchronized (table) {
+            if (products.remove(id) == null) {
+                return false;
+            }
+
+            table.delete(id);
+            return true;
+        }
+    }
+
+    /**
+     * Removes multiple objects from the database based on a filter.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the removal was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean remove(DataMap dataMap, Predicate<T> filter) {
+        if (dataMap != DataMap.PRODUCTS) {
+            return delegate.remove(dataMap, filter);
+        }
+
+        synchronized (table) {
+            List<Product> matches = matching(filter);
+            for (Product match : matches) {
+                products.remove(match.getId());
+                table.delete(match.getId());
+            }
+            return !matches.isEmpty();
+        }
+    }
+
+    /**
+     * Gets the size of the heap of the product table, including its unused extents which were not truncated.
+     *
+     * @return The size of the heap in bytes.
+     */
+    public long getHeapSize() {
+        synchronized (table) {
+            return table.getHeapSize();
+        }
+    }
+
+    /**
+     * Forces the changes made to the product table to the storage device.
+     */
+    public void flush() {
+        synchronized (table) {
+            table.flush();
+        }
+    }
+
+    /**
+     * Pins the files of the delegate in a snapshot and copies the product table, which is written in place, blocking
+     * the writes of products during the copy.
+     *
+     * @param snapshot The snapshot in which the files are pinned.
+     *
+     * @throws UnsupportedOperationException If the delegate cannot take snapshots.
+     * @throws RuntimeException              If a file could not be pinned.
+     */
+    @Override
+    public void snapshot(Snapshot snapshot) throws UnsupportedOperationException, RuntimeException {
+        synchronized (table) {
+            delegate.snapshot(snapshot);
+            table.snapshot(snapshot);
+        }
+    }
+
+    /**
+     * Loads DataMaps in advance in the delegate. The products are always resident, so their report is the one of
+     * their load from the table.
+     *
+     * @param dataMaps The DataMaps to load.
+     *
+     * @return The report of each DataMap that was loaded.
+     */
+    @Override
+    public List<WarmUpReport> warmUp(Set<DataMap> dataMaps) {
+        EnumSet<DataMap> delegated = EnumSet.noneOf(DataMap.class);
+        delegated.addAll(dataMaps);
+        ArrayList<WarmUpReport> reports = new ArrayList<>();
+        if (delegated.remove(DataMap.PRODUCTS)) {
+            synchronized (table) {
+                reports.add(new WarmUpReport(DataMap.PRODUCTS, products.size(), loadMillis));
+            }
+        }
+        reports.addAll(delegate.warmUp(delegated));
+        return reports;
+    }
+
+    /**
+     * Flushes and closes the product table, then closes the delegate.
+     */
+    @Override
+    public void close() {
+        synchronized (table) {
+            table.close();
+        }
+        delegate.close();
+    }
+
+    /**
+     * Gets the resident products that match a filter.
+     *
+     * @param filter The filter predicate.
+     * @param <T>    The type of object tested by the filter.
+     *
+     * @return The resident products matching the filter, in the order of their slots.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends DatabaseObject> List<Product> matching(Predicate<T> filter) {
+        ArrayList<Product> matches = new ArrayList<>();
+        for (Product product : products.values()) {
+            // The filter of a PRODUCTS query tests products
+            if (filter.test((T) product)) {
+                matches.add(product);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Copies a product added to or read from the resident products.
+     *
+     * @param product The product to copy, or null.
+     *
+     * @return The copy of the product, or null if the product is null.
+     */
+    private Product copyOf(Product product) {
+        return product != null ? (Product) codec.decode(codec.encode(product)) : null;
+    }
+
+    /**
+     * Applies an update to a resident product and writes it to the table.
+     * The fields stored in the table are written in place, and the fields stored in the heap are only rewritten if
+     * the update changed one of them.
+     *
+     * @param product The product to update.
+     * @param update  The update operation to perform on the product.
+     */
+    private void apply(Product product, Consumer<Product> update) {
+        Field[] fields = codec.getFields(product.getClass());
+        Object[] before = coldValues(product, fields);
+        update.accept(product);
+
+        table.updateHot(product);
+        if (!Arrays.equals(before, coldValues(product, fields))) {
+            table.updateCold(product);
+        }
+    }
+
+    /**
+     * Gets the values of the fields of a product stored in the heap.
+     *
+     * @param product The product.
+     * @param fields  The fields of the class of the product.
+     *
+     * @return The values of the fields which are not stored in the table, in the order of the fields.
+     */
+    private static Object[] coldValues(Product product, Field[] fields) {
+        Object[] values = new Object[fields.length];
+        try {
+            for (int i = 0; i < fields.length; i++) {
+                if (!MappedProductTable.HOT_FIELDS.contains(fields[i].getName())) {
+                    values[i] = fields[i].get(product);
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Could not save the data");
+        }
+        return values;
+    }
+}
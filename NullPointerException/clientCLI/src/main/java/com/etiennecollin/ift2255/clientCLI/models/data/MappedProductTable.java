@@ -0,0 +1,542 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import com.etiennecollin.ift2255.clientCLI.models.data.products.Product;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Storage of the products split between a fixed-width table and a heap.
+ * <p>
+ * The table is a memory-mapped file with one row of {@value #ROW_SIZE} bytes per product slot. A row holds the
+ * identifier of the product, its numeric fields that change often (price, quantity, rating, likes and promotion) and
+ * the location of the rest of the product in the heap. Changing one of those fields is a write at a computed offset of
+ * the mapping. The heap is a file of the other fields, encoded with a {@link BinaryRecordCodec}; a new heap record is
+ * only written when one of them changes.
+ * <p>
+ * The extents of the heap left unused by updated and deleted products are reused by the following records, and the
+ * unused extents at the end of the heap are truncated. An extent is only reused once the row which no longer points to
+ * it was forced to the storage device, so that a row never points to a record overwritten by another product after a
+ * crash. The unused extents are found again from the rows when the table is loaded.
+ */
+class MappedProductTable implements AutoCloseable {
+    /**
+     * The names of the fields of a product stored in the table rather than in the heap.
+     */
+    static final Set<String> HOT_FIELDS = Set.of("price", "quantity", "rating", "likes", "promoDiscount", "promoFidelityPoints", "promoEndDate");
+    /**
+     * The size in bytes of a row of the table.
+     */
+    static final int ROW_SIZE = 64;
+    /**
+     * The size in bytes of the header of the table, which holds the number of slots in use.
+     */
+    private static final int HEADER_SIZE = 64;
+    /**
+     * The number of rows mapped when the table is created.
+     */
+    private static final int INITIAL_CAPACITY = 256;
+    /**
+     * The value of the promotion end date column when the product has no promotion end date.
+     */
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    /**
+     * The offset in a row of the state of the slot, 1 if it holds a product and 0 otherwise.
+     */
+    private static final int STATE = 0;
+    /**
+     * The offset in a row of the most significant bits of the identifier of the product.
+     */
+    private static final int ID_MOST = 8;
+    /**
+     * The offset in a row of the least significant bits of the identifier of the product.
+     */
+    private static final int ID_LEAST = 16;
+    /**
+     * The offset in a row of the price of the product.
+     */
+    private static final int PRICE = 24;
+    /**
+     * The offset in a row of the quantity of the product.
+     */
+    private static final int QUANTITY = 28;
+    /**
+     * The offset in a row of the rating of the product.
+     */
+    private static final int RATING = 32;
+    /**
+     * The offset in a row of the number of likes of the product.
+     */
+    private static final int LIKES = 36;
+    /**
+     * The offset in a row of the promotion discount of the product.
+     */
+    private static final int PROMO_DISCOUNT = 40;
+    /**
+     * The offset in a row of the promotion fidelity points of the product.
+     */
+    private static final int PROMO_FIDELITY_POINTS = 44;
+    /**
+     * The offset in a row of the promotion end date of the product, as a number of days since the epoch.
+     */
+    private static final int PROMO_END_DATE = 48;
+    /**
+     * The offset in a row of the length of the heap record of the product.
+     */
+    private static final int HEAP_LENGTH = 52;
+    /**
+     * The offset in a row of the position of the heap record of the product.
+     */
+    private static final int HEAP_OFFSET = 56;
+    /**
+     * The codec encoding the fields stored in the heap.
+     */
+    private final BinaryRecordCodec codec;
+    /**
+     * The file containing the table.
+     */
+    private final File tableFile;
+    /**
+     * The file containing the heap.
+     */
+    private final File heapFile;
+    /**
+     * The channel of the table file.
+     */
+    private final FileChannel table;
+    /**
+     * The channel of the heap file.
+     */
+    private final FileChannel heap;
+    /**
+     * The slot of each product stored in the table.
+     */
+    private final HashMap<UUID, Integer> slots = new HashMap<>();
+    /**
+     * The slots below the number of slots in use which do not hold a product.
+     */
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    /**
+     * The length of each unused extent of the heap which can be reused, by position.
+     */
+    private final TreeMap<Long, Integer> freeExtents = new TreeMap<>();
+    /**
+     * The extents of the heap no longer pointed to by the rows in memory, which may still be pointed to by the rows on
+     * the storage device, by position.
+     */
+    private final TreeMap<Long, Integer> releasedExtents = new TreeMap<>();
+    /**
+     * The mapping of the table file.
+     */
+    private MappedByteBuffer mapping;
+    /**
+     * The number of rows covered by the mapping.
+     */
+    private int capacity;
+    /**
+     * The number of slots that ever held a product.
+     */
+    private int usedSlots;
+
+    /**
+     * Opens the table and the heap stored in the specified files, creating them if they do not exist.
+     *
+     * @param tableFile The file containing the table.
+     * @param heapFile  The file containing the heap.
+     * @param codec     The codec encoding the fields stored in the heap.
+     */
+    MappedProductTable(File tableFile, File heapFile, BinaryRecordCodec codec) {
+        this.codec = codec;
+        this.tableFile = tableFile;
+        this.heapFile = heapFile;
+        try {
+            table = FileChannel.open(tableFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            heap = FileChannel.open(heapFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long rows = (table.size() - HEADER_SIZE) / ROW_SIZE;
+            map((int) Math.max(INITIAL_CAPACITY, rows));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not open the product table");
+        }
+        usedSlots = mapping.getInt(0);
+    }
+
+    /**
+     * Reads every product stored in the table, rebuilding the slot of each of them.
+     *
+     * @return The products in the order of their slots.
+     */
+    List<Product> load() {
+        slots.clear();
+        freeSlots.clear();
+        freeExtents.clear();
+        releasedExtents.clear();
+        TreeMap<Long, Integer> usedExtents = new TreeMap<>();
+        ArrayList<Product> products = new ArrayList<>();
+        for (int slot = 0; slot < usedSlots; slot++) {
+            int row = offsetOf(slot);
+            if (mapping.get(row + STATE) == 0) {
+                freeSlots.add(slot);
+                continue;
+            }
+
+            Product product = readCold(row);
+            product.setPrice(mapping.getInt(row + PRICE));
+            product.setQuantity(mapping.getInt(row + QUANTITY));
+            product.setRating(mapping.getInt(row + RATING));
+            product.setLikes(mapping.getInt(row + LIKES));
+            product.setPromoDiscount(mapping.getInt(row + PROMO_DISCOUNT));
+            product.setPromoFidelityPoints(mapping.getInt(row + PROMO_FIDELITY_POINTS));
+            int promoEndDate = mapping.getInt(row + PROMO_END_DATE);
+            product.setPromoEndDate(promoEndDate == NO_DATE ? null : LocalDate.ofEpochDay(promoEndDate));
+
+            slots.put(product.getId(), slot);
+            usedExtents.put(mapping.getLong(row + HEAP_OFFSET), mapping.getInt(row + HEAP_LENGTH));
+            products.add(product);
+        }
+
+        // The gaps between the records in use are free, and the heap ends with the last of them
+        long end = 0;
+        for (Map.Entry<Long, Integer> extent : usedExtents.entrySet()) {
+            if (extent.getKey() > end) {
+                freeExtents.put(end, (int) (extent.getKey() - end));
+            }
+            end = Math.max(end, extent.getKey() + extent.getValue());
+        }
+        truncateHeap(end);
+        return products;
+    }
+
+    /**
+     * Stores a new product in a free slot of the table.
+     *
+     * @param product The product to store.
+     */
+    void insert(Product product) {
+        int slot;
+        if (!freeSlots.isEmpty()) {
+            slot = freeSlots.poll();
+        } else {
+            if (usedSlots == capacity) {
+                try {
+                    map(capacity * 2);
+                } catch (IOException e) {
+                    throw new RuntimeException("Could not grow the product table");
+                }
+            }
+            slot = usedSlots++;
+        }
+
+        int row = offsetOf(slot);
+        mapping.putLong(row + ID_MOST, product.getId().getMostSignificantBits());
+        mapping.putLong(row + ID_LEAST, product.getId().getLeastSignificantBits());
+        writeHot(row, product);
+        writeCold(row, product, false);
+        mapping.put(row + STATE, (byte) 1);
+        mapping.putInt(0, usedSlots);
+        slots.put(product.getId(), slot);
+    }
+
+    /**
+     * Writes the fields of a product stored in the table in place.
+     *
+     * @param product The product whose fields are written.
+     */
+    void updateHot(Product product) {
+        writeHot(rowOf(product.getId()), product);
+    }
+
+    /**
+     * Writes the fields of a product stored in the heap to a new heap record and points its row to it, releasing the
+     * previous record.
+     *
+     * @param product The product whose fields are written.
+     */
+    void updateCold(Product product) {
+        writeCold(rowOf(product.getId()), product, true);
+    }
+
+    /**
+     * Frees the slot of a product.
+     *
+     * @param id The identifier of the product.
+     */
+    void delete(UUID id) {
+        Integer slot = slots.remove(id);
+        if (slot != null) {
+            int row = offsetOf(slot);
+            mapping.put(row + STATE, (byte) 0);
+            releasedExtents.put(mapping.getLong(row + HEAP_OFFSET), mapping.getInt(row + HEAP_LENGTH));
+            freeSlots.add(slot);
+        }
+    }
+
+    /**
+     * Gets the number of slots that ever held a product, including the ones freed since.
+     *
+     * @return The number of slots in use.
+     */
+    int getUsedSlots() {
+        return usedSlots;
+    }
+
+    /**
+     * Gets the size of the heap, including the unused extents which were not truncated.
+     *
+     * @return The size of the heap in bytes.
+     */
+    long getHeapSize() {
+        try {
+            return heap.size();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read the product heap");
+        }
+    }
+
+    /**
+     * Adds the table and the heap to a snapshot. Both are modified in place, so they are copied right away.
+     *
+     * @param snapshot The snapshot.
+     */
+    void snapshot(Snapshot snapshot) {
+        mapping.force();
+        snapshot.copy(tableFile);
+        snapshot.copy(heapFile);
+    }
+
+    /**
+     * Forces the changes made to the table and to the heap to the storage device, then reuses the released extents of
+     * the heap.
+     */
+    void flush() {
+        try {
+            heap.force(false);
+            mapping.force();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not save the data");
+        }
+        reuseReleasedExtents();
+    }
+
+    /**
+     * Flushes and closes the table and the heap. Does nothing if they are already closed.
+     */
+    @Override
+    public void close() {
+        if (!table.isOpen()) {
+            return;
+        }
+
+        flush();
+        try {
+            table.close();
+            heap.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not close the product table");
+        }
+    }
+
+    /**
+     * Maps the table file with room for the specified number of rows, growing the file if needed.
+     *
+     * @param rows The number of rows to map.
+     *
+     * @throws IOException If the file could not be mapped.
+     */
+    private void map(int rows) throws IOException {
+        if (mapping != null) {
+            mapping.force();
+        }
+        mapping = table.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) rows * ROW_SIZE);
+        capacity = rows;
+    }
+
+    /**
+     * Gets the position in the mapping of the row of a slot.
+     *
+     * @param slot The slot.
+     *
+     * @return The position of the row.
+     */
+    private int offsetOf(int slot) {
+        return HEADER_SIZE + slot * ROW_SIZE;
+    }
+
+    /**
+     * Gets the position in the mapping of the row of a product.
+     *
+     * @param id The identifier of the product.
+     *
+     * @return The position of the row.
+     */
+    private int rowOf(UUID id) {
+        Integer slot = slots.get(id);
+        if (slot == null) {
+            throw new IllegalArgumentException("The product is not stored in the table");
+        }
+        return offsetOf(slot);
+    }
+
+    /**
+     * Writes the fields of a product stored in the table to a row.
+     *
+     * @param row     The position of the row.
+     * @param product The product whose fields are written.
+     */
+    private void writeHot(int row, Product product) {
+        mapping.putInt(row + PRICE, product.getPrice());
+        mapping.putInt(row + QUANTITY, product.getQuantity());
+        mapping.putInt(row + RATING, product.getRating());
+        mapping.putInt(row + LIKES, product.getLikes());
+        mapping.putInt(row + PROMO_DISCOUNT, product.getPromoDiscount());
+        mapping.putInt(row + PROMO_FIDELITY_POINTS, product.getPromoFidelityPoints());
+        LocalDate promoEndDate = product.getPromoEndDate();
+        mapping.putInt(row + PROMO_END_DATE, promoEndDate == null ? NO_DATE : (int) promoEndDate.toEpochDay());
+    }
+
+    /**
+     * Writes the fields of a product stored in the heap to a new record and writes the location of the record to a
+     * row.
+     *
+     * @param row      The position of the row.
+     * @param product  The product whose fields are written.
+     * @param replaces Whether the row points to a previous record, which is released.
+     */
+    private void writeCold(int row, Product product, boolean replaces) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            codec.encode(product, new DataOutputStream(bytes), HOT_FIELDS);
+            long offset = allocate(bytes.size());
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                heap.write(buffer, offset + buffer.position());
+            }
+            if (replaces) {
+                releasedExtents.put(mapping.getLong(row + HEAP_OFFSET), mapping.getInt(row + HEAP_LENGTH));
+            }
+            mapping.putLong(row + HEAP_OFFSET, offset);
+            mapping.putInt(row + HEAP_LENGTH, bytes.size());
+        } catch (IOException e) {
+            throw new RuntimeException("Could not save the data");
+        }
+    }
+
+    /**
+     * Finds the position of a new heap record, in the first free extent large enough to hold it or at the end of the
+     * heap. The released extents are reused before growing the heap.
+     *
+     * @param length The length of the record.
+     *
+     * @return The position of the record.
+     *
+     * @throws IOException If the table could not be forced to the storage device.
+     */
+    private long allocate(int length) throws IOException {
+        Long offset = fit(length);
+        if (offset == null && !releasedExtents.isEmpty()) {
+            heap.force(false);
+            mapping.force();
+            reuseReleasedExtents();
+            offset = fit(length);
+        }
+        if (offset == null) {
+            return heap.size();
+        }
+
+        int free = freeExtents.remove(offset);
+        if (free > length) {
+            freeExtents.put(offset + length, free - length);
+        }
+        return offset;
+    }
+
+    /**
+     * Finds the first free extent large enough to hold a record.
+     *
+     * @param length The length of the record.
+     *
+     * @return The position of the extent, or null if there is none.
+     */
+    private Long fit(int length) {
+        for (Map.Entry<Long, Integer> extent : freeExtents.entrySet()) {
+            if (extent.getValue() >= length) {
+                return extent.getKey();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Makes the released extents of the heap free, merging the adjacent free extents, and truncates the free extent at
+     * the end of the heap. Must only be called once the rows were forced to the storage device.
+     */
+    private void reuseReleasedExtents() {
+        for (Map.Entry<Long, Integer> released : releasedExtents.entrySet()) {
+            long offset = released.getKey();
+            long end = offset + released.getValue();
+            Map.Entry<Long, Integer> previous = freeExtents.floorEntry(offset);
+            if (previous != null && previous.getKey() + previous.getValue() == offset) {
+                offset = previous.getKey();
+                freeExtents.remove(offset);
+            }
+            Integer next = freeExtents.remove(end);
+            if (next != null) {
+                end += next;
+            }
+            freeExtents.put(offset, (int) (end - offset));
+        }
+        releasedExtents.clear();
+
+        Map.Entry<Long, Integer> last = freeExtents.lastEntry();
+        if (last != null && last.getKey() + last.getValue() == getHeapSize()) {
+            freeExtents.remove(last.getKey());
+            truncateHeap(last.getKey());
+        }
+    }
+
+    /**
+     * Truncates the heap to a length, dropping the free extents past it.
+     *
+     * @param length The new length of the heap.
+     */
+    private void truncateHeap(long length) {
+        freeExtents.tailMap(length, true).clear();
+        try {
+            if (heap.size() > length) {
+                heap.truncate(length);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not save the data");
+        }
+    }
+
+    /**
+     * Reads the fields of a product stored in the heap record referenced by a row.
+     *
+     * @param row The position of the row.
+     *
+     * @return The product, whose fields stored in the table are left to their default value.
+     */
+    private Product readCold(int row) {
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(mapping.getInt(row + HEAP_LENGTH));
+            long offset = mapping.getLong(row + HEAP_OFFSET);
+            while (buffer.hasRemaining()) {
+                if (heap.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException();
+                }
+            }
+            return (Product) codec.decode(new DataInputStream(new ByteArrayInputStream(buffer.array())), HOT_FIELDS);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not load the data");
+        }
+    }
+}
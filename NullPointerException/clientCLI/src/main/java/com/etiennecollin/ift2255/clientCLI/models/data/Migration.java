@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Copies every DataMap of a source database, such as the legacy serialized files, to a target database of another
+ * storage format.
+ * <p>
+ * The objects are added to the target one batch at a time, and the number of objects copied from each DataMap is
+ * recorded in a progress file after every batch. An interrupted migration resumes from the last recorded batch: the
+ * objects of the first batch of a run which are already in the target, written just before the interruption, are not
+ * added twice. Once copied, the DataMaps can be checked by {@link #verify()}, which compares the number of objects and
+ * the identifiers of both databases.
+ * <p>
+ * The source must not change between the runs of a migration, so the application must be stopped meanwhile.
+ */
+public class Migration {
+    /**
+     * The number of objects added to the target at once when none is configured.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 10_000;
+    /**
+     * The name of the progress file in the directory of the target.
+     */
+    public static final String PROGRESS_FILENAME = "migration.progress";
+    /**
+     * The database from which the objects are copied.
+     */
+    private final Database source;
+    /**
+     * The database to which the objects are copied.
+     */
+    private final Database target;
+    /**
+     * The file recording the number of objects copied from each DataMap.
+     */
+    private final File progressFile;
+    /**
+     * The number of objects added to the target at once.
+     */
+    private final int batchSize;
+    /**
+     * The number of objects copied from each DataMap, by this run and the previous ones.
+     */
+    private final EnumMap<DataMap, Long> progress = new EnumMap<>(DataMap.class);
+
+    /**
+     * Constructs a Migration, resuming from its progress file if it exists.
+     *
+     * @param source       The database from which the objects are copied.
+     * @param target       The database to which the objects are copied.
+     * @param progressFile The file recording the number of objects copied from each DataMap.
+     * @param batchSize    The number of objects added to the target at once.
+     *
+     * @throws IllegalArgumentException If the batch size is not positive.
+     * @throws RuntimeException         If the progress file could not be read.
+     */
+    public Migration(Database source, Database target, File progressFile, int batchSize) throws IllegalArgumentException, RuntimeException {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size must be positive");
+        }
+        this.source = source;
+        this.target = target;
+        this.progressFile = progressFile;
+        this.batchSize = batchSize;
+        if (progressFile.exists()) {
+            readProgress();
+        }
+    }
+
+    /**
+     * Copies the objects of every DataMap which are not copied yet.
+     *
+     * @param listener The function called with the progress of a DataMap after each batch.
+     *
+     * @return The report of each DataMap.
+     *
+     * @throws RuntimeException If the objects could not be read from the source or added to the target.
+     */
+    public List<MigrationReport> migrate(Consumer<MigrationReport> listener) throws RuntimeException {
+        ArrayList<MigrationReport> reports = new ArrayList<>();
+        for (DataMap dataMap : DataMap.values()) {
+            reports.add(migrate(dataMap, listener));
+        }
+        return reports;
+    }
+
+    /**
+     * Compares the number of objects and the identifiers of every DataMap in the source and in the target.
+     *
+     * @return The DataMaps of which the objects differ, or an empty list if the migration is complete.
+     */
+    public List<DataMap> verify() {
+        ArrayList<DataMap> mismatches = new ArrayList<>();
+        for (DataMap dataMap : DataMap.values()) {
+            HashSet<UUID> sourceIds = new HashSet<>();
+            HashSet<UUID> targetIds = new HashSet<>();
+            if (countIds(source, dataMap, sourceIds) != countIds(target, dataMap, targetIds) || !sourceIds.equals(targetIds)) {
+                mismatches.add(dataMap);
+            }
+        }
+        return mismatches;
+    }
+
+    /**
+     * Gets the number of objects copied from a DataMap, by this run and the previous ones.
+     *
+     * @param dataMap The DataMap.
+     *
+     * @return The number of objects copied.
+     */
+    public long getMigratedCount(DataMap dataMap) {
+        return progress.getOrDefault(dataMap, 0L);
+    }
+
+    /**
+     * Copies the objects of a DataMap which are not copied yet, one batch at a time.
+     *
+     * @param dataMap  The DataMap.
+     * @param listener The function called with the progress of the DataMap after each batch.
+     *
+     * @return The report of the DataMap.
+     *
+     * @throws RuntimeException If the objects could not be read from the source or added to the target.
+     */
+    private MigrationReport migrate(DataMap dataMap, Consumer<MigrationReport> listener) throws RuntimeException {
+        long start = System.nanoTime();
+        // The legacy files hold a single serialized list, so a whole DataMap is read before its batches are written
+        List<DatabaseObject> objects = source.get(dataMap, (DatabaseObject object) -> true);
+        int resumedFrom = (int) Math.min(getMigratedCount(dataMap), objects.size());
+
+        MigrationReport report = report(dataMap, resumedFrom, resumedFrom, objects.size(), start);
+        for (int from = resumedFrom; from < objects.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, objects.size());
+            ArrayList<DatabaseObject> batch = new ArrayList<>(objects.subList(from, to));
+            if (from == resumedFrom) {
+                // The batch may have been written before the previous run was interrupted
+                batch.removeIf((object) -> target.get(dataMap, object.getId()) != null);
+            }
+            if (!batch.isEmpty() && !target.add(dataMap, batch)) {
+                throw new RuntimeException("Could not save the data");
+            }
+
+            progress.put(dataMap, (long) to);
+            writeProgress();
+            report = report(dataMap, resumedFrom, to, objects.size(), start);
+            listener.accept(report);
+        }
+        return report;
+    }
+
+    /**
+     * Creates the report of the progress of a DataMap.
+     *
+     * @param dataMap     The DataMap.
+     * @param resumedFrom The number of objects copied by the previous runs.
+     * @param migrated    The number of objects copied so far.
+     * @param total       The number of objects of the DataMap in the source.
+     * @param start       The time at which this run started migrating the DataMap, as given by {@link System#nanoTime()}.
+     *
+     * @return The report.
+     */
+    private MigrationReport report(DataMap dataMap, long resumedFrom, long migrated, long total, long start) {
+        long nanos = System.nanoTime() - start;
+        double objectsPerSecond = nanos > 0 ? (migrated - resumedFrom) * 1e9 / nanos : 0;
+        return new MigrationReport(dataMap, migrated, total, nanos / 1_000_000, objectsPerSecond);
+    }
+
+    /**
+     * Collects the identifiers of the objects of a DataMap.
+     *
+     * @param db      The database.
+     * @param dataMap The DataMap.
+     * @param ids     The set to which the identifiers are added.
+     *
+     * @return The number of objects, counting the duplicates.
+     */
+    private long countIds(Database db, DataMap dataMap, Set<UUID> ids) {
+        long[] count = {0};
+        // The filter rejects every object so that the database never builds a list of the whole DataMap
+        db.get(dataMap, (DatabaseObject object) -> {
+            ids.add(object.getId());
+            count[0]++;
+            return false;
+        });
+        return count[0];
+    }
+
+    /**
+     * Reads the number of objects copied from each DataMap from the progress file.
+     *
+     * @throws RuntimeException If the progress file could not be read.
+     */
+    private void readProgress() throws RuntimeException {
+        try {
+            for (String line : Files.readAllLines(progressFile.toPath())) {
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                String[] fields = line.trim().split(" ");
+                progress.put(DataMap.valueOf(fields[0]), Long.parseLong(fields[1]));
+            }
+        } catch (IOException | IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new RuntimeException("Could not load the data");
+        }
+    }
+
+    /**
+     * Writes the number of objects copied from each DataMap to the progress file, replacing the previous one
+     * atomically.
+     *
+     * @throws RuntimeException If the progress file could not be written.
+     */
+    private void writeProgress() throws RuntimeException {
+        StringBuilder lines = new StringBuilder();
+        for (Map.Entry<DataMap, Long> entry : progress.entrySet()) {
+            lines.append(entry.getKey().name()).append(' ').append(entry.getValue()).append('\n');
+        }
+
+        File temporary = new File(progressFile.getPath() + ".tmp");
+        try {
+            Files.writeString(temporary.toPath(), lines);
+            Files.move(temporary.toPath(), progressFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not save the data");
+        }
+    }
+}
@@ -0,0 +1,16 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+/**
+ * A record representing the progress of the migration of a DataMap by a {@link Migration}.
+ *
+ * @param dataMap          The DataMap being migrated.
+ * @param migratedCount    The number of objects migrated so far, including those migrated by previous runs.
+ * @param totalCount       The number of objects of the DataMap in the source database.
+ * @param migrateMillis    The time spent migrating the DataMap during this run, in milliseconds.
+ * @param objectsPerSecond The number of objects migrated per second during this run.
+ */
+public record MigrationReport(DataMap dataMap, long migratedCount, long totalCount, long migrateMillis, double objectsPerSecond) {}
@@ -10,6 +10,11 @@ import java.util.UUID;
  * Represents a notification, extending DatabaseObject.
  */
 public class Notification extends DatabaseObject {
+    /**
+     * The version of the serialized form, pinned to the one of the notifications saved before their creation time was
+     * recorded so that they can still be read.
+     */
+    private static final long serialVersionUID = 104972672553515191L;
     /**
      * The unique identifier of the notification.
      */
@@ -26,6 +31,11 @@ public class Notification extends DatabaseObject {
      * The content of the notification.
      */
     private final String content;
+    /**
+     * The time at which the notification was created, in milliseconds since the epoch, or 0 if it was saved before the
+     * creation time was recorded.
+     */
+    private final long creationTime;
 
     /**
      * Constructs a Notification object with the specified parameters.
@@ -39,6 +49,21 @@ public class Notification extends DatabaseObject {
         this.title = title;
         this.content = content;
         this.uuid = UUID.randomUUID();
+        this.creationTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Constructs a Notification from the fields decoded by a {@link RecordCodec}.
+     *
+     * @param fields The decoded fields.
+     */
+    Notification(DecodedFields fields) {
+        super(fields);
+        this.uuid = fields.get("uuid");
+        this.userId = fields.get("userId");
+        this.title = fields.get("title");
+        this.content = fields.get("content");
+        this.creationTime = fields.getLong("creationTime");
     }
 
     /**
@@ -68,6 +93,15 @@ public class Notification extends DatabaseObject {
         return content;
     }
 
+    /**
+     * Gets the time at which the notification was created.
+     *
+     * @return The creation time, in milliseconds since the epoch, or 0 if it is unknown.
+     */
+    public long getCreationTime() {
+        return creationTime;
+    }
+
     /**
      * Gets the UUID of the notification.
      *
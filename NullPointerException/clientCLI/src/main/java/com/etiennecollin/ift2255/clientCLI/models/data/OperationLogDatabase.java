@@ -0,0 +1,664 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Implementation of the Database interface storing each {@link DataMap} as an append-only log of operations.
+ * <p>
+ * Every add, update and remove appends a single record to the log of its DataMap, so the cost of a write is
+ * proportional to the size of the record rather than to the size of the whole DataMap. The state of each DataMap is
+ * kept in memory and rebuilt on startup by replaying its log. Records that are superseded by a later update or removal
+ * are dead; a background compactor rewrites a log with only its live records once its proportion of dead records
+ * passes a threshold.
+ */
+public class OperationLogDatabase implements Database {
+    /**
+     * The record type of an object added to a DataMap.
+     */
+    private static final byte ADD = 1;
+    /**
+     * The record type of the new state of an updated object.
+     */
+    private static final byte UPDATE = 2;
+    /**
+     * The record type of a removed object, whose payload is only its identifier.
+     */
+    private static final byte REMOVE = 3;
+    /**
+     * The minimum number of dead records a log must contain before being compacted.
+     */
+    private static final long MIN_DEAD_RECORDS = 1024;
+    /**
+     * The delay in seconds between two checks of the background compactor.
+     */
+    private static final long COMPACTION_INTERVAL_SECONDS = 30;
+    /**
+     * The path where the logs are stored.
+     */
+    public final String savePath;
+    /**
+     * The proportion of dead records over all records of a log above which the log is compacted.
+     */
+    private final double compactionThreshold;
+    /**
+     * The log of each DataMap.
+     */
+    private final EnumMap<DataMap, OperationLog> logs = new EnumMap<>(DataMap.class);
+    /**
+     * The executor running the background compactor.
+     */
+    private final ScheduledExecutorService compactor;
+    /**
+     * The codec encoding the objects stored in the records.
+     */
+    private final RecordCodec codec;
+
+    /**
+     * Constructs an OperationLogDatabase storing its logs next to the application, compacting a log once half of its
+     * records are dead.
+     */
+    public OperationLogDatabase() {
+        this(JavaSerializedDatabase.defaultSavePath(), 0.5);
+    }
+
+    /**
+     * Constructs an OperationLogDatabase and rebuilds the state of every DataMap by replaying its log.
+     *
+     * @param savePath            The path of the directory where the logs are stored, ending with a separator.
+     * @param compactionThreshold The proportion of dead records, between 0 and 1, above which a log is compacted.
+     */
+    public OperationLogDatabase(String savePath, double compactionThreshold) {
+        this(savePath, compactionThreshold, new BinaryRecordCodec());
+    }
+
+    /**
+     * Constructs an OperationLogDatabase and rebuilds the state of every DataMap by replaying its log.
+     *
+     * @param savePath            The path of the directory where the logs are stored, ending with a separator.
+     * @param compactionThreshold The proportion of dead records, between 0 and 1, above which a log is compacted.
+     * @param codec               The codec encoding the objects stored in the records.
+     */
+    public OperationLogDatabase(String savePath, double compactionThreshold, RecordCodec codec) {
+        if (compactionThreshold <= 0 || compactionThreshold >= 1) {
+            throw new IllegalArgumentException("The compaction threshold must be between 0 and 1");
+        }
+
+        this.savePath = savePath;
+        this.compactionThreshold = compactionThreshold;
+        this.codec = codec;
+        for (DataMap dataMap : DataMap.values()) {
+            logs.put(dataMap, new OperationLog(new File(savePath + dataMap.getBaseName() + ".log")));
+        }
+
+        compactor = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+            Thread thread = new Thread(runnable, "operation-log-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(this::compactIfNeeded, COMPACTION_INTERVAL_SECONDS, COMPACTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Gets a specific object from the database based on its ID.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param id      The ID of the object.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The object with the specified ID, or null if not found.
+     */
+    @Override
+    public <T extends DatabaseObject> T get(DataMap dataMap, UUID id) {
+        return logs.get(dataMap).get(id);
+    }
+
+    /**
+     * Gets a list of objects from the database based on a filter.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return A list of objects that match the filter.
+     */
+    @Override
+    public <T extends DatabaseObject> List<T> get(DataMap dataMap, Predicate<T> filter) {
+        return logs.get(dataMap).select(filter);
+    }
+
+    /**
+     * Adds a single object to the database.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param object  The object to add.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the addition was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean add(DataMap dataMap, T object) {
+        return add(dataMap, List.of(object));
+    }
+
+    /**
+     * Adds a list of objects to the database.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param objects The list of objects to add.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the addition was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean add(DataMap dataMap, List<T> objects) {
+        try {
+            logs.get(dataMap).add(objects);
+            return true;
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Updates a single object in the database.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param update  The update operation to perform on the object.
+     * @param id      The ID of the object to update.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the update was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, UUID id) {
+        return logs.get(dataMap).update(update, null, id);
+    }
+
+    /**
+     * Updates multiple objects in the database based on a filter.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param update  The update operation to perform on matching objects.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the update was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, Predicate<T> filter) {
+        return logs.get(dataMap).update(update, filter, null);
+    }
+
+    /**
+     * Removes a single object from the database based on its ID.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param id      The ID of the object to remove.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the removal was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean remove(DataMap dataMap, UUID id) {
+        return logs.get(dataMap).remove(null, id);
+    }
+
+    /**
+     * Removes multiple objects from the database based on a filter.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the removal was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean remove(DataMap dataMap, Predicate<T> filter) {
+        return logs.get(dataMap).remove(filter, null);
+    }
+
+    /**
+     * Rewrites the log of a DataMap so that it only contains its live records.
+     *
+     * @param dataMap The DataMap whose log is compacted.
+     */
+    public void compact(DataMap dataMap) {
+        logs.get(dataMap).compact();
+    }
+
+    /**
+     * Gets the number of records of the log of a DataMap that were superseded by a later update or removal.
+     *
+     * @param dataMap The DataMap whose log is inspected.
+     *
+     * @return The number of dead records.
+     */
+    public long getDeadRecords(DataMap dataMap) {
+        return logs.get(dataMap).getDeadRecords();
+    }
+
+    /**
+     * Gets the size of the log of a DataMap.
+     *
+     * @param dataMap The DataMap whose log is inspected.
+     *
+     * @return The size of the log in bytes.
+     */
+    public long getLogSize(DataMap dataMap) {
+        return logs.get(dataMap).file.length();
+    }
+
+    /**
+     * Compacts every log whose proportion of dead records passes the compaction threshold.
+     * Runs periodically on the background compactor.
+     */
+    private void compactIfNeeded() {
+        for (OperationLog log : logs.values()) {
+            try {
+                if (log.shouldCompact(compactionThreshold)) {
+                    log.compact();
+                }
+            } catch (RuntimeException e) {
+                System.out.println(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Pins the records written to each log in a snapshot. The logs are only appended to until a compaction replaces
+     * them, so pinning their current length is enough and the writes are not paused.
+     *
+     * @param snapshot The snapshot in which the logs are pinned.
+     *
+     * @throws RuntimeException If a log could not be pinned.
+     */
+    @Override
+    public void snapshot(Snapshot snapshot) throws RuntimeException {
+        for (OperationLog log : logs.values()) {
+            log.snapshot(snapshot);
+        }
+    }
+
+    /**
+     * Stops the background compactor and closes the logs.
+     */
+    @Override
+    public void close() {
+        compactor.shutdownNow();
+        for (OperationLog log : logs.values()) {
+            log.close();
+        }
+    }
+
+    /**
+     * The append-only log of a single DataMap along with the state rebuilt from it.
+     */
+    private class OperationLog {
+        /**
+         * The file containing the log.
+         */
+        private final File file;
+        /**
+         * The live objects of the DataMap, in insertion order.
+         */
+        private final LinkedHashMap<UUID, DatabaseObject> records = new LinkedHashMap<>();
+        /**
+         * The number of records of the log that were superseded by a later update or removal.
+         */
+        private long deadRecords;
+        /**
+         * The stream appending records to the end of the log.
+         */
+        private DataOutputStream output;
+
+        /**
+         * Opens the log stored in a file, replaying its records to rebuild the state of the DataMap.
+         *
+         * @param file The file containing the log.
+         */
+        OperationLog(File file) {
+            this.file = file;
+            replay();
+            open();
+        }
+
+        /**
+         * Rebuilds the state of the DataMap from the records of the log.
+         * A record truncated by an interrupted write at the end of the log is discarded.
+         */
+        private void replay() {
+            if (!file.exists()) {
+                return;
+            }
+
+            long validLength = 0;
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                while (true) {
+                    int type = input.read();
+                    if (type == -1) {
+                        break;
+                    }
+                    byte[] payload = new byte[input.readInt()];
+                    input.readFully(payload);
+                    apply((byte) type, payload);
+                    validLength += 1 + Integer.BYTES + payload.length;
+                }
+            } catch (EOFException e) {
+                truncate(validLength);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not load the data");
+            }
+        }
+
+        /**
+         * Applies a record of the log to the state of the DataMap.
+         *
+         * @param type    The type of the record.
+         * @param payload The payload of the record.
+         */
+        private void apply(byte type, byte[] payload) {
+            if (type == REMOVE) {
+                // Both the removed record and the removal itself are dead
+                ByteBuffer buffer = ByteBuffer.wrap(payload);
+                UUID id = new UUID(buffer.getLong(), buffer.getLong());
+                deadRecords += records.remove(id) != null ? 2 : 1;
+            } else {
+                DatabaseObject object = codec.decode(payload);
+                if (records.put(object.getId(), object) != null) {
+                    deadRecords++;
+                }
+            }
+        }
+
+        /**
+         * Truncates the log to its last complete record.
+         *
+         * @param length The length of the complete records.
+         */
+        private void truncate(long length) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(length);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not repair the log " + file.getName());
+            }
+        }
+
+        /**
+         * Opens the stream appending records to the end of the log.
+         */
+        private void open() {
+            try {
+                output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+            } catch (IOException e) {
+                throw new RuntimeException("Could not create the save file");
+            }
+        }
+
+        /**
+         * Appends a record to the log.
+         *
+         * @param type    The type of the record.
+         * @param payload The payload of the record.
+         */
+        private void append(byte type, byte[] payload) throws IOException {
+            output.writeByte(type);
+            output.writeInt(payload.length);
+            output.write(payload);
+        }
+
+        /**
+         * Appends the record of an object to the log.
+         *
+         * @param type   The type of the record.
+         * @param object The object whose state is stored in the record.
+         */
+        private void append(byte type, DatabaseObject object) throws IOException {
+            append(type, codec.encode(object));
+        }
+
+        /**
+         * Appends the removal record of an object to the log.
+         *
+         * @param id The identifier of the removed object.
+         */
+        private void appendRemoval(UUID id) throws IOException {
+            ByteBuffer payload = ByteBuffer.allocate(2 * Long.BYTES);
+            payload.putLong(id.getMostSignificantBits());
+            payload.putLong(id.getLeastSignificantBits());
+            append(REMOVE, payload.array());
+        }
+
+        /**
+         * Gets a live object based on its ID.
+         *
+         * @param id  The ID of the object.
+         * @param <T> The type of object which extends {@link DatabaseObject}.
+         *
+         * @return The object, or null if not found.
+         */
+        @SuppressWarnings("unchecked")
+        synchronized <T extends DatabaseObject> T get(UUID id) {
+            // A log replays the records of a single DataMap, which the caller asked for
+            return (T) records.get(id);
+        }
+
+        /**
+         * Gets the live objects matching a filter.
+         *
+         * @param filter The filter predicate.
+         * @param <T>    The type of object which extends {@link DatabaseObject}.
+         *
+         * @return A list of objects that match the filter.
+         */
+        @SuppressWarnings("unchecked")
+        synchronized <T extends DatabaseObject> List<T> select(Predicate<T> filter) {
+            List<T> matches = new ArrayList<>();
+            for (DatabaseObject record : records.values()) {
+                // Every replayed record belongs to the DataMap of this log
+                if (filter.test((T) record)) {
+                    matches.add((T) record);
+                }
+            }
+            return matches;
+        }
+
+        /**
+         * Gets the live objects designated either by an ID or by a filter.
+         *
+         * @param filter The filter predicate, ignored when an ID is specified.
+         * @param id     The ID of the only object to get, or null to use the filter.
+         * @param <T>    The type of object which extends {@link DatabaseObject}.
+         *
+         * @return A new list of the designated objects.
+         */
+        private <T extends DatabaseObject> List<T> matches(Predicate<T> filter, UUID id) {
+            if (id == null) {
+                return select(filter);
+            }
+
+            T match = get(id);
+            return match != null ? new ArrayList<>(List.of(match)) : new ArrayList<>();
+        }
+
+        /**
+         * Adds objects to the DataMap and appends one record per object to the log.
+         *
+         * @param objects The objects to add.
+         * @param <T>     The type of object which extends {@link DatabaseObject}.
+         */
+        synchronized <T extends DatabaseObject> void add(List<T> objects) {
+            try {
+                for (T object : objects) {
+                    append(ADD, object);
+                    if (records.put(object.getId(), object) != null) {
+                        deadRecords++;
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not save the data");
+            } finally {
+                flush();
+            }
+        }
+
+        /**
+         * Updates the live objects matching a filter and appends their new state to the log.
+         *
+         * @param update The update operation to perform on matching objects.
+         * @param filter The filter predicate, ignored when an ID is specified.
+         * @param id     The ID of the only object to update or remove, or null to use the filter.
+         * @param <T>    The type of object which extends {@link DatabaseObject}.
+         *
+         * @return True if at least one object was updated, false otherwise.
+         */
+        synchronized <T extends DatabaseObject> boolean update(Consumer<T> update, Predicate<T> filter, UUID id) {
+            // The update may add objects to this DataMap, so the matches are collected first
+            List<T> matches = matches(filter, id);
+            if (matches.isEmpty()) {
+                return false;
+            }
+
+            try {
+                for (T match : matches) {
+                    update.accept(match);
+                    append(UPDATE, match);
+                    deadRecords++;
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not save the data");
+            } finally {
+                flush();
+            }
+            return true;
+        }
+
+        /**
+         * Removes the live objects matching a filter and appends one removal record per object to the log.
+         *
+         * @param filter The filter predicate, ignored when an ID is specified.
+         * @param id     The ID of the only object to update or remove, or null to use the filter.
+         * @param <T>    The type of object which extends {@link DatabaseObject}.
+         *
+         * @return True if at least one object was removed, false otherwise.
+         */
+        synchronized <T extends DatabaseObject> boolean remove(Predicate<T> filter, UUID id) {
+            List<T> matches = matches(filter, id);
+            if (matches.isEmpty()) {
+                return false;
+            }
+
+            try {
+                for (T match : matches) {
+                    appendRemoval(match.getId());
+                    records.remove(match.getId());
+                    deadRecords += 2;
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not save the data");
+            } finally {
+                flush();
+            }
+            return true;
+        }
+
+        /**
+         * Flushes the appended records to the file.
+         */
+        private void flush() {
+            try {
+                output.flush();
+            } catch (IOException e) {
+                throw new RuntimeException("Could not save the data");
+            }
+        }
+
+        /**
+         * Gets the number of records of the log that were superseded by a later update or removal.
+         *
+         * @return The number of dead records.
+         */
+        synchronized long getDeadRecords() {
+            return deadRecords;
+        }
+
+        /**
+         * Checks whether the proportion of dead records of the log passes a threshold.
+         *
+         * @param threshold The proportion of dead records over all records.
+         *
+         * @return True if the log should be compacted, false otherwise.
+         */
+        synchronized boolean shouldCompact(double threshold) {
+            return deadRecords >= MIN_DEAD_RECORDS && deadRecords >= threshold * (deadRecords + records.size());
+        }
+
+        /**
+         * Rewrites the log so that it only contains one record per live object.
+         * The new log is written to a temporary file which then atomically replaces the current one.
+         */
+        synchronized void compact() {
+            File compacted = new File(file.getPath() + ".compact");
+            try (DataOutputStream compactedOutput = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(compacted, false)))) {
+                for (DatabaseObject record : records.values()) {
+                    byte[] payload = codec.encode(record);
+                    compactedOutput.writeByte(ADD);
+                    compactedOutput.writeInt(payload.length);
+                    compactedOutput.write(payload);
+                }
+            } catch (IOException e) {
+                compacted.delete();
+                throw new RuntimeException("Could not compact the log " + file.getName());
+            }
+
+            close();
+            try {
+                Files.move(compacted.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                deadRecords = 0;
+            } catch (IOException e) {
+                compacted.delete();
+                throw new RuntimeException("Could not compact the log " + file.getName());
+            } finally {
+                open();
+            }
+        }
+
+        /**
+         * Pins the records written to the log so far in a snapshot.
+         *
+         * @param snapshot The snapshot.
+         */
+        synchronized void snapshot(Snapshot snapshot) {
+            try {
+                output.flush();
+            } catch (IOException e) {
+                throw new RuntimeException("Could not save the data");
+            }
+            snapshot.pin(file, file.length());
+        }
+
+        /**
+         * Closes the stream appending records to the log.
+         */
+        synchronized void close() {
+            try {
+                output.close();
+            } catch (IOException e) {
+                System.out.println("Could not close the log " + file.getName());
+            }
+        }
+    }
+}
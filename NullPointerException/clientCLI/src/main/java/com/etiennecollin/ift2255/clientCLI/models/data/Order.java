@@ -16,6 +16,10 @@ import java.util.UUID;
  * Represents an order, extending DatabaseObject.
  */
 public class Order extends DatabaseObject {
+    /**
+     * The version of the serialized form, pinned so that the orders already saved can still be read.
+     */
+    private static final long serialVersionUID = -1221259793016251432L;
     /**
      * The date when the order was placed.
      */
@@ -124,6 +128,32 @@ public class Order extends DatabaseObject {
         this.orderDate = LocalDate.now();
     }
 
+    /**
+     * Constructs an Order from the fields decoded by a {@link RecordCodec}.
+     *
+     * @param fields The decoded fields.
+     */
+    Order(DecodedFields fields) {
+        super(fields);
+        this.orderDate = fields.get("orderDate");
+        this.buyerId = fields.get("buyerId");
+        this.sellerId = fields.get("sellerId");
+        this.totalCost = fields.getInt("totalCost");
+        this.fidelityPointsEarned = fields.getInt("fidelityPointsEarned");
+        this.email = fields.get("email");
+        this.phone = fields.get("phone");
+        this.address = fields.get("address");
+        this.billingAddress = fields.get("billingAddress");
+        this.creditCardName = fields.get("creditCardName");
+        this.creditCardNumber = fields.get("creditCardNumber");
+        this.creditCardExp = fields.get("creditCardExp");
+        this.creditCardSecretDigits = fields.get("creditCardSecretDigits");
+        this.paymentMethod = fields.get("paymentMethod");
+        this.products = fields.get("products");
+        this.state = fields.get("state");
+        this.shipment = fields.get("shipment");
+    }
+
     /**
      * Gets the list of products included in the order.
      *
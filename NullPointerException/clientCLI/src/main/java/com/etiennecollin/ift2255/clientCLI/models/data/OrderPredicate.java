@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * A filter on orders which states the range of order dates and the states of the orders it can match.
+ * <p>
+ * The filter itself tests the bounds, so it can be given to any database. A {@link PartitionedOrderDatabase} also uses
+ * them to skip the months of orders which cannot hold a match without loading them.
+ *
+ * @param from   The first order date matched, or null to match every date before the last one.
+ * @param to     The last order date matched, or null to match every date after the first one.
+ * @param states The states of the orders matched, or null to match every state.
+ * @param filter The filter the orders within the bounds must also match.
+ */
+public record OrderPredicate(LocalDate from, LocalDate to, Set<OrderState> states, Predicate<Order> filter) implements Predicate<Order> {
+    /**
+     * Creates a filter matching the orders in some states.
+     *
+     * @param states The states of the orders matched.
+     * @param filter The filter the orders in these states must also match.
+     *
+     * @return The filter.
+     */
+    public static OrderPredicate inStates(Set<OrderState> states, Predicate<Order> filter) {
+        return new OrderPredicate(null, null, states, filter);
+    }
+
+    /**
+     * Creates a filter matching the orders placed on or after a date.
+     *
+     * @param from   The first order date matched.
+     * @param filter The filter the orders placed since the date must also match.
+     *
+     * @return The filter.
+     */
+    public static OrderPredicate placedSince(LocalDate from, Predicate<Order> filter) {
+        return new OrderPredicate(from, null, null, filter);
+    }
+
+    /**
+     * Tests an order against the bounds and the filter.
+     *
+     * @param order The order.
+     *
+     * @return True if the order matches, false otherwise.
+     */
+    @Override
+    public boolean test(Order order) {
+        if (from != null && order.getOrderDate().isBefore(from)) {
+            return false;
+        }
+        if (to != null && order.getOrderDate().isAfter(to)) {
+            return false;
+        }
+        if (states != null && !states.contains(order.getState())) {
+            return false;
+        }
+        return filter.test(order);
+    }
+
+    /**
+     * Checks whether the orders of a month may hold a match.
+     *
+     * @param month         The month of the orders.
+     * @param presentStates The states of the orders of the month.
+     *
+     * @return False if none of the orders of the month can match, true otherwise.
+     */
+    boolean mayMatch(YearMonth month, Set<OrderState> presentStates) {
+        if (from != null && month.isBefore(YearMonth.from(from))) {
+            return false;
+        }
+        if (to != null && month.isAfter(YearMonth.from(to))) {
+            return false;
+        }
+        if (states != null) {
+            for (OrderState state : states) {
+                if (presentStates.contains(state)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+}
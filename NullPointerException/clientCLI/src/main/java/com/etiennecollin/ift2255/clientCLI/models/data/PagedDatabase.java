@@ -0,0 +1,689 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Implementation of the Database interface storing each {@link DataMap} in a file of {@link SlottedPage}s.
+ * <p>
+ * Each record of a page holds the identifier of its object followed by the object encoded with a {@link RecordCodec}.
+ * When a file is opened, its pages are scanned once to build a directory of the page and slot of every identifier and
+ * a map of the free space of every page. Operations on a single object then read and rewrite only the page holding
+ * it, and new objects go to the first page with enough free space, so their cost does not depend on the size of the
+ * DataMap. Operations based on a filter still scan every page.
+ * <p>
+ * Objects are encoded with the key fields of their DataMap first. A scan with a {@link KeyPredicate} only decodes the
+ * key fields of each record, and decodes the rest of a record only if it matches.
+ */
+public class PagedDatabase implements Database {
+    /**
+     * The size in bytes of the identifier at the start of each record.
+     */
+    private static final int ID_SIZE = 16;
+    /**
+     * The path where the paged files are stored.
+     */
+    public final String savePath;
+    /**
+     * The codec encoding the objects stored in the records.
+     */
+    private final RecordCodec codec;
+    /**
+     * The paged file of each DataMap.
+     */
+    private final EnumMap<DataMap, PagedFile> files = new EnumMap<>(DataMap.class);
+
+    /**
+     * Constructs a PagedDatabase storing its files next to the application.
+     */
+    public PagedDatabase() {
+        this(JavaSerializedDatabase.defaultSavePath());
+    }
+
+    /**
+     * Constructs a PagedDatabase storing its files in the specified directory.
+     *
+     * @param savePath The path of the directory where the paged files are stored, ending with a separator.
+     */
+    public PagedDatabase(String savePath) {
+        this(savePath, new BinaryRecordCodec());
+    }
+
+    /**
+     * Constructs a PagedDatabase and builds the directory of every DataMap by scanning its pages.
+     *
+     * @param savePath The path of the directory where the paged files are stored, ending with a separator.
+     * @param codec    The codec encoding the objects stored in the records.
+     */
+    public PagedDatabase(String savePath, RecordCodec codec) {
+        this.savePath = savePath;
+        this.codec = codec;
+        for (DataMap dataMap : DataMap.values()) {
+            files.put(dataMap, new PagedFile(dataMap, new File(savePath + dataMap.getBaseName() + ".pages")));
+        }
+    }
+
+    /**
+     * Gets a specific object from the database based on its ID.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param id      The ID of the object.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The object with the specified ID, or null if not found.
+     */
+    @Override
+    public <T extends DatabaseObject> T get(DataMap dataMap, UUID id) {
+        return files.get(dataMap).get(id);
+    }
+
+    /**
+     * Gets a list of objects from the database based on a filter.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return A list of objects that match the filter.
+     */
+    @Override
+    public <T extends DatabaseObject> List<T> get(DataMap dataMap, Predicate<T> filter) {
+        return files.get(dataMap).select(filter);
+    }
+
+    /**
+     * Adds a single object to the database.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param object  The object to add.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the addition was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean add(DataMap dataMap, T object) {
+        return add(dataMap, List.of(object));
+    }
+
+    /**
+     * Adds a list of objects to the database.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param objects The list of objects to add.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the addition was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean add(DataMap dataMap, List<T> objects) {
+        try {
+            files.get(dataMap).add(objects);
+            return true;
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Updates a single object in the database.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param update  The update operation to perform on the object.
+     * @param id      The ID of the object to update.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the update was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, UUID id) {
+        return files.get(dataMap).update(update, id);
+    }
+
+    /**
+     * Updates multiple objects in the database based on a filter.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param update  The update operation to perform on matching objects.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the update was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, Predicate<T> filter) {
+        return files.get(dataMap).update(update, filter);
+    }
+
+    /**
+     * Removes a single object from the database based on its ID.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param id      The ID of the object to remove.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the removal was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean remove(DataMap dataMap, UUID id) {
+        return files.get(dataMap).remove(id);
+    }
+
+    /**
+     * Removes multiple objects from the database based on a filter.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the removal was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean remove(DataMap dataMap, Predicate<T> filter) {
+        return files.get(dataMap).remove(filter);
+    }
+
+    /**
+     * Gets the number of pages of the file of a DataMap.
+     *
+     * @param dataMap The DataMap whose file is inspected.
+     *
+     * @return The number of pages.
+     */
+    public int getPageCount(DataMap dataMap) {
+        return files.get(dataMap).getPageCount();
+    }
+
+    /**
+     * Gets the number of page reads and writes made on the file of a DataMap since it was opened.
+     *
+     * @param dataMap The DataMap whose file is inspected.
+     *
+     * @return The number of page reads and writes.
+     */
+    public long getPageAccesses(DataMap dataMap) {
+        return files.get(dataMap).getPageAccesses();
+    }
+
+    /**
+     * Copies the paged file of each DataMap to a snapshot. The pages are written in place, so each file is copied
+     * while its DataMap is locked, and the writes to the other DataMaps go on.
+     *
+     * @param snapshot The snapshot to which the files are copied.
+     *
+     * @throws RuntimeException If a file could not be copied.
+     */
+    @Override
+    public void snapshot(Snapshot snapshot) throws RuntimeException {
+        for (PagedFile file : files.values()) {
+            file.snapshot(snapshot);
+        }
+    }
+
+    /**
+     * Closes the paged files.
+     */
+    @Override
+    public void close() {
+        for (PagedFile file : files.values()) {
+            file.close();
+        }
+    }
+
+    /**
+     * The location of a record in a paged file.
+     *
+     * @param page The index of the page holding the record.
+     * @param slot The slot of the record in its page.
+     */
+    private record Location(int page, int slot) {
+    }
+
+    /**
+     * The paged file of a single DataMap along with its directory and free-space map.
+     */
+    private class PagedFile {
+        /**
+         * The names of the key fields of the DataMap.
+         */
+        private final Set<String> keyFields;
+        /**
+         * The location of the record of each object of the DataMap.
+         */
+        private final HashMap<UUID, Location> directory = new HashMap<>();
+        /**
+         * The free space in bytes of each page.
+         */
+        private final ArrayList<Integer> freeSpace = new ArrayList<>();
+        /**
+         * The buffer holding the page being read or written.
+         */
+        private final ByteBuffer buffer = ByteBuffer.allocate(SlottedPage.SIZE);
+        /**
+         * The file containing the pages.
+         */
+        private final File file;
+        /**
+         * The channel of the file.
+         */
+        private final FileChannel channel;
+        /**
+         * The number of page reads and writes made since the file was opened.
+         */
+        private long pageAccesses;
+
+        /**
+         * Opens a paged file, scanning its pages to build the directory and the free-space map.
+         *
+         * @param dataMap The DataMap stored in the file.
+         * @param file    The file containing the pages.
+         */
+        PagedFile(DataMap dataMap, File file) {
+            keyFields = dataMap.getKeyFields();
+            this.file = file;
+            try {
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                int pageCount = (int) (channel.size() / SlottedPage.SIZE);
+                for (int index = 0; index < pageCount; index++) {
+                    SlottedPage page = readPage(index);
+                    for (int slot = 0; slot < page.getSlotCount(); slot++) {
+                        byte[] record = page.get(slot);
+                        if (record != null) {
+                            directory.put(idOf(record), new Location(index, slot));
+                        }
+                    }
+                    freeSpace.add(page.getFreeSpace());
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not load the data");
+            }
+            pageAccesses = 0;
+        }
+
+        /**
+         * Gets the object with the specified identifier, reading only its page.
+         *
+         * @param id  The identifier of the object.
+         * @param <T> The type of object which extends {@link DatabaseObject}.
+         *
+         * @return The object, or null if not found.
+         */
+        synchronized <T extends DatabaseObject> T get(UUID id) {
+            Location location = directory.get(id);
+            if (location == null) {
+                return null;
+            }
+            return decode(readPage(location.page()).get(location.slot()));
+        }
+
+        /**
+         * Gets the objects matching a filter by scanning every page.
+         *
+         * @param filter The filter predicate.
+         * @param <T>    The type of object which extends {@link DatabaseObject}.
+         *
+         * @return The objects that match the filter.
+         */
+        synchronized <T extends DatabaseObject> List<T> select(Predicate<T> filter) {
+            ArrayList<T> matches = new ArrayList<>();
+            for (int index = 0; index < freeSpace.size(); index++) {
+                SlottedPage page = readPage(index);
+                for (int slot = 0; slot < page.getSlotCount(); slot++) {
+                    T object = decodeIfMatches(page.get(slot), filter);
+                    if (object != null) {
+                        matches.add(object);
+                    }
+                }
+            }
+            return matches;
+        }
+
+        /**
+         * Inserts objects in the first pages with enough free space for them.
+         *
+         * @param objects The objects to insert.
+         */
+        synchronized void add(List<? extends DatabaseObject> objects) {
+            for (DatabaseObject object : objects) {
+                insert(encode(object));
+            }
+        }
+
+        /**
+         * Updates the object with the specified identifier, rewriting only its page unless it no longer fits in it.
+         *
+         * @param update The update operation to perform on the object.
+         * @param id     The identifier of the object.
+         * @param <T>    The type of object which extends {@link DatabaseObject}.
+         *
+         * @return True if the object was found, false otherwise.
+         */
+        synchronized <T extends DatabaseObject> boolean update(Consumer<T> update, UUID id) {
+            Location location = directory.get(id);
+            if (location == null) {
+                return false;
+            }
+
+            SlottedPage page = readPage(location.page());
+            T object = decode(page.get(location.slot()));
+            update.accept(object);
+            byte[] record = encode(object);
+            if (page.replace(location.slot(), record)) {
+                writePage(location.page(), page);
+            } else {
+                page.remove(location.slot());
+                writePage(location.page(), page);
+                insert(record);
+            }
+            return true;
+        }
+
+        /**
+         * Updates the objects matching a filter, rewriting only the pages holding them.
+         * Records that no longer fit in their page are moved once every page has been scanned.
+         *
+         * @param update The update operation to perform on the matching objects.
+         * @param filter The filter predicate.
+         * @param <T>    The type of object which extends {@link DatabaseObject}.
+         *
+         * @return True if at least one object matched, false otherwise.
+         */
+        synchronized <T extends DatabaseObject> boolean update(Consumer<T> update, Predicate<T> filter) {
+            ArrayList<byte[]> moved = new ArrayList<>();
+            boolean matched = false;
+            for (int index = 0; index < freeSpace.size(); index++) {
+                SlottedPage page = readPage(index);
+                boolean changed = false;
+                for (int slot = 0; slot < page.getSlotCount(); slot++) {
+                    T object = decodeIfMatches(page.get(slot), filter);
+                    if (object != null) {
+                        update.accept(object);
+                        byte[] updated = encode(object);
+                        if (!page.replace(slot, updated)) {
+                            page.remove(slot);
+                            moved.add(updated);
+                        }
+                        changed = true;
+                    }
+                }
+
+                if (changed) {
+                    writePage(index, page);
+                    matched = true;
+                }
+            }
+
+            for (byte[] record : moved) {
+                insert(record);
+            }
+            return matched;
+        }
+
+        /**
+         * Removes the object with the specified identifier, rewriting only its page.
+         *
+         * @param id The identifier of the object.
+         *
+         * @return True if the object was found, false otherwise.
+         */
+        synchronized boolean remove(UUID id) {
+            Location location = directory.remove(id);
+            if (location == null) {
+                return false;
+            }
+
+            SlottedPage page = readPage(location.page());
+            page.remove(location.slot());
+            writePage(location.page(), page);
+            return true;
+        }
+
+        /**
+         * Removes the objects matching a filter, rewriting only the pages holding them.
+         *
+         * @param filter The filter predicate.
+         * @param <T>    The type of object which extends {@link DatabaseObject}.
+         *
+         * @return True if at least one object was removed, false otherwise.
+         */
+        synchronized <T extends DatabaseObject> boolean remove(Predicate<T> filter) {
+            boolean removed = false;
+            for (int index = 0; index < freeSpace.size(); index++) {
+                SlottedPage page = readPage(index);
+                boolean changed = false;
+                for (int slot = 0; slot < page.getSlotCount(); slot++) {
+                    byte[] record = page.get(slot);
+                    if (decodeIfMatches(record, filter) != null) {
+                        directory.remove(idOf(record));
+                        page.remove(slot);
+                        changed = true;
+                    }
+                }
+
+                if (changed) {
+                    writePage(index, page);
+                    removed = true;
+                }
+            }
+            return removed;
+        }
+
+        /**
+         * Gets the number of pages of the file.
+         *
+         * @return The number of pages.
+         */
+        synchronized int getPageCount() {
+            return freeSpace.size();
+        }
+
+        /**
+         * Gets the number of page reads and writes made since the file was opened.
+         *
+         * @return The number of page reads and writes.
+         */
+        synchronized long getPageAccesses() {
+            return pageAccesses;
+        }
+
+        /**
+         * Copies the file to a snapshot. The pages are written in place, so the writes to the DataMap wait for the copy.
+         *
+         * @param snapshot The snapshot.
+         */
+        synchronized void snapshot(Snapshot snapshot) {
+            snapshot.copy(file);
+        }
+
+        /**
+         * Closes the file.
+         */
+        synchronized void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new RuntimeException("Could not close the file of the paged database");
+            }
+        }
+
+        /**
+         * Inserts a record in the first page with enough free space for it, appending a new page if none has enough.
+         *
+         * @param record The record to insert.
+         */
+        private void insert(byte[] record) {
+            if (record.length > SlottedPage.MAX_RECORD_SIZE) {
+                throw new RuntimeException("The object is too large to be saved");
+            }
+
+            int index = 0;
+            SlottedPage page = null;
+            for (; index < freeSpace.size(); index++) {
+                // The free-space map ignores the reusable slots, so a page passing it is checked before being used
+                if (freeSpace.get(index) >= record.length) {
+                    page = readPage(index);
+                    if (page.fits(record.length)) {
+                        break;
+                    }
+                    page = null;
+                }
+            }
+            if (page == null) {
+                page = new SlottedPage();
+                freeSpace.add(page.getFreeSpace());
+            }
+
+            int slot = page.insert(record);
+            writePage(index, page);
+            directory.put(idOf(record), new Location(index, slot));
+        }
+
+        /**
+         * Reads a page of the file.
+         *
+         * @param index The index of the page.
+         *
+         * @return The page.
+         */
+        private SlottedPage readPage(int index) {
+            try {
+                buffer.clear();
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, (long) index * SlottedPage.SIZE + buffer.position()) < 0) {
+                        throw new EOFException();
+                    }
+                }
+                pageAccesses++;
+                return SlottedPage.read(buffer);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not load the data");
+            }
+        }
+
+        /**
+         * Writes a page to the file, updating the free-space map and the location of the records of the page.
+         *
+         * @param index The index of the page.
+         * @param page  The page.
+         */
+        private void writePage(int index, SlottedPage page) {
+            try {
+                buffer.clear();
+                page.write(buffer);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, (long) index * SlottedPage.SIZE + buffer.position());
+                }
+                pageAccesses++;
+            } catch (IOException e) {
+                throw new RuntimeException("Could not save the data");
+            }
+
+            freeSpace.set(index, page.getFreeSpace());
+            for (int slot = 0; slot < page.getSlotCount(); slot++) {
+                byte[] record = page.get(slot);
+                if (record != null) {
+                    directory.put(idOf(record), new Location(index, slot));
+                }
+            }
+        }
+
+        /**
+         * Encodes an object into a record preceded by its identifier.
+         *
+         * @param object The object to encode.
+         *
+         * @return The record.
+         */
+        private byte[] encode(DatabaseObject object) {
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                DataOutputStream output = new DataOutputStream(bytes);
+                output.writeLong(object.getId().getMostSignificantBits());
+                output.writeLong(object.getId().getLeastSignificantBits());
+                codec.encodeKeyed(object, output, keyFields);
+                return bytes.toByteArray();
+            } catch (IOException e) {
+                throw new RuntimeException("Could not save the data");
+            }
+        }
+
+        /**
+         * Decodes the object of a record.
+         *
+         * @param record The record.
+         * @param <T>    The type of object which extends {@link DatabaseObject}.
+         *
+         * @return The object.
+         */
+        @SuppressWarnings("unchecked")
+        private <T extends DatabaseObject> T decode(byte[] record) {
+            try {
+                // The pages of this file only hold records of its DataMap
+                return (T) codec.decodeKeyed(new DataInputStream(new ByteArrayInputStream(record, ID_SIZE, record.length - ID_SIZE)), keyFields);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not load the data");
+            }
+        }
+
+        /**
+         * Decodes the object of a record if it matches a filter.
+         * With a {@link KeyPredicate}, the filter is tested against the key fields before decoding the whole object.
+         *
+         * @param record The record, or null for a free slot.
+         * @param filter The filter predicate.
+         * @param <T>    The type of object which extends {@link DatabaseObject}.
+         *
+         * @return The object, or null if the slot is free or the object does not match the filter.
+         */
+        private <T extends DatabaseObject> T decodeIfMatches(byte[] record, Predicate<T> filter) {
+            if (record == null) {
+                return null;
+            }
+
+            if (filter instanceof KeyPredicate) {
+                return filter.test(decodeKeys(record)) ? decode(record) : null;
+            }
+            T object = decode(record);
+            return filter.test(object) ? object : null;
+        }
+
+        /**
+         * Decodes the key fields of the object of a record.
+         *
+         * @param record The record.
+         * @param <T>    The type of object which extends {@link DatabaseObject}.
+         *
+         * @return The object, whose other fields may be left to their default value.
+         */
+        @SuppressWarnings("unchecked")
+        private <T extends DatabaseObject> T decodeKeys(byte[] record) {
+            try {
+                // Only the key fields are set, which is all a KeyPredicate reads
+                return (T) codec.decodeKeys(new DataInputStream(new ByteArrayInputStream(record, ID_SIZE, record.length - ID_SIZE)), keyFields);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not load the data");
+            }
+        }
+
+        /**
+         * Reads the identifier at the start of a record without decoding its object.
+         *
+         * @param record The record.
+         *
+         * @return The identifier of the object of the record.
+         */
+        private UUID idOf(byte[] record) {
+            ByteBuffer id = ByteBuffer.wrap(record, 0, ID_SIZE);
+            return new UUID(id.getLong(), id.getLong());
+        }
+    }
+}
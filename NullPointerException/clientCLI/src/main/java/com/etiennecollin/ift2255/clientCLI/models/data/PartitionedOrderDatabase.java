@@ -0,0 +1,1052 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Implementation of the Database interface storing the orders in one file per month of their order date and delegating
+ * every other {@link DataMap} to another database.
+ * <p>
+ * The orders of a month are written with the {@link RecordCodec} of the storage engine, so that the months use the same
+ * format as the files of the engine. A month written as a serialized list before the codec was used is read from its
+ * legacy file, which is replaced on the next write of the month. On the first start, the orders of the delegate are
+ * moved to the months, so that the delegate does not keep a stale copy of the orders.
+ * <p>
+ * A small summary of the months, holding the number of orders in each state and a {@link BloomFilter} of their IDs
+ * and of their keys in each {@link SecondaryIndex} of the orders, is kept in memory and a month is only loaded the first
+ * time it is needed. Queries made with an {@link OrderPredicate} skip the months outside of its dates and the months
+ * without an order in one of its states, so the current work of the sellers does not load the history of the orders.
+ * An order looked up by its ID is only searched in the months of which the filter may hold it, and is found through
+ * the index by ID of the month. Likewise, the orders of a buyer or a seller are only searched in the months of which
+ * the filter of the keys may hold them. The summary is only rewritten when a write changes it. At most
+ * {@value #MAX_LOADED_MONTHS} months stay in memory by default, the least recently used month being evicted when another
+ * one is loaded. The months are written as they change, so an evicted month has nothing left to write.
+ */
+public class PartitionedOrderDatabase implements Database {
+    /**
+     * The name of the file holding the summary of the months.
+     */
+    static final String SUMMARY_FILENAME = "orders.partitions";
+    /**
+     * The extension of the files of the months.
+     */
+    private static final String EXTENSION = ".records";
+    /**
+     * The extension of the files of the months written as serialized lists.
+     */
+    private static final String LEGACY_EXTENSION = ".txt";
+    /**
+     * The key of the filter of the IDs of a month in the summary.
+     */
+    private static final String IDS_KEY = "ids";
+    /**
+     * The names of the secondary indexes of the orders, which are the keys of the filters of their keys in the summary.
+     */
+    private static final Set<String> INDEX_NAMES = new HashSet<>();
+    /**
+     * The rate of false positives of the filters of the IDs and keys of a month, lower than the default since a false
+     * positive loads a whole month.
+     */
+    private static final double IDS_FALSE_POSITIVE_RATE = 0.001;
+    /**
+     * The number of months, including the current one, loaded when the orders are warmed up.
+     */
+    private static final int RECENT_MONTHS = 3;
+    /**
+     * The default number of months kept in memory.
+     */
+    private static final int MAX_LOADED_MONTHS = 24;
+
+    static {
+        for (SecondaryIndex index : SecondaryIndex.of(DataMap.ORDERS)) {
+            INDEX_NAMES.add(index.name());
+        }
+    }
+    /**
+     * The database storing every DataMap other than the orders.
+     */
+    private final Database delegate;
+    /**
+     * The database reading the legacy files of the months.
+     */
+    private final JavaSerializedDatabase files;
+    /**
+     * The codec writing the orders to the files of the months.
+     */
+    private final RecordCodec codec;
+    /**
+     * The file holding the summary of the months.
+     */
+    private final File summaryFile;
+    /**
+     * The months of orders, sorted from the oldest.
+     */
+    private final TreeMap<YearMonth, Partition> partitions = new TreeMap<>();
+    /**
+     * The months loaded in memory, from the least recently used.
+     */
+    private final LinkedHashMap<YearMonth, Partition> loaded = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * The number of months kept in memory.
+     */
+    private final int maxLoadedMonths;
+    /**
+     * The content of the summary file, as last read or written.
+     */
+    private String writtenSummary = "";
+
+    /**
+     * Constructs a PartitionedOrderDatabase storing its files next to the application.
+     *
+     * @param delegate The database storing every DataMap other than the orders.
+     * @param codec    The codec writing the orders to the files of the months.
+     */
+    public PartitionedOrderDatabase(Database delegate, RecordCodec codec) {
+        this(delegate, JavaSerializedDatabase.defaultSavePath(), codec, MAX_LOADED_MONTHS);
+    }
+
+    /**
+     * Constructs a PartitionedOrderDatabase writing the orders with the binary codec and keeping at most
+     * {@value #MAX_LOADED_MONTHS} months in memory.
+     *
+     * @param delegate The database storing every DataMap other than the orders.
+     * @param savePath The path of the directory where the months are stored, ending with a separator.
+     */
+    public PartitionedOrderDatabase(Database delegate, String savePath) {
+        this(delegate, savePath, new BinaryRecordCodec(), MAX_LOADED_MONTHS);
+    }
+
+    /**
+     * Constructs a PartitionedOrderDatabase and reads the summary of its months.
+     * If there is no summary, it is rebuilt from the files of the months, and if there are none either, the orders of
+     * the delegate are imported into them.
+     *
+     * @param delegate        The database storing every DataMap other than the orders.
+     * @param savePath        The path of the directory where the months are stored, ending with a separator.
+     * @param codec           The codec writing the orders to the files of the months.
+     * @param maxLoadedMonths The number of months kept in memory.
+     *
+     * @throws IllegalArgumentException If the number of months kept in memory is not positive.
+     * @throws RuntimeException         If the months or the summary could not be read or written.
+     */
+    public PartitionedOrderDatabase(Database delegate, String savePath, RecordCodec codec, int maxLoadedMonths) throws IllegalArgumentException, RuntimeException {
+        if (maxLoadedMonths < 1) {
+            throw new IllegalArgumentException("At least one month of orders must be kept in memory");
+        }
+
+        this.delegate = delegate;
+        this.maxLoadedMonths = maxLoadedMonths;
+        this.files = new JavaSerializedDatabase(savePath, false);
+        this.codec = codec;
+        this.summaryFile = new File(savePath + SUMMARY_FILENAME);
+
+        if (summaryFile.exists()) {
+            readSummary();
+            // A summary written before the filters of the keys were added is completed once
+            for (Partition partition : partitions.values()) {
+                if (partition.ids == null || partition.keys.size() < SecondaryIndex.of(DataMap.ORDERS).size()) {
+                    partition.load();
+                }
+            }
+            writeSummary();
+        } else {
+            String prefix = DataMap.ORDERS.getBaseName() + "-";
+            File[] monthFiles = new File(savePath).listFiles((dir, name) -> name.startsWith(prefix) && (name.endsWith(EXTENSION) || name.endsWith(LEGACY_EXTENSION)));
+            if (monthFiles != null && monthFiles.length > 0) {
+                for (File file : monthFiles) {
+                    String name = file.getName();
+                    String month = name.substring(prefix.length(), name.lastIndexOf('.'));
+                    partition(YearMonth.parse(month)).load();
+                }
+                writeSummary();
+            } else {
+                List<Order> orders = delegate.get(DataMap.ORDERS, (o) -> true);
+                addOrders(orders);
+                writeSummary();
+                if (!orders.isEmpty()) {
+                    delegate.remove(DataMap.ORDERS, (o) -> true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets a specific object from the database based on its ID.
+     * The loaded months are searched first, then the other months from the most recent.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param id      The ID of the object.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The object with the specified ID, or null if not found.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends DatabaseObject> T get(DataMap dataMap, UUID id) {
+        if (dataMap != DataMap.ORDERS) {
+            return delegate.get(dataMap, id);
+        }
+
+        synchronized (partitions) {
+            Partition partition = find(id);
+            // Only reached for ORDERS, so the caller asked for an order
+            return partition == null ? null : (T) partition.get(id);
+        }
+    }
+
+    /**
+     * Gets a batch of objects from the database based on their IDs, only reading the months holding them.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param ids     The IDs of the objects.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The objects found, by ID.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends DatabaseObject> Map<UUID, T> getAll(DataMap dataMap, Collection<UUID> ids) {
+        if (dataMap != DataMap.ORDERS) {
+            return delegate.getAll(dataMap, ids);
+        }
+
+        HashMap<UUID, T> found = HashMap.newHashMap(ids.size());
+        synchronized (partitions) {
+            for (UUID id : ids) {
+                Partition partition = find(id);
+                // Every partition holds orders, the type of the ORDERS objects asked for
+                T order = partition == null ? null : (T) partition.get(id);
+                if (order != null) {
+                    found.put(id, order);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Gets a list of objects from the database based on a filter.
+     * The orders are only read from the months which may hold a match of the filter.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return A list of objects that match the filter.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends DatabaseObject> List<T> get(DataMap dataMap, Predicate<T> filter) {
+        if (dataMap != DataMap.ORDERS) {
+            return delegate.get(dataMap, filter);
+        }
+
+        synchronized (partitions) {
+            ArrayList<T> matches = new ArrayList<>();
+            for (Partition partition : candidates(filter)) {
+                for (Order order : partition.load()) {
+                    // The filter of an ORDERS query tests orders
+                    if (filter.test((T) order)) {
+                        matches.add((T) order);
+                    }
+                }
+            }
+            return matches;
+        }
+    }
+
+    /**
+     * Gets the objects of a single owner that match a filter, only reading the months which may hold an order of the
+     * owner.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param ownerId The ID of the owner of the objects.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return A list of objects that match the filter.
+     */
+    @Override
+    public <T extends DatabaseObject> List<T> getOwned(DataMap dataMap, UUID ownerId, Predicate<T> filter) {
+        if (dataMap != DataMap.ORDERS) {
+            return delegate.getOwned(dataMap, ownerId, filter);
+        }
+
+        return getByIndex(SecondaryIndex.ownerOf(DataMap.ORDERS), ownerId, filter);
+    }
+
+    /**
+     * Gets the objects having a key in a secondary index that match a filter, only reading the months of which the
+     * filter of the keys may hold the key, and which may hold a match of the filter.
+     *
+     * @param index  The secondary index.
+     * @param key    The value of the indexed field of the objects.
+     * @param filter The filter predicate.
+     * @param <T>    The type of object which extends {@link DatabaseObject}.
+     *
+     * @return A list of objects that match the filter.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends DatabaseObject> List<T> getByIndex(SecondaryIndex index, UUID key, Predicate<T> filter) {
+        if (index.getDataMap() != DataMap.ORDERS) {
+            return delegate.getByIndex(index, key, filter);
+        }
+
+        synchronized (partitions) {
+            ArrayList<T> matches = new ArrayList<>();
+            for (Partition partition : candidates(filter)) {
+                if (!partition.mayHold(index, key)) {
+                    continue;
+                }
+
+                for (Order order : partition.load()) {
+                    // The filter of an ORDERS query tests orders
+                    if (filter.test((T) order)) {
+                        matches.add((T) order);
+                    }
+                }
+            }
+            return matches;
+        }
+    }
+
+    /**
+     * Gets the objects matching a query, pruning the months of orders outside the states and the order dates it requires.
+     *
+     * @param query The query.
+     * @param <T>   The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The page of objects matching the query.
+     */
+    @Override
+    public <T extends DatabaseObject> List<T> get(Query<T> query) {
+        if (query.dataMap() != DataMap.ORDERS) {
+            return delegate.get(query);
+        }
+
+        return query.run(this, (index, key) -> 1);
+    }
+
+    /**
+     * Counts the objects that match a filter, without building the list of the matches.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The number of objects matching the filter.
+     */
+    @Override
+    public <T extends DatabaseObject> long count(DataMap dataMap, Predicate<T> filter) {
+        if (dataMap != DataMap.ORDERS) {
+            return delegate.count(dataMap, filter);
+        }
+
+        return Database.super.count(dataMap, filter);
+    }
+
+    /**
+     * Checks whether any object matches a filter, without building the list of the matches.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if an object matches the filter, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean exists(DataMap dataMap, Predicate<T> filter) {
+        if (dataMap != DataMap.ORDERS) {
+            return delegate.exists(dataMap, filter);
+        }
+
+        return Database.super.exists(dataMap, filter);
+    }
+
+    /**
+     * Counts the objects matching a query within its page, without building the list of the matches.
+     *
+     * @param query The query.
+     * @param <T>   The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The number of objects matching the query.
+     */
+    @Override
+    public <T extends DatabaseObject> long count(Query<T> query) {
+        if (query.dataMap() != DataMap.ORDERS) {
+            return delegate.count(query);
+        }
+
+        return Database.super.count(query);
+    }
+
+    /**
+     * Adds a single object to the database.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param object  The object to add.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the addition was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean add(DataMap dataMap, T object) {
+        return add(dataMap, List.of(object));
+    }
+
+    /**
+     * Adds a list of objects to the database, each to the month of its order date.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param objects The list of objects to add.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the addition was successful, false otherwise.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends DatabaseObject> boolean add(DataMap dataMap, List<T> objects) {
+        if (dataMap != DataMap.ORDERS) {
+            return delegate.add(dataMap, objects);
+        }
+
+        synchronized (partitions) {
+            try {
+                // Only reached for ORDERS, so the objects added are orders
+                addOrders((List<Order>) objects);
+                writeSummary();
+                return true;
+            } catch (RuntimeException e) {
+                System.out.println(e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Updates a single object in the database.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param update  The update operation to perform on the object.
+     * @param id      The ID of the object to update.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the update was successful, false otherwise.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, UUID id) {
+        if (dataMap != DataMap.ORDERS) {
+            return delegate.update(dataMap, update, id);
+        }
+
+        synchronized (partitions) {
+            Partition partition = find(id);
+            if (partition == null) {
+                return false;
+            }
+
+            try {
+                // The update of an ORDERS object is given an order
+                update.accept((T) partition.get(id));
+                partition.save();
+                writeSummary();
+                return true;
+            } catch (RuntimeException e) {
+                System.out.println(e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Updates multiple objects in the database based on a filter.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param update  The update operation to perform on matching objects.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the update was successful, false otherwise.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, Predicate<T> filter) {
+        if (dataMap != DataMap.ORDERS) {
+            return delegate.update(dataMap, update, filter);
+        }
+
+        synchronized (partitions) {
+            try {
+                boolean updated = false;
+                for (Partition partition : candidates(filter)) {
+                    boolean changed = false;
+                    for (Order order : partition.load()) {
+                        // The rows of a partition are orders, like the objects the filter and update expect
+                        if (filter.test((T) order)) {
+                            update.accept((T) order);
+                            changed = true;
+                        }
+                    }
+                    if (changed) {
+                        partition.save();
+                        updated = true;
+                    }
+                }
+                if (updated) {
+                    writeSummary();
+                }
+                return updated;
+            } catch (RuntimeException e) {
+                System.out.println(e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Removes a single object from the database based on its ID.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param id      The ID of the object to remove.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the removal was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean remove(DataMap dataMap, UUID id) {
+        if (dataMap != DataMap.ORDERS) {
+            return delegate.remove(dataMap, id);
+        }
+
+        synchronized (partitions) {
+            Partition partition = find(id);
+            if (partition == null) {
+                return false;
+            }
+
+            try {
+                partition.orders.remove(partition.get(id));
+                partition.save();
+                writeSummary();
+                return true;
+            } catch (RuntimeException e) {
+                System.out.println(e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Removes multiple objects from the database based on a filter.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the removal was successful, false otherwise.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends DatabaseObject> boolean remove(DataMap dataMap, Predicate<T> filter) {
+        if (dataMap != DataMap.ORDERS) {
+            return delegate.remove(dataMap, filter);
+        }
+
+        synchronized (partitions) {
+            try {
+                boolean removed = false;
+                for (Partition partition : candidates(filter)) {
+                    // The filter of an ORDERS query tests orders
+                    if (partition.load().removeIf((order) -> filter.test((T) order))) {
+                        partition.save();
+                        removed = true;
+                    }
+                }
+                if (removed) {
+                    writeSummary();
+                }
+                return removed;
+            } catch (RuntimeException e) {
+                System.out.println(e.getMessage());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Gets the months holding orders.
+     *
+     * @return The months, sorted from the oldest.
+     */
+    public List<YearMonth> getMonths() {
+        synchronized (partitions) {
+            return new ArrayList<>(partitions.keySet());
+        }
+    }
+
+    /**
+     * Gets the number of months currently loaded in memory.
+     *
+     * @return The number of loaded months.
+     */
+    public int getLoadedMonthCount() {
+        synchronized (partitions) {
+            return loaded.size();
+        }
+    }
+
+    /**
+     * Loads DataMaps in advance in the delegate. Only the {@value #RECENT_MONTHS} most recent months of orders are
+     * loaded, the older ones waiting for a query reaching them.
+     *
+     * @param dataMaps The DataMaps to load.
+     *
+     * @return The report of each DataMap that was loaded.
+     */
+    @Override
+    public List<WarmUpReport> warmUp(Set<DataMap> dataMaps) {
+        EnumSet<DataMap> delegated = EnumSet.noneOf(DataMap.class);
+        delegated.addAll(dataMaps);
+        ArrayList<WarmUpReport> reports = new ArrayList<>();
+        if (delegated.remove(DataMap.ORDERS)) {
+            synchronized (partitions) {
+                long start = System.nanoTime();
+                int objectCount = 0;
+                for (Partition partition : partitions.tailMap(YearMonth.now().minusMonths(RECENT_MONTHS - 1)).values()) {
+                    objectCount += partition.load().size();
+                }
+                reports.add(new WarmUpReport(DataMap.ORDERS, objectCount, (System.nanoTime() - start) / 1_000_000));
+            }
+        }
+        reports.addAll(delegate.warmUp(delegated));
+        return reports;
+    }
+
+    /**
+     * Pins the files of the delegate, the summary and the file of every month in a snapshot. The files of the months
+     * are replaced rather than modified by the later writes.
+     *
+     * @param snapshot The snapshot in which the files are pinned.
+     *
+     * @throws UnsupportedOperationException If the delegate cannot take snapshots.
+     * @throws RuntimeException              If a file could not be pinned.
+     */
+    @Override
+    public void snapshot(Snapshot snapshot) throws UnsupportedOperationException, RuntimeException {
+        synchronized (partitions) {
+            delegate.snapshot(snapshot);
+            snapshot.pin(summaryFile);
+            for (Partition partition : partitions.values()) {
+                snapshot.pin(partition.getFile());
+                snapshot.pin(partition.getLegacyFile());
+            }
+        }
+    }
+
+    /**
+     * Closes the delegate. The months are written as they change, so there is nothing left to write.
+     */
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    /**
+     * Adds orders to the months of their order dates and saves the months that changed, without writing the summary.
+     *
+     * @param orders The orders to add.
+     */
+    private void addOrders(List<Order> orders) {
+        LinkedHashMap<YearMonth, ArrayList<Order>> byMonth = new LinkedHashMap<>();
+        for (Order order : orders) {
+            byMonth.computeIfAbsent(YearMonth.from(order.getOrderDate()), (month) -> new ArrayList<>()).add(order);
+        }
+        // Each month is saved right after it is changed, before loading another month may evict it
+        for (Map.Entry<YearMonth, ArrayList<Order>> month : byMonth.entrySet()) {
+            Partition partition = partition(month.getKey());
+            partition.load().addAll(month.getValue());
+            partition.save();
+        }
+    }
+
+    /**
+     * Gets the months which may hold a match of a filter. Every month may match a filter which is not an
+     * {@link OrderPredicate}.
+     *
+     * @param filter The filter predicate.
+     *
+     * @return The months, sorted from the oldest.
+     */
+    private List<Partition> candidates(Predicate<?> filter) {
+        if (!(filter instanceof OrderPredicate predicate)) {
+            return new ArrayList<>(partitions.values());
+        }
+
+        ArrayList<Partition> candidates = new ArrayList<>();
+        for (Partition partition : partitions.values()) {
+            if (predicate.mayMatch(partition.month, partition.stateCounts.keySet())) {
+                candidates.add(partition);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Finds the month holding an order, searching the loaded months first and then loading, from the most recent, the
+     * other months of which the filter may hold the order.
+     *
+     * @param id The ID of the order.
+     *
+     * @return The month holding the order, or null if not found.
+     */
+    private Partition find(UUID id) {
+        for (Partition partition : loaded.values()) {
+            if (partition.get(id) != null) {
+                partition.load();
+                return partition;
+            }
+        }
+        for (Partition partition : partitions.descendingMap().values()) {
+            if (partition.orders == null && partition.mayHold(id)) {
+                partition.load();
+                if (partition.get(id) != null) {
+                    return partition;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets a month, creating it empty if it holds no orders yet.
+     *
+     * @param month The month.
+     *
+     * @return The month.
+     */
+    private Partition partition(YearMonth month) {
+        return partitions.computeIfAbsent(month, Partition::new);
+    }
+
+    /**
+     * Reads the summary of the months, one month per line followed by the number of its orders in each state, by the
+     * filter of their IDs and by the filter of their keys in each secondary index.
+     *
+     * @throws RuntimeException If the summary could not be read.
+     */
+    private void readSummary() throws RuntimeException {
+        try {
+            writtenSummary = Files.readString(summaryFile.toPath());
+            for (String line : writtenSummary.split("\n")) {
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                String[] fields = line.trim().split(" ");
+                Partition partition = partition(YearMonth.parse(fields[0]));
+                for (int i = 1; i < fields.length; i++) {
+                    String[] count = fields[i].split("=", 2);
+                    if (count[0].equals(IDS_KEY)) {
+                        partition.ids = decodeFilter(count[1]);
+                    } else if (INDEX_NAMES.contains(count[0])) {
+                        partition.keys.put(SecondaryIndex.valueOf(count[0]), decodeFilter(count[1]));
+                    } else {
+                        partition.stateCounts.put(OrderState.valueOf(count[0]), Integer.parseInt(count[1]));
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new RuntimeException("Could not load the data");
+        }
+    }
+
+    /**
+     * Writes the summary of the months, replacing the previous one atomically, unless it did not change since it was
+     * last read or written.
+     *
+     * @throws RuntimeException If the summary could not be written.
+     */
+    private void writeSummary() throws RuntimeException {
+        StringBuilder builder = new StringBuilder();
+        for (Partition partition : partitions.values()) {
+            builder.append(partition.month);
+            for (Map.Entry<OrderState, Integer> count : partition.stateCounts.entrySet()) {
+                builder.append(' ').append(count.getKey().name()).append('=').append(count.getValue());
+            }
+            if (partition.ids != null) {
+                builder.append(' ').append(IDS_KEY).append('=').append(encodeFilter(partition.ids));
+            }
+            for (Map.Entry<SecondaryIndex, BloomFilter> keys : partition.keys.entrySet()) {
+                builder.append(' ').append(keys.getKey().name()).append('=').append(encodeFilter(keys.getValue()));
+            }
+            builder.append('\n');
+        }
+
+        String summary = builder.toString();
+        if (summary.equals(writtenSummary)) {
+            return;
+        }
+
+        File temporary = new File(summaryFile.getPath() + ".tmp");
+        try {
+            Files.writeString(temporary.toPath(), summary);
+            Files.move(temporary.toPath(), summaryFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not save the data");
+        }
+        writtenSummary = summary;
+    }
+
+    /**
+     * Encodes a filter of the summary in Base64.
+     *
+     * @param filter The filter.
+     *
+     * @return The encoded filter.
+     *
+     * @throws RuntimeException If the filter could not be written.
+     */
+    private static String encodeFilter(BloomFilter filter) throws RuntimeException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            filter.writeTo(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not save the data");
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * Decodes a filter of the summary written by {@link #encodeFilter(BloomFilter)}.
+     *
+     * @param encoded The encoded filter.
+     *
+     * @return The filter.
+     *
+     * @throws IOException If the filter could not be read.
+     */
+    private static BloomFilter decodeFilter(String encoded) throws IOException {
+        return BloomFilter.readFrom(new DataInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(encoded))));
+    }
+
+    /**
+     * The orders of a single month.
+     */
+    private class Partition {
+        /**
+         * The month of the orders.
+         */
+        private final YearMonth month;
+        /**
+         * The number of orders of the month in each state, without the states of which there is no order.
+         */
+        private final EnumMap<OrderState, Integer> stateCounts = new EnumMap<>(OrderState.class);
+        /**
+         * The loaded orders of the month by ID, rebuilt whenever the orders are counted.
+         */
+        private final HashMap<UUID, Order> byId = new HashMap<>();
+        /**
+         * The filter of the keys of the orders of the month in each secondary index, without the indexes of which the
+         * summary did not hold the filter.
+         */
+        private final EnumMap<SecondaryIndex, BloomFilter> keys = new EnumMap<>(SecondaryIndex.class);
+        /**
+         * The filter of the IDs of the orders of the month, or null if the summary did not hold it.
+         */
+        private BloomFilter ids;
+        /**
+         * The orders of the month, or null if they were not loaded yet.
+         */
+        private ArrayList<Order> orders;
+
+        /**
+         * Constructs an empty Partition.
+         *
+         * @param month The month of the orders.
+         */
+        private Partition(YearMonth month) {
+            this.month = month;
+        }
+
+        /**
+         * Gets the orders of the month, loading them from their file if they are not in memory, and marks the month
+         * as the most recently used. Evicts the least recently used months beyond the number kept in memory.
+         *
+         * @return The orders of the month.
+         */
+        private ArrayList<Order> load() {
+            if (orders == null) {
+                orders = read();
+                count();
+            }
+            loaded.put(month, this);
+            while (loaded.size() > maxLoadedMonths) {
+                loaded.pollFirstEntry().getValue().evict();
+            }
+            return orders;
+        }
+
+        /**
+         * Drops the orders of the month from memory, keeping its counts and filters.
+         */
+        private void evict() {
+            orders = null;
+            byId.clear();
+        }
+
+        /**
+         * Gets a loaded order of the month.
+         *
+         * @param id The ID of the order.
+         *
+         * @return The order, or null if the month does not hold it.
+         */
+        private Order get(UUID id) {
+            return byId.get(id);
+        }
+
+        /**
+         * Checks whether the month may hold an order without loading it.
+         *
+         * @param id The ID of the order.
+         *
+         * @return False if the month does not hold the order, true if it may.
+         */
+        private boolean mayHold(UUID id) {
+            return ids == null || ids.mightContain(id);
+        }
+
+        /**
+         * Checks whether the month may hold an order having a key in a secondary index without loading it.
+         *
+         * @param index The secondary index.
+         * @param key   The value of the indexed field of the order.
+         *
+         * @return False if the month does not hold an order having the key, true if it may.
+         */
+        private boolean mayHold(SecondaryIndex index, UUID key) {
+            BloomFilter filter = keys.get(index);
+            return filter == null || filter.mightContain(key);
+        }
+
+        /**
+         * Writes the orders of the month to their file, or deletes the file if there are none left, and counts them.
+         *
+         * @throws RuntimeException If the file could not be written.
+         */
+        private void save() throws RuntimeException {
+            count();
+            if (orders.isEmpty()) {
+                partitions.remove(month);
+                loaded.remove(month);
+                getFile().delete();
+            } else {
+                write();
+            }
+            getLegacyFile().delete();
+        }
+
+        /**
+         * Reads the orders of the month from its file, or from its legacy file if it was not written with the codec
+         * yet.
+         *
+         * @return The orders of the month, empty if it has no file.
+         *
+         * @throws RuntimeException If the file could not be read.
+         */
+        private ArrayList<Order> read() throws RuntimeException {
+            File file = getFile();
+            if (!file.exists()) {
+                ArrayList<Order> legacy = files.load(getLegacyFile().getName());
+                return legacy == null ? new ArrayList<>() : legacy;
+            }
+
+            try (DataInputStream input = new DataInputStream(Compression.decompress(new FileInputStream(file)))) {
+                int count = input.readInt();
+                ArrayList<Order> read = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    read.add((Order) codec.decode(input));
+                }
+                return read;
+            } catch (IOException | ClassCastException e) {
+                throw new RuntimeException("Could not load the data");
+            }
+        }
+
+        /**
+         * Writes the number of orders of the month followed by the orders to a new file, which then replaces the file
+         * of the month.
+         *
+         * @throws RuntimeException If the file could not be written.
+         */
+        private void write() throws RuntimeException {
+            File file = getFile();
+            File temporary = new File(file.getPath() + ".tmp");
+            try {
+                try (DataOutputStream output = new DataOutputStream(Compression.FAST.compress(new BufferedOutputStream(new FileOutputStream(temporary, false))))) {
+                    output.writeInt(orders.size());
+                    for (Order order : orders) {
+                        codec.encode(order, output);
+                    }
+                }
+                Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                temporary.delete();
+                throw new RuntimeException("Could not save the data");
+            }
+        }
+
+        /**
+         * Counts the loaded orders of the month in each state and rebuilds the filter and the index of their IDs, and
+         * the filter of their keys in each secondary index.
+         */
+        private void count() {
+            stateCounts.clear();
+            byId.clear();
+            ids = BloomFilter.create(orders.size(), IDS_FALSE_POSITIVE_RATE);
+            for (SecondaryIndex index : SecondaryIndex.of(DataMap.ORDERS)) {
+                keys.put(index, BloomFilter.create(orders.size(), IDS_FALSE_POSITIVE_RATE));
+            }
+            for (Order order : orders) {
+                stateCounts.merge(order.getState(), 1, Integer::sum);
+                byId.putIfAbsent(order.getId(), order);
+                ids.add(order.getId());
+                for (Map.Entry<SecondaryIndex, BloomFilter> filter : keys.entrySet()) {
+                    UUID key = filter.getKey().keyOf(order);
+                    if (key != null) {
+                        filter.getValue().add(key);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Gets the file of the month.
+         *
+         * @return The file.
+         */
+        private File getFile() {
+            return new File(files.savePath + DataMap.ORDERS.getBaseName() + "-" + month + EXTENSION);
+        }
+
+        /**
+         * Gets the file of the month written as a serialized list, before the orders were written with the codec.
+         *
+         * @return The legacy file.
+         */
+        private File getLegacyFile() {
+            return new File(files.savePath + DataMap.ORDERS.getBaseName() + "-" + month + LEGACY_EXTENSION);
+        }
+    }
+}
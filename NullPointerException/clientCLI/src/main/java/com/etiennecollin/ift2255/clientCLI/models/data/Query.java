@@ -0,0 +1,780 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * A query on the objects of a DataMap, stated as conditions on named fields rather than as an opaque filter, so that
+ * the database running it can plan it.
+ * <p>
+ * The conditions of the query must all hold. Each is an equality, a membership in a set of values, an inclusive range
+ * or a combination of other conditions with {@link #and(Condition...)}, {@link #or(Condition...)} and
+ * {@link #not(Condition)}. The matches are then sorted by fields and paged. The matches of a sorted or paged query
+ * are ordered by ID after the sort fields, so that consecutive pages read with {@link #after(DatabaseObject)} neither
+ * skip nor repeat a match, and only the matches up to the end of the page are kept while filtering.
+ * <p>
+ * The planner looks for the equalities and memberships on the identifier of other objects which hold for the whole
+ * query and which have a {@link SecondaryIndex}. It looks up the one expected to hold the fewest objects and filters
+ * them, or filters the whole DataMap once if there is none or if the database does not maintain them, in which case a
+ * membership is tested against the set of its values. The filter is a {@link KeyPredicate} when the query only reads
+ * key fields, and an {@link OrderPredicate} bounded by the states and order dates of the query for the orders.
+ *
+ * @param dataMap    The DataMap of the objects.
+ * @param conditions The conditions the objects must all match.
+ * @param sorts      The fields by which the matches are sorted, in order of precedence.
+ * @param offset     The number of sorted matches skipped.
+ * @param limit      The maximum number of matches returned.
+ * @param <T>        The type of object queried.
+ */
+public record Query<T extends DatabaseObject>(DataMap dataMap, List<Condition> conditions, List<Sort> sorts, int offset, int limit) {
+    /**
+     * The estimated number of objects having a key in a secondary index which the database does not maintain, so that
+     * the planner filters the whole DataMap once rather than once per key.
+     */
+    static final long UNINDEXED = Long.MAX_VALUE;
+    /**
+     * The codec listing the fields of each class.
+     */
+    private static final BinaryRecordCodec LAYOUTS = new BinaryRecordCodec();
+    /**
+     * The fields of each queried class, by name.
+     */
+    private static final Map<Class<?>, Map<String, Field>> FIELDS = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a Query.
+     *
+     * @param dataMap    The DataMap of the objects.
+     * @param conditions The conditions the objects must all match.
+     * @param sorts      The fields by which the matches are sorted, in order of precedence.
+     * @param offset     The number of sorted matches skipped.
+     * @param limit      The maximum number of matches returned.
+     *
+     * @throws IllegalArgumentException If the offset or the limit is negative.
+     */
+    public Query {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("The offset and the limit must not be negative");
+        }
+        conditions = List.copyOf(conditions);
+        sorts = List.copyOf(sorts);
+    }
+
+    /**
+     * Creates a query returning every object of a DataMap matching some conditions.
+     *
+     * @param dataMap    The DataMap of the objects.
+     * @param conditions The conditions the objects must all match.
+     * @param <T>        The type of object queried.
+     *
+     * @return The query.
+     */
+    public static <T extends DatabaseObject> Query<T> where(DataMap dataMap, Condition... conditions) {
+        return new Query<>(dataMap, List.of(conditions), List.of(), 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a condition matching the objects of which a field is equal to a value.
+     *
+     * @param field The name of the field.
+     * @param value The value, which may be null.
+     *
+     * @return The condition.
+     */
+    public static Condition equal(String field, Object value) {
+        return new Equal(field, value);
+    }
+
+    /**
+     * Creates a condition matching the objects of which a field is equal to one of some values.
+     *
+     * @param field  The name of the field.
+     * @param values The values.
+     *
+     * @return The condition.
+     */
+    public static Condition in(String field, Collection<?> values) {
+        return new In(field, Collections.unmodifiableSet(new LinkedHashSet<>(values)));
+    }
+
+    /**
+     * Creates a condition matching the objects of which a field is within inclusive bounds.
+     *
+     * @param field The name of the field.
+     * @param min   The smallest value matched, of the type of the field, or null to match every smaller value.
+     * @param max   The largest value matched, of the type of the field, or null to match every larger value.
+     *
+     * @return The condition.
+     */
+    public static Condition between(String field, Comparable<?> min, Comparable<?> max) {
+        return new Range(field, min, max);
+    }
+
+    /**
+     * Creates a condition matching the objects of which a field is at least a value.
+     *
+     * @param field The name of the field.
+     * @param min   The smallest value matched, of the type of the field.
+     *
+     * @return The condition.
+     */
+    public static Condition atLeast(String field, Comparable<?> min) {
+        return new Range(field, min, null);
+    }
+
+    /**
+     * Creates a condition matching the objects which match all the given conditions.
+     *
+     * @param conditions The conditions.
+     *
+     * @return The condition.
+     */
+    public static Condition and(Condition... conditions) {
+        return new And(List.of(conditions));
+    }
+
+    /**
+     * Creates a condition matching the objects which match at least one of the given conditions.
+     *
+     * @param conditions The conditions.
+     *
+     * @return The condition.
+     */
+    public static Condition or(Condition... conditions) {
+        return new Or(List.of(conditions));
+    }
+
+    /**
+     * Creates a condition matching the objects which do not match a condition.
+     *
+     * @param condition The condition.
+     *
+     * @return The condition.
+     */
+    public static Condition not(Condition condition) {
+        return new Not(condition);
+    }
+
+    /**
+     * Wraps a filter so that it passes its matches to an observer and rejects every object, letting a database scan the
+     * matches without building a list of them. The wrapper is a {@link KeyPredicate} or an {@link OrderPredicate} with
+     * the same bounds if the filter is one, so that the database reads and prunes as much as for the filter itself. The
+     * observer of a KeyPredicate may then be given objects of which only the key fields are decoded.
+     *
+     * @param filter   The filter.
+     * @param done     The function telling whether the observer needs no more matches, after which the filter is no
+     *                 longer tested.
+     * @param observer The function called with each match.
+     * @param <T>      The type of object tested by the filter.
+     *
+     * @return The wrapped filter, which never matches.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Predicate<T> observing(Predicate<T> filter, BooleanSupplier done, Consumer<T> observer) {
+        if (filter instanceof OrderPredicate predicate) {
+            // The filter is an OrderPredicate, so the objects tested and observed are orders. The bounds are tested by
+            // the wrapper itself, before the observed filter
+            Predicate<Order> bounded = observing(predicate.filter(), done, (Consumer<Order>) observer);
+            return (Predicate<T>) new OrderPredicate(predicate.from(), predicate.to(), predicate.states(), bounded);
+        }
+
+        Predicate<T> observed = (object) -> {
+            if (!done.getAsBoolean() && filter.test(object)) {
+                observer.accept(object);
+            }
+            return false;
+        };
+        return filter instanceof KeyPredicate ? KeyPredicate.of(observed::test) : observed;
+    }
+
+    /**
+     * Reads a field of an object.
+     *
+     * @param object The object.
+     * @param field  The name of the field.
+     *
+     * @return The value of the field.
+     *
+     * @throws IllegalArgumentException If the object has no such field.
+     */
+    private static Object read(DatabaseObject object, String field) throws IllegalArgumentException {
+        Field reflected = FIELDS.computeIfAbsent(object.getClass(), (type) -> {
+            HashMap<String, Field> fields = new HashMap<>();
+            for (Field f : LAYOUTS.getFields(type)) {
+                fields.putIfAbsent(f.getName(), f);
+            }
+            return fields;
+        }).get(field);
+        if (reflected == null) {
+            throw new IllegalArgumentException("Unknown field: " + field);
+        }
+
+        try {
+            return reflected.get(object);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Compares two values of a field, ordering the null values last.
+     *
+     * @param a The first value.
+     * @param b The second value.
+     *
+     * @return A negative number, zero or a positive number if the first value is smaller, equal or larger.
+     */
+    @SuppressWarnings("unchecked")
+    private static int compare(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : 1) : -1;
+        }
+        // The values of a field have the same type, which the sortable fields all make comparable to itself
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    /**
+     * Creates a copy of the query sorting its matches by one more field.
+     *
+     * @param field     The name of the field.
+     * @param ascending Whether the matches are sorted by increasing values of the field.
+     *
+     * @return The new query.
+     */
+    public Query<T> orderBy(String field, boolean ascending) {
+        return orderBy(field, ascending, null);
+    }
+
+    /**
+     * Creates a copy of the query sorting its matches by one more field, of which a value standing for an unknown
+     * value comes after every other value in either order.
+     *
+     * @param field     The name of the field.
+     * @param ascending Whether the matches are sorted by increasing values of the field.
+     * @param unknown   The value standing for an unknown value, or null if there is none.
+     *
+     * @return The new query.
+     */
+    public Query<T> orderBy(String field, boolean ascending, Object unknown) {
+        ArrayList<Sort> newSorts = new ArrayList<>(sorts);
+        newSorts.add(new Sort(field, ascending, unknown));
+        return new Query<>(dataMap, conditions, newSorts, offset, limit);
+    }
+
+    /**
+     * Creates a copy of the query returning a single page of its sorted matches.
+     *
+     * @param offset The number of sorted matches skipped.
+     * @param limit  The maximum number of matches returned.
+     *
+     * @return The new query.
+     *
+     * @throws IllegalArgumentException If the offset or the limit is negative.
+     */
+    public Query<T> page(int offset, int limit) throws IllegalArgumentException {
+        return new Query<>(dataMap, conditions, sorts, offset, limit);
+    }
+
+    /**
+     * Tests an object against every condition of the query.
+     *
+     * @param object The object.
+     *
+     * @return True if the object matches the query, false otherwise.
+     */
+    public boolean test(T object) {
+        return matches(object);
+    }
+
+    /**
+     * Gets the filter of the query, reading as few fields as its conditions allow.
+     *
+     * @return The filter.
+     */
+    @SuppressWarnings("unchecked")
+    public Predicate<T> toPredicate() {
+        if (dataMap == DataMap.ORDERS) {
+            // A query on the orders is only ever given orders
+            return (Predicate<T>) (Predicate<?>) toOrderPredicate();
+        }
+
+        HashSet<String> fields = new HashSet<>();
+        for (Condition condition : conditions) {
+            condition.collectFields(fields);
+        }
+        if (dataMap.getKeyFields().containsAll(fields)) {
+            return KeyPredicate.of(this::test);
+        }
+        return this::test;
+    }
+
+    /**
+     * Gets the filter of the query for the objects looked up with one of the keys of its plan.
+     *
+     * @param plan The plan of the query.
+     * @param key  The key with which the objects are looked up.
+     *
+     * @return The filter, which also requires the key when the plan has several keys.
+     */
+    private Predicate<T> toPredicate(Plan plan, UUID key) {
+        if (plan.keys().size() == 1) {
+            return toPredicate();
+        }
+
+        // The databases which do not maintain the index return the objects of every key of the plan for each key
+        ArrayList<Condition> keyConditions = new ArrayList<>(conditions);
+        keyConditions.add(new Equal(plan.index().getField(), key));
+        return new Query<T>(dataMap, keyConditions, List.of(), 0, Integer.MAX_VALUE).toPredicate();
+    }
+
+    /**
+     * Plans the query, choosing the secondary index expected to hold the fewest candidates.
+     *
+     * @param groupSize The function estimating the number of objects having a key in an index, or {@link #UNINDEXED}
+     *                  if the index is not maintained.
+     *
+     * @return The plan of the query, without index if none of the indexes of the query is maintained.
+     */
+    Plan plan(ToLongBiFunction<SecondaryIndex, UUID> groupSize) {
+        Plan best = new Plan(null, List.of());
+        long bestCost = Long.MAX_VALUE;
+        for (Condition condition : conditions) {
+            List<UUID> keys = condition.keys();
+            if (keys == null) {
+                continue;
+            }
+
+            for (SecondaryIndex index : SecondaryIndex.of(dataMap)) {
+                if (!index.getField().equals(condition.field())) {
+                    continue;
+                }
+
+                long cost = 0;
+                for (UUID key : keys) {
+                    long size = groupSize.applyAsLong(index, key);
+                    if (size == UNINDEXED) {
+                        cost = UNINDEXED;
+                        break;
+                    }
+                    cost += size;
+                }
+                if (cost < bestCost) {
+                    best = new Plan(index, keys);
+                    bestCost = cost;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Runs the query on a database, following its plan, then sorts and pages the matches.
+     *
+     * @param db        The database.
+     * @param groupSize The function estimating the number of objects having a key in an index.
+     *
+     * @return The page of sorted matches.
+     */
+    List<T> run(Database db, ToLongBiFunction<SecondaryIndex, UUID> groupSize) {
+        Plan plan = plan(groupSize);
+        if (sorts.isEmpty() && offset == 0 && limit == Integer.MAX_VALUE) {
+            if (plan.index() == null) {
+                return db.get(dataMap, toPredicate());
+            }
+
+            ArrayList<T> matches = new ArrayList<>();
+            for (UUID key : plan.keys()) {
+                matches.addAll(db.getByIndex(plan.index(), key, toPredicate(plan, key)));
+            }
+            return matches;
+        }
+
+        // Only the first matches up to the end of the page are kept, the last of them at the head of the queue
+        Comparator<T> order = order();
+        long end = (long) offset + limit;
+        PriorityQueue<T> kept = new PriorityQueue<>(order.reversed());
+        Consumer<T> keep = (object) -> {
+            kept.add(object);
+            if (kept.size() > end) {
+                kept.poll();
+            }
+        };
+        // The filters are not KeyPredicates, so that the objects kept are decoded whole
+        if (plan.index() == null) {
+            db.get(dataMap, observing(whole(toPredicate()), () -> false, keep));
+        } else {
+            for (UUID key : plan.keys()) {
+                db.getByIndex(plan.index(), key, observing(whole(toPredicate(plan, key)), () -> false, keep));
+            }
+        }
+
+        ArrayList<T> page = new ArrayList<>(kept);
+        page.sort(order);
+        return new ArrayList<>(page.subList(Math.min(offset, page.size()), page.size()));
+    }
+
+    /**
+     * Creates a copy of the query only matching the objects which come after an object in the order of the query, so
+     * that the next page of a paged read starts after the last object of the previous page. The sort fields of the
+     * query must be set before.
+     *
+     * @param last The last object of the previous page.
+     *
+     * @return The new query.
+     */
+    public Query<T> after(T last) {
+        ArrayList<Object> values = new ArrayList<>();
+        for (Sort sort : sorts) {
+            values.add(read(last, sort.field()));
+        }
+
+        ArrayList<Condition> newConditions = new ArrayList<>(conditions);
+        newConditions.add(new After(sorts, values, last.getId()));
+        return new Query<>(dataMap, newConditions, sorts, offset, limit);
+    }
+
+    /**
+     * Gets the order of the sorted matches, in which the matches equal on every sort field are ordered by ID so that
+     * the order is stable across the pages.
+     *
+     * @return The comparator of the matches.
+     */
+    private Comparator<T> order() {
+        return (a, b) -> {
+            for (Sort sort : sorts) {
+                int comparison = sort.compare(read(a, sort.field()), read(b, sort.field()));
+                if (comparison != 0) {
+                    return comparison;
+                }
+            }
+            return a.getId().compareTo(b.getId());
+        };
+    }
+
+    /**
+     * Gets a filter equivalent to another which is not a {@link KeyPredicate}, so that the objects it is tested with are
+     * decoded whole.
+     *
+     * @param filter The filter.
+     *
+     * @return The filter, or a plain filter testing the query if it was a KeyPredicate.
+     */
+    private Predicate<T> whole(Predicate<T> filter) {
+        return filter instanceof KeyPredicate<T> key ? (object) -> key.test(object) : filter;
+    }
+
+    /**
+     * Counts the matches of the query on a database within its page, following its plan, without building the list of
+     * the matches. The filter is no longer tested once the page is full.
+     *
+     * @param db        The database.
+     * @param groupSize The function estimating the number of objects having a key in an index.
+     * @param exact     Whether the group sizes are exact, so that a query made of a single condition on an index is
+     *                  counted from the sizes alone.
+     *
+     * @return The number of matches within the page.
+     */
+    long count(Database db, ToLongBiFunction<SecondaryIndex, UUID> groupSize, boolean exact) {
+        Plan plan = plan(groupSize);
+        long end = (long) offset + limit;
+        long[] count = {0};
+        if (exact && plan.index() != null && conditions.size() == 1) {
+            for (UUID key : plan.keys()) {
+                count[0] += groupSize.applyAsLong(plan.index(), key);
+            }
+        } else {
+            if (plan.index() == null) {
+                db.get(dataMap, observing(toPredicate(), () -> count[0] >= end, (object) -> count[0]++));
+            } else {
+                for (UUID key : plan.keys()) {
+                    db.getByIndex(plan.index(), key, observing(toPredicate(plan, key), () -> count[0] >= end, (object) -> count[0]++));
+                }
+            }
+        }
+        return Math.max(0, Math.min(count[0], end) - offset);
+    }
+
+    /**
+     * Builds the filter of a query on the orders, bounded by the states and the order dates that the query requires.
+     *
+     * @return The filter.
+     */
+    private OrderPredicate toOrderPredicate() {
+        LocalDate from = null;
+        LocalDate to = null;
+        Set<OrderState> states = null;
+        for (Condition condition : conditions) {
+            if (condition instanceof Range range && range.field().equals("orderDate")) {
+                from = range.min() instanceof LocalDate min && (from == null || min.isAfter(from)) ? min : from;
+                to = range.max() instanceof LocalDate max && (to == null || max.isBefore(to)) ? max : to;
+            } else if (condition instanceof Equal equal && equal.field().equals("state") && equal.value() instanceof OrderState state) {
+                states = EnumSet.of(state);
+            } else if (condition instanceof In in && in.field().equals("state") && in.values().stream().allMatch(OrderState.class::isInstance)) {
+                states = EnumSet.noneOf(OrderState.class);
+                for (Object value : in.values()) {
+                    states.add((OrderState) value);
+                }
+            }
+        }
+        return new OrderPredicate(from, to, states, this::matches);
+    }
+
+    /**
+     * Tests an object of any type against every condition of the query.
+     *
+     * @param object The object.
+     *
+     * @return True if the object matches the query, false otherwise.
+     */
+    private boolean matches(DatabaseObject object) {
+        for (Condition condition : conditions) {
+            if (!condition.test(object)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A condition on the fields of an object.
+     */
+    public sealed interface Condition permits Equal, In, Range, And, Or, Not, After {
+        /**
+         * Tests an object against the condition.
+         *
+         * @param object The object.
+         *
+         * @return True if the object matches the condition, false otherwise.
+         */
+        boolean test(DatabaseObject object);
+
+        /**
+         * Adds the names of the fields read by the condition to a set.
+         *
+         * @param fields The set of field names.
+         */
+        void collectFields(Set<String> fields);
+
+        /**
+         * Gets the field of which the condition bounds the value, if it bounds a single field.
+         *
+         * @return The name of the field, or null if the condition combines others.
+         */
+        default String field() {
+            return null;
+        }
+
+        /**
+         * Gets the identifiers which the field of the condition must be equal to, for the planner.
+         *
+         * @return The identifiers, or null if the condition is not an equality or a membership on identifiers.
+         */
+        default List<UUID> keys() {
+            return null;
+        }
+    }
+
+    /**
+     * A condition matching the objects of which a field is equal to a value.
+     *
+     * @param field The name of the field.
+     * @param value The value.
+     */
+    private record Equal(String field, Object value) implements Condition {
+        @Override
+        public boolean test(DatabaseObject object) {
+            return Objects.equals(read(object, field), value);
+        }
+
+        @Override
+        public void collectFields(Set<String> fields) {
+            fields.add(field);
+        }
+
+        @Override
+        public List<UUID> keys() {
+            return value instanceof UUID key ? List.of(key) : null;
+        }
+    }
+
+    /**
+     * A condition matching the objects of which a field is equal to one of some values.
+     *
+     * @param field  The name of the field.
+     * @param values The values.
+     */
+    private record In(String field, Set<?> values) implements Condition {
+        @Override
+        public boolean test(DatabaseObject object) {
+            return values.contains(read(object, field));
+        }
+
+        @Override
+        public void collectFields(Set<String> fields) {
+            fields.add(field);
+        }
+
+        @Override
+        public List<UUID> keys() {
+            return values.stream().allMatch(UUID.class::isInstance) ? values.stream().map(UUID.class::cast).toList() : null;
+        }
+    }
+
+    /**
+     * A condition matching the objects of which a field is within inclusive bounds.
+     *
+     * @param field The name of the field.
+     * @param min   The smallest value matched, or null to match every smaller value.
+     * @param max   The largest value matched, or null to match every larger value.
+     */
+    private record Range(String field, Comparable<?> min, Comparable<?> max) implements Condition {
+        @Override
+        public boolean test(DatabaseObject object) {
+            Object value = read(object, field);
+            if (value == null) {
+                return false;
+            }
+            return (min == null || compare(value, min) >= 0) && (max == null || compare(value, max) <= 0);
+        }
+
+        @Override
+        public void collectFields(Set<String> fields) {
+            fields.add(field);
+        }
+    }
+
+    /**
+     * A condition matching the objects which match all of some conditions.
+     *
+     * @param conditions The conditions.
+     */
+    private record And(List<Condition> conditions) implements Condition {
+        @Override
+        public boolean test(DatabaseObject object) {
+            return conditions.stream().allMatch((condition) -> condition.test(object));
+        }
+
+        @Override
+        public void collectFields(Set<String> fields) {
+            conditions.forEach((condition) -> condition.collectFields(fields));
+        }
+    }
+
+    /**
+     * A condition matching the objects which match at least one of some conditions.
+     *
+     * @param conditions The conditions.
+     */
+    private record Or(List<Condition> conditions) implements Condition {
+        @Override
+        public boolean test(DatabaseObject object) {
+            return conditions.stream().anyMatch((condition) -> condition.test(object));
+        }
+
+        @Override
+        public void collectFields(Set<String> fields) {
+            conditions.forEach((condition) -> condition.collectFields(fields));
+        }
+    }
+
+    /**
+     * A condition matching the objects which do not match another condition.
+     *
+     * @param condition The condition.
+     */
+    private record Not(Condition condition) implements Condition {
+        @Override
+        public boolean test(DatabaseObject object) {
+            return !condition.test(object);
+        }
+
+        @Override
+        public void collectFields(Set<String> fields) {
+            condition.collectFields(fields);
+        }
+    }
+
+    /**
+     * A condition matching the objects which come after an object in the order of a query, comparing their sort fields
+     * then their IDs.
+     *
+     * @param sorts  The fields by which the matches of the query are sorted.
+     * @param values The values of the sort fields of the object.
+     * @param id     The ID of the object.
+     */
+    private record After(List<Sort> sorts, List<Object> values, UUID id) implements Condition {
+        @Override
+        public boolean test(DatabaseObject object) {
+            for (int i = 0; i < sorts.size(); i++) {
+                int comparison = sorts.get(i).compare(read(object, sorts.get(i).field()), values.get(i));
+                if (comparison != 0) {
+                    return comparison > 0;
+                }
+            }
+            return object.getId().compareTo(id) > 0;
+        }
+
+        @Override
+        public void collectFields(Set<String> fields) {
+            sorts.forEach((sort) -> fields.add(sort.field()));
+            fields.add("id");
+        }
+    }
+
+    /**
+     * A field by which the matches of a query are sorted.
+     *
+     * @param field     The name of the field.
+     * @param ascending Whether the matches are sorted by increasing values of the field.
+     * @param unknown   The value standing for an unknown value, which comes after every other value, or null if there
+     *                  is none.
+     */
+    public record Sort(String field, boolean ascending, Object unknown) {
+        /**
+         * Constructs a Sort of which no value stands for an unknown value.
+         *
+         * @param field     The name of the field.
+         * @param ascending Whether the matches are sorted by increasing values of the field.
+         */
+        public Sort(String field, boolean ascending) {
+            this(field, ascending, null);
+        }
+
+        /**
+         * Compares two values of the field in the order of the sort.
+         *
+         * @param a The first value.
+         * @param b The second value.
+         *
+         * @return A negative number if the first value comes first, a positive number if it comes last, or 0 if they
+         *         are equal.
+         */
+        int compare(Object a, Object b) {
+            if (unknown != null && (unknown.equals(a) || unknown.equals(b))) {
+                return unknown.equals(a) ? (unknown.equals(b) ? 0 : 1) : -1;
+            }
+
+            int comparison = Query.compare(a, b);
+            return ascending ? comparison : -comparison;
+        }
+    }
+
+    /**
+     * The plan of a query.
+     *
+     * @param index The secondary index through which the candidates are looked up, or null to filter the whole
+     *              DataMap.
+     * @param keys  The keys of the candidates in the index.
+     */
+    record Plan(SecondaryIndex index, List<UUID> keys) {}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An iterator over the matches of a query, reading them from a database in at most two runs of the query. The first
+ * page is read with a query bounded to the page size, so that a caller only showing the first page holds only that
+ * page. The rest of the matches are then read at once with a copy of the query matching only the objects after the
+ * last object of the first page, and are kept sorted until they are returned, rather than running and sorting the
+ * query again for every following page.
+ *
+ * @param <T> The type of object queried.
+ */
+class QueryCursor<T extends DatabaseObject> implements Iterator<T> {
+    /**
+     * The database from which the pages are read.
+     */
+    private final Database db;
+    /**
+     * The query, whose offset is only applied to the first page.
+     */
+    private final Query<T> query;
+    /**
+     * The maximum number of objects read by the first run of the query.
+     */
+    private final int pageSize;
+    /**
+     * The number of matches left before the limit of the query is reached.
+     */
+    private long remaining;
+    /**
+     * The last object read, or null if no page was read yet.
+     */
+    private T last;
+    /**
+     * The objects of the current page which were not returned yet.
+     */
+    private Iterator<T> page = Collections.emptyIterator();
+    /**
+     * Whether the last page was read.
+     */
+    private boolean exhausted;
+
+    /**
+     * Constructs a QueryCursor over the matches of a query.
+     *
+     * @param db       The database from which the pages are read.
+     * @param query    The query.
+     * @param pageSize The maximum number of objects read by the first run of the query.
+     *
+     * @throws IllegalArgumentException If the page size is not positive.
+     */
+    QueryCursor(Database db, Query<T> query, int pageSize) throws IllegalArgumentException {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("The page size must be positive");
+        }
+        this.db = db;
+        this.query = query;
+        this.pageSize = pageSize;
+        this.remaining = query.limit();
+        this.exhausted = remaining == 0;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!page.hasNext() && !exhausted) {
+            readPage();
+        }
+        return page.hasNext();
+    }
+
+    @Override
+    public T next() throws NoSuchElementException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return page.next();
+    }
+
+    /**
+     * Reads the first page, or every match following the first page once it was returned.
+     */
+    private void readPage() {
+        List<T> objects;
+        if (last == null) {
+            int size = (int) Math.min(pageSize, remaining);
+            objects = db.get(query.page(query.offset(), size));
+            exhausted = objects.size() < size || objects.size() == remaining;
+        } else {
+            objects = db.get(query.after(last).page(0, (int) remaining));
+            exhausted = true;
+        }
+
+        remaining -= objects.size();
+        if (!objects.isEmpty()) {
+            last = objects.get(objects.size() - 1);
+        }
+        page = objects.iterator();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.io.*;
+import java.util.Set;
+
+/**
+ * Interface representing the format in which storage engines encode a single DatabaseObject.
+ */
+public interface RecordCodec {
+    /**
+     * Writes an object to an output.
+     *
+     * @param object The object to encode.
+     * @param output The output to which the object is written.
+     *
+     * @throws IOException If the object could not be written.
+     */
+    void encode(DatabaseObject object, DataOutput output) throws IOException;
+
+    /**
+     * Reads an object from an input.
+     *
+     * @param input The input from which the object is read.
+     *
+     * @return The decoded object.
+     *
+     * @throws IOException If the object could not be read.
+     */
+    DatabaseObject decode(DataInput input) throws IOException;
+
+    /**
+     * Writes an object to an output so that its key fields can be read without decoding the rest of the object.
+     * Writes the object with {@link #encode(DatabaseObject, DataOutput)} by default.
+     *
+     * @param object    The object to encode.
+     * @param output    The output to which the object is written.
+     * @param keyFields The names of the key fields of the object.
+     *
+     * @throws IOException If the object could not be written.
+     */
+    default void encodeKeyed(DatabaseObject object, DataOutput output, Set<String> keyFields) throws IOException {
+        encode(object, output);
+    }
+
+    /**
+     * Reads the key fields of an object written by {@link #encodeKeyed(DatabaseObject, DataOutput, Set)}.
+     * The other fields of the returned object may be left to default values, so the object must only be used to
+     * test the key fields. Decodes the whole object by default.
+     *
+     * @param input     The input from which the object is read.
+     * @param keyFields The names of the key fields of the object.
+     *
+     * @return The object with at least its key fields decoded.
+     *
+     * @throws IOException If the object could not be read.
+     */
+    default DatabaseObject decodeKeys(DataInput input, Set<String> keyFields) throws IOException {
+        return decode(input);
+    }
+
+    /**
+     * Reads a whole object written by {@link #encodeKeyed(DatabaseObject, DataOutput, Set)}.
+     * Reads the object with {@link #decode(DataInput)} by default.
+     *
+     * @param input     The input from which the object is read.
+     * @param keyFields The names of the key fields of the object.
+     *
+     * @return The decoded object.
+     *
+     * @throws IOException If the object could not be read.
+     */
+    default DatabaseObject decodeKeyed(DataInput input, Set<String> keyFields) throws IOException {
+        return decode(input);
+    }
+
+    /**
+     * Encodes an object to a byte array.
+     *
+     * @param object The object to encode.
+     *
+     * @return The encoded object.
+     */
+    default byte[] encode(DatabaseObject object) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            encode(object, output);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not save the data");
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes an object from a byte array.
+     *
+     * @param bytes The encoded object.
+     *
+     * @return The decoded object.
+     */
+    default DatabaseObject decode(byte[] bytes) {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return decode(input);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not load the data");
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Removes the objects of a database which are past the {@link RetentionPolicy} of their DataMap.
+ * <p>
+ * The policies are enforced by a background compactor or by {@link #compact()}, never while the objects are added, so
+ * the actions adding them are not slowed down. Only the DataMaps of which the objects have an owner and a creation
+ * time can have a policy, which are for now the notifications.
+ */
+public class RetentionCompactor implements AutoCloseable {
+    /**
+     * The function returning the identifier of the owner of an object, for each DataMap which can have a policy.
+     */
+    private static final EnumMap<DataMap, Function<DatabaseObject, UUID>> OWNERS = new EnumMap<>(DataMap.class);
+    /**
+     * The function returning the creation time of an object in milliseconds since the epoch, or 0 if it is unknown, for
+     * each DataMap which can have a policy.
+     */
+    private static final EnumMap<DataMap, ToLongFunction<DatabaseObject>> CREATION_TIMES = new EnumMap<>(DataMap.class);
+
+    static {
+        OWNERS.put(DataMap.NOTIFICATIONS, (object) -> ((Notification) object).getUserId());
+        CREATION_TIMES.put(DataMap.NOTIFICATIONS, (object) -> ((Notification) object).getCreationTime());
+    }
+
+    /**
+     * The database of which the objects are removed.
+     */
+    private final Database db;
+    /**
+     * The codec measuring the size of the removed objects.
+     */
+    private final BinaryRecordCodec codec = new BinaryRecordCodec();
+    /**
+     * The policy of each DataMap.
+     */
+    private final EnumMap<DataMap, RetentionPolicy> policies = new EnumMap<>(DataMap.class);
+    /**
+     * The executor running the background compactor, or null if there is none.
+     */
+    private final ScheduledExecutorService compactor;
+    /**
+     * The reports of the last run of the compactor.
+     */
+    private List<CompactionReport> lastReports = List.of();
+
+    /**
+     * Constructs a RetentionCompactor and starts its background compactor.
+     *
+     * @param db                 The database of which the objects are removed.
+     * @param policies           The policy of each DataMap of which the objects are removed.
+     * @param compactEveryMillis The delay between two runs of the background compactor, which first runs after this
+     *                           delay, or 0 to only compact when {@link #compact()} is called.
+     *
+     * @throws IllegalArgumentException If the delay is negative or if a DataMap cannot have a policy.
+     */
+    @SuppressWarnings("this-escape")
+    public RetentionCompactor(Database db, Map<DataMap, RetentionPolicy> policies, long compactEveryMillis) throws IllegalArgumentException {
+        if (compactEveryMillis < 0) {
+            throw new IllegalArgumentException("The delay of the compaction must not be negative");
+        }
+
+        this.db = db;
+        for (Map.Entry<DataMap, RetentionPolicy> entry : policies.entrySet()) {
+            putPolicy(entry.getKey(), entry.getValue());
+        }
+        if (compactEveryMillis > 0) {
+            compactor = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+                Thread thread = new Thread(runnable, "retention-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // The policies are all set above, and the compactor waits a whole delay before reading them
+            compactor.scheduleWithFixedDelay(this::compactQuietly, compactEveryMillis, compactEveryMillis, TimeUnit.MILLISECONDS);
+        } else {
+            compactor = null;
+        }
+    }
+
+    /**
+     * Sets the policy of a DataMap, enforced from the next run of the compactor.
+     *
+     * @param dataMap The DataMap.
+     * @param policy  The policy, or null to keep every object of the DataMap.
+     *
+     * @throws IllegalArgumentException If the objects of the DataMap have no owner and creation time.
+     */
+    public synchronized void setPolicy(DataMap dataMap, RetentionPolicy policy) throws IllegalArgumentException {
+        putPolicy(dataMap, policy);
+    }
+
+    /**
+     * Sets the policy of a DataMap without holding the lock of the compactor.
+     *
+     * @param dataMap The DataMap.
+     * @param policy  The policy, or null to keep every object of the DataMap.
+     *
+     * @throws IllegalArgumentException If the objects of the DataMap have no owner and creation time.
+     */
+    private void putPolicy(DataMap dataMap, RetentionPolicy policy) throws IllegalArgumentException {
+        if (!OWNERS.containsKey(dataMap)) {
+            throw new IllegalArgumentException("The objects of " + dataMap + " cannot have a retention policy");
+        }
+
+        if (policy == null) {
+            policies.remove(dataMap);
+        } else {
+            policies.put(dataMap, policy);
+        }
+    }
+
+    /**
+     * Gets the reports of the last run of the compactor.
+     *
+     * @return The report of each DataMap with a policy, or an empty list if the compactor has not run yet.
+     */
+    public synchronized List<CompactionReport> getLastReports() {
+        return lastReports;
+    }
+
+    /**
+     * Removes the objects past the policy of their DataMap: the objects older than the maximum age, then the oldest
+     * objects of each owner beyond the maximum count. The objects of unknown creation time are only removed by the
+     * maximum count.
+     *
+     * @return The report of each DataMap with a policy.
+     *
+     * @throws RuntimeException If the objects could not be removed.
+     */
+    public synchronized List<CompactionReport> compact() throws RuntimeException {
+        ArrayList<CompactionReport> reports = new ArrayList<>();
+        for (Map.Entry<DataMap, RetentionPolicy> entry : policies.entrySet()) {
+            reports.add(compact(entry.getKey(), entry.getValue()));
+        }
+        lastReports = Collections.unmodifiableList(reports);
+        return lastReports;
+    }
+
+    /**
+     * Stops the background compactor, waiting for a running compaction to finish. The database is not closed.
+     */
+    @Override
+    public void close() {
+        if (compactor != null) {
+            compactor.shutdown();
+            try {
+                compactor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Removes the objects of a DataMap past its policy.
+     *
+     * @param dataMap The DataMap.
+     * @param policy  The policy of the DataMap.
+     *
+     * @return The report of the DataMap.
+     *
+     * @throws RuntimeException If the objects could not be removed.
+     */
+    private CompactionReport compact(DataMap dataMap, RetentionPolicy policy) throws RuntimeException {
+        long start = System.nanoTime();
+        Function<DatabaseObject, UUID> owner = OWNERS.get(dataMap);
+        ToLongFunction<DatabaseObject> creationTime = CREATION_TIMES.get(dataMap);
+        long cutOff = policy.maxAge() == null ? Long.MIN_VALUE : System.currentTimeMillis() - policy.maxAge().toMillis();
+
+        HashMap<UUID, ArrayList<DatabaseObject>> kept = new HashMap<>();
+        ArrayList<DatabaseObject> expired = new ArrayList<>();
+        for (DatabaseObject object : db.get(dataMap, (DatabaseObject o) -> true)) {
+            // An object of unknown creation time is never older than the maximum age, but is the oldest of its owner
+            long time = creationTime.applyAsLong(object);
+            if (time != 0 && time < cutOff) {
+                expired.add(object);
+            } else {
+                kept.computeIfAbsent(owner.apply(object), (id) -> new ArrayList<>()).add(object);
+            }
+        }
+        if (policy.maxPerOwner() != RetentionPolicy.UNLIMITED) {
+            for (ArrayList<DatabaseObject> objects : kept.values()) {
+                if (objects.size() > policy.maxPerOwner()) {
+                    objects.sort(Comparator.comparingLong(creationTime).reversed());
+                    expired.addAll(objects.subList(policy.maxPerOwner(), objects.size()));
+                }
+            }
+        }
+
+        long reclaimedBytes = 0;
+        if (!expired.isEmpty()) {
+            HashSet<UUID> ids = new HashSet<>();
+            for (DatabaseObject object : expired) {
+                ids.add(object.getId());
+                reclaimedBytes += codec.encode(object).length;
+            }
+            if (!db.remove(dataMap, (DatabaseObject object) -> ids.contains(object.getId()))) {
+                throw new RuntimeException("Could not save the data");
+            }
+        }
+        return new CompactionReport(dataMap, expired.size(), reclaimedBytes, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Runs a compaction from the background compactor, printing the error instead of stopping the compactor if it
+     * fails.
+     */
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.time.Duration;
+
+/**
+ * A record representing how long the objects of a DataMap are kept by a {@link RetentionCompactor}.
+ *
+ * @param maxAge      The age from which an object is removed, or null to keep the objects regardless of their age.
+ * @param maxPerOwner The number of most recent objects kept for each owner, or {@link #UNLIMITED} to keep every object
+ *                    of an owner.
+ */
+public record RetentionPolicy(Duration maxAge, int maxPerOwner) {
+    /**
+     * The number of objects per owner of a policy keeping every object of an owner.
+     */
+    public static final int UNLIMITED = 0;
+
+    /**
+     * Constructs a RetentionPolicy, checking its limits.
+     *
+     * @param maxAge      The age from which an object is removed, or null to keep the objects regardless of their age.
+     * @param maxPerOwner The number of most recent objects kept for each owner, or {@link #UNLIMITED} to keep every
+     *                    object of an owner.
+     *
+     * @throws IllegalArgumentException If a limit is negative.
+     */
+    public RetentionPolicy {
+        if ((maxAge != null && maxAge.isNegative()) || maxPerOwner < 0) {
+            throw new IllegalArgumentException("The limits of a retention policy must not be negative");
+        }
+    }
+}
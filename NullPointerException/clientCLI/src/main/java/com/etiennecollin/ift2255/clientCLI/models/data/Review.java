@@ -11,6 +11,10 @@ import java.util.UUID;
  * Represents a review in the system, extending the DatabaseObject class.
  */
 public class Review extends DatabaseObject {
+    /**
+     * The version of the serialized form, pinned so that the reviews already saved can still be read.
+     */
+    private static final long serialVersionUID = -5620273394737606566L;
     /**
      * The unique identifier of the author of the review.
      */
@@ -64,6 +68,23 @@ public class Review extends DatabaseObject {
         this.reportedBy = null;
     }
 
+    /**
+     * Constructs a Review from the fields decoded by a {@link RecordCodec}.
+     *
+     * @param fields The decoded fields.
+     */
+    Review(DecodedFields fields) {
+        super(fields);
+        this.authorId = fields.get("authorId");
+        this.productId = fields.get("productId");
+        this.creationDate = fields.get("creationDate");
+        this.comment = fields.get("comment");
+        this.rating = fields.getInt("rating");
+        this.likes = fields.getInt("likes");
+        this.isReported = fields.getBoolean("isReported");
+        this.reportedBy = fields.get("reportedBy");
+    }
+
     /**
      * Gets the unique identifier of the author of the review.
      *
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import com.etiennecollin.ift2255.clientCLI.models.data.products.Product;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Enum representing the secondary indexes of the DataMaps, each grouping the objects of its DataMap by the value of a
+ * foreign key field. The indexed fields are key fields of their DataMap, as listed by {@link DataMap#getKeyFields()},
+ * except the buyer and the seller of the tickets, which are read from the whole tickets so that the layout of the
+ * tickets already stored does not change.
+ * <p>
+ * Databases keeping their DataMaps in memory may maintain these indexes through every change, so that a lookup by
+ * {@link Database#getByIndex(SecondaryIndex, UUID, java.util.function.Predicate)} only reads the objects having the
+ * key. The other databases filter the whole DataMap.
+ */
+public enum SecondaryIndex {
+    /**
+     * Indexes the products by the ID of their seller.
+     */
+    PRODUCT_SELLER(DataMap.PRODUCTS, "sellerId", (object) -> ((Product) object).getSellerId()),
+    /**
+     * Indexes the cart products by the ID of their buyer.
+     */
+    CART_BUYER(DataMap.CARTS, "buyerId", (object) -> ((CartProduct) object).getBuyerId()),
+    /**
+     * Indexes the orders by the ID of their buyer.
+     */
+    ORDER_BUYER(DataMap.ORDERS, "buyerId", (object) -> ((Order) object).getBuyerId()),
+    /**
+     * Indexes the orders by the ID of their seller.
+     */
+    ORDER_SELLER(DataMap.ORDERS, "sellerId", (object) -> ((Order) object).getSellerId()),
+    /**
+     * Indexes the reviews by the ID of their author.
+     */
+    REVIEW_AUTHOR(DataMap.REVIEWS, "authorId", (object) -> ((Review) object).getAuthorId()),
+    /**
+     * Indexes the reviews by the ID of the reviewed product.
+     */
+    REVIEW_PRODUCT(DataMap.REVIEWS, "productId", (object) -> ((Review) object).getProductId()),
+    /**
+     * Indexes the likes by the ID of the liked entity.
+     */
+    LIKE_LIKED_ENTITY(DataMap.LIKES, "likedEntityId", (object) -> ((Like) object).getLikedEntityId()),
+    /**
+     * Indexes the likes by the ID of the user who liked.
+     */
+    LIKE_USER(DataMap.LIKES, "userId", (object) -> ((Like) object).getUserId()),
+    /**
+     * Indexes the notifications by the ID of their user.
+     */
+    NOTIFICATION_USER(DataMap.NOTIFICATIONS, "userId", (object) -> ((Notification) object).getUserId()),
+    /**
+     * Indexes the tickets by the ID of their order.
+     */
+    TICKET_ORDER(DataMap.TICKETS, "orderId", (object) -> ((Ticket) object).getOrderId()),
+    /**
+     * Indexes the tickets by the ID of their buyer.
+     */
+    TICKET_BUYER(DataMap.TICKETS, "buyerId", (object) -> ((Ticket) object).getBuyerId()),
+    /**
+     * Indexes the tickets by the ID of their seller.
+     */
+    TICKET_SELLER(DataMap.TICKETS, "sellerId", (object) -> ((Ticket) object).getSellerId());
+    /**
+     * The index on the owner of the objects of each DataMap having owners, as defined by
+     * {@link Database#getOwned(DataMap, UUID, java.util.function.Predicate)}.
+     */
+    private static final EnumMap<DataMap, SecondaryIndex> OWNERS = new EnumMap<>(DataMap.class);
+
+    static {
+        OWNERS.put(DataMap.CARTS, CART_BUYER);
+        OWNERS.put(DataMap.ORDERS, ORDER_BUYER);
+        OWNERS.put(DataMap.LIKES, LIKE_LIKED_ENTITY);
+        OWNERS.put(DataMap.NOTIFICATIONS, NOTIFICATION_USER);
+    }
+
+    /**
+     * The DataMap of the indexed objects.
+     */
+    private final DataMap dataMap;
+    /**
+     * The name of the indexed field.
+     */
+    private final String field;
+    /**
+     * The function returning the value of the indexed field of an object.
+     */
+    private final Function<DatabaseObject, UUID> key;
+
+    /**
+     * Constructs a SecondaryIndex on a field of a DataMap.
+     *
+     * @param dataMap The DataMap of the indexed objects.
+     * @param field   The name of the indexed field.
+     * @param key     The function returning the value of the indexed field of an object.
+     */
+    SecondaryIndex(DataMap dataMap, String field, Function<DatabaseObject, UUID> key) {
+        this.dataMap = dataMap;
+        this.field = field;
+        this.key = key;
+    }
+
+    /**
+     * Gets the secondary indexes of a DataMap.
+     *
+     * @param dataMap The DataMap.
+     *
+     * @return The indexes of the DataMap, which may be empty.
+     */
+    public static List<SecondaryIndex> of(DataMap dataMap) {
+        ArrayList<SecondaryIndex> indexes = new ArrayList<>();
+        for (SecondaryIndex index : values()) {
+            if (index.dataMap == dataMap) {
+                indexes.add(index);
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * Gets the index on the owner of the objects of a DataMap.
+     *
+     * @param dataMap The DataMap.
+     *
+     * @return The index on the owner, or null if the objects of the DataMap have no owner.
+     */
+    public static SecondaryIndex ownerOf(DataMap dataMap) {
+        return OWNERS.get(dataMap);
+    }
+
+    /**
+     * Gets the DataMap of the indexed objects.
+     *
+     * @return The DataMap.
+     */
+    public DataMap getDataMap() {
+        return dataMap;
+    }
+
+    /**
+     * Gets the name of the indexed field.
+     *
+     * @return The name of the field.
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * Gets the value of the indexed field of an object.
+     *
+     * @param object An object of the DataMap of the index.
+     *
+     * @return The key of the object, which may be null.
+     */
+    public UUID keyOf(DatabaseObject object) {
+        return key.apply(object);
+    }
+}
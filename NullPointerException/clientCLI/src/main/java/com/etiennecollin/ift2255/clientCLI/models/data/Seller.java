@@ -8,6 +8,10 @@ package com.etiennecollin.ift2255.clientCLI.models.data;
  * Represents a seller in the system, extending the User class.
  */
 public class Seller extends User {
+    /**
+     * The version of the serialized form, pinned so that the sellers already saved can still be read.
+     */
+    private static final long serialVersionUID = 7776875182735728854L;
     /**
      * The unique name of the seller.
      */
@@ -27,6 +31,16 @@ public class Seller extends User {
         setName(name);
     }
 
+    /**
+     * Constructs a Seller from the fields decoded by a {@link RecordCodec}.
+     *
+     * @param fields The decoded fields.
+     */
+    Seller(DecodedFields fields) {
+        super(fields);
+        this.name = fields.get("name");
+    }
+
     /**
      * Gets the unique name of the seller.
      *
@@ -4,7 +4,8 @@
 
 package com.etiennecollin.ift2255.clientCLI.models.data;
 
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.UUID;
 import java.util.function.Consumer;
@@ -16,15 +17,15 @@ import java.util.function.Predicate;
  */
 public class SessionCartDatabase implements Database {
     /**
-     * The list of cart products stored in the session database.
+     * The cart products stored in the session database by ID, in the order in which they were added.
      */
-    List<CartProduct> cartProducts;
+    LinkedHashMap<UUID, CartProduct> cartProducts;
 
     /**
      * Constructs a new SessionCartDatabase with an empty list of cart products.
      */
     public SessionCartDatabase() {
-        cartProducts = new ArrayList<>();
+        cartProducts = new LinkedHashMap<>();
     }
 
     /**
@@ -38,12 +39,7 @@ public class SessionCartDatabase implements Database {
      */
     @Override
     public <T extends DatabaseObject> T get(DataMap dataMap, UUID id) {
-        List<CartProduct> filteredCart = cartProducts.stream().filter((entry) -> entry.getId().equals(id)).toList();
-        if (filteredCart.isEmpty()) {
-            return null;
-        } else {
-            return (T) filteredCart.get(0);
-        }
+        return (T) cartProducts.get(id);
     }
 
     /**
@@ -57,7 +53,7 @@ public class SessionCartDatabase implements Database {
      */
     @Override
     public <T extends DatabaseObject> List<T> get(DataMap dataMap, Predicate<T> filter) {
-        return ((List<T>) cartProducts).stream().filter(filter).toList();
+        return ((Collection<T>) cartProducts.values()).stream().filter(filter).toList();
     }
 
     /**
@@ -71,7 +67,7 @@ public class SessionCartDatabase implements Database {
      */
     @Override
     public <T extends DatabaseObject> boolean add(DataMap dataMap, T object) {
-        cartProducts.add((CartProduct) object);
+        cartProducts.put(object.getId(), (CartProduct) object);
         return true;
     }
 
@@ -86,7 +82,9 @@ public class SessionCartDatabase implements Database {
      */
     @Override
     public <T extends DatabaseObject> boolean add(DataMap dataMap, List<T> objects) {
-        cartProducts.addAll((List<? extends CartProduct>) objects);
+        for (T object : objects) {
+            cartProducts.put(object.getId(), (CartProduct) object);
+        }
         return true;
     }
 
@@ -102,9 +100,9 @@ public class SessionCartDatabase implements Database {
      */
     @Override
     public <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, UUID id) {
-        List<CartProduct> filteredData = cartProducts.stream().filter((entry) -> entry.getId().equals(id)).toList();
-        if (!filteredData.isEmpty()) {
-            update.accept((T) filteredData.get(0));
+        CartProduct cartProduct = cartProducts.get(id);
+        if (cartProduct != null) {
+            update.accept((T) cartProduct);
             return true;
         } else {
             return false;
@@ -123,7 +121,7 @@ public class SessionCartDatabase implements Database {
      */
     @Override
     public <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, Predicate<T> filter) {
-        List<T> filteredData = ((List<T>) cartProducts).stream().filter(filter).toList();
+        List<T> filteredData = get(dataMap, filter);
         filteredData.forEach(update);
         return true;
     }
@@ -139,7 +137,7 @@ public class SessionCartDatabase implements Database {
      */
     @Override
     public <T extends DatabaseObject> boolean remove(DataMap dataMap, UUID id) {
-        cartProducts = (List<CartProduct>) ((List<T>) cartProducts).stream().filter((v) -> v.getId() != id).toList();
+        cartProducts.remove(id);
         return true;
     }
 
@@ -154,7 +152,7 @@ public class SessionCartDatabase implements Database {
      */
     @Override
     public <T extends DatabaseObject> boolean remove(DataMap dataMap, Predicate<T> filter) {
-        cartProducts = (List<CartProduct>) ((List<T>) cartProducts).stream().filter((v) -> !filter.test(v)).toList();
+        ((Collection<T>) cartProducts.values()).removeIf(filter);
         return true;
     }
 }
@@ -0,0 +1,692 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementation of the Database interface splitting the DataMaps queried by owner into shards.
+ * <p>
+ * The objects of ORDERS, NOTIFICATIONS, LIKES and CARTS are stored in one of several shard databases chosen from a hash
+ * of the identifier of their owner, as defined by {@link Database#getOwned(DataMap, UUID, Predicate)}. Queries for a
+ * single owner only search its shard, and the other queries search every shard in parallel on the common
+ * {@link java.util.concurrent.ForkJoinPool}. The other DataMaps are delegated to another database.
+ * <p>
+ * The shard databases store their files in the {@code shard-<i>} subdirectories of the save path, and the number of
+ * shards is recorded in the {@value #SHARD_COUNT_FILENAME} file. Changing it requires moving the objects between the
+ * shards with {@link #reshard(String, int)} while the application is stopped.
+ * <p>
+ * A reshard writes the new layout to the {@value #STAGING_DIRECTORY} subdirectory of the save path and commits it by
+ * writing the {@value #COMMIT_FILENAME} file there. Only then are the previous files replaced, in a way that can be
+ * repeated, so that a reshard interrupted before its commit is discarded and one interrupted after it is completed by
+ * {@link #recoverReshard(String)}.
+ */
+public class ShardedDatabase implements Database {
+    /**
+     * The name of the file recording the number of shards of a save path.
+     */
+    static final String SHARD_COUNT_FILENAME = "shards.txt";
+    /**
+     * The name of the directory of a save path where the new layout of a reshard is written.
+     */
+    static final String STAGING_DIRECTORY = "reshard";
+    /**
+     * The name of the file committing the new layout of a reshard, which records the previous number of shards.
+     */
+    static final String COMMIT_FILENAME = "committed.txt";
+    /**
+     * The function returning the identifier of the owner of an object, for each sharded DataMap.
+     */
+    private static final EnumMap<DataMap, Function<DatabaseObject, UUID>> OWNERS = new EnumMap<>(DataMap.class);
+
+    static {
+        OWNERS.put(DataMap.ORDERS, (object) -> ((Order) object).getBuyerId());
+        OWNERS.put(DataMap.NOTIFICATIONS, (object) -> ((Notification) object).getUserId());
+        OWNERS.put(DataMap.LIKES, (object) -> ((Like) object).getLikedEntityId());
+        OWNERS.put(DataMap.CARTS, (object) -> ((CartProduct) object).getBuyerId());
+    }
+
+    /**
+     * The database storing the DataMaps which are not sharded.
+     */
+    private final Database delegate;
+    /**
+     * The database of each shard.
+     */
+    private final List<Database> shards;
+    /**
+     * The path of the directory containing the shard directories.
+     */
+    private final String savePath;
+
+    /**
+     * Constructs a ShardedDatabase over the shards of a save path.
+     *
+     * @param delegate   The database storing the DataMaps which are not sharded.
+     * @param savePath   The path of the directory containing the shard directories, ending with a separator.
+     * @param shardCount The number of shards, greater than 1.
+     * @param factory    The function creating the database of a shard from the path of its directory.
+     *
+     * @throws IllegalArgumentException If the number of shards is not greater than 1.
+     * @throws IllegalStateException    If the data of the save path is split into another number of shards.
+     */
+    public ShardedDatabase(Database delegate, String savePath, int shardCount, Function<String, Database> factory) throws IllegalArgumentException, IllegalStateException {
+        if (shardCount < 2) {
+            throw new IllegalArgumentException("The number of shards must be greater than 1");
+        }
+
+        recoverReshard(savePath);
+        int storedShardCount = getShardCount(savePath);
+        if (storedShardCount != shardCount && (storedShardCount != 1 || hasUnshardedData(savePath))) {
+            throw new IllegalStateException("The data is split into " + storedShardCount + " shards, reshard it before using " + shardCount + " shards");
+        }
+        writeShardCount(savePath, shardCount);
+
+        this.delegate = delegate;
+        this.savePath = savePath;
+        ArrayList<Database> shards = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(factory.apply(shardPath(savePath, i, shardCount)));
+        }
+        this.shards = Collections.unmodifiableList(shards);
+    }
+
+    /**
+     * Checks if a DataMap is split into shards.
+     *
+     * @param dataMap The DataMap.
+     *
+     * @return True if the DataMap is sharded, false otherwise.
+     */
+    public static boolean isSharded(DataMap dataMap) {
+        return OWNERS.containsKey(dataMap);
+    }
+
+    /**
+     * Gets the number of shards the data of a save path is split into.
+     *
+     * @param savePath The save path, ending with a separator.
+     *
+     * @return The number of shards, 1 if the data is not sharded.
+     */
+    public static int getShardCount(String savePath) {
+        File file = new File(savePath + SHARD_COUNT_FILENAME);
+        return file.exists() ? readCount(file) : 1;
+    }
+
+    /**
+     * Moves the objects of the sharded DataMaps of a save path into a new number of shards.
+     * The new layout is written and committed before any previous file is replaced, so that an interrupted reshard
+     * loses no object.
+     * It must only be run while no database uses the save path.
+     *
+     * @param savePath   The save path, ending with a separator.
+     * @param shardCount The new number of shards, 1 to store the DataMaps unsharded.
+     *
+     * @throws IllegalArgumentException If the number of shards is not positive.
+     */
+    public static void reshard(String savePath, int shardCount) throws IllegalArgumentException {
+        stageReshard(savePath, shardCount);
+        recoverReshard(savePath);
+    }
+
+    /**
+     * Writes the new layout of a reshard to the staging directory of a save path and commits it, without replacing
+     * the previous files.
+     *
+     * @param savePath   The save path, ending with a separator.
+     * @param shardCount The new number of shards, 1 to store the DataMaps unsharded.
+     *
+     * @throws IllegalArgumentException If the number of shards is not positive.
+     */
+    static void stageReshard(String savePath, int shardCount) throws IllegalArgumentException {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("The number of shards must be positive");
+        }
+
+        recoverReshard(savePath);
+        int currentShardCount = getShardCount(savePath);
+        String stagingPath = savePath + STAGING_DIRECTORY + File.separator;
+        new File(stagingPath).mkdirs();
+        for (DataMap dataMap : OWNERS.keySet()) {
+            ArrayList<DatabaseObject> objects = new ArrayList<>();
+            for (int i = 0; i < currentShardCount; i++) {
+                objects.addAll(new JavaSerializedDatabase(shardPath(savePath, i, currentShardCount), false).get(dataMap, (object) -> true));
+            }
+
+            // Every new shard gets a file, even if empty, so that every file of the new layout replaces the previous one
+            Map<Integer, ArrayList<DatabaseObject>> groups = objects.stream().collect(Collectors.groupingBy((object) -> shardOf(OWNERS.get(dataMap).apply(object), shardCount), Collectors.toCollection(ArrayList::new)));
+            for (int i = 0; i < shardCount; i++) {
+                new JavaSerializedDatabase(shardPath(stagingPath, i, shardCount), false).save(groups.getOrDefault(i, new ArrayList<>()), dataMap.getFilename());
+            }
+        }
+        writeShardCount(stagingPath, shardCount);
+        writeAtomically(new File(stagingPath + COMMIT_FILENAME), Integer.toString(currentShardCount));
+    }
+
+    /**
+     * Completes a reshard of a save path which was interrupted after its new layout was committed, or discards one
+     * interrupted before. Does nothing if no reshard was interrupted.
+     * It must only be run while no database uses the save path.
+     *
+     * @param savePath The save path, ending with a separator.
+     *
+     * @throws RuntimeException If a file could not be replaced.
+     */
+    public static void recoverReshard(String savePath) throws RuntimeException {
+        File staging = new File(savePath + STAGING_DIRECTORY);
+        if (!staging.exists()) {
+            return;
+        }
+
+        String stagingPath = staging.getPath() + File.separator;
+        File commit = new File(stagingPath + COMMIT_FILENAME);
+        if (commit.exists()) {
+            int previousShardCount = readCount(commit);
+            int shardCount = readCount(new File(stagingPath + SHARD_COUNT_FILENAME));
+            HashSet<String> replacedPaths = new HashSet<>();
+            for (int i = 0; i < shardCount; i++) {
+                replacedPaths.add(shardPath(savePath, i, shardCount));
+            }
+
+            try {
+                for (DataMap dataMap : OWNERS.keySet()) {
+                    // The previous files which are not replaced by a new one are deleted first, so that repeating this
+                    // step never deletes a new file already moved in place
+                    for (int i = 0; i < previousShardCount; i++) {
+                        String previousPath = shardPath(savePath, i, previousShardCount);
+                        if (!replacedPaths.contains(previousPath)) {
+                            Files.deleteIfExists(new File(previousPath + dataMap.getFilename()).toPath());
+                            Files.deleteIfExists(new File(previousPath + dataMap.getBaseName() + ".bloom").toPath());
+                        }
+                    }
+                    for (int i = 0; i < shardCount; i++) {
+                        File staged = new File(shardPath(stagingPath, i, shardCount) + dataMap.getFilename());
+                        if (staged.exists()) {
+                            String target = shardPath(savePath, i, shardCount);
+                            Files.deleteIfExists(new File(target + dataMap.getBaseName() + ".bloom").toPath());
+                            Files.move(staged.toPath(), new File(target + dataMap.getFilename()).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                        }
+                    }
+                }
+
+                if (shardCount == 1) {
+                    Files.deleteIfExists(new File(savePath + SHARD_COUNT_FILENAME).toPath());
+                } else {
+                    writeShardCount(savePath, shardCount);
+                }
+            } catch (IOException e) {
+                throw new RuntimeException("Could not save the data");
+            }
+        }
+
+        deleteRecursively(staging);
+    }
+
+    /**
+     * Gets the path of the directory of a shard, creating it if needed.
+     *
+     * @param savePath   The save path, ending with a separator.
+     * @param shard      The index of the shard.
+     * @param shardCount The number of shards, 1 for the save path itself.
+     *
+     * @return The path of the directory of the shard, ending with a separator.
+     */
+    private static String shardPath(String savePath, int shard, int shardCount) {
+        if (shardCount == 1) {
+            return savePath;
+        }
+
+        File directory = new File(savePath + "shard-" + shard);
+        directory.mkdirs();
+        return directory.getPath() + File.separator;
+    }
+
+    /**
+     * Gets the shard of an owner.
+     *
+     * @param ownerId    The identifier of the owner.
+     * @param shardCount The number of shards.
+     *
+     * @return The index of the shard.
+     */
+    private static int shardOf(UUID ownerId, int shardCount) {
+        return Math.floorMod(ownerId.hashCode(), shardCount);
+    }
+
+    /**
+     * Checks if a save path contains unsharded files of the sharded DataMaps.
+     *
+     * @param savePath The save path, ending with a separator.
+     *
+     * @return True if one of the files exists, false otherwise.
+     */
+    private static boolean hasUnshardedData(String savePath) {
+        return OWNERS.keySet().stream().anyMatch((dataMap) -> new File(savePath + dataMap.getFilename()).exists());
+    }
+
+    /**
+     * Records the number of shards of a save path.
+     *
+     * @param savePath   The save path, ending with a separator.
+     * @param shardCount The number of shards.
+     */
+    private static void writeShardCount(String savePath, int shardCount) {
+        writeAtomically(new File(savePath + SHARD_COUNT_FILENAME), Integer.toString(shardCount));
+    }
+
+    /**
+     * Reads a number of shards recorded in a file.
+     *
+     * @param file The file.
+     *
+     * @return The number of shards.
+     */
+    private static int readCount(File file) {
+        try {
+            return Integer.parseInt(Files.readString(file.toPath()).trim());
+        } catch (IOException | NumberFormatException e) {
+            throw new RuntimeException("Could not load the data");
+        }
+    }
+
+    /**
+     * Writes a file through a temporary file which then replaces it, so that the file is never partially written.
+     *
+     * @param file    The file.
+     * @param content The content of the file.
+     */
+    private static void writeAtomically(File file, String content) {
+        File temporary = new File(file.getPath() + ".tmp");
+        try {
+            Files.writeString(temporary.toPath(), content);
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            temporary.delete();
+            throw new RuntimeException("Could not save the data");
+        }
+    }
+
+    /**
+     * Deletes a file or a directory with its content.
+     *
+     * @param file The file or directory.
+     *
+     * @throws RuntimeException If a file could not be deleted.
+     */
+    private static void deleteRecursively(File file) throws RuntimeException {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        if (!file.delete() && file.exists()) {
+            throw new RuntimeException("Could not delete " + file);
+        }
+    }
+
+    /**
+     * Gets a specific object from the database based on its ID.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param id      The ID of the object.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The object with the specified ID, or null if not found.
+     */
+    @Override
+    public <T extends DatabaseObject> T get(DataMap dataMap, UUID id) {
+        if (!isSharded(dataMap)) {
+            return delegate.get(dataMap, id);
+        }
+
+        return shards.parallelStream().map((shard) -> shard.<T>get(dataMap, id)).filter(Objects::nonNull).findFirst().orElse(null);
+    }
+
+    /**
+     * Gets a batch of objects from the database based on their IDs, searching every shard in parallel.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param ids     The IDs of the objects.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The objects found, by ID.
+     */
+    @Override
+    public <T extends DatabaseObject> Map<UUID, T> getAll(DataMap dataMap, Collection<UUID> ids) {
+        if (!isSharded(dataMap)) {
+            return delegate.getAll(dataMap, ids);
+        }
+
+        HashMap<UUID, T> found = HashMap.newHashMap(ids.size());
+        shards.parallelStream().map((shard) -> shard.<T>getAll(dataMap, ids)).toList().forEach(found::putAll);
+        return found;
+    }
+
+    /**
+     * Gets a list of objects from the database based on a filter.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return A list of objects that match the filter.
+     */
+    @Override
+    public <T extends DatabaseObject> List<T> get(DataMap dataMap, Predicate<T> filter) {
+        if (!isSharded(dataMap)) {
+            return delegate.get(dataMap, filter);
+        }
+
+        return shards.parallelStream().flatMap((shard) -> shard.get(dataMap, filter).stream()).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Gets the objects of a single owner that match a filter, only searching the shard of the owner.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param ownerId The ID of the owner of the objects.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return A list of objects that match the filter.
+     */
+    @Override
+    public <T extends DatabaseObject> List<T> getOwned(DataMap dataMap, UUID ownerId, Predicate<T> filter) {
+        if (!isSharded(dataMap)) {
+            return delegate.getOwned(dataMap, ownerId, filter);
+        }
+
+        return shards.get(shardOf(ownerId, shards.size())).getOwned(dataMap, ownerId, filter);
+    }
+
+    /**
+     * Gets the objects having a key in a secondary index that match a filter, only searching the shard of the owner
+     * when the index is on the owner of the objects.
+     *
+     * @param index  The secondary index.
+     * @param key    The value of the indexed field of the objects.
+     * @param filter The filter predicate.
+     * @param <T>    The type of object which extends {@link DatabaseObject}.
+     *
+     * @return A list of objects that match the filter.
+     */
+    @Override
+    public <T extends DatabaseObject> List<T> getByIndex(SecondaryIndex index, UUID key, Predicate<T> filter) {
+        if (!isSharded(index.getDataMap())) {
+            return delegate.getByIndex(index, key, filter);
+        }
+        if (index == SecondaryIndex.ownerOf(index.getDataMap())) {
+            return shards.get(shardOf(key, shards.size())).getByIndex(index, key, filter);
+        }
+
+        return shards.parallelStream().flatMap((shard) -> shard.getByIndex(index, key, filter).stream()).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Gets the objects matching a query, from the shards of the owners it requires.
+     *
+     * @param query The query.
+     * @param <T>   The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The page of objects matching the query.
+     */
+    @Override
+    public <T extends DatabaseObject> List<T> get(Query<T> query) {
+        if (!isSharded(query.dataMap())) {
+            return delegate.get(query);
+        }
+
+        return query.run(this, (index, key) -> 1);
+    }
+
+    /**
+     * Counts the objects that match a filter, without building the list of the matches.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The number of objects matching the filter.
+     */
+    @Override
+    public <T extends DatabaseObject> long count(DataMap dataMap, Predicate<T> filter) {
+        if (!isSharded(dataMap)) {
+            return delegate.count(dataMap, filter);
+        }
+
+        return Database.super.count(dataMap, filter);
+    }
+
+    /**
+     * Checks whether any object matches a filter, without building the list of the matches.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if an object matches the filter, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean exists(DataMap dataMap, Predicate<T> filter) {
+        if (!isSharded(dataMap)) {
+            return delegate.exists(dataMap, filter);
+        }
+
+        return Database.super.exists(dataMap, filter);
+    }
+
+    /**
+     * Counts the objects matching a query within its page, without building the list of the matches.
+     *
+     * @param query The query.
+     * @param <T>   The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The number of objects matching the query.
+     */
+    @Override
+    public <T extends DatabaseObject> long count(Query<T> query) {
+        if (!isSharded(query.dataMap())) {
+            return delegate.count(query);
+        }
+
+        return Database.super.count(query);
+    }
+
+    /**
+     * Adds a single object to the database.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param object  The object to add.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the addition was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean add(DataMap dataMap, T object) {
+        if (!isSharded(dataMap)) {
+            return delegate.add(dataMap, object);
+        }
+
+        return shards.get(shardOf(OWNERS.get(dataMap).apply(object), shards.size())).add(dataMap, object);
+    }
+
+    /**
+     * Adds a list of objects to the database, adding the objects of each shard together.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param objects The list of objects to add.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the addition was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean add(DataMap dataMap, List<T> objects) {
+        if (!isSharded(dataMap)) {
+            return delegate.add(dataMap, objects);
+        }
+
+        Map<Integer, List<T>> groups = objects.stream().collect(Collectors.groupingBy((object) -> shardOf(OWNERS.get(dataMap).apply(object), shards.size())));
+        boolean result = true;
+        for (Map.Entry<Integer, List<T>> group : groups.entrySet()) {
+            result &= shards.get(group.getKey()).add(dataMap, group.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Updates a single object in the database.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param update  The update operation to perform on the object.
+     * @param id      The ID of the object to update.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the update was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, UUID id) {
+        if (!isSharded(dataMap)) {
+            return delegate.update(dataMap, update, id);
+        }
+
+        for (Database shard : shards) {
+            if (shard.update(dataMap, update, id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Updates multiple objects in the database based on a filter.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param update  The update operation to perform on matching objects.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the update was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, Predicate<T> filter) {
+        if (!isSharded(dataMap)) {
+            return delegate.update(dataMap, update, filter);
+        }
+
+        boolean result = false;
+        for (Database shard : shards) {
+            result |= shard.update(dataMap, update, filter);
+        }
+        return result;
+    }
+
+    /**
+     * Removes a single object from the database based on its ID.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param id      The ID of the object to remove.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the removal was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean remove(DataMap dataMap, UUID id) {
+        if (!isSharded(dataMap)) {
+            return delegate.remove(dataMap, id);
+        }
+
+        for (Database shard : shards) {
+            if (shard.remove(dataMap, id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes multiple objects from the database based on a filter.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the removal was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean remove(DataMap dataMap, Predicate<T> filter) {
+        if (!isSharded(dataMap)) {
+            return delegate.remove(dataMap, filter);
+        }
+
+        boolean result = false;
+        for (Database shard : shards) {
+            result |= shard.remove(dataMap, filter);
+        }
+        return result;
+    }
+
+    /**
+     * Loads DataMaps in advance in the shards and in the delegate concurrently.
+     * The reports of the shards are merged, counting the objects of every shard and the time of the slowest one.
+     *
+     * @param dataMaps The DataMaps to load.
+     *
+     * @return The report of each DataMap that was loaded.
+     */
+    @Override
+    public List<WarmUpReport> warmUp(Set<DataMap> dataMaps) {
+        EnumSet<DataMap> shardedDataMaps = EnumSet.noneOf(DataMap.class);
+        EnumSet<DataMap> otherDataMaps = EnumSet.noneOf(DataMap.class);
+        for (DataMap dataMap : dataMaps) {
+            (isSharded(dataMap) ? shardedDataMaps : otherDataMaps).add(dataMap);
+        }
+
+        Stream<Supplier<List<WarmUpReport>>> loads = Stream.concat(Stream.of(() -> delegate.warmUp(otherDataMaps)), shards.stream().map((shard) -> () -> shard.warmUp(shardedDataMaps)));
+        EnumMap<DataMap, WarmUpReport> reports = new EnumMap<>(DataMap.class);
+        loads.parallel().flatMap((load) -> load.get().stream()).toList().forEach((report) -> reports.merge(report.dataMap(), report, (a, b) -> new WarmUpReport(a.dataMap(), a.objectCount() + b.objectCount(), Math.max(a.loadMillis(), b.loadMillis()))));
+        return new ArrayList<>(reports.values());
+    }
+
+    /**
+     * Pins the files of the delegate, of every shard and the file recording the number of shards in a snapshot.
+     * Each shard is pinned at its own point in time, as the shards are written independently.
+     *
+     * @param snapshot The snapshot in which the files are pinned.
+     *
+     * @throws UnsupportedOperationException If the delegate or a shard cannot take snapshots.
+     * @throws RuntimeException              If a file could not be pinned.
+     */
+    @Override
+    public void snapshot(Snapshot snapshot) throws UnsupportedOperationException, RuntimeException {
+        delegate.snapshot(snapshot);
+        for (Database shard : shards) {
+            shard.snapshot(snapshot);
+        }
+        snapshot.pin(new File(savePath + SHARD_COUNT_FILENAME));
+    }
+
+    /**
+     * Closes the shard databases and the delegate.
+     */
+    @Override
+    public void close() {
+        for (Database shard : shards) {
+            shard.close();
+        }
+        delegate.close();
+    }
+}
@@ -11,6 +11,10 @@ import java.time.LocalDate;
  * Represents a shipment in the system.
  */
 public class Shipment implements Serializable {
+    /**
+     * The version of the serialized form, pinned so that the shipments already saved can still be read.
+     */
+    private static final long serialVersionUID = 3746995696070823337L;
     /**
      * The shipping company associated with the shipment.
      */
@@ -51,6 +55,20 @@ public class Shipment implements Serializable {
         this.trackingNumber = trackingNumber;
     }
 
+    /**
+     * Constructs a Shipment from the fields decoded by a {@link RecordCodec}.
+     *
+     * @param fields The decoded fields.
+     */
+    Shipment(DecodedFields fields) {
+        this.shippingCompany = fields.get("shippingCompany");
+        this.isDeliveryConfirmed = fields.getBoolean("isDeliveryConfirmed");
+        this.trackingNumber = fields.get("trackingNumber");
+        this.creationDate = fields.get("creationDate");
+        this.expectedDeliveryDate = fields.get("expectedDeliveryDate");
+        this.receptionDate = fields.get("receptionDate");
+    }
+
     /**
      * Gets the shipping company associated with the shipment.
      *
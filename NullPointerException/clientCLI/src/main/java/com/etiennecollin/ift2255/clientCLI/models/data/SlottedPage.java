@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * A fixed-size page holding variable-length records in numbered slots.
+ * <p>
+ * On disk, a page starts with a header holding its number of slots and the start of its record area, followed by the
+ * slot directory, one entry per slot with the offset and the length of its record. The records are packed at the end
+ * of the page, so the free space of the page is the gap between the slot directory and the record area. The slot of a
+ * record does not change when other records of the page are added, resized or removed.
+ */
+class SlottedPage {
+    /**
+     * The size in bytes of a page.
+     */
+    static final int SIZE = 8192;
+    /**
+     * The size in bytes of the header of a page.
+     */
+    private static final int HEADER_SIZE = 4;
+    /**
+     * The size in bytes of an entry of the slot directory.
+     */
+    private static final int SLOT_SIZE = 4;
+    /**
+     * The size in bytes of the largest record a page can hold.
+     */
+    static final int MAX_RECORD_SIZE = SIZE - HEADER_SIZE - SLOT_SIZE;
+    /**
+     * The record of each slot, or null if the slot is free.
+     */
+    private final ArrayList<byte[]> records = new ArrayList<>();
+    /**
+     * The number of bytes used by the records.
+     */
+    private int recordBytes;
+
+    /**
+     * Reads a page from a buffer of {@value #SIZE} bytes.
+     *
+     * @param buffer The buffer containing the page.
+     *
+     * @return The page.
+     */
+    static SlottedPage read(ByteBuffer buffer) {
+        SlottedPage page = new SlottedPage();
+        int slotCount = buffer.getShort(0);
+        for (int slot = 0; slot < slotCount; slot++) {
+            int offset = buffer.getShort(HEADER_SIZE + slot * SLOT_SIZE);
+            int length = buffer.getShort(HEADER_SIZE + slot * SLOT_SIZE + 2);
+            if (length == 0) {
+                page.records.add(null);
+            } else {
+                byte[] record = new byte[length];
+                buffer.get(offset, record);
+                page.records.add(record);
+                page.recordBytes += length;
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Writes the page to a buffer of {@value #SIZE} bytes.
+     *
+     * @param buffer The buffer to which the page is written.
+     */
+    void write(ByteBuffer buffer) {
+        int end = SIZE;
+        for (int slot = 0; slot < records.size(); slot++) {
+            byte[] record = records.get(slot);
+            int entry = HEADER_SIZE + slot * SLOT_SIZE;
+            if (record == null) {
+                buffer.putShort(entry, (short) 0);
+                buffer.putShort(entry + 2, (short) 0);
+            } else {
+                end -= record.length;
+                buffer.put(end, record);
+                buffer.putShort(entry, (short) end);
+                buffer.putShort(entry + 2, (short) record.length);
+            }
+        }
+        buffer.putShort(0, (short) records.size());
+        buffer.putShort(2, (short) end);
+    }
+
+    /**
+     * Gets the number of bytes of the page neither used by the slot directory nor by the records.
+     *
+     * @return The free space of the page in bytes.
+     */
+    int getFreeSpace() {
+        return SIZE - HEADER_SIZE - records.size() * SLOT_SIZE - recordBytes;
+    }
+
+    /**
+     * Checks if a new record fits in the page.
+     *
+     * @param length The length of the record.
+     *
+     * @return True if the record can be inserted, false otherwise.
+     */
+    boolean fits(int length) {
+        return length + (records.contains(null) ? 0 : SLOT_SIZE) <= getFreeSpace();
+    }
+
+    /**
+     * Gets the number of slots of the page, including the free ones.
+     *
+     * @return The number of slots.
+     */
+    int getSlotCount() {
+        return records.size();
+    }
+
+    /**
+     * Gets the record of a slot.
+     *
+     * @param slot The slot.
+     *
+     * @return The record, or null if the slot is free.
+     */
+    byte[] get(int slot) {
+        return slot < records.size() ? records.get(slot) : null;
+    }
+
+    /**
+     * Inserts a record in the first free slot of the page, or in a new slot if none is free.
+     * The record must fit in the page.
+     *
+     * @param record The record to insert.
+     *
+     * @return The slot of the record.
+     */
+    int insert(byte[] record) {
+        recordBytes += record.length;
+        int slot = records.indexOf(null);
+        if (slot < 0) {
+            records.add(record);
+            return records.size() - 1;
+        }
+        records.set(slot, record);
+        return slot;
+    }
+
+    /**
+     * Replaces the record of a slot if the new record fits in the page.
+     *
+     * @param slot   The slot of the record.
+     * @param record The new record.
+     *
+     * @return True if the record was replaced, false if it does not fit in the page.
+     */
+    boolean replace(int slot, byte[] record) {
+        byte[] previous = records.get(slot);
+        if (record.length - previous.length > getFreeSpace()) {
+            return false;
+        }
+
+        recordBytes += record.length - previous.length;
+        records.set(slot, record);
+        return true;
+    }
+
+    /**
+     * Frees a slot of the page. The trailing free slots are dropped from the slot directory.
+     *
+     * @param slot The slot to free.
+     */
+    void remove(int slot) {
+        recordBytes -= records.get(slot).length;
+        records.set(slot, null);
+        while (!records.isEmpty() && records.get(records.size() - 1) == null) {
+            records.remove(records.size() - 1);
+        }
+    }
+}
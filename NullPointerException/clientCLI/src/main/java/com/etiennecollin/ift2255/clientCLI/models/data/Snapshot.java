@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+/**
+ * A point-in-time copy of the files of a database, taken by {@link Database#snapshot(Snapshot)} while writes go on.
+ * <p>
+ * The databases pin their files while briefly holding their locks, and the pinned files are streamed to the target
+ * directory by {@link #write()} once the locks are released. A file which is only ever replaced by a new file, or only
+ * ever appended to, is pinned by opening it: the open channel keeps reading the pinned content after the file is
+ * replaced, and only the length at the time of the pin is copied from an appended file. A file modified in place is
+ * copied right away instead, so the database must hold the lock of that file during the call.
+ * <p>
+ * Every file keeps its path relative to the root directory of the database in the target directory, and the files
+ * are copied with {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}, which lets the
+ * operating system copy them without going through the application.
+ */
+public class Snapshot implements Closeable {
+    /**
+     * The directory containing the files of the database.
+     */
+    private final Path root;
+    /**
+     * The directory to which the files are copied.
+     */
+    private final Path target;
+    /**
+     * The files pinned and not written yet.
+     */
+    private final ArrayList<PinnedFile> pinned = new ArrayList<>();
+    /**
+     * The number of bytes copied to the target directory so far.
+     */
+    private long copiedBytes;
+
+    /**
+     * Constructs a Snapshot of the files stored next to the application.
+     *
+     * @param target The directory to which the files are copied, which is created if needed.
+     */
+    public Snapshot(Path target) {
+        this(JavaSerializedDatabase.defaultSavePath(), target);
+    }
+
+    /**
+     * Constructs a Snapshot of the files of a directory.
+     *
+     * @param rootPath The path of the directory containing the files of the database.
+     * @param target   The directory to which the files are copied, which is created if needed.
+     */
+    public Snapshot(String rootPath, Path target) {
+        this.root = Path.of(rootPath).toAbsolutePath().normalize();
+        this.target = target.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Pins the content of a file which is only ever replaced by a new file, never modified in place.
+     * Does nothing if the file does not exist.
+     *
+     * @param file The file.
+     *
+     * @throws RuntimeException If the file could not be opened.
+     */
+    public void pin(File file) throws RuntimeException {
+        pin(file, -1);
+    }
+
+    /**
+     * Pins the first bytes of a file which is only ever appended to, or replaced by a new file.
+     * Does nothing if the file does not exist.
+     *
+     * @param file   The file.
+     * @param length The number of bytes to copy, or -1 to copy the whole file as it is now.
+     *
+     * @throws RuntimeException If the file could not be opened.
+     */
+    public void pin(File file, long length) throws RuntimeException {
+        if (!file.exists()) {
+            return;
+        }
+
+        try {
+            FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            pinned.add(new PinnedFile(targetOf(file), channel, length < 0 ? channel.size() : length));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not save the data");
+        }
+    }
+
+    /**
+     * Copies a file which is modified in place to the target directory right away.
+     * Does nothing if the file does not exist.
+     *
+     * @param file The file, which must not be modified during the call.
+     *
+     * @throws RuntimeException If the file could not be copied.
+     */
+    public void copy(File file) throws RuntimeException {
+        if (!file.exists()) {
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            transfer(channel, channel.size(), targetOf(file));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not save the data");
+        }
+    }
+
+    /**
+     * Streams the pinned files to the target directory and releases them.
+     *
+     * @return The number of bytes of the snapshot, including the files copied while they were pinned.
+     *
+     * @throws RuntimeException If a file could not be copied.
+     */
+    public long write() throws RuntimeException {
+        try {
+            for (PinnedFile file : pinned) {
+                transfer(file.channel(), file.length(), file.target());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not save the data");
+        } finally {
+            close();
+        }
+        return copiedBytes;
+    }
+
+    /**
+     * Releases the pinned files without writing them.
+     */
+    @Override
+    public void close() {
+        for (PinnedFile file : pinned) {
+            try {
+                file.channel().close();
+            } catch (IOException e) {
+                System.out.println("Could not release a file of the snapshot");
+            }
+        }
+        pinned.clear();
+    }
+
+    /**
+     * Gets the path in the target directory of a file of the database.
+     *
+     * @param file The file.
+     *
+     * @return The path of the copy of the file.
+     *
+     * @throws IllegalArgumentException If the file is not in the root directory of the database.
+     */
+    private Path targetOf(File file) throws IllegalArgumentException {
+        Path path = file.toPath().toAbsolutePath().normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("The file " + file + " is not in " + root);
+        }
+        return target.resolve(root.relativize(path));
+    }
+
+    /**
+     * Copies the first bytes of a channel to a new file.
+     *
+     * @param source      The channel.
+     * @param length      The number of bytes to copy.
+     * @param destination The path of the new file.
+     *
+     * @throws IOException If the bytes could not be copied.
+     */
+    private void transfer(FileChannel source, long length, Path destination) throws IOException {
+        Files.createDirectories(destination.getParent());
+        try (FileChannel output = FileChannel.open(destination, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            while (position < length) {
+                long transferred = source.transferTo(position, length - position, output);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+            }
+            copiedBytes += position;
+        }
+    }
+
+    /**
+     * A file pinned for the snapshot.
+     *
+     * @param target  The path of the copy of the file.
+     * @param channel The channel reading the pinned content of the file.
+     * @param length  The number of bytes to copy.
+     */
+    private record PinnedFile(Path target, FileChannel channel, long length) {}
+}
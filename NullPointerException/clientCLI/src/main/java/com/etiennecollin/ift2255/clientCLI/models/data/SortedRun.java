@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * An immutable file of entries sorted by identifier, written once by a flush or a compaction of a {@link LsmDatabase}.
+ * <p>
+ * The file holds the entries one after the other, each with its identifier, the length of its value and its value. A
+ * removed object is kept as an entry without value, a tombstone, which hides the older entries of the same identifier.
+ * After the entries, a sparse index holds the identifier and the offset of every {@value #INDEX_INTERVAL}th entry,
+ * followed by a {@link BloomFilter} of the identifiers of the entries and by a footer locating both. The index and the
+ * filter are kept in memory, so a point lookup reads a single block of entries, and none at all for most of the
+ * identifiers the run does not hold.
+ */
+class SortedRun {
+    /**
+     * The number of entries between two entries of the sparse index.
+     */
+    private static final int INDEX_INTERVAL = 32;
+    /**
+     * The size in bytes of the footer of a run.
+     */
+    private static final int FOOTER_SIZE = 2 * Long.BYTES + 2 * Integer.BYTES;
+    /**
+     * The length written in place of the length of the value of a tombstone.
+     */
+    private static final int TOMBSTONE_LENGTH = -1;
+    /**
+     * The file of the run.
+     */
+    private final File file;
+    /**
+     * The channel of the file.
+     */
+    private final FileChannel channel;
+    /**
+     * The identifier of each entry of the sparse index.
+     */
+    private final UUID[] indexIds;
+    /**
+     * The offset of each entry of the sparse index.
+     */
+    private final long[] indexOffsets;
+    /**
+     * The filter of the identifiers of the entries.
+     */
+    private final BloomFilter filter;
+    /**
+     * The offset of the sparse index, which is also the end of the entries.
+     */
+    private final long indexOffset;
+    /**
+     * The number of entries of the run.
+     */
+    private final int entryCount;
+
+    /**
+     * Opens a run, reading its sparse index and its filter.
+     *
+     * @param file The file of the run.
+     *
+     * @throws IOException If the file could not be read.
+     */
+    SortedRun(File file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        ByteBuffer footer = read(channel.size() - FOOTER_SIZE, FOOTER_SIZE);
+        indexOffset = footer.getLong();
+        int indexCount = footer.getInt();
+        entryCount = footer.getInt();
+        long filterOffset = footer.getLong();
+
+        ByteBuffer index = read(indexOffset, indexCount * (2 * Long.BYTES + Long.BYTES));
+        indexIds = new UUID[indexCount];
+        indexOffsets = new long[indexCount];
+        for (int i = 0; i < indexCount; i++) {
+            indexIds[i] = new UUID(index.getLong(), index.getLong());
+            indexOffsets[i] = index.getLong();
+        }
+
+        ByteBuffer filterBytes = read(filterOffset, (int) (channel.size() - FOOTER_SIZE - filterOffset));
+        filter = BloomFilter.readFrom(new DataInputStream(new ByteArrayInputStream(filterBytes.array())));
+    }
+
+    /**
+     * Writes the entries of a cursor to a new run.
+     *
+     * @param file              The file of the run.
+     * @param entries           The cursor over the entries, sorted by identifier without duplicates.
+     * @param expectedCount     The number of entries expected from the cursor, used to size the filter.
+     * @param falsePositiveRate The rate of false positives of the filter.
+     *
+     * @return The run, opened.
+     *
+     * @throws IOException If the file could not be written.
+     */
+    static SortedRun write(File file, Cursor entries, int expectedCount, double falsePositiveRate) throws IOException {
+        BloomFilter filter = BloomFilter.create(expectedCount, falsePositiveRate);
+        ArrayList<UUID> indexIds = new ArrayList<>();
+        ArrayList<Long> indexOffsets = new ArrayList<>();
+        int entryCount = 0;
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, false)))) {
+            for (Entry entry = entries.next(); entry != null; entry = entries.next()) {
+                if (entryCount % INDEX_INTERVAL == 0) {
+                    indexIds.add(entry.id());
+                    indexOffsets.add((long) output.size());
+                }
+                writeEntry(output, entry);
+                filter.add(entry.id());
+                entryCount++;
+            }
+
+            long indexOffset = output.size();
+            for (int i = 0; i < indexIds.size(); i++) {
+                output.writeLong(indexIds.get(i).getMostSignificantBits());
+                output.writeLong(indexIds.get(i).getLeastSignificantBits());
+                output.writeLong(indexOffsets.get(i));
+            }
+            long filterOffset = output.size();
+            filter.writeTo(output);
+            output.writeLong(indexOffset);
+            output.writeInt(indexIds.size());
+            output.writeInt(entryCount);
+            output.writeLong(filterOffset);
+        }
+        return new SortedRun(file);
+    }
+
+    /**
+     * Writes an entry to a stream.
+     *
+     * @param output The stream.
+     * @param entry  The entry.
+     *
+     * @throws IOException If the entry could not be written.
+     */
+    static void writeEntry(DataOutput output, Entry entry) throws IOException {
+        output.writeLong(entry.id().getMostSignificantBits());
+        output.writeLong(entry.id().getLeastSignificantBits());
+        if (entry.value() == null) {
+            output.writeInt(TOMBSTONE_LENGTH);
+        } else {
+            output.writeInt(entry.value().length);
+            output.write(entry.value());
+        }
+    }
+
+    /**
+     * Reads an entry from a stream.
+     *
+     * @param input The stream.
+     *
+     * @return The entry.
+     *
+     * @throws IOException If the entry could not be read.
+     */
+    static Entry readEntry(DataInput input) throws IOException {
+        UUID id = new UUID(input.readLong(), input.readLong());
+        int length = input.readInt();
+        if (length == TOMBSTONE_LENGTH) {
+            return new Entry(id, null);
+        }
+        byte[] value = new byte[length];
+        input.readFully(value);
+        return new Entry(id, value);
+    }
+
+    /**
+     * Gets the entry of an identifier, reading the single block of entries which may hold it unless the filter tells
+     * that the run does not hold it.
+     *
+     * @param id The identifier.
+     *
+     * @return The entry, which is a tombstone if the object was removed, or null if the run has no entry for it.
+     *
+     * @throws IOException If the file could not be read.
+     */
+    Entry get(UUID id) throws IOException {
+        if (!filter.mightContain(id)) {
+            return null;
+        }
+
+        int block = Arrays.binarySearch(indexIds, id);
+        if (block < 0) {
+            block = -block - 2;
+            if (block < 0) {
+                return null;
+            }
+        }
+
+        long start = indexOffsets[block];
+        long end = block + 1 < indexOffsets.length ? indexOffsets[block + 1] : indexOffset;
+        ByteBuffer bytes = read(start, (int) (end - start));
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes.array()));
+        while (input.available() > 0) {
+            Entry entry = readEntry(input);
+            int comparison = entry.id().compareTo(id);
+            if (comparison == 0) {
+                return entry;
+            } else if (comparison > 0) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Opens a cursor reading the entries of the run in order.
+     *
+     * @return The cursor, which must be closed.
+     *
+     * @throws IOException If the file could not be opened.
+     */
+    Cursor cursor() throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        return new Cursor() {
+            /**
+             * The number of entries read so far.
+             */
+            private int read;
+
+            @Override
+            public Entry next() throws IOException {
+                if (read == entryCount) {
+                    return null;
+                }
+                read++;
+                return readEntry(input);
+            }
+
+            @Override
+            public void close() throws IOException {
+                input.close();
+            }
+        };
+    }
+
+    /**
+     * Gets the file of the run.
+     *
+     * @return The file.
+     */
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the size of the entries of the run, without its index.
+     *
+     * @return The size in bytes.
+     */
+    long getSize() {
+        return indexOffset;
+    }
+
+    /**
+     * Gets the number of entries of the run, including the tombstones.
+     *
+     * @return The number of entries.
+     */
+    int getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Closes the file of the run.
+     *
+     * @throws IOException If the file could not be closed.
+     */
+    void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads a range of the file.
+     *
+     * @param position The offset of the range.
+     * @param length   The length of the range.
+     *
+     * @return A buffer holding the range, positioned at its start.
+     *
+     * @throws IOException If the range could not be read.
+     */
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * An entry of a run.
+     *
+     * @param id    The identifier of the object.
+     * @param value The encoded object, or null for a tombstone.
+     */
+    record Entry(UUID id, byte[] value) {
+    }
+
+    /**
+     * A cursor over entries sorted by identifier.
+     */
+    interface Cursor extends Closeable {
+        /**
+         * Reads the next entry.
+         *
+         * @return The entry, or null if there is none left.
+         *
+         * @throws IOException If the entry could not be read.
+         */
+        Entry next() throws IOException;
+
+        /**
+         * Releases the resources of the cursor. Does nothing by default.
+         *
+         * @throws IOException If the resources could not be released.
+         */
+        @Override
+        default void close() throws IOException {
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.util.function.BiFunction;
+
+/**
+ * Enum representing the storage engines the application can store its data with.
+ * <p>
+ * Only the serialized engine can defer its writes with a {@link Durability} other than {@link Durability#SYNC} and
+ * split its data into shards, the other engines persisting every write as it is made.
+ */
+public enum StorageEngine {
+    /**
+     * The cached {@link JavaSerializedDatabase}, with the orders and notifications compressed.
+     */
+    SERIALIZED((savePath, durability) -> {
+        JavaSerializedDatabase db = new JavaSerializedDatabase(savePath, true, durability);
+        db.setCompression(DataMap.ORDERS, Compression.FAST);
+        db.setCompression(DataMap.NOTIFICATIONS, Compression.FAST);
+        return db;
+    }),
+    /**
+     * The {@link PagedDatabase}.
+     */
+    PAGED((savePath, durability) -> new PagedDatabase(savePath)),
+    /**
+     * The {@link OperationLogDatabase}, compacting a log once half of its records are dead.
+     */
+    OPERATION_LOG((savePath, durability) -> new OperationLogDatabase(savePath, 0.5)),
+    /**
+     * The {@link LsmDatabase}.
+     */
+    LSM((savePath, durability) -> new LsmDatabase(savePath));
+    /**
+     * The function opening a database of the engine from its save path and durability.
+     */
+    private final BiFunction<String, Durability, Database> factory;
+
+    /**
+     * Constructs a StorageEngine with the specified factory.
+     *
+     * @param factory The function opening a database of the engine from its save path and durability.
+     */
+    StorageEngine(BiFunction<String, Durability, Database> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Parses the name of an engine, ignoring its case.
+     *
+     * @param name The name of the engine, such as {@code SERIALIZED} or {@code lsm}.
+     *
+     * @return The engine.
+     *
+     * @throws IllegalArgumentException If no engine has this name.
+     */
+    public static StorageEngine parse(String name) throws IllegalArgumentException {
+        for (StorageEngine engine : values()) {
+            if (engine.name().equalsIgnoreCase(name.trim())) {
+                return engine;
+            }
+        }
+        throw new IllegalArgumentException("Unknown storage engine: " + name);
+    }
+
+    /**
+     * Creates the codec writing the records of the engine, for the stores kept beside it, such as the months of
+     * {@link PartitionedOrderDatabase}.
+     *
+     * @return The Java serialization codec for the serialized engine, or the binary codec for the other engines.
+     */
+    public RecordCodec createCodec() {
+        return this == SERIALIZED ? new JavaSerializationCodec() : new BinaryRecordCodec();
+    }
+
+    /**
+     * Opens a database of the engine storing its files in the specified directory.
+     *
+     * @param savePath   The path of the directory where the data is stored, ending with a separator.
+     * @param durability The policy deciding when the changes are persisted to disk.
+     *
+     * @return The database.
+     *
+     * @throws IllegalArgumentException If the engine cannot defer its writes with the specified durability.
+     */
+    public Database open(String savePath, Durability durability) throws IllegalArgumentException {
+        if (this != SERIALIZED && !durability.isSync()) {
+            throw new IllegalArgumentException("Deferred writes require the serialized engine");
+        }
+        return factory.apply(savePath, durability);
+    }
+
+    /**
+     * Opens a database of the engine storing its files next to the application.
+     *
+     * @param durability The policy deciding when the changes are persisted to disk.
+     * @param shardCount The number of shards of the per-user DataMaps, 1 to keep them unsharded.
+     *
+     * @return The database.
+     *
+     * @throws IllegalArgumentException If the engine cannot defer its writes with the specified durability or cannot
+     *                                  be sharded.
+     * @see ShardedDatabase
+     */
+    public Database open(Durability durability, int shardCount) throws IllegalArgumentException {
+        String savePath = JavaSerializedDatabase.defaultSavePath();
+        if (this == SERIALIZED) {
+            ShardedDatabase.recoverReshard(savePath);
+        }
+        if (shardCount <= 1) {
+            return open(savePath, durability);
+        }
+
+        if (this != SERIALIZED) {
+            throw new IllegalArgumentException("Sharding requires the serialized engine");
+        }
+        return new ShardedDatabase(open(savePath, durability), savePath, shardCount, (path) -> open(path, durability));
+    }
+}
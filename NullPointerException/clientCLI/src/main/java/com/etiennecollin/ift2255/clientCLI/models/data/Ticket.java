@@ -16,6 +16,10 @@ import java.util.UUID;
  * Represents a ticket for a product issue or return in the system.
  */
 public class Ticket extends DatabaseObject {
+    /**
+     * The version of the serialized form, pinned so that the tickets already saved can still be read.
+     */
+    private static final long serialVersionUID = 3335118130676789263L;
     /**
      * The buyer's ID associated with the ticket.
      */
@@ -89,6 +93,27 @@ public class Ticket extends DatabaseObject {
         this.creationDate = LocalDate.now();
     }
 
+    /**
+     * Constructs a Ticket from the fields decoded by a {@link RecordCodec}.
+     *
+     * @param fields The decoded fields.
+     */
+    Ticket(DecodedFields fields) {
+        super(fields);
+        this.buyerId = fields.get("buyerId");
+        this.sellerId = fields.get("sellerId");
+        this.creationDate = fields.get("creationDate");
+        this.suggestedSolution = fields.get("suggestedSolution");
+        this.returnShipment = fields.get("returnShipment");
+        this.products = fields.get("products");
+        this.orderId = fields.get("orderId");
+        this.replacementOrderId = fields.get("replacementOrderId");
+        this.problemDescription = fields.get("problemDescription");
+        this.replacementProductDescription = fields.get("replacementProductDescription");
+        this.state = fields.get("state");
+        this.cause = fields.get("cause");
+    }
+
     /**
      * Gets the cause of the ticket.
      *
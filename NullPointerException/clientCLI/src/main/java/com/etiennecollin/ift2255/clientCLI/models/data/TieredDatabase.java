@@ -0,0 +1,810 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Implementation of the Database interface moving the orders and tickets which are done with to a cold store.
+ * <p>
+ * The delivered and cancelled orders and the closed and cancelled tickets are moved out of the hot database once they
+ * are older than a given age, by a background mover or by {@link #archive()}. The cold store is an uncached
+ * {@link JavaSerializedDatabase} in the {@value #ARCHIVE_DIRECTORY} subdirectory of the save path, so the archived
+ * objects are only read from disk when a query reaches them and the hot working set stays the size of the current
+ * business.
+ * <p>
+ * Lookups by ID search the hot database first and fall back to the cold store. The keys of the secondary indexes of
+ * the archived objects are kept in the {@value #KEYS_FILENAME} file of the cold store, so that the queries by owner or
+ * by index, including the {@link Query queries} planned on an index, only read the cold store for a key of which
+ * objects were archived, and never for an {@link OrderPredicate} which cannot match an archived order. The reads,
+ * updates and removals with a filter only reach the hot database, so that they never scan the whole cold store; the
+ * archived objects matching a filter are read by {@link #getArchived(DataMap, Predicate)}. An archived object that
+ * is updated out of its final state is moved back to the hot database. Every other DataMap is only stored in the hot
+ * database.
+ */
+public class TieredDatabase implements Database {
+    /**
+     * The name of the subdirectory of the save path holding the cold store.
+     */
+    static final String ARCHIVE_DIRECTORY = "archive";
+    /**
+     * The name of the file of the cold store holding the keys of the secondary indexes of the archived objects.
+     */
+    static final String KEYS_FILENAME = "keys.txt";
+    /**
+     * The states in which an order is done with.
+     */
+    private static final Set<OrderState> FINAL_ORDER_STATES = EnumSet.of(OrderState.Delivered, OrderState.Cancelled);
+    /**
+     * The states in which a ticket is done with.
+     */
+    private static final Set<TicketState> FINAL_TICKET_STATES = EnumSet.of(TicketState.Closed, TicketState.Cancelled);
+    /**
+     * The filter matching the objects in a final state, for each tiered DataMap.
+     */
+    private static final EnumMap<DataMap, Predicate<DatabaseObject>> FINAL = new EnumMap<>(DataMap.class);
+    /**
+     * The function returning the date from which the age of an object is counted, for each tiered DataMap.
+     */
+    private static final EnumMap<DataMap, Function<DatabaseObject, LocalDate>> DATES = new EnumMap<>(DataMap.class);
+
+    static {
+        FINAL.put(DataMap.ORDERS, (object) -> FINAL_ORDER_STATES.contains(((Order) object).getState()));
+        FINAL.put(DataMap.TICKETS, (object) -> FINAL_TICKET_STATES.contains(((Ticket) object).getState()));
+        DATES.put(DataMap.ORDERS, (object) -> ((Order) object).getOrderDate());
+        DATES.put(DataMap.TICKETS, (object) -> ((Ticket) object).getCreationDate());
+    }
+
+    /**
+     * The database storing the objects in use.
+     */
+    private final Database hot;
+    /**
+     * The database storing the archived objects.
+     */
+    private final JavaSerializedDatabase cold;
+    /**
+     * The age from which an object in a final state is archived.
+     */
+    private final Period maxAge;
+    /**
+     * The file holding the keys of the secondary indexes of the archived objects.
+     */
+    private final File keysFile;
+    /**
+     * The keys of each secondary index of the tiered DataMaps held by archived objects. It may still hold the keys of
+     * objects which were since removed from the cold store or moved back to the hot database.
+     */
+    private final EnumMap<SecondaryIndex, HashSet<UUID>> archivedKeys = new EnumMap<>(SecondaryIndex.class);
+    /**
+     * The lock held while the tiered DataMaps are read, changed or archived.
+     */
+    private final Object lock = new Object();
+    /**
+     * The executor running the background mover, or null if there is none.
+     */
+    private final ScheduledExecutorService mover;
+
+    /**
+     * Constructs a TieredDatabase storing its cold store next to the application and archiving every hour.
+     *
+     * @param hot    The database storing the objects in use.
+     * @param maxAge The age from which an object in a final state is archived.
+     */
+    public TieredDatabase(Database hot, Period maxAge) {
+        this(hot, JavaSerializedDatabase.defaultSavePath(), maxAge, TimeUnit.HOURS.toMillis(1));
+    }
+
+    /**
+     * Constructs a TieredDatabase and starts its background mover.
+     *
+     * @param hot                The database storing the objects in use.
+     * @param savePath           The path of the directory containing the cold store directory, ending with a
+     *                           separator.
+     * @param maxAge             The age from which an object in a final state is archived.
+     * @param archiveEveryMillis The delay between two runs of the background mover, which first runs after this delay,
+     *                           or 0 to only archive when {@link #archive()} is called.
+     *
+     * @throws IllegalArgumentException If the age or the delay is negative.
+     */
+    public TieredDatabase(Database hot, String savePath, Period maxAge, long archiveEveryMillis) throws IllegalArgumentException {
+        this(hot, createColdStore(savePath), maxAge, archiveEveryMillis);
+    }
+
+    /**
+     * Constructs a TieredDatabase over a given cold store, reads the keys of the archived objects and starts the
+     * background mover. If the keys of an index were never written, such as for an index added since, they are read
+     * from the archived objects.
+     *
+     * @param hot                The database storing the objects in use.
+     * @param cold               The uncached database storing the archived objects.
+     * @param maxAge             The age from which an object in a final state is archived.
+     * @param archiveEveryMillis The delay between two runs of the background mover, which first runs after this delay,
+     *                           or 0 to only archive when {@link #archive()} is called.
+     *
+     * @throws IllegalArgumentException If the age or the delay is negative.
+     * @throws RuntimeException         If the keys of the archived objects could not be read or written.
+     */
+    @SuppressWarnings("this-escape")
+    TieredDatabase(Database hot, JavaSerializedDatabase cold, Period maxAge, long archiveEveryMillis) throws IllegalArgumentException, RuntimeException {
+        if (maxAge.isNegative() || archiveEveryMillis < 0) {
+            throw new IllegalArgumentException("The age and the delay of the archival must not be negative");
+        }
+
+        this.hot = hot;
+        this.cold = cold;
+        this.cold.setCompression(DataMap.ORDERS, Compression.DEFLATE);
+        this.cold.setCompression(DataMap.TICKETS, Compression.DEFLATE);
+        this.maxAge = maxAge;
+        this.keysFile = new File(cold.savePath + KEYS_FILENAME);
+
+        if (keysFile.exists()) {
+            readKeys();
+        }
+        boolean read = false;
+        for (DataMap dataMap : FINAL.keySet()) {
+            if (!archivedKeys.keySet().containsAll(SecondaryIndex.of(dataMap))) {
+                addKeys(dataMap, cold.get(dataMap, (o) -> true));
+                read = true;
+            }
+        }
+        if (read) {
+            writeKeys();
+        }
+
+        if (archiveEveryMillis > 0) {
+            mover = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+                Thread thread = new Thread(runnable, "archive-mover");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // The stores and the archived keys are all set above, and the mover waits a whole delay before reading them
+            mover.scheduleWithFixedDelay(this::archiveQuietly, archiveEveryMillis, archiveEveryMillis, TimeUnit.MILLISECONDS);
+        } else {
+            mover = null;
+        }
+    }
+
+    /**
+     * Creates the cold store in the {@value #ARCHIVE_DIRECTORY} subdirectory of a save path.
+     *
+     * @param savePath The path of the directory containing the cold store directory, ending with a separator.
+     *
+     * @return The cold store.
+     */
+    private static JavaSerializedDatabase createColdStore(String savePath) {
+        String archivePath = savePath + ARCHIVE_DIRECTORY + File.separator;
+        new File(archivePath).mkdirs();
+        return new JavaSerializedDatabase(archivePath, false);
+    }
+
+    /**
+     * Checks if the objects of a DataMap are archived once done with.
+     *
+     * @param dataMap The DataMap.
+     *
+     * @return True if the DataMap is tiered, false otherwise.
+     */
+    public static boolean isTiered(DataMap dataMap) {
+        return FINAL.containsKey(dataMap);
+    }
+
+    /**
+     * Moves the objects in a final state older than the maximum age from the hot database to the cold store.
+     *
+     * @return The number of objects archived.
+     *
+     * @throws RuntimeException If the objects could not be archived.
+     */
+    public int archive() throws RuntimeException {
+        int archived = 0;
+        synchronized (lock) {
+            for (DataMap dataMap : FINAL.keySet()) {
+                List<DatabaseObject> objects = hot.get(dataMap, archivable(dataMap, (object) -> true));
+                if (objects.isEmpty()) {
+                    continue;
+                }
+
+                // The keys are written before the objects, and the objects to the cold store before being removed, so
+                // a failure leaves extra keys or the objects in both
+                addKeys(dataMap, objects);
+                writeKeys();
+                if (!cold.add(dataMap, objects)) {
+                    throw new RuntimeException("Could not save the data");
+                }
+                HashSet<UUID> ids = new HashSet<>();
+                for (DatabaseObject object : objects) {
+                    ids.add(object.getId());
+                }
+                hot.remove(dataMap, archivable(dataMap, (object) -> ids.contains(object.getId())));
+                archived += objects.size();
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * Gets the number of archived objects of a DataMap, reading the cold store.
+     *
+     * @param dataMap The DataMap.
+     *
+     * @return The number of archived objects.
+     */
+    public int getArchivedCount(DataMap dataMap) {
+        synchronized (lock) {
+            return cold.get(dataMap, (o) -> true).size();
+        }
+    }
+
+    /**
+     * Gets the archived objects of a DataMap that match a filter, reading the whole cold store.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return A list of archived objects that match the filter.
+     */
+    public <T extends DatabaseObject> List<T> getArchived(DataMap dataMap, Predicate<T> filter) {
+        synchronized (lock) {
+            return cold.get(dataMap, filter);
+        }
+    }
+
+    /**
+     * Gets a specific object from the database based on its ID, from the hot database or else from the cold store.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param id      The ID of the object.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The object with the specified ID, or null if not found.
+     */
+    @Override
+    public <T extends DatabaseObject> T get(DataMap dataMap, UUID id) {
+        if (!isTiered(dataMap)) {
+            return hot.get(dataMap, id);
+        }
+
+        synchronized (lock) {
+            T object = hot.get(dataMap, id);
+            return object != null ? object : cold.get(dataMap, id);
+        }
+    }
+
+    /**
+     * Gets a batch of objects from the database based on their IDs, from the hot database or else from the cold store.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param ids     The IDs of the objects.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The objects found, by ID.
+     */
+    @Override
+    public <T extends DatabaseObject> Map<UUID, T> getAll(DataMap dataMap, Collection<UUID> ids) {
+        if (!isTiered(dataMap)) {
+            return hot.getAll(dataMap, ids);
+        }
+
+        synchronized (lock) {
+            Map<UUID, T> found = new HashMap<>(hot.getAll(dataMap, ids));
+            ArrayList<UUID> missing = new ArrayList<>();
+            for (UUID id : ids) {
+                if (!found.containsKey(id)) {
+                    missing.add(id);
+                }
+            }
+            if (!missing.isEmpty()) {
+                found.putAll(cold.getAll(dataMap, missing));
+            }
+            return found;
+        }
+    }
+
+    /**
+     * Gets a list of objects from the database based on a filter, from the hot database only.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return A list of objects that match the filter.
+     */
+    @Override
+    public <T extends DatabaseObject> List<T> get(DataMap dataMap, Predicate<T> filter) {
+        if (!isTiered(dataMap)) {
+            return hot.get(dataMap, filter);
+        }
+
+        synchronized (lock) {
+            return hot.get(dataMap, filter);
+        }
+    }
+
+    /**
+     * Gets the objects of a single owner that match a filter, from the hot database and, if objects of the owner were
+     * archived and the filter may match one, from the cold store.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param ownerId The ID of the owner of the objects.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return A list of objects that match the filter.
+     */
+    @Override
+    public <T extends DatabaseObject> List<T> getOwned(DataMap dataMap, UUID ownerId, Predicate<T> filter) {
+        if (!isTiered(dataMap)) {
+            return hot.getOwned(dataMap, ownerId, filter);
+        }
+
+        synchronized (lock) {
+            List<T> matches = hot.getOwned(dataMap, ownerId, filter);
+            SecondaryIndex owner = SecondaryIndex.ownerOf(dataMap);
+            if (owner != null && !isArchived(owner, ownerId)) {
+                return matches;
+            }
+            return merge(matches, dataMap, filter, (lookup) -> hot.getOwned(dataMap, ownerId, lookup));
+        }
+    }
+
+    /**
+     * Gets the objects having a key in a secondary index that match a filter, from the hot database and, if objects
+     * having the key were archived and the filter may match one, from the cold store.
+     *
+     * @param index  The secondary index.
+     * @param key    The value of the indexed field of the objects.
+     * @param filter The filter predicate.
+     * @param <T>    The type of object which extends {@link DatabaseObject}.
+     *
+     * @return A list of objects that match the filter.
+     */
+    @Override
+    public <T extends DatabaseObject> List<T> getByIndex(SecondaryIndex index, UUID key, Predicate<T> filter) {
+        if (!isTiered(index.getDataMap())) {
+            return hot.getByIndex(index, key, filter);
+        }
+
+        synchronized (lock) {
+            List<T> matches = hot.getByIndex(index, key, filter);
+            if (!isArchived(index, key)) {
+                return matches;
+            }
+            return merge(matches, index.getDataMap(), filter, (lookup) -> hot.getByIndex(index, key, lookup));
+        }
+    }
+
+    /**
+     * Gets the objects matching a query, from the hot database and, if the query is planned on an index of which the
+     * key is held by archived objects, from the cold store.
+     *
+     * @param query The query.
+     * @param <T>   The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The page of objects matching the query.
+     */
+    @Override
+    public <T extends DatabaseObject> List<T> get(Query<T> query) {
+        if (!isTiered(query.dataMap())) {
+            return hot.get(query);
+        }
+
+        return query.run(this, (index, key) -> 1);
+    }
+
+    /**
+     * Counts the objects that match a filter, without building the list of the matches.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The number of objects matching the filter.
+     */
+    @Override
+    public <T extends DatabaseObject> long count(DataMap dataMap, Predicate<T> filter) {
+        if (!isTiered(dataMap)) {
+            return hot.count(dataMap, filter);
+        }
+
+        return Database.super.count(dataMap, filter);
+    }
+
+    /**
+     * Checks whether any object of the hot database matches a filter, without building the list of the matches.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if an object matches the filter, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean exists(DataMap dataMap, Predicate<T> filter) {
+        if (!isTiered(dataMap)) {
+            return hot.exists(dataMap, filter);
+        }
+
+        synchronized (lock) {
+            return hot.exists(dataMap, filter);
+        }
+    }
+
+    /**
+     * Counts the objects matching a query within its page, without building the list of the matches.
+     *
+     * @param query The query.
+     * @param <T>   The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The number of objects matching the query.
+     */
+    @Override
+    public <T extends DatabaseObject> long count(Query<T> query) {
+        if (!isTiered(query.dataMap())) {
+            return hot.count(query);
+        }
+
+        return Database.super.count(query);
+    }
+
+    /**
+     * Adds a single object to the hot database.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param object  The object to add.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the addition was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean add(DataMap dataMap, T object) {
+        return add(dataMap, List.of(object));
+    }
+
+    /**
+     * Adds a list of objects to the hot database.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param objects The list of objects to add.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the addition was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean add(DataMap dataMap, List<T> objects) {
+        if (!isTiered(dataMap)) {
+            return hot.add(dataMap, objects);
+        }
+
+        synchronized (lock) {
+            return hot.add(dataMap, objects);
+        }
+    }
+
+    /**
+     * Updates a single object in the database, in the hot database or else in the cold store.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param update  The update operation to perform on the object.
+     * @param id      The ID of the object to update.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the update was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, UUID id) {
+        if (!isTiered(dataMap)) {
+            return hot.update(dataMap, update, id);
+        }
+
+        synchronized (lock) {
+            if (hot.update(dataMap, update, id)) {
+                return true;
+            }
+            if (!cold.update(dataMap, update, id)) {
+                return false;
+            }
+            restore(dataMap);
+            return true;
+        }
+    }
+
+    /**
+     * Updates multiple objects in the database based on a filter, in the hot database only.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param update  The update operation to perform on matching objects.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the update was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, Predicate<T> filter) {
+        if (!isTiered(dataMap)) {
+            return hot.update(dataMap, update, filter);
+        }
+
+        synchronized (lock) {
+            return hot.update(dataMap, update, filter);
+        }
+    }
+
+    /**
+     * Removes a single object from the database based on its ID, from the hot database or else from the cold store.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param id      The ID of the object to remove.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the removal was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean remove(DataMap dataMap, UUID id) {
+        if (!isTiered(dataMap)) {
+            return hot.remove(dataMap, id);
+        }
+
+        synchronized (lock) {
+            return hot.remove(dataMap, id) || cold.remove(dataMap, id);
+        }
+    }
+
+    /**
+     * Removes multiple objects from the database based on a filter, from the hot database only.
+     *
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return True if the removal was successful, false otherwise.
+     */
+    @Override
+    public <T extends DatabaseObject> boolean remove(DataMap dataMap, Predicate<T> filter) {
+        if (!isTiered(dataMap)) {
+            return hot.remove(dataMap, filter);
+        }
+
+        synchronized (lock) {
+            return hot.remove(dataMap, filter);
+        }
+    }
+
+    /**
+     * Loads DataMaps in advance in the hot database. The cold store is never loaded in advance.
+     *
+     * @param dataMaps The DataMaps to load.
+     *
+     * @return The report of each DataMap that was loaded.
+     */
+    @Override
+    public List<WarmUpReport> warmUp(Set<DataMap> dataMaps) {
+        return hot.warmUp(dataMaps);
+    }
+
+    /**
+     * Pins the files of the hot database, of the cold store and of the keys of the archived objects in a snapshot,
+     * while no archival is running.
+     *
+     * @param snapshot The snapshot in which the files are pinned.
+     *
+     * @throws UnsupportedOperationException If the hot database cannot take snapshots.
+     * @throws RuntimeException              If a file could not be pinned.
+     */
+    @Override
+    public void snapshot(Snapshot snapshot) throws UnsupportedOperationException, RuntimeException {
+        synchronized (lock) {
+            hot.snapshot(snapshot);
+            cold.snapshot(snapshot);
+            snapshot.pin(keysFile);
+        }
+    }
+
+    /**
+     * Stops the background mover, waiting for a running archival to finish, then closes the hot database.
+     */
+    @Override
+    public void close() {
+        if (mover != null) {
+            mover.shutdown();
+            try {
+                mover.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        hot.close();
+    }
+
+    /**
+     * Runs an archival from the background mover, printing the error instead of stopping the mover if it fails.
+     */
+    private void archiveQuietly() {
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Gets a filter matching the objects of a tiered DataMap which are in a final state, older than the maximum age and
+     * matched by another filter. The filter of the orders is an {@link OrderPredicate} bounded by these states and
+     * dates, so that a partitioned hot database only reads the months which may hold an order to archive.
+     *
+     * @param dataMap The DataMap of the objects.
+     * @param filter  The filter the objects to archive must also match.
+     *
+     * @return The filter of the objects to archive.
+     */
+    @SuppressWarnings("unchecked")
+    private Predicate<DatabaseObject> archivable(DataMap dataMap, Predicate<DatabaseObject> filter) {
+        LocalDate cutoff = LocalDate.now().minus(maxAge);
+        if (dataMap == DataMap.ORDERS) {
+            // The DataMap only holds orders, so the filter is never given another object
+            Predicate<? extends DatabaseObject> orders = new OrderPredicate(null, cutoff, FINAL_ORDER_STATES, filter::test);
+            return (Predicate<DatabaseObject>) orders;
+        }
+        return (object) -> FINAL.get(dataMap).test(object) && !DATES.get(dataMap).apply(object).isAfter(cutoff) && filter.test(object);
+    }
+
+    /**
+     * Checks if a filter may match an archived object. An {@link OrderPredicate} cannot if it only matches orders in
+     * states which are not final, or orders younger than the maximum age.
+     *
+     * @param dataMap The DataMap of the filter.
+     * @param filter  The filter predicate.
+     *
+     * @return False if the filter cannot match an archived object, true otherwise.
+     */
+    private boolean mayBeArchived(DataMap dataMap, Predicate<?> filter) {
+        if (dataMap != DataMap.ORDERS || !(filter instanceof OrderPredicate predicate)) {
+            return true;
+        }
+        if (predicate.states() != null && Collections.disjoint(predicate.states(), FINAL_ORDER_STATES)) {
+            return false;
+        }
+        return predicate.from() == null || !predicate.from().isAfter(LocalDate.now().minus(maxAge));
+    }
+
+    /**
+     * Checks if objects having a key in a secondary index may have been archived.
+     *
+     * @param index The secondary index.
+     * @param key   The value of the indexed field of the objects.
+     *
+     * @return False if no object having the key was archived, true otherwise.
+     */
+    private boolean isArchived(SecondaryIndex index, UUID key) {
+        HashSet<UUID> keys = archivedKeys.get(index);
+        return keys != null && keys.contains(key);
+    }
+
+    /**
+     * Adds the keys of the secondary indexes of archived objects, without writing them.
+     *
+     * @param dataMap The DataMap of the objects.
+     * @param objects The archived objects.
+     */
+    private void addKeys(DataMap dataMap, List<? extends DatabaseObject> objects) {
+        for (SecondaryIndex index : SecondaryIndex.of(dataMap)) {
+            HashSet<UUID> keys = archivedKeys.computeIfAbsent(index, (i) -> new HashSet<>());
+            for (DatabaseObject object : objects) {
+                UUID key = index.keyOf(object);
+                if (key != null) {
+                    keys.add(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the keys of the archived objects, one key per line preceded by the name of its secondary index. A line
+     * with only the name of an index marks that its keys were written, even if it has none.
+     *
+     * @throws RuntimeException If the keys could not be read.
+     */
+    private void readKeys() throws RuntimeException {
+        try {
+            for (String line : Files.readAllLines(keysFile.toPath())) {
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                String[] fields = line.trim().split(" ");
+                HashSet<UUID> keys = archivedKeys.computeIfAbsent(SecondaryIndex.valueOf(fields[0]), (i) -> new HashSet<>());
+                if (fields.length > 1) {
+                    keys.add(UUID.fromString(fields[1]));
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            throw new RuntimeException("Could not load the data");
+        }
+    }
+
+    /**
+     * Writes the keys of the archived objects, each index preceded by a line with only its name, replacing the previous
+     * keys atomically.
+     *
+     * @throws RuntimeException If the keys could not be written.
+     */
+    private void writeKeys() throws RuntimeException {
+        StringBuilder keys = new StringBuilder();
+        for (Map.Entry<SecondaryIndex, HashSet<UUID>> entry : archivedKeys.entrySet()) {
+            keys.append(entry.getKey().name()).append('\n');
+            for (UUID key : entry.getValue()) {
+                keys.append(entry.getKey().name()).append(' ').append(key).append('\n');
+            }
+        }
+
+        File temporary = new File(keysFile.getPath() + ".tmp");
+        try {
+            Files.writeString(temporary.toPath(), keys);
+            Files.move(temporary.toPath(), keysFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not save the data");
+        }
+    }
+
+    /**
+     * Adds the archived objects matching a filter to the objects found in the hot database. The archived objects still
+     * in the hot database after an interrupted archival are skipped before the filter is tested, whether or not their
+     * hot copy matched, so that a filter observing the objects it is tested with sees each object once.
+     *
+     * @param matches The objects of the hot database matching the filter.
+     * @param dataMap The DataMap for the type of object.
+     * @param filter  The filter predicate.
+     * @param lookup  The function running the lookup of the matches on the hot database with another filter.
+     * @param <T>     The type of object which extends {@link DatabaseObject}.
+     *
+     * @return The objects of both tiers matching the filter.
+     */
+    private <T extends DatabaseObject> List<T> merge(List<T> matches, DataMap dataMap, Predicate<T> filter, Function<Predicate<T>, List<T>> lookup) {
+        if (!mayBeArchived(dataMap, filter)) {
+            return matches;
+        }
+
+        // The filter only reads the ID, and records the objects of the hot database the lookup reaches
+        HashSet<UUID> ids = new HashSet<>();
+        lookup.apply(KeyPredicate.of((object) -> {
+            ids.add(object.getId());
+            return false;
+        }));
+        List<T> archived = cold.get(dataMap, (T object) -> !ids.contains(object.getId()) && filter.test(object));
+        if (archived.isEmpty()) {
+            return matches;
+        }
+
+        ArrayList<T> merged = new ArrayList<>(matches);
+        merged.addAll(archived);
+        return merged;
+    }
+
+    /**
+     * Moves the archived objects of a DataMap which are no longer in a final state back to the hot database.
+     *
+     * @param dataMap The DataMap.
+     */
+    private void restore(DataMap dataMap) {
+        Predicate<DatabaseObject> reopened = (object) -> !FINAL.get(dataMap).test(object);
+        List<DatabaseObject> objects = cold.get(dataMap, reopened);
+        if (!objects.isEmpty() && hot.add(dataMap, objects)) {
+            cold.remove(dataMap, reopened);
+        }
+    }
+}
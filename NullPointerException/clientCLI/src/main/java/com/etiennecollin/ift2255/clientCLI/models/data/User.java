@@ -8,6 +8,10 @@ package com.etiennecollin.ift2255.clientCLI.models.data;
  * A base class representing a user with common attributes such as email, phone number, address, password hash, and likes.
  */
 public class User extends DatabaseObject {
+    /**
+     * The version of the serialized form, pinned so that the users already saved can still be read.
+     */
+    private static final long serialVersionUID = 9202969033633880070L;
     /**
      * The email of the user.
      */
@@ -46,6 +50,20 @@ public class User extends DatabaseObject {
         this.likes = 0;
     }
 
+    /**
+     * Constructs a User from the fields decoded by a {@link RecordCodec}.
+     *
+     * @param fields The decoded fields.
+     */
+    User(DecodedFields fields) {
+        super(fields);
+        this.email = fields.get("email");
+        this.phoneNumber = fields.get("phoneNumber");
+        this.address = fields.get("address");
+        this.passwordHash = fields.getInt("passwordHash");
+        this.likes = fields.getInt("likes");
+    }
+
     /**
      * Gets the email of the user.
      *
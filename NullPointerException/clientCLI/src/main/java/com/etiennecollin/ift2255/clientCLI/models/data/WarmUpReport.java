@@ -0,0 +1,14 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+/**
+ * A record representing the load of a DataMap while warming up a database.
+ *
+ * @param dataMap     The DataMap that was loaded.
+ * @param objectCount The number of objects of the DataMap.
+ * @param loadMillis  The time taken to load the DataMap, in milliseconds.
+ */
+public record WarmUpReport(DataMap dataMap, int objectCount, long loadMillis) {}
@@ -4,6 +4,8 @@
 
 package com.etiennecollin.ift2255.clientCLI.models.data.products;
 
+import com.etiennecollin.ift2255.clientCLI.models.data.DecodedFields;
+
 import java.time.LocalDate;
 import java.util.UUID;
 
@@ -13,6 +15,10 @@ import java.util.UUID;
  * This class extends the general Product class and is categorized under the "BookOrManual" product category.
  */
 public class BookOrManual extends Product {
+    /**
+     * The version of the serialized form, pinned so that the books and manuals already saved can still be read.
+     */
+    private static final long serialVersionUID = 7216746425824276732L;
     /**
      * The ISBN (International Standard Book Number) of the book or manual.
      */
@@ -67,6 +73,22 @@ public class BookOrManual extends Product {
         this.volumeNumber = volumeNumber;
     }
 
+    /**
+     * Constructs a BookOrManual from the fields decoded by a
+     * {@link com.etiennecollin.ift2255.clientCLI.models.data.RecordCodec}.
+     *
+     * @param fields The decoded fields.
+     */
+    public BookOrManual(DecodedFields fields) {
+        super(fields);
+        this.isbn = fields.get("isbn");
+        this.author = fields.get("author");
+        this.editor = fields.get("editor");
+        this.releaseDate = fields.get("releaseDate");
+        this.editionNumber = fields.getInt("editionNumber");
+        this.volumeNumber = fields.getInt("volumeNumber");
+    }
+
     /**
      * Gets the ISBN (International Standard Book Number) of the book or manual.
      *
@@ -4,6 +4,8 @@
 
 package com.etiennecollin.ift2255.clientCLI.models.data.products;
 
+import com.etiennecollin.ift2255.clientCLI.models.data.DecodedFields;
+
 import java.time.LocalDate;
 import java.util.UUID;
 
@@ -13,6 +15,10 @@ import java.util.UUID;
  * This class extends the {@link Product} class and includes additional properties such as brand, models, and release date.
  */
 public class IT extends Product {
+    /**
+     * The version of the serialized form, pinned so that the IT products already saved can still be read.
+     */
+    private static final long serialVersionUID = -5580728615030476249L;
     /**
      * The brand of the IT product.
      */
@@ -49,6 +55,19 @@ public class IT extends Product {
         this.releaseDate = releaseDate;
     }
 
+    /**
+     * Constructs an IT from the fields decoded by a
+     * {@link com.etiennecollin.ift2255.clientCLI.models.data.RecordCodec}.
+     *
+     * @param fields The decoded fields.
+     */
+    public IT(DecodedFields fields) {
+        super(fields);
+        this.brand = fields.get("brand");
+        this.model = fields.get("model");
+        this.releaseDate = fields.get("releaseDate");
+    }
+
     /**
      * Returns the brand of the IT product.
      *
@@ -4,6 +4,8 @@
 
 package com.etiennecollin.ift2255.clientCLI.models.data.products;
 
+import com.etiennecollin.ift2255.clientCLI.models.data.DecodedFields;
+
 import java.time.LocalDate;
 import java.util.UUID;
 
@@ -14,6 +16,10 @@ import java.util.UUID;
  * and edition number.
  */
 public class LearningResource extends Product {
+    /**
+     * The version of the serialized form, pinned so that the learning resources already saved can still be read.
+     */
+    private static final long serialVersionUID = -8776496335839556227L;
     /**
      * The ISBN (International Standard Book Number) associated with the learning resource.
      */
@@ -56,6 +62,20 @@ public class LearningResource extends Product {
         this.editionNumber = editionNumber;
     }
 
+    /**
+     * Constructs a LearningResource from the fields decoded by a
+     * {@link com.etiennecollin.ift2255.clientCLI.models.data.RecordCodec}.
+     *
+     * @param fields The decoded fields.
+     */
+    public LearningResource(DecodedFields fields) {
+        super(fields);
+        this.isbn = fields.get("isbn");
+        this.organisation = fields.get("organisation");
+        this.releaseDate = fields.get("releaseDate");
+        this.editionNumber = fields.getInt("editionNumber");
+    }
+
     /**
      * Returns the ISBN of the learning resource.
      *
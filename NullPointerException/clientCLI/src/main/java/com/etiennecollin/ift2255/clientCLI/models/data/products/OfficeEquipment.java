@@ -4,6 +4,8 @@
 
 package com.etiennecollin.ift2255.clientCLI.models.data.products;
 
+import com.etiennecollin.ift2255.clientCLI.models.data.DecodedFields;
+
 import java.util.UUID;
 
 /**
@@ -12,6 +14,10 @@ import java.util.UUID;
  * This class includes specific attributes such as brand and models for office equipment.
  */
 public class OfficeEquipment extends Product {
+    /**
+     * The version of the serialized form, pinned so that the office equipment already saved can still be read.
+     */
+    private static final long serialVersionUID = -7661004858785183735L;
     /**
      * The brand of the office equipment.
      */
@@ -40,6 +46,18 @@ public class OfficeEquipment extends Product {
         this.model = model;
     }
 
+    /**
+     * Constructs an OfficeEquipment from the fields decoded by a
+     * {@link com.etiennecollin.ift2255.clientCLI.models.data.RecordCodec}.
+     *
+     * @param fields The decoded fields.
+     */
+    public OfficeEquipment(DecodedFields fields) {
+        super(fields);
+        this.brand = fields.get("brand");
+        this.model = fields.get("model");
+    }
+
     /**
      * Gets the brand of the office equipment.
      *
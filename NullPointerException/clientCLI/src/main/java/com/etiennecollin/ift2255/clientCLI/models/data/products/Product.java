@@ -5,6 +5,7 @@
 package com.etiennecollin.ift2255.clientCLI.models.data.products;
 
 import com.etiennecollin.ift2255.clientCLI.models.data.DatabaseObject;
+import com.etiennecollin.ift2255.clientCLI.models.data.DecodedFields;
 
 import java.time.LocalDate;
 import java.util.Objects;
@@ -14,6 +15,10 @@ import java.util.UUID;
  * An abstract class representing a product in the system.
  */
 public abstract class Product extends DatabaseObject {
+    /**
+     * The version of the serialized form, pinned so that the products already saved can still be read.
+     */
+    private static final long serialVersionUID = 2190901630169744882L;
     /**
      * The unique identifier of the seller associated with the product.
      */
@@ -101,6 +106,30 @@ public abstract class Product extends DatabaseObject {
         this.promoFidelityPoints = 0;
     }
 
+    /**
+     * Constructs a Product from the fields decoded by a
+     * {@link com.etiennecollin.ift2255.clientCLI.models.data.RecordCodec}.
+     *
+     * @param fields The decoded fields.
+     */
+    protected Product(DecodedFields fields) {
+        super(fields);
+        this.sellerId = fields.get("sellerId");
+        this.commercializationDate = fields.get("commercializationDate");
+        this.category = fields.get("category");
+        this.subCategory = fields.get("subCategory");
+        this.rating = fields.getInt("rating");
+        this.likes = fields.getInt("likes");
+        this.price = fields.getInt("price");
+        this.quantity = fields.getInt("quantity");
+        this.title = fields.get("title");
+        this.description = fields.get("description");
+        this.bonusFidelityPoints = fields.getInt("bonusFidelityPoints");
+        this.promoDiscount = fields.getInt("promoDiscount");
+        this.promoFidelityPoints = fields.getInt("promoFidelityPoints");
+        this.promoEndDate = fields.get("promoEndDate");
+    }
+
     /**
      * Gets the sub-category of the product.
      *
@@ -4,6 +4,8 @@
 
 package com.etiennecollin.ift2255.clientCLI.models.data.products;
 
+import com.etiennecollin.ift2255.clientCLI.models.data.DecodedFields;
+
 import java.util.UUID;
 
 /**
@@ -12,6 +14,10 @@ import java.util.UUID;
  * specific to stationery articles such as brand and models.
  */
 public class StationeryArticle extends Product {
+    /**
+     * The version of the serialized form, pinned so that the stationery articles already saved can still be read.
+     */
+    private static final long serialVersionUID = -6093475718019186792L;
     /**
      * The brand of the stationery article.
      */
@@ -42,6 +48,18 @@ public class StationeryArticle extends Product {
         this.model = model;
     }
 
+    /**
+     * Constructs a StationeryArticle from the fields decoded by a
+     * {@link com.etiennecollin.ift2255.clientCLI.models.data.RecordCodec}.
+     *
+     * @param fields The decoded fields.
+     */
+    public StationeryArticle(DecodedFields fields) {
+        super(fields);
+        this.brand = fields.get("brand");
+        this.model = fields.get("model");
+    }
+
     /**
      * Gets the brand of the stationery article.
      *
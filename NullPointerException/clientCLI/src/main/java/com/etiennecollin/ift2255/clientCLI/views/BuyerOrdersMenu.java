@@ -14,8 +14,8 @@ import com.etiennecollin.ift2255.clientCLI.models.data.products.Product;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicReference;
 
 import static com.etiennecollin.ift2255.clientCLI.Utils.*;
 
@@ -67,20 +67,20 @@ public class BuyerOrdersMenu extends View {
     @Override
     public void render() {
         clearConsole();
-        AtomicReference<List<Order>> orders;
+        Iterator<Order> orders;
         if (filteredOrders == null) {
-            orders = new AtomicReference<>(shopController.getBuyerOrders());
+            orders = shopController.streamBuyerOrders(3).iterator();
         } else {
-            orders = new AtomicReference<>(filteredOrders);
+            orders = filteredOrders.iterator();
         }
 
-        if (orders.get().isEmpty()) {
+        if (!orders.hasNext()) {
             System.out.println(prettify("No orders"));
             waitForKey();
             return;
         }
 
-        prettyPaginationMenu(orders.get(), 3, "Display order", order -> {
+        prettyPaginationMenu(orders, 3, "Display order", order -> {
             System.out.println(prettify("--------------------"));
             System.out.println(prettify("Order: " + order.getOrderDate() + " " + order.getId()));
             System.out.println(prettify("State: " + order.getState()));
@@ -75,13 +75,13 @@ public class BuyersDisplay extends View {
                 System.out.println(prettify("Follows you: " + profileController.isLiked(user.getId(), buyer.getId())));
                 System.out.println(prettify("Number of fidelity points: " + buyer.getFidelityPoints()));
 
-                int numReviewsWritten = profileController.getReviewsByAuthor(buyer.getId()).size();
+                long numReviewsWritten = profileController.countReviewsByAuthor(buyer.getId());
                 System.out.println(prettify("Number of reviews written: " + numReviewsWritten));
 
-                int numReviewsLiked = profileController.getReviewLikesByBuyer(buyer.getId()).size();
+                long numReviewsLiked = profileController.countReviewLikesByBuyer(buyer.getId());
                 System.out.println(prettify("Number of reviews liked: " + numReviewsLiked));
 
-                int numProductsLiked = profileController.getProductLikesByBuyer(buyer.getId()).size();
+                long numProductsLiked = profileController.countProductLikesByBuyer(buyer.getId());
                 System.out.println(prettify("Number of products liked: " + numProductsLiked));
 
                 if (profileController.isUserASeller()) {
@@ -14,6 +14,7 @@ import com.etiennecollin.ift2255.clientCLI.models.data.Review;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static com.etiennecollin.ift2255.clientCLI.Utils.*;
@@ -58,9 +59,10 @@ public class ProductReviews extends View {
         while (true) {
             clearConsole();
             List<Review> reviews = shopController.getProductReviews(this.productId);
+            Map<UUID, Buyer> authors = profileController.getBuyers(reviews.stream().map(Review::getAuthorId).toList());
             List<Tuple<Review, Buyer>> reviewBuyerList = new ArrayList<>();
             for (Review review : reviews) {
-                reviewBuyerList.add(new Tuple<>(review, profileController.getBuyer(review.getAuthorId())));
+                reviewBuyerList.add(new Tuple<>(review, authors.get(review.getAuthorId())));
             }
 
             if (reviews.isEmpty()) {
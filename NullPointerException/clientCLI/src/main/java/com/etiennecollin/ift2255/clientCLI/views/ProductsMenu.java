@@ -9,7 +9,7 @@ import com.etiennecollin.ift2255.clientCLI.models.data.products.Product;
 import com.etiennecollin.ift2255.clientCLI.models.data.products.ProductCategory;
 
 import java.util.ArrayList;
-import java.util.List;
+import java.util.Iterator;
 import java.util.UUID;
 
 import static com.etiennecollin.ift2255.clientCLI.Utils.*;
@@ -19,6 +19,10 @@ import static com.etiennecollin.ift2255.clientCLI.Utils.*;
  * It allows the user to navigate through product categories, select subcategories, and view details of individual products.
  */
 public class ProductsMenu extends View {
+    /**
+     * The number of products displayed, and read from the database, at a time.
+     */
+    private static final int PRODUCTS_PER_PAGE = 10;
     /**
      * The ShopController used for managing shop-related functionalities.
      */
@@ -45,6 +49,7 @@ public class ProductsMenu extends View {
      */
     @Override
     public void render() {
+        catalogLoop:
         while (true) {
             clearConsole();
 
@@ -103,37 +108,47 @@ public class ProductsMenu extends View {
             if (promoChoice == promoOptions.size() - 1) break;
             boolean onPromotionOnly = promoChoice == 1;
 
-            // Get products that match category/subcategory
-            List<Product> matchedProducts = shopController.getProducts(selectedCategory, selectedSubCategory, minRating, minNumLikes, onPromotionOnly, sellerId);
+            // Get products that match category/subcategory, one page at a time
+            Iterator<Product> matchedProducts = shopController.streamProducts(selectedCategory, selectedSubCategory, minRating, minNumLikes, onPromotionOnly, sellerId, PRODUCTS_PER_PAGE).iterator();
 
-            ArrayList<String> matchedProductsString = new ArrayList<>();
-            matchedProductsString.add("Back to categories");
-            matchedProductsString.add("Leave catalog");
-
-            for (Product product : matchedProducts) {
-                matchedProductsString.add(product.getTitle());
-            }
-
-            if (matchedProducts.isEmpty()) {
+            if (!matchedProducts.hasNext()) {
                 System.out.println("------------");
                 System.out.println(prettify("No match found"));
                 waitForKey();
                 continue;
             }
 
-            int answer = prettyMenu("Select a product", matchedProductsString);
+            // Select a product, one page of matches at a time
+            while (true) {
+                ArrayList<Product> page = new ArrayList<>(PRODUCTS_PER_PAGE);
+                while (page.size() < PRODUCTS_PER_PAGE && matchedProducts.hasNext()) {
+                    page.add(matchedProducts.next());
+                }
 
-            // Check if we go back
-            if (answer == 0) {
-                continue;
-            } else if (answer == 1) {
-                break;
-            }
+                ArrayList<String> matchedProductsString = new ArrayList<>();
+                matchedProductsString.add("Back to categories");
+                matchedProductsString.add("Leave catalog");
+
+                for (Product product : page) {
+                    matchedProductsString.add(product.getTitle());
+                }
+                if (matchedProducts.hasNext()) {
+                    matchedProductsString.add("See more");
+                }
 
-            // Get product
-            Product product = matchedProducts.get(answer - 2);
-            shopController.displayProduct(product);
-            break;
+                int answer = prettyMenu("Select a product", matchedProductsString);
+
+                // Check if we go back
+                if (answer == 0) {
+                    continue catalogLoop;
+                } else if (answer == 1) {
+                    break catalogLoop;
+                } else if (answer - 2 < page.size()) {
+                    // Get product
+                    shopController.displayProduct(page.get(answer - 2));
+                    break catalogLoop;
+                }
+            }
         }
     }
 }
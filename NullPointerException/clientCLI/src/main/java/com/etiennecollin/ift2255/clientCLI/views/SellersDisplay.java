@@ -8,7 +8,6 @@ import com.etiennecollin.ift2255.clientCLI.OperationResult;
 import com.etiennecollin.ift2255.clientCLI.controllers.ProfileController;
 import com.etiennecollin.ift2255.clientCLI.controllers.ShopController;
 import com.etiennecollin.ift2255.clientCLI.models.data.Seller;
-import com.etiennecollin.ift2255.clientCLI.models.data.products.Product;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -74,16 +73,16 @@ public class SellersDisplay extends View {
             loop:
             while (true) {
                 Seller seller = sellerList.get(index);
-                List<Product> products = shopController.searchProductsBySeller(seller.getId());
+                long numProducts = shopController.countProductsBySeller(seller.getId());
                 boolean liked = profileController.isLiked(seller.getId());
-                int numOrders = shopController.getSellerOrders(seller.getId()).size();
+                long numOrders = shopController.countSellerOrders(seller.getId());
 
                 clearConsole();
                 System.out.println(prettify("Name: " + seller.getName()));
                 System.out.println(prettify("Email: " + seller.getEmail()));
                 System.out.println(prettify("Address: " + seller.getAddress()));
                 System.out.println(prettify("Phone number: " + seller.getPhoneNumber()));
-                System.out.println(prettify("Number of products offered: " + products.size()));
+                System.out.println(prettify("Number of products offered: " + numProducts));
                 System.out.println(prettify("Number of orders sold: " + numOrders));
                 System.out.println(prettify(liked ? "You are following this seller." : "You are not following this seller."));
 
@@ -7,7 +7,7 @@ package com.etiennecollin.ift2255.clientCLI.views;
 import com.etiennecollin.ift2255.clientCLI.controllers.ProfileController;
 import com.etiennecollin.ift2255.clientCLI.models.data.Notification;
 
-import java.util.List;
+import java.util.Iterator;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -42,8 +42,8 @@ public class UserNotifications extends View {
     @Override
     public void render() {
         clearConsole();
-        List<Notification> notifications = profileController.getNotifications();
-        if (notifications.isEmpty()) {
+        Iterator<Notification> notifications = profileController.streamNotifications(3).iterator();
+        if (!notifications.hasNext()) {
             System.out.println(prettify("No notifications"));
             waitForKey();
         } else {
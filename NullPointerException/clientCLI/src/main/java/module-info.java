@@ -18,6 +18,8 @@
  * It is designed to be part of a larger system for an online shopping platform.
  */
 module clientCLI {
+    requires jdk.unsupported;
+
     exports com.etiennecollin.ift2255.clientCLI;
     exports com.etiennecollin.ift2255.clientCLI.controllers;
     exports com.etiennecollin.ift2255.clientCLI.models;
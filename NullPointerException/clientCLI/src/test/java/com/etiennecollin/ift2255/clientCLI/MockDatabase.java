@@ -8,16 +8,13 @@ import com.etiennecollin.ift2255.clientCLI.models.data.DataMap;
 import com.etiennecollin.ift2255.clientCLI.models.data.Database;
 import com.etiennecollin.ift2255.clientCLI.models.data.DatabaseObject;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class MockDatabase implements Database {
-    HashMap<String, List<DatabaseObject>> db = new HashMap<>();
+    HashMap<String, LinkedHashMap<UUID, DatabaseObject>> db = new HashMap<>();
 
     /**
      * Gets a specific object from the database based on its ID.
@@ -29,15 +26,7 @@ public class MockDatabase implements Database {
      * @return The object with the specified ID, or null if not found.
      */
     public <T extends DatabaseObject> T get(DataMap dataMap, UUID id) {
-        List<T> data = (List<T>) getData(dataMap);
-        if (data != null) {
-            List<T> matches = data.stream().filter((entry) -> entry.getId().equals(id)).collect(Collectors.toCollection(ArrayList::new));
-            if (!matches.isEmpty()) {
-                return matches.get(0);
-            }
-        }
-
-        return null;
+        return (T) getData(dataMap).get(id);
     }
 
     /**
@@ -50,12 +39,8 @@ public class MockDatabase implements Database {
      * @return A list of objects that match the filter.
      */
     public <T extends DatabaseObject> List<T> get(DataMap dataMap, Predicate<T> filter) {
-        List<T> data = (List<T>) getData(dataMap);
-        if (data != null) {
-            return data.stream().filter(filter).collect(Collectors.toCollection(ArrayList::new));
-        }
-
-        return new ArrayList<>();
+        Collection<T> data = (Collection<T>) getData(dataMap).values();
+        return data.stream().filter(filter).collect(Collectors.toCollection(ArrayList::new));
     }
 
     /**
@@ -68,12 +53,7 @@ public class MockDatabase implements Database {
      * @return True if the addition was successful, false otherwise.
      */
     public <T extends DatabaseObject> boolean add(DataMap dataMap, T object) {
-        List<T> data = (List<T>) getData(dataMap);
-        if (data == null) {
-            data = new ArrayList<>();
-        }
-
-        data.add(object);
+        getData(dataMap).put(object.getId(), object);
         try {
             return true;
         } catch (RuntimeException e) {
@@ -92,12 +72,10 @@ public class MockDatabase implements Database {
      * @return True if the addition was successful, false otherwise.
      */
     public <T extends DatabaseObject> boolean add(DataMap dataMap, List<T> objects) {
-        List<T> data = (List<T>) getData(dataMap);
-        if (data == null) {
-            data = new ArrayList<>();
+        LinkedHashMap<UUID, DatabaseObject> data = getData(dataMap);
+        for (T object : objects) {
+            data.put(object.getId(), object);
         }
-
-        data.addAll(objects);
         try {
             return true;
         } catch (RuntimeException e) {
@@ -117,13 +95,10 @@ public class MockDatabase implements Database {
      * @return True if the update was successful, false otherwise.
      */
     public <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, UUID id) {
-        List<T> data = (List<T>) getData(dataMap);
-        if (data != null) {
-            List<T> filteredData = data.stream().filter((entry) -> entry.getId().equals(id)).collect(Collectors.toCollection(ArrayList::new));
-            if (!filteredData.isEmpty()) {
-                update.accept(filteredData.get(0));
-                return true;
-            }
+        T object = (T) getData(dataMap).get(id);
+        if (object != null) {
+            update.accept(object);
+            return true;
         }
 
         return false;
@@ -140,13 +115,10 @@ public class MockDatabase implements Database {
      * @return True if the update was successful, false otherwise.
      */
     public <T extends DatabaseObject> boolean update(DataMap dataMap, Consumer<T> update, Predicate<T> filter) {
-        List<T> data = (List<T>) getData(dataMap);
-        if (data != null) {
-            List<T> filteredData = data.stream().filter(filter).collect(Collectors.toCollection(ArrayList::new));
-            if (!filteredData.isEmpty()) {
-                filteredData.forEach(update);
-                return true;
-            }
+        List<T> filteredData = get(dataMap, filter);
+        if (!filteredData.isEmpty()) {
+            filteredData.forEach(update);
+            return true;
         }
 
         return false;
@@ -162,13 +134,7 @@ public class MockDatabase implements Database {
      * @return True if the removal was successful, false otherwise.
      */
     public <T extends DatabaseObject> boolean remove(DataMap dataMap, UUID id) {
-        List<T> data = (List<T>) getData(dataMap);
-        if (data != null) {
-            List<T> filteredData = data.stream().filter((v) -> !v.getId().equals(id)).collect(Collectors.toCollection(ArrayList::new));
-            return data.size() > filteredData.size();
-        }
-
-        return false;
+        return getData(dataMap).remove(id) != null;
     }
 
     /**
@@ -181,20 +147,15 @@ public class MockDatabase implements Database {
      * @return True if the removal was successful, false otherwise.
      */
     public <T extends DatabaseObject> boolean remove(DataMap dataMap, Predicate<T> filter) {
-        List<T> data = (List<T>) getData(dataMap);
-        if (data != null) {
-            List<T> filteredData = data.stream().filter((v) -> !filter.test(v)).collect(Collectors.toCollection(ArrayList::new));
-            return data.size() > filteredData.size();
-        }
-
-        return false;
+        Collection<T> data = (Collection<T>) getData(dataMap).values();
+        return data.removeIf(filter);
     }
 
-    private List<DatabaseObject> getData(DataMap dataMap) {
-        List<DatabaseObject> data = db.get(dataMap.name());
+    private LinkedHashMap<UUID, DatabaseObject> getData(DataMap dataMap) {
+        LinkedHashMap<UUID, DatabaseObject> data = db.get(dataMap.name());
 
         if (data == null) {
-            data = new ArrayList<>();
+            data = new LinkedHashMap<>();
             db.put(dataMap.name(), data);
         }
 
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import com.etiennecollin.ift2255.clientCLI.Tuple;
+import com.etiennecollin.ift2255.clientCLI.models.data.products.Product;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The BinaryRecordCodecTest class contains unit tests for the BinaryRecordCodec class, ensuring that every field of
+ * the encoded objects survives a round trip and that the encoding is smaller than Java serialization.
+ */
+class BinaryRecordCodecTest {
+    /**
+     * The codec under test.
+     */
+    private final BinaryRecordCodec codec = new BinaryRecordCodec();
+    /**
+     * The generator of the records used by the tests.
+     */
+    private final SampleRecords samples = new SampleRecords();
+
+    /**
+     * Tests the round trip of an order with nested products, payment method and shipment.
+     */
+    @Test
+    void testOrderRoundTrip() {
+        Order order = samples.order(UUID.randomUUID(), UUID.randomUUID());
+        Order decoded = (Order) codec.decode(codec.encode(order));
+
+        assertEquals(order.getId(), decoded.getId());
+        assertEquals(order.getOrderDate(), decoded.getOrderDate());
+        assertEquals(order.getCreditCardExp(), decoded.getCreditCardExp());
+        assertEquals(order.getState(), decoded.getState());
+        assertEquals(order.getAddress(), decoded.getAddress());
+        assertEquals(order.getPaymentMethod().getMoneyUsed(), decoded.getPaymentMethod().getMoneyUsed());
+        assertEquals(order.getShipment().getTrackingNumber(), decoded.getShipment().getTrackingNumber());
+        assertEquals(order.getShipment().getExpectedDeliveryDate(), decoded.getShipment().getExpectedDeliveryDate());
+        assertNull(decoded.getShipment().getReceptionDate());
+        assertEquals(order.getProducts().size(), decoded.getProducts().size());
+        for (int i = 0; i < order.getProducts().size(); i++) {
+            Tuple<Product, Integer> expected = order.getProducts().get(i);
+            Tuple<Product, Integer> actual = decoded.getProducts().get(i);
+            assertEquals(expected.first, actual.first);
+            assertEquals(expected.first.getClass(), actual.first.getClass());
+            assertEquals(expected.first.getSubCategory(), actual.first.getSubCategory());
+            assertEquals(expected.first.getTitle(), actual.first.getTitle());
+            assertEquals(expected.second, actual.second);
+        }
+    }
+
+    /**
+     * Tests the round trip of a ticket whose optional fields are null.
+     */
+    @Test
+    void testTicketWithNullsRoundTrip() {
+        Ticket ticket = new Ticket("Broken", UUID.randomUUID(), new ArrayList<>(), TicketCause.DefectiveProduct, TicketState.OpenManual, UUID.randomUUID(), UUID.randomUUID());
+        Ticket decoded = (Ticket) codec.decode(codec.encode(ticket));
+
+        assertEquals(ticket.getId(), decoded.getId());
+        assertEquals(ticket.getProblemDescription(), decoded.getProblemDescription());
+        assertEquals(ticket.getCause(), decoded.getCause());
+        assertNull(decoded.getReturnShipment());
+        assertNull(decoded.getReplacementOrderId());
+        assertTrue(decoded.getProducts().isEmpty());
+    }
+
+    /**
+     * Tests that the fields the constructors generate, such as the identifiers and the creation time of a
+     * notification, are decoded instead of generated again.
+     */
+    @Test
+    void testGeneratedFieldsRoundTrip() throws InterruptedException {
+        Notification notification = new Notification(UUID.randomUUID(), "Shipped", "Your order is now shipped");
+        Thread.sleep(2);
+        Notification decoded = (Notification) codec.decode(codec.encode(notification));
+
+        assertEquals(notification.getId(), decoded.getId());
+        assertEquals(notification.getUuid(), decoded.getUuid());
+        assertEquals(notification.getCreationTime(), decoded.getCreationTime());
+        assertEquals(notification.getTitle(), decoded.getTitle());
+    }
+
+    /**
+     * Tests that the binary encoding of an order is smaller than its Java serialization.
+     */
+    @Test
+    void testSmallerThanJavaSerialization() {
+        Order order = samples.order(UUID.randomUUID(), UUID.randomUUID());
+        assertTrue(codec.encode(order).length < new JavaSerializationCodec().encode(order).length);
+    }
+
+    /**
+     * Tests that the key fields of an order can be decoded without the rest of the order.
+     */
+    @Test
+    void testKeyedDecoding() throws IOException {
+        Order order = samples.order(UUID.randomUUID(), UUID.randomUUID());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        codec.encodeKeyed(order, new DataOutputStream(bytes), DataMap.ORDERS.getKeyFields());
+
+        Order keys = (Order) codec.decodeKeys(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), DataMap.ORDERS.getKeyFields());
+        assertEquals(order.getId(), keys.getId());
+        assertEquals(order.getBuyerId(), keys.getBuyerId());
+        assertEquals(order.getState(), keys.getState());
+        assertNull(keys.getAddress());
+        assertNull(keys.getProducts());
+
+        Order decoded = (Order) codec.decodeKeyed(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), DataMap.ORDERS.getKeyFields());
+        assertEquals(order.getSellerId(), decoded.getSellerId());
+        assertEquals(order.getAddress(), decoded.getAddress());
+        assertEquals(order.getProducts().size(), decoded.getProducts().size());
+    }
+}
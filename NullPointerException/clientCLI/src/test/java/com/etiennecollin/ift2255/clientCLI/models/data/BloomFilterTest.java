@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The BloomFilterTest class contains unit tests for the BloomFilter class, focusing on its rate of false positives and
+ * on its serialization.
+ */
+class BloomFilterTest {
+    /**
+     * Tests that every added ID is found and that the rate of false positives stays near the configured one.
+     */
+    @Test
+    void testFalsePositiveRate() {
+        List<UUID> ids = new SampleRecords().ids(10000);
+        for (double rate : List.of(0.01, 0.001)) {
+            BloomFilter filter = BloomFilter.create(ids.size(), rate);
+            ids.forEach(filter::add);
+            assertTrue(ids.stream().allMatch(filter::mightContain));
+
+            int falsePositives = 0;
+            for (int i = 0; i < 100000; i++) {
+                if (filter.mightContain(UUID.randomUUID())) {
+                    falsePositives++;
+                }
+            }
+            assertTrue(falsePositives < 100000 * rate * 2, "False positives: " + falsePositives);
+        }
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(10, 1));
+    }
+
+    /**
+     * Tests that a filter read back from its bytes holds the same IDs.
+     *
+     * @throws IOException If the filter could not be written or read.
+     */
+    @Test
+    void testWriteAndRead() throws IOException {
+        List<UUID> ids = new SampleRecords().ids(500);
+        BloomFilter filter = BloomFilter.create(ids.size(), BloomFilter.DEFAULT_FALSE_POSITIVE_RATE);
+        ids.forEach(filter::add);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        filter.writeTo(new DataOutputStream(bytes));
+        assertEquals(filter.getSize(), bytes.size());
+
+        BloomFilter read = BloomFilter.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertTrue(ids.stream().allMatch(read::mightContain));
+        assertFalse(BloomFilter.create(1, 0.01).mightContain(ids.get(0)));
+    }
+}
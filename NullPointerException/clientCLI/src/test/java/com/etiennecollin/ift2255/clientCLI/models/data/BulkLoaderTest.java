@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The BulkLoaderTest class contains unit tests for the BulkLoader class, focusing on the round trip of the DataMaps
+ * through JSON Lines files and on the report of an invalid line.
+ */
+class BulkLoaderTest {
+    /**
+     * The temporary directory in which the databases and the files are stored.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that the objects exported from a database are imported identically into another one.
+     */
+    @Test
+    void testExportedObjectsAreImportedIdentically() throws IOException {
+        SampleRecords samples = new SampleRecords();
+        UUID buyerId = UUID.randomUUID();
+        Map<DataMap, List<? extends DatabaseObject>> objects = new EnumMap<>(DataMap.class);
+        objects.put(DataMap.PRODUCTS, samples.products(40, 4));
+        objects.put(DataMap.ORDERS, samples.orders(30, 5, 4));
+        objects.put(DataMap.BUYERS, List.of(samples.buyer(), samples.buyer()));
+        objects.put(DataMap.NOTIFICATIONS, List.of(samples.notification(buyerId), new Notification(buyerId, "\"Quoted\" \\ title\t", "Line\nbreak \u0001 é")));
+        objects.put(DataMap.LIKES, List.of(samples.like(buyerId)));
+
+        Path source = Files.createDirectories(directory.resolve("source"));
+        Path target = Files.createDirectories(directory.resolve("target"));
+        Path export = directory.resolve("export");
+        try (JavaSerializedDatabase db = new JavaSerializedDatabase(source + "/", true)) {
+            for (Map.Entry<DataMap, List<? extends DatabaseObject>> entry : objects.entrySet()) {
+                db.add(entry.getKey(), entry.getValue());
+            }
+            Map<DataMap, Long> exported = new BulkLoader(db).exportDirectory(export);
+            assertEquals(DataMap.values().length, exported.size());
+            assertEquals(40, exported.get(DataMap.PRODUCTS));
+            assertEquals(0, exported.get(DataMap.CARTS));
+        }
+
+        BinaryRecordCodec codec = new BinaryRecordCodec();
+        try (JavaSerializedDatabase db = new JavaSerializedDatabase(target + "/", true)) {
+            Map<DataMap, Long> imported = new BulkLoader(db, 7).importDirectory(export);
+            for (Map.Entry<DataMap, List<? extends DatabaseObject>> entry : objects.entrySet()) {
+                assertEquals(entry.getValue().size(), imported.get(entry.getKey()));
+                for (DatabaseObject object : entry.getValue()) {
+                    DatabaseObject copy = db.get(entry.getKey(), object.getId());
+                    assertArrayEquals(codec.encode(object), codec.encode(copy), entry.getKey() + " " + object.getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that an invalid line is reported with its number and that the batches before it are kept.
+     */
+    @Test
+    void testInvalidLineIsReported() throws IOException {
+        SampleRecords samples = new SampleRecords();
+        JsonLinesCodec codec = new JsonLinesCodec();
+        String lines = codec.encode(samples.like(UUID.randomUUID())) + "\n\n" + codec.encode(samples.like(UUID.randomUUID())) + "\n{\"@type\":\"Like\",\"likeType\":\"Nope\"}\n";
+
+        try (JavaSerializedDatabase db = new JavaSerializedDatabase(directory + "/", true)) {
+            BulkLoader loader = new BulkLoader(db, 1);
+            RuntimeException e = assertThrows(RuntimeException.class, () -> loader.importFrom(DataMap.LIKES, new BufferedReader(new StringReader(lines))));
+            assertTrue(e.getMessage().contains("line 4"), e.getMessage());
+            assertEquals(2, db.get(DataMap.LIKES, (Like like) -> true).size());
+            assertThrows(IOException.class, () -> codec.decode("{\"@type\":\"Like\","));
+            assertThrows(IllegalArgumentException.class, () -> new BulkLoader(db, 0));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The CompressionBenchmark class compares the save time, the load time and the size on disk of the orders and
+ * notifications files of {@link JavaSerializedDatabase} for each {@link Compression}.
+ * <p>
+ * It is run manually with the number of records as optional argument, for example with
+ * {@code java -cp target/classes:target/test-classes com.etiennecollin.ift2255.clientCLI.models.data.CompressionBenchmark 20000}.
+ */
+public class CompressionBenchmark {
+    /**
+     * The number of times each measurement is repeated, the first ones warming up the JIT compiler.
+     */
+    private static final int ROUNDS = 5;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The number of orders and of notifications to save.
+     *
+     * @throws IOException If the temporary directory could not be created.
+     */
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        SampleRecords samples = new SampleRecords();
+        ArrayList<Order> orders = new ArrayList<>(samples.orders(count, count / 10 + 1, 100));
+        ArrayList<Notification> notifications = new ArrayList<>();
+        List<UUID> users = samples.ids(count / 10 + 1);
+        for (int i = 0; i < count; i++) {
+            notifications.add(samples.notification(users.get(i % users.size())));
+        }
+
+        File directory = Files.createTempDirectory("compression-benchmark").toFile();
+        JavaSerializedDatabase db = new JavaSerializedDatabase(directory + "/", false);
+
+        System.out.println("Saving " + count + " orders and " + count + " notifications, best of " + ROUNDS + " rounds");
+        System.out.printf("%-16s %-12s %10s %10s %14s%n", "DataMap", "Compression", "Save (ms)", "Load (ms)", "Size (bytes)");
+        for (Compression compression : Compression.values()) {
+            run(db, DataMap.ORDERS, orders, compression);
+            run(db, DataMap.NOTIFICATIONS, notifications, compression);
+        }
+
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    /**
+     * Measures the save and load times of a DataMap with a compression and prints them with the size of its file.
+     *
+     * @param db          The database saving the file.
+     * @param dataMap     The DataMap whose file is saved.
+     * @param data        The objects of the DataMap.
+     * @param compression The compression of the file.
+     */
+    private static void run(JavaSerializedDatabase db, DataMap dataMap, ArrayList<? extends DatabaseObject> data, Compression compression) {
+        long saveTime = Long.MAX_VALUE;
+        long loadTime = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            db.save(data, dataMap.getFilename(), compression);
+            saveTime = Math.min(saveTime, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            db.load(dataMap.getFilename());
+            loadTime = Math.min(loadTime, System.nanoTime() - start);
+        }
+
+        long size = new File(db.savePath + dataMap.getFilename()).length();
+        System.out.printf("%-16s %-12s %10d %10d %14d%n", dataMap, compression, saveTime / 1_000_000, loadTime / 1_000_000, size);
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * The DatabaseBenchmark class runs the same workload against each {@link StorageEngine} and reports the throughput and
+ * the latency of each operation.
+ * <p>
+ * Each engine is first loaded with a number of notifications in a single bulk add, then measured on get by ID,
+ * predicate scan, add, update and remove. It is run manually with the numbers of records and the engines as optional
+ * arguments, for example with
+ * {@code java -cp target/classes:target/test-classes com.etiennecollin.ift2255.clientCLI.models.data.DatabaseBenchmark 1000,100000,1000000 PAGED,LSM}.
+ * The serialized engine rewrites a whole DataMap on each add, update and remove, so the largest sizes take a while
+ * with it.
+ */
+public class DatabaseBenchmark {
+    /**
+     * The number of measured operations of each kind, except the scans.
+     */
+    private static final int OPERATIONS = 200;
+    /**
+     * The number of measured predicate scans.
+     */
+    private static final int SCANS = 10;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The comma-separated numbers of records, 1000 and 100000 by default, and the comma-separated names of
+     *             the engines, all of them by default.
+     *
+     * @throws IOException If a temporary directory could not be created.
+     */
+    public static void main(String[] args) throws IOException {
+        String[] sizes = (args.length > 0 ? args[0] : "1000,100000").split(",");
+        ArrayList<StorageEngine> engines = new ArrayList<>();
+        if (args.length > 1) {
+            for (String name : args[1].split(",")) {
+                engines.add(StorageEngine.parse(name));
+            }
+        } else {
+            engines.addAll(List.of(StorageEngine.values()));
+        }
+
+        System.out.printf("%-14s %9s %-12s %12s %12s %12s%n", "Engine", "Records", "Operation", "Ops/s", "Mean (us)", "p99 (us)");
+        for (String size : sizes) {
+            for (StorageEngine engine : engines) {
+                run(engine, Integer.parseInt(size.trim()));
+            }
+        }
+    }
+
+    /**
+     * Runs the workload against an engine and prints its results.
+     *
+     * @param engine The engine.
+     * @param count  The number of records loaded before the measurements.
+     *
+     * @throws IOException If the temporary directory could not be created.
+     */
+    private static void run(StorageEngine engine, int count) throws IOException {
+        SampleRecords samples = new SampleRecords();
+        List<UUID> users = samples.ids(count / 10 + 1);
+        ArrayList<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < count + OPERATIONS; i++) {
+            notifications.add(samples.notification(users.get(i % users.size())));
+        }
+        List<Notification> loaded = notifications.subList(0, count);
+        List<Notification> added = notifications.subList(count, notifications.size());
+        Random random = new Random(42);
+
+        File directory = Files.createTempDirectory("database-benchmark").toFile();
+        try (Database db = engine.open(directory + "/", Durability.SYNC)) {
+            long start = System.nanoTime();
+            db.add(DataMap.NOTIFICATIONS, loaded);
+            print(engine, count, "bulk add", count, new long[]{System.nanoTime() - start});
+
+            print(engine, count, "get by id", OPERATIONS, measure(OPERATIONS, (i) -> db.get(DataMap.NOTIFICATIONS, loaded.get(random.nextInt(count)).getId())));
+            print(engine, count, "scan", SCANS, measure(SCANS, (i) -> {
+                UUID userId = users.get(random.nextInt(users.size()));
+                db.get(DataMap.NOTIFICATIONS, KeyPredicate.of((Notification n) -> n.getUserId().equals(userId)));
+            }));
+            print(engine, count, "add", OPERATIONS, measure(OPERATIONS, (i) -> db.add(DataMap.NOTIFICATIONS, added.get(i))));
+            print(engine, count, "update", OPERATIONS, measure(OPERATIONS, (i) -> db.<Notification>update(DataMap.NOTIFICATIONS, (n) -> {
+            }, loaded.get(random.nextInt(count)).getId())));
+            print(engine, count, "remove", OPERATIONS, measure(OPERATIONS, (i) -> db.remove(DataMap.NOTIFICATIONS, added.get(i).getId())));
+        }
+
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+
+    /**
+     * Measures the latency of each of a number of operations.
+     *
+     * @param count     The number of operations.
+     * @param operation The operation, given its index.
+     *
+     * @return The latency of each operation in nanoseconds.
+     */
+    private static long[] measure(int count, IntConsumer operation) {
+        long[] latencies = new long[count];
+        for (int i = 0; i < count; i++) {
+            long start = System.nanoTime();
+            operation.accept(i);
+            latencies[i] = System.nanoTime() - start;
+        }
+        return latencies;
+    }
+
+    /**
+     * Prints the throughput and the latency of an operation.
+     *
+     * @param engine    The engine.
+     * @param count     The number of records loaded before the measurements.
+     * @param operation The name of the operation.
+     * @param items     The number of records processed by the measured operations.
+     * @param latencies The latency of each operation in nanoseconds.
+     */
+    private static void print(StorageEngine engine, int count, String operation, int items, long[] latencies) {
+        long total = Arrays.stream(latencies).sum();
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        long p99 = sorted[Math.min(sorted.length - 1, (int) Math.ceil(sorted.length * 0.99) - 1)];
+        System.out.printf("%-14s %9d %-12s %12d %12d %12d%n", engine, count, operation, items * 1_000_000_000L / Math.max(total, 1), total / latencies.length / 1000, p99 / 1000);
+    }
+}
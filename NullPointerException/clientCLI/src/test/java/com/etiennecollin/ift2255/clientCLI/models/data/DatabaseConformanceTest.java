@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The DatabaseConformanceTest class contains the unit tests every implementation of the Database interface must pass.
+ * Each implementation is tested by a subclass opening it in the temporary directory.
+ */
+abstract class DatabaseConformanceTest {
+    /**
+     * The temporary directory in which the database files are stored.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Opens the database under test.
+     *
+     * @param savePath The path of the directory where the data is stored, ending with a separator.
+     *
+     * @return The database.
+     */
+    abstract Database open(String savePath);
+
+    /**
+     * Tests that objects are found by ID once added, and that unknown IDs are not found.
+     */
+    @Test
+    void testGetById() {
+        List<Order> orders = new SampleRecords().orders(50, 10, 5);
+        try (Database db = open(directory + "/")) {
+            assertNull(db.get(DataMap.ORDERS, orders.get(0).getId()));
+            assertTrue(db.add(DataMap.ORDERS, orders.get(0)));
+            assertTrue(db.add(DataMap.ORDERS, orders.subList(1, orders.size())));
+
+            for (Order order : orders) {
+                Order stored = db.get(DataMap.ORDERS, order.getId());
+                assertEquals(order.getId(), stored.getId());
+                assertEquals(order.getBuyerId(), stored.getBuyerId());
+                assertEquals(order.getAddress(), stored.getAddress());
+            }
+            assertNull(db.get(DataMap.ORDERS, UUID.randomUUID()));
+            assertNull(db.get(DataMap.TICKETS, orders.get(0).getId()));
+        }
+    }
+
+    /**
+     * Tests that a batch of IDs is resolved to whole objects, skipping the unknown IDs.
+     */
+    @Test
+    void testGetAll() {
+        List<Order> orders = new SampleRecords().orders(50, 10, 5);
+        try (Database db = open(directory + "/")) {
+            assertTrue(db.getAll(DataMap.ORDERS, List.of(orders.get(0).getId())).isEmpty());
+            db.add(DataMap.ORDERS, orders);
+
+            UUID unknown = UUID.randomUUID();
+            List<UUID> batch = List.of(orders.get(3).getId(), orders.get(40).getId(), unknown, orders.get(3).getId());
+            Map<UUID, Order> found = db.getAll(DataMap.ORDERS, batch);
+            assertEquals(Set.of(orders.get(3).getId(), orders.get(40).getId()), found.keySet());
+            assertEquals(orders.get(40).getAddress(), found.get(orders.get(40).getId()).getAddress());
+            assertTrue(db.getAll(DataMap.ORDERS, List.of()).isEmpty());
+        }
+    }
+
+    /**
+     * Tests that scans return every matching object exactly once, with plain and key predicates.
+     */
+    @Test
+    void testPredicateScan() {
+        List<Order> orders = new SampleRecords().orders(200, 20, 5);
+        UUID buyerId = orders.get(0).getBuyerId();
+        try (Database db = open(directory + "/")) {
+            assertTrue(db.get(DataMap.ORDERS, (o) -> true).isEmpty());
+            db.add(DataMap.ORDERS, orders);
+
+            assertEquals(ids(orders), ids(db.get(DataMap.ORDERS, (o) -> true)));
+            List<Order> expected = orders.stream().filter((o) -> o.getBuyerId().equals(buyerId)).toList();
+            assertEquals(ids(expected), ids(db.get(DataMap.ORDERS, (Order o) -> o.getBuyerId().equals(buyerId))));
+            assertEquals(ids(expected), ids(db.get(DataMap.ORDERS, KeyPredicate.of((Order o) -> o.getBuyerId().equals(buyerId)))));
+            assertEquals(ids(expected), ids(db.getOwned(DataMap.ORDERS, buyerId, (Order o) -> o.getBuyerId().equals(buyerId))));
+        }
+    }
+
+    /**
+     * Tests that updates by ID and by filter are visible to the following reads.
+     */
+    @Test
+    void testUpdate() {
+        List<Order> orders = new SampleRecords().orders(100, 10, 5);
+        Order target = orders.get(42);
+        try (Database db = open(directory + "/")) {
+            db.add(DataMap.ORDERS, orders);
+
+            assertTrue(db.<Order>update(DataMap.ORDERS, (o) -> o.setState(OrderState.Delivered), target.getId()));
+            assertEquals(OrderState.Delivered, db.<Order>get(DataMap.ORDERS, target.getId()).getState());
+            assertFalse(db.<Order>update(DataMap.ORDERS, (o) -> o.setState(OrderState.Delivered), UUID.randomUUID()));
+
+            UUID sellerId = target.getSellerId();
+            assertTrue(db.<Order>update(DataMap.ORDERS, (o) -> o.setState(OrderState.Cancelled), (Order o) -> o.getSellerId().equals(sellerId)));
+            for (Order order : db.<Order>get(DataMap.ORDERS, (o) -> true)) {
+                assertEquals(order.getSellerId().equals(sellerId), order.getState() == OrderState.Cancelled);
+            }
+            assertFalse(db.<Order>update(DataMap.ORDERS, (o) -> o.setState(OrderState.Delivered), (Order o) -> false));
+            assertEquals(orders.size(), db.get(DataMap.ORDERS, (o) -> true).size());
+        }
+    }
+
+    /**
+     * Tests that removals by ID and by filter only remove the designated objects.
+     */
+    @Test
+    void testRemove() {
+        List<Order> orders = new SampleRecords().orders(100, 10, 5);
+        Order target = orders.get(17);
+        try (Database db = open(directory + "/")) {
+            db.add(DataMap.ORDERS, orders);
+
+            assertTrue(db.remove(DataMap.ORDERS, target.getId()));
+            assertNull(db.get(DataMap.ORDERS, target.getId()));
+            assertFalse(db.remove(DataMap.ORDERS, target.getId()));
+
+            UUID buyerId = orders.get(0).getBuyerId();
+            long removed = orders.stream().filter((o) -> o.getBuyerId().equals(buyerId) && o != target).count();
+            assertTrue(db.remove(DataMap.ORDERS, (Order o) -> o.getBuyerId().equals(buyerId)));
+            assertFalse(db.remove(DataMap.ORDERS, (Order o) -> o.getBuyerId().equals(buyerId)));
+            assertEquals(orders.size() - 1 - removed, db.get(DataMap.ORDERS, (o) -> true).size());
+
+            db.add(DataMap.ORDERS, target);
+            assertEquals(target.getAddress(), db.<Order>get(DataMap.ORDERS, target.getId()).getAddress());
+        }
+    }
+
+    /**
+     * Tests that the DataMaps are independent from each other.
+     */
+    @Test
+    void testDataMapsAreIndependent() {
+        SampleRecords samples = new SampleRecords();
+        Notification notification = samples.notification(UUID.randomUUID());
+        Like like = samples.like(UUID.randomUUID());
+        try (Database db = open(directory + "/")) {
+            db.add(DataMap.NOTIFICATIONS, notification);
+            db.add(DataMap.LIKES, like);
+
+            assertEquals(1, db.get(DataMap.NOTIFICATIONS, (n) -> true).size());
+            assertEquals(1, db.get(DataMap.LIKES, (l) -> true).size());
+            assertTrue(db.remove(DataMap.LIKES, (l) -> true));
+            assertNotNull(db.get(DataMap.NOTIFICATIONS, notification.getId()));
+        }
+    }
+
+    /**
+     * Gets the sorted IDs of objects, so that lists can be compared regardless of the order of a scan.
+     *
+     * @param objects The objects.
+     *
+     * @return The sorted IDs.
+     */
+    private static List<UUID> ids(List<? extends DatabaseObject> objects) {
+        ArrayList<UUID> ids = new ArrayList<>(objects.stream().map(DatabaseObject::getId).toList());
+        ids.sort(Comparator.naturalOrder());
+        return ids;
+    }
+}
@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+/**
+ * The JavaSerializedDatabaseConformanceTest class runs the {@link DatabaseConformanceTest} suite against the
+ * JavaSerializedDatabase, in cached mode.
+ */
+class JavaSerializedDatabaseConformanceTest extends DatabaseConformanceTest {
+    /**
+     * Opens the database under test.
+     *
+     * @param savePath The path of the directory where the data is stored, ending with a separator.
+     *
+     * @return The database.
+     */
+    @Override
+    Database open(String savePath) {
+        return new JavaSerializedDatabase(savePath, true);
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import com.etiennecollin.ift2255.clientCLI.Tuple;
+import com.etiennecollin.ift2255.clientCLI.models.data.products.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The JavaSerializedDatabaseTest class contains unit tests for the cached mode, the durability policies and the
+ * compression of the JavaSerializedDatabase class.
+ */
+class JavaSerializedDatabaseTest {
+    /**
+     * The temporary directory in which the database files are stored.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that only the first read of a DataMap goes to disk in cached mode.
+     */
+    @Test
+    void testCachedReadsAreHits() {
+        JavaSerializedDatabase db = new JavaSerializedDatabase(directory + "/", true);
+        Like like = new Like(UUID.randomUUID(), UUID.randomUUID(), LikeType.Product);
+
+        db.add(DataMap.LIKES, like);
+        assertEquals(like, db.get(DataMap.LIKES, like.getId()));
+        assertEquals(1, db.<Like>get(DataMap.LIKES, (l) -> l.getUserId().equals(like.getUserId())).size());
+
+        CacheStatistics statistics = db.getCacheStatistics(DataMap.LIKES);
+        assertEquals(1, statistics.getMisses());
+        assertEquals(2, statistics.getHits());
+        assertEquals(0, db.getCacheStatistics(DataMap.BUYERS).getMisses());
+    }
+
+    /**
+     * Tests that writes made in cached mode are persisted to disk.
+     */
+    @Test
+    void testCachedWritesArePersisted() {
+        JavaSerializedDatabase db = new JavaSerializedDatabase(directory + "/", true);
+        CartProduct cartProduct = new CartProduct(UUID.randomUUID(), UUID.randomUUID(), 1);
+        db.add(DataMap.CARTS, cartProduct);
+        db.<CartProduct>update(DataMap.CARTS, (c) -> c.setQuantity(3), cartProduct.getId());
+
+        JavaSerializedDatabase reopened = new JavaSerializedDatabase(directory + "/", false);
+        CartProduct stored = reopened.get(DataMap.CARTS, cartProduct.getId());
+        assertEquals(3, stored.getQuantity());
+
+        db.remove(DataMap.CARTS, cartProduct.getId());
+        assertNull(db.get(DataMap.CARTS, cartProduct.getId()));
+        assertNull(reopened.get(DataMap.CARTS, cartProduct.getId()));
+    }
+
+    /**
+     * Tests that the counters stay at zero when the database is not in cached mode.
+     */
+    @Test
+    void testUncachedReadsAreNotCounted() {
+        JavaSerializedDatabase db = new JavaSerializedDatabase(directory + "/", false);
+        db.add(DataMap.LIKES, new Like(UUID.randomUUID(), UUID.randomUUID(), LikeType.Product));
+        db.get(DataMap.LIKES, (l) -> true);
+
+        assertFalse(db.isCached());
+        assertEquals(0, db.getCacheStatistics(DataMap.LIKES).getHits());
+        assertEquals(0, db.getCacheStatistics(DataMap.LIKES).getMisses());
+    }
+
+    /**
+     * Tests that deferred writes are only persisted when the database is closed.
+     */
+    @Test
+    void testOnShutdownWritesArePersistedOnClose() {
+        JavaSerializedDatabase db = new JavaSerializedDatabase(directory + "/", true, Durability.ON_SHUTDOWN);
+        CartProduct cartProduct = new CartProduct(UUID.randomUUID(), UUID.randomUUID(), 1);
+        db.add(DataMap.CARTS, cartProduct);
+        db.<CartProduct>update(DataMap.CARTS, (c) -> c.setQuantity(5), cartProduct.getId());
+
+        assertTrue(db.isDirty(DataMap.CARTS));
+        assertFalse(directory.resolve(DataMap.CARTS.getFilename()).toFile().exists());
+        assertEquals(5, db.<CartProduct>get(DataMap.CARTS, cartProduct.getId()).getQuantity());
+
+        db.close();
+        assertFalse(db.isDirty(DataMap.CARTS));
+        CartProduct stored = new JavaSerializedDatabase(directory + "/", false).get(DataMap.CARTS, cartProduct.getId());
+        assertEquals(5, stored.getQuantity());
+    }
+
+    /**
+     * Tests that the background flusher persists the dirty DataMaps.
+     */
+    @Test
+    void testIntervalFlusherPersistsWrites() throws InterruptedException {
+        JavaSerializedDatabase db = new JavaSerializedDatabase(directory + "/", true, Durability.parse("INTERVAL(10)"));
+        Like like = new Like(UUID.randomUUID(), UUID.randomUUID(), LikeType.Product);
+        db.add(DataMap.LIKES, like);
+
+        for (int i = 0; i < 500 && db.isDirty(DataMap.LIKES); i++) {
+            Thread.sleep(10);
+        }
+        assertFalse(db.isDirty(DataMap.LIKES));
+        assertNotNull(new JavaSerializedDatabase(directory + "/", false).get(DataMap.LIKES, like.getId()));
+        db.close();
+    }
+
+    /**
+     * Tests that deferred writes cannot be used without the cached mode.
+     */
+    @Test
+    void testDeferredWritesRequireCache() {
+        assertThrows(IllegalArgumentException.class, () -> new JavaSerializedDatabase(directory + "/", false, Durability.ON_SHUTDOWN));
+        assertThrows(IllegalArgumentException.class, () -> Durability.parse("INTERVAL(0)"));
+        assertEquals("INTERVAL(250)", Durability.parse("interval(250)").toString());
+    }
+
+    /**
+     * Tests that compressed files are smaller and that files saved with another compression can still be loaded.
+     */
+    @Test
+    void testCompressedFilesAreLoaded() {
+        SampleRecords samples = new SampleRecords();
+        UUID userId = UUID.randomUUID();
+        JavaSerializedDatabase db = new JavaSerializedDatabase(directory + "/", false);
+        for (int i = 0; i < 200; i++) {
+            db.add(DataMap.NOTIFICATIONS, samples.notification(userId));
+        }
+        long uncompressedSize = directory.resolve(DataMap.NOTIFICATIONS.getFilename()).toFile().length();
+
+        db.setCompression(DataMap.NOTIFICATIONS, Compression.DEFLATE);
+        db.add(DataMap.NOTIFICATIONS, samples.notification(userId));
+        assertTrue(directory.resolve(DataMap.NOTIFICATIONS.getFilename()).toFile().length() < uncompressedSize / 2);
+
+        JavaSerializedDatabase reopened = new JavaSerializedDatabase(directory + "/", false);
+        assertEquals(Compression.NONE, reopened.getCompression(DataMap.NOTIFICATIONS));
+        assertEquals(201, reopened.get(DataMap.NOTIFICATIONS, (n) -> true).size());
+    }
+
+    /**
+     * Tests that warming up loads every DataMap so that the following reads are hits.
+     */
+    @Test
+    void testWarmUpMakesDataMapsResident() {
+        SampleRecords samples = new SampleRecords();
+        new JavaSerializedDatabase(directory + "/", false).add(DataMap.ORDERS, samples.orders(50, 5, 5));
+        new JavaSerializedDatabase(directory + "/", false).add(DataMap.PRODUCTS, samples.products(20, 5));
+
+        JavaSerializedDatabase db = new JavaSerializedDatabase(directory + "/", true);
+        List<WarmUpReport> reports = db.warmUp(EnumSet.allOf(DataMap.class));
+        assertEquals(DataMap.values().length, reports.size());
+        for (WarmUpReport report : reports) {
+            int expected = report.dataMap() == DataMap.ORDERS ? 50 : report.dataMap() == DataMap.PRODUCTS ? 20 : 0;
+            assertEquals(expected, report.objectCount());
+        }
+
+        assertEquals(50, db.get(DataMap.ORDERS, (o) -> true).size());
+        assertEquals(0, db.getCacheStatistics(DataMap.ORDERS).getMisses());
+        assertEquals(1, db.getCacheStatistics(DataMap.ORDERS).getHits());
+        assertTrue(db.warmUp(EnumSet.allOf(DataMap.class)).isEmpty());
+    }
+
+    /**
+     * Tests that a lookup of an ID ruled out by the filter of a DataMap does not load it, and that a filter which no
+     * longer matches its file is ignored.
+     */
+    @Test
+    void testFilterSkipsMissingIds() {
+        SampleRecords samples = new SampleRecords();
+        List<Order> orders = samples.orders(100, 10, 5);
+        new JavaSerializedDatabase(directory + "/", true).add(DataMap.ORDERS, orders);
+
+        JavaSerializedDatabase db = new JavaSerializedDatabase(directory + "/", true);
+        for (int i = 0; i < 100; i++) {
+            db.get(DataMap.ORDERS, UUID.randomUUID());
+        }
+        assertTrue(db.getCacheStatistics(DataMap.ORDERS).getMisses() <= 1);
+        assertEquals(orders.get(42).getAddress(), db.<Order>get(DataMap.ORDERS, orders.get(42).getId()).getAddress());
+
+        Order added = samples.order(UUID.randomUUID(), UUID.randomUUID());
+        ArrayList<Order> rewritten = new ArrayList<>(orders);
+        rewritten.add(added);
+        db.save(rewritten, DataMap.ORDERS.getFilename());
+        JavaSerializedDatabase reopened = new JavaSerializedDatabase(directory + "/", false);
+        assertNotNull(reopened.get(DataMap.ORDERS, added.getId()));
+    }
+
+    /**
+     * Tests that an uncached database does not trust its filter in memory once another database wrote the file of the
+     * DataMap.
+     */
+    @Test
+    void testFilterFollowsWritesOfAnotherDatabase() {
+        SampleRecords samples = new SampleRecords();
+        List<Order> orders = samples.orders(50, 5, 5);
+        JavaSerializedDatabase first = new JavaSerializedDatabase(directory + "/", false);
+        JavaSerializedDatabase second = new JavaSerializedDatabase(directory + "/", false);
+        assertTrue(first.add(DataMap.ORDERS, orders));
+        assertNotNull(first.get(DataMap.ORDERS, orders.get(0).getId()));
+
+        Order added = samples.order(UUID.randomUUID(), UUID.randomUUID());
+        assertTrue(second.add(DataMap.ORDERS, added));
+        assertNotNull(first.get(DataMap.ORDERS, added.getId()));
+        assertEquals(1, first.getAll(DataMap.ORDERS, List.of(added.getId())).size());
+
+        assertTrue(second.remove(DataMap.ORDERS, orders.get(0).getId()));
+        assertNull(first.get(DataMap.ORDERS, orders.get(0).getId()));
+    }
+
+    /**
+     * Tests that the index by ID of a resident list follows the objects added, updated and removed, including when the
+     * list is replaced by a removal with a filter.
+     */
+    @Test
+    void testIndexFollowsChanges() {
+        SampleRecords samples = new SampleRecords();
+        List<Order> orders = samples.orders(50, 5, 5);
+        JavaSerializedDatabase db = new JavaSerializedDatabase(directory + "/", true, Durability.ON_SHUTDOWN);
+        db.add(DataMap.ORDERS, orders);
+        assertEquals(orders.get(10).getId(), db.<Order>get(DataMap.ORDERS, orders.get(10).getId()).getId());
+
+        Order added = samples.order(UUID.randomUUID(), UUID.randomUUID());
+        db.add(DataMap.ORDERS, added);
+        assertEquals(added.getId(), db.<Order>get(DataMap.ORDERS, added.getId()).getId());
+        assertTrue(db.<Order>update(DataMap.ORDERS, (o) -> o.setState(OrderState.Cancelled), added.getId()));
+        assertEquals(OrderState.Cancelled, db.<Order>get(DataMap.ORDERS, added.getId()).getState());
+
+        assertTrue(db.remove(DataMap.ORDERS, orders.get(10).getId()));
+        assertNull(db.get(DataMap.ORDERS, orders.get(10).getId()));
+        assertFalse(db.remove(DataMap.ORDERS, orders.get(10).getId()));
+        assertEquals(50, db.get(DataMap.ORDERS, (Order o) -> true).size());
+
+        assertTrue(db.remove(DataMap.ORDERS, (Order o) -> o.getId().equals(orders.get(20).getId())));
+        assertNull(db.get(DataMap.ORDERS, orders.get(20).getId()));
+        assertEquals(added.getId(), db.<Order>get(DataMap.ORDERS, added.getId()).getId());
+        db.close();
+
+        JavaSerializedDatabase reopened = new JavaSerializedDatabase(directory + "/", true);
+        assertEquals(49, reopened.get(DataMap.ORDERS, (Order o) -> true).size());
+        assertEquals(OrderState.Cancelled, reopened.<Order>get(DataMap.ORDERS, added.getId()).getState());
+    }
+
+    /**
+     * Tests that the lookups through a secondary index follow the objects added, updated and removed, including when an
+     * update changes the key of an object.
+     */
+    @Test
+    void testSecondaryIndexFollowsChanges() {
+        SampleRecords samples = new SampleRecords();
+        UUID userId = UUID.randomUUID();
+        JavaSerializedDatabase db = new JavaSerializedDatabase(directory + "/", true, Durability.ON_SHUTDOWN);
+        db.add(DataMap.NOTIFICATIONS, List.of(samples.notification(userId), samples.notification(UUID.randomUUID()), samples.notification(userId)));
+        List<Notification> notifications = db.getOwned(DataMap.NOTIFICATIONS, userId, (Notification n) -> n.getUserId().equals(userId));
+        assertEquals(2, notifications.size());
+
+        Notification added = samples.notification(userId);
+        db.add(DataMap.NOTIFICATIONS, added);
+        assertEquals(added.getId(), db.<Notification>getByIndex(SecondaryIndex.NOTIFICATION_USER, userId, (Notification n) -> true).get(2).getId());
+        assertTrue(db.remove(DataMap.NOTIFICATIONS, notifications.get(0).getId()));
+        assertEquals(List.of(notifications.get(1), added), db.getByIndex(SecondaryIndex.NOTIFICATION_USER, userId, (Notification n) -> true));
+
+        UUID orderId = UUID.randomUUID();
+        Ticket ticket = new Ticket("Broken", orderId, new ArrayList<>(), TicketCause.DefectiveProduct, TicketState.OpenManual, userId, UUID.randomUUID());
+        db.add(DataMap.TICKETS, ticket);
+        assertEquals(List.of(ticket), db.getByIndex(SecondaryIndex.TICKET_ORDER, orderId, (Ticket t) -> true));
+        UUID otherOrderId = UUID.randomUUID();
+        assertTrue(db.<Ticket>update(DataMap.TICKETS, (t) -> t.setOrderId(otherOrderId), ticket.getId()));
+        assertTrue(db.getByIndex(SecondaryIndex.TICKET_ORDER, orderId, (Ticket t) -> true).isEmpty());
+        assertEquals(List.of(ticket), db.getByIndex(SecondaryIndex.TICKET_ORDER, otherOrderId, (Ticket t) -> true));
+        db.close();
+
+        JavaSerializedDatabase uncached = new JavaSerializedDatabase(directory + "/", false);
+        assertEquals(2, uncached.getByIndex(SecondaryIndex.NOTIFICATION_USER, userId, (Notification n) -> n.getUserId().equals(userId)).size());
+    }
+
+    /**
+     * Tests that the products stored in an order keep their price and quantity when the products are updated after the
+     * order was placed, and that changing an object read from the cache does not change the stored object.
+     */
+    @Test
+    void testOrderedProductIsNotChangedByProductUpdates() {
+        SampleRecords samples = new SampleRecords();
+        UUID sellerId = UUID.randomUUID();
+        JavaSerializedDatabase db = new JavaSerializedDatabase(directory + "/", true);
+        Product product = samples.product(sellerId);
+        db.add(DataMap.PRODUCTS, product);
+        int price = product.getPrice();
+        int quantity = product.getQuantity();
+
+        Product ordered = db.get(DataMap.PRODUCTS, product.getId());
+        ArrayList<Tuple<Product, Integer>> products = new ArrayList<>();
+        products.add(new Tuple<>(ordered, 1));
+        Order order = new Order(products, price, 0, new PaymentMethod(price, 0, 0), "buyer@fakemail.com", "514-555-1111", "Address", "Address", "Buyer Name", "1234123412341234", YearMonth.of(2026, 5), "123", UUID.randomUUID(), sellerId);
+        db.add(DataMap.ORDERS, order);
+        db.<Product>update(DataMap.PRODUCTS, (p) -> {
+            p.setPrice(price + 500);
+            p.setQuantity(quantity + 10);
+        }, product.getId());
+
+        Product stored = db.<Order>get(DataMap.ORDERS, order.getId()).getProducts().get(0).first;
+        assertEquals(price, stored.getPrice());
+        assertEquals(quantity, stored.getQuantity());
+        assertEquals(price + 500, db.<Product>get(DataMap.PRODUCTS, product.getId()).getPrice());
+
+        ordered.setPrice(1);
+        db.<Order>get(DataMap.ORDERS, order.getId()).getProducts().get(0).first.setPrice(1);
+        assertEquals(price + 500, db.<Product>get(DataMap.PRODUCTS, product.getId()).getPrice());
+        assertEquals(price, db.<Order>get(DataMap.ORDERS, order.getId()).getProducts().get(0).first.getPrice());
+        db.close();
+
+        JavaSerializedDatabase reopened = new JavaSerializedDatabase(directory + "/", false);
+        assertEquals(price, reopened.<Order>get(DataMap.ORDERS, order.getId()).getProducts().get(0).first.getPrice());
+    }
+}
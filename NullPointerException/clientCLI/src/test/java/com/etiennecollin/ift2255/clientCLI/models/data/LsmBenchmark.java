@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * The LsmBenchmark class compares the write throughput, the point lookups and the full scans of {@link LsmDatabase}
+ * against the cached {@link JavaSerializedDatabase} used by the application.
+ * <p>
+ * It is run manually with the number of notifications as optional argument, for example with
+ * {@code java -cp target/classes:target/test-classes com.etiennecollin.ift2255.clientCLI.models.data.LsmBenchmark 5000}.
+ */
+public class LsmBenchmark {
+    /**
+     * The number of times the lookups and scans are repeated, the first ones warming up the JIT compiler.
+     */
+    private static final int ROUNDS = 5;
+    /**
+     * The number of point lookups of each round.
+     */
+    private static final int LOOKUPS = 10000;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The number of notifications to write one by one.
+     *
+     * @throws IOException If the temporary directories could not be created.
+     */
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        SampleRecords samples = new SampleRecords();
+        ArrayList<Notification> notifications = new ArrayList<>();
+        List<UUID> users = samples.ids(count / 10 + 1);
+        for (int i = 0; i < count; i++) {
+            notifications.add(samples.notification(users.get(i % users.size())));
+        }
+
+        System.out.println("Writing " + count + " notifications one by one, then " + LOOKUPS + " lookups of existing and missing IDs and a scan, best of " + ROUNDS + " rounds");
+        System.out.printf("%-24s %12s %14s %14s %12s%n", "Database", "Writes (/s)", "Lookups (/s)", "Misses (/s)", "Scan (ms)");
+        run("JavaSerializedDatabase", (path) -> new JavaSerializedDatabase(path, true), notifications);
+        run("LsmDatabase", LsmDatabase::new, notifications);
+        // A small memtable so that most lookups and the scan read runs on disk
+        run("LsmDatabase (64 KB)", (path) -> new LsmDatabase(path, 64 * 1024), notifications);
+    }
+
+    /**
+     * Measures a database and prints its results.
+     *
+     * @param name          The name of the database.
+     * @param factory       The function creating the database from the path of its directory.
+     * @param notifications The notifications to write.
+     *
+     * @throws IOException If the temporary directory could not be created.
+     */
+    private static void run(String name, Function<String, Database> factory, List<Notification> notifications) throws IOException {
+        File directory = Files.createTempDirectory("lsm-benchmark").toFile();
+        Random random = new Random(42);
+        try (Database db = factory.apply(directory + "/")) {
+            long start = System.nanoTime();
+            for (Notification notification : notifications) {
+                db.add(DataMap.NOTIFICATIONS, notification);
+            }
+            long writeTime = System.nanoTime() - start;
+
+            long lookupTime = Long.MAX_VALUE;
+            long missTime = Long.MAX_VALUE;
+            long scanTime = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                start = System.nanoTime();
+                for (int i = 0; i < LOOKUPS; i++) {
+                    db.get(DataMap.NOTIFICATIONS, notifications.get(random.nextInt(notifications.size())).getId());
+                }
+                lookupTime = Math.min(lookupTime, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                for (int i = 0; i < LOOKUPS; i++) {
+                    db.get(DataMap.NOTIFICATIONS, new UUID(random.nextLong(), random.nextLong()));
+                }
+                missTime = Math.min(missTime, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                db.get(DataMap.NOTIFICATIONS, (n) -> true);
+                scanTime = Math.min(scanTime, System.nanoTime() - start);
+            }
+
+            System.out.printf("%-24s %12d %14d %14d %12d%n", name, notifications.size() * 1_000_000_000L / writeTime, LOOKUPS * 1_000_000_000L / lookupTime, LOOKUPS * 1_000_000_000L / missTime, scanTime / 1_000_000);
+        }
+
+        for (File file : directory.listFiles()) {
+            file.delete();
+        }
+        directory.delete();
+    }
+}
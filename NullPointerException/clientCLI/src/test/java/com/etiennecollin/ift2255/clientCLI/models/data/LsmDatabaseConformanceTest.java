@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+/**
+ * The LsmDatabaseConformanceTest class runs the {@link DatabaseConformanceTest} suite against the LsmDatabase, with a
+ * small memtable so that its runs are tested.
+ */
+class LsmDatabaseConformanceTest extends DatabaseConformanceTest {
+    /**
+     * Opens the database under test.
+     *
+     * @param savePath The path of the directory where the data is stored, ending with a separator.
+     *
+     * @return The database.
+     */
+    @Override
+    Database open(String savePath) {
+        return new LsmDatabase(savePath, 4096);
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The LsmDatabaseTest class contains unit tests for the LsmDatabase class, focusing on the recovery of the memtable,
+ * on the tombstones and on the compaction of the runs.
+ */
+class LsmDatabaseTest {
+    /**
+     * The temporary directory in which the trees are stored.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that the writes which were not flushed to a run are recovered from the write-ahead log.
+     */
+    @Test
+    void testMemtableIsRecoveredFromLog() {
+        CartProduct cartProduct = new CartProduct(UUID.randomUUID(), UUID.randomUUID(), 1);
+        CartProduct removed = new CartProduct(UUID.randomUUID(), UUID.randomUUID(), 2);
+
+        LsmDatabase db = new LsmDatabase(directory + "/");
+        db.add(DataMap.CARTS, List.of(cartProduct, removed));
+        db.<CartProduct>update(DataMap.CARTS, (c) -> c.setQuantity(3), cartProduct.getId());
+        db.remove(DataMap.CARTS, removed.getId());
+        assertEquals(0, db.getRunCount(DataMap.CARTS));
+
+        try (LsmDatabase reopened = new LsmDatabase(directory + "/")) {
+            assertEquals(3, reopened.<CartProduct>get(DataMap.CARTS, cartProduct.getId()).getQuantity());
+            assertNull(reopened.get(DataMap.CARTS, removed.getId()));
+            assertEquals(1, reopened.get(DataMap.CARTS, (c) -> true).size());
+        }
+    }
+
+    /**
+     * Tests that the newest entry of an object wins over the older runs, before and after compaction.
+     */
+    @Test
+    void testNewestEntryWinsAcrossRuns() {
+        SampleRecords samples = new SampleRecords();
+        UUID buyerId = UUID.randomUUID();
+        ArrayList<Order> orders = new ArrayList<>(samples.orders(300, 30, 5));
+        Order target = samples.order(buyerId, UUID.randomUUID());
+        orders.add(target);
+
+        try (LsmDatabase db = new LsmDatabase(directory + "/", 4096)) {
+            for (Order order : orders) {
+                db.add(DataMap.ORDERS, order);
+            }
+            db.<Order>update(DataMap.ORDERS, (o) -> o.setState(OrderState.Delivered), target.getId());
+            db.remove(DataMap.ORDERS, orders.get(7).getId());
+            db.remove(DataMap.ORDERS, (Order o) -> o.getId().equals(orders.get(8).getId()));
+            assertTrue(db.getRunCount(DataMap.ORDERS) > 0);
+
+            db.compact(DataMap.ORDERS);
+            assertEquals(1, db.getRunCount(DataMap.ORDERS));
+            assertEquals(OrderState.Delivered, db.<Order>get(DataMap.ORDERS, target.getId()).getState());
+            assertNull(db.get(DataMap.ORDERS, orders.get(7).getId()));
+            assertEquals(orders.size() - 2, db.get(DataMap.ORDERS, (o) -> true).size());
+        }
+
+        try (LsmDatabase db = new LsmDatabase(directory + "/", 4096)) {
+            List<Order> matches = db.get(DataMap.ORDERS, KeyPredicate.of((Order o) -> o.getBuyerId().equals(buyerId)));
+            assertEquals(1, matches.size());
+            assertEquals(OrderState.Delivered, matches.get(0).getState());
+            assertEquals(target.getAddress(), matches.get(0).getAddress());
+            assertNull(db.get(DataMap.ORDERS, orders.get(8).getId()));
+        }
+    }
+}
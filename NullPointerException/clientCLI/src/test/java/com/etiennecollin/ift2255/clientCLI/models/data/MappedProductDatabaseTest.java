@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import com.etiennecollin.ift2255.clientCLI.MockDatabase;
+import com.etiennecollin.ift2255.clientCLI.models.data.products.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The MappedProductDatabaseTest class contains unit tests for the MappedProductDatabase class, focusing on the
+ * in-place writes to the product table.
+ */
+class MappedProductDatabaseTest {
+    /**
+     * The temporary directory in which the database files are stored.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that updates of the numeric fields are persisted without appending to the heap.
+     */
+    @Test
+    void testHotUpdatesAreWrittenInPlace() {
+        Product product = new SampleRecords().product(UUID.randomUUID());
+        LocalDate promoEndDate = LocalDate.of(2024, 1, 31);
+
+        try (MappedProductDatabase db = new MappedProductDatabase(new MockDatabase(), directory + "/")) {
+            db.add(DataMap.PRODUCTS, product);
+            long heapSize = db.getHeapSize();
+            db.<Product>update(DataMap.PRODUCTS, (p) -> {
+                p.setQuantity(7);
+                p.setLikes(12);
+                p.setPromoDiscount(150);
+                p.setPromoEndDate(promoEndDate);
+            }, product.getId());
+            assertEquals(heapSize, db.getHeapSize());
+        }
+
+        try (MappedProductDatabase db = new MappedProductDatabase(new MockDatabase(), directory + "/")) {
+            Product stored = db.get(DataMap.PRODUCTS, product.getId());
+            assertEquals(7, stored.getQuantity());
+            assertEquals(12, stored.getLikes());
+            assertEquals(150, stored.getPromoDiscount());
+            assertEquals(promoEndDate, stored.getPromoEndDate());
+            assertEquals(product.getTitle(), stored.getTitle());
+            assertEquals(product.getSubCategory(), stored.getSubCategory());
+        }
+    }
+
+    /**
+     * Tests that updates of the text fields are appended to the heap and persisted.
+     */
+    @Test
+    void testColdUpdatesAreAppendedToHeap() {
+        Product product = new SampleRecords().product(UUID.randomUUID());
+
+        try (MappedProductDatabase db = new MappedProductDatabase(new MockDatabase(), directory + "/")) {
+            db.add(DataMap.PRODUCTS, product);
+            long heapSize = db.getHeapSize();
+            db.<Product>update(DataMap.PRODUCTS, (p) -> p.setDescription("A new description"), product.getId());
+            assertTrue(db.getHeapSize() > heapSize);
+        }
+
+        try (MappedProductDatabase db = new MappedProductDatabase(new MockDatabase(), directory + "/")) {
+            Product stored = db.get(DataMap.PRODUCTS, product.getId());
+            assertEquals("A new description", stored.getDescription());
+            assertEquals(product.getPrice(), stored.getPrice());
+        }
+    }
+
+    /**
+     * Tests that the heap records left unused by updates and removals are reused, so that the heap stays bounded when
+     * the same products are updated repeatedly, and that the products are reloaded intact.
+     */
+    @Test
+    void testUnusedHeapRecordsAreReused() {
+        List<Product> products = new SampleRecords().products(4, 1);
+
+        try (MappedProductDatabase db = new MappedProductDatabase(new MockDatabase(), directory + "/")) {
+            db.add(DataMap.PRODUCTS, products);
+            long heapSize = db.getHeapSize();
+            for (int i = 0; i < 200; i++) {
+                String description = "Description " + (i % 10);
+                db.<Product>update(DataMap.PRODUCTS, (p) -> p.setDescription(description), (p) -> true);
+            }
+            assertTrue(db.getHeapSize() <= 2 * heapSize + 64);
+
+            db.remove(DataMap.PRODUCTS, products.get(3).getId());
+            db.flush();
+            long afterRemoval = db.getHeapSize();
+            db.<Product>update(DataMap.PRODUCTS, (p) -> p.setDescription("Description 9"), (p) -> true);
+            db.flush();
+            assertTrue(db.getHeapSize() <= afterRemoval);
+        }
+
+        try (MappedProductDatabase db = new MappedProductDatabase(new MockDatabase(), directory + "/")) {
+            List<Product> stored = db.get(DataMap.PRODUCTS, (p) -> true);
+            assertEquals(products.subList(0, 3).stream().map(Product::getId).toList(), stored.stream().map(Product::getId).toList());
+            for (int i = 0; i < 3; i++) {
+                assertEquals("Description 9", stored.get(i).getDescription());
+                assertEquals(products.get(i).getTitle(), stored.get(i).getTitle());
+            }
+        }
+    }
+
+    /**
+     * Tests that removed products are not reloaded and that their slots are reused.
+     */
+    @Test
+    void testRemovedSlotsAreReused() {
+        List<Product> products = new SampleRecords().products(3, 1);
+
+        try (MappedProductDatabase db = new MappedProductDatabase(new MockDatabase(), directory + "/")) {
+            db.add(DataMap.PRODUCTS, products);
+            assertTrue(db.remove(DataMap.PRODUCTS, products.get(1).getId()));
+            assertFalse(db.remove(DataMap.PRODUCTS, products.get(1).getId()));
+        }
+
+        Product added = new SampleRecords().product(UUID.randomUUID());
+        try (MappedProductDatabase db = new MappedProductDatabase(new MockDatabase(), directory + "/")) {
+            assertNull(db.get(DataMap.PRODUCTS, products.get(1).getId()));
+            db.add(DataMap.PRODUCTS, added);
+        }
+
+        try (MappedProductDatabase db = new MappedProductDatabase(new MockDatabase(), directory + "/")) {
+            List<Product> stored = db.get(DataMap.PRODUCTS, (p) -> true);
+            assertEquals(List.of(products.get(0).getId(), added.getId(), products.get(2).getId()), stored.stream().map(Product::getId).toList());
+        }
+    }
+
+    /**
+     * Tests that the products of the delegate are moved to the table on the first start, so that removing every
+     * product does not bring the products of the delegate back on the next start.
+     */
+    @Test
+    void testDelegateProductsAreMovedToTable() {
+        List<Product> products = new SampleRecords().products(3, 1);
+        MockDatabase delegate = new MockDatabase();
+        delegate.add(DataMap.PRODUCTS, products);
+
+        try (MappedProductDatabase db = new MappedProductDatabase(delegate, directory + "/")) {
+            assertEquals(3, db.get(DataMap.PRODUCTS, (p) -> true).size());
+            assertTrue(delegate.get(DataMap.PRODUCTS, (p) -> true).isEmpty());
+            assertTrue(db.remove(DataMap.PRODUCTS, (p) -> true));
+        }
+
+        try (MappedProductDatabase db = new MappedProductDatabase(delegate, directory + "/")) {
+            assertTrue(db.get(DataMap.PRODUCTS, (p) -> true).isEmpty());
+        }
+    }
+
+    /**
+     * Tests that changing a product read from or added to the database does not change the stored product.
+     */
+    @Test
+    void testProductsAreCopied() {
+        Product product = new SampleRecords().product(UUID.randomUUID());
+        int price = product.getPrice();
+
+        try (MappedProductDatabase db = new MappedProductDatabase(new MockDatabase(), directory + "/")) {
+            db.add(DataMap.PRODUCTS, product);
+            product.setPrice(price + 1);
+            Product read = db.get(DataMap.PRODUCTS, product.getId());
+            assertEquals(price, read.getPrice());
+
+            db.<Product>update(DataMap.PRODUCTS, (p) -> p.setPrice(price + 500), product.getId());
+            assertEquals(price, read.getPrice());
+            read.setPrice(1);
+            db.<Product>get(DataMap.PRODUCTS, (p) -> true).get(0).setPrice(1);
+            assertEquals(price + 500, db.<Product>get(DataMap.PRODUCTS, product.getId()).getPrice());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The MigrationTest class contains unit tests for the Migration class, focusing on the verification of the copied
+ * DataMaps and on the resumption of an interrupted migration.
+ */
+class MigrationTest {
+    /**
+     * The temporary directory in which the databases are stored.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that every DataMap is copied in batches, with its progress reported after each batch, and verified.
+     */
+    @Test
+    void testEveryDataMapIsCopiedAndVerified() throws IOException {
+        SampleRecords samples = new SampleRecords();
+        Path source = Files.createDirectories(directory.resolve("source"));
+        Path target = Files.createDirectories(directory.resolve("target"));
+        File progressFile = target.resolve(Migration.PROGRESS_FILENAME).toFile();
+
+        try (JavaSerializedDatabase legacy = new JavaSerializedDatabase(source + "/", false); LsmDatabase lsm = new LsmDatabase(target + "/")) {
+            legacy.add(DataMap.ORDERS, samples.orders(30, 5, 3));
+            legacy.add(DataMap.BUYERS, List.of(samples.buyer(), samples.buyer()));
+
+            Migration migration = new Migration(legacy, lsm, progressFile, 7);
+            ArrayList<MigrationReport> progress = new ArrayList<>();
+            List<MigrationReport> reports = migration.migrate(progress::add);
+            assertEquals(DataMap.values().length, reports.size());
+            assertEquals(5 + 1, progress.size());
+            assertEquals(30, migration.getMigratedCount(DataMap.ORDERS));
+            assertTrue(progressFile.exists());
+            assertTrue(migration.verify().isEmpty());
+
+            lsm.add(DataMap.BUYERS, samples.buyer());
+            assertEquals(List.of(DataMap.BUYERS), migration.verify());
+        }
+    }
+
+    /**
+     * Tests that a migration interrupted after writing a batch but before recording it resumes without copying the
+     * batch twice.
+     */
+    @Test
+    void testInterruptedMigrationResumes() throws IOException {
+        SampleRecords samples = new SampleRecords();
+        Path source = Files.createDirectories(directory.resolve("source"));
+        Path target = Files.createDirectories(directory.resolve("target"));
+        File progressFile = target.resolve(Migration.PROGRESS_FILENAME).toFile();
+
+        try (JavaSerializedDatabase legacy = new JavaSerializedDatabase(source + "/", false); JavaSerializedDatabase copy = new JavaSerializedDatabase(target + "/", false)) {
+            legacy.add(DataMap.ORDERS, samples.orders(30, 5, 3));
+            List<Order> orders = legacy.get(DataMap.ORDERS, (Order o) -> true);
+            copy.add(DataMap.ORDERS, new ArrayList<>(orders.subList(0, 21)));
+            Files.writeString(progressFile.toPath(), "ORDERS 14\n");
+
+            Migration migration = new Migration(legacy, copy, progressFile, 7);
+            MigrationReport report = migration.migrate((p) -> {}).get(DataMap.ORDERS.ordinal());
+            assertEquals(30, report.migratedCount());
+            assertEquals(30, copy.get(DataMap.ORDERS, (Order o) -> true).size());
+            assertTrue(migration.verify().isEmpty());
+            UUID last = orders.get(29).getId();
+            assertNotNull(copy.get(DataMap.ORDERS, last));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The OperationLogDatabaseTest class contains unit tests for the OperationLogDatabase class, focusing on the replay
+ * of the logs on startup and on their compaction.
+ */
+class OperationLogDatabaseTest {
+    /**
+     * The temporary directory in which the logs are stored.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that adds, updates and removals are rebuilt when the logs are replayed.
+     */
+    @Test
+    void testReplayRebuildsState() {
+        UUID buyerId = UUID.randomUUID();
+        CartProduct kept = new CartProduct(buyerId, UUID.randomUUID(), 1);
+        CartProduct removed = new CartProduct(buyerId, UUID.randomUUID(), 1);
+
+        try (OperationLogDatabase db = new OperationLogDatabase(directory + "/", 0.5)) {
+            db.add(DataMap.CARTS, kept);
+            db.add(DataMap.CARTS, removed);
+            db.<CartProduct>update(DataMap.CARTS, (c) -> c.setQuantity(4), kept.getId());
+            assertTrue(db.remove(DataMap.CARTS, removed.getId()));
+            assertFalse(db.remove(DataMap.CARTS, removed.getId()));
+            assertEquals(3, db.getDeadRecords(DataMap.CARTS));
+        }
+
+        try (OperationLogDatabase db = new OperationLogDatabase(directory + "/", 0.5)) {
+            CartProduct stored = db.get(DataMap.CARTS, kept.getId());
+            assertEquals(4, stored.getQuantity());
+            assertNull(db.get(DataMap.CARTS, removed.getId()));
+            assertEquals(1, db.<CartProduct>get(DataMap.CARTS, (c) -> c.getBuyerId().equals(buyerId)).size());
+            assertEquals(3, db.getDeadRecords(DataMap.CARTS));
+        }
+    }
+
+    /**
+     * Tests that compaction drops the dead records without changing the state.
+     */
+    @Test
+    void testCompactionDropsDeadRecords() {
+        try (OperationLogDatabase db = new OperationLogDatabase(directory + "/", 0.5)) {
+            CartProduct cartProduct = new CartProduct(UUID.randomUUID(), UUID.randomUUID(), 0);
+            db.add(DataMap.CARTS, cartProduct);
+            for (int i = 1; i <= 50; i++) {
+                int quantity = i;
+                db.<CartProduct>update(DataMap.CARTS, (c) -> c.setQuantity(quantity), cartProduct.getId());
+            }
+
+            long sizeBefore = db.getLogSize(DataMap.CARTS);
+            db.compact(DataMap.CARTS);
+            assertEquals(0, db.getDeadRecords(DataMap.CARTS));
+            assertTrue(db.getLogSize(DataMap.CARTS) < sizeBefore);
+
+            db.<CartProduct>update(DataMap.CARTS, (c) -> c.setQuantity(100), cartProduct.getId());
+            db.close();
+
+            try (OperationLogDatabase reopened = new OperationLogDatabase(directory + "/", 0.5)) {
+                CartProduct stored = reopened.get(DataMap.CARTS, cartProduct.getId());
+                assertEquals(100, stored.getQuantity());
+            }
+        }
+    }
+
+    /**
+     * Tests that a record truncated by an interrupted write is discarded on replay.
+     */
+    @Test
+    void testTruncatedRecordIsDiscarded() throws IOException {
+        Like like = new Like(UUID.randomUUID(), UUID.randomUUID(), LikeType.Seller);
+        try (OperationLogDatabase db = new OperationLogDatabase(directory + "/", 0.5)) {
+            db.add(DataMap.LIKES, like);
+            db.add(DataMap.LIKES, new Like(UUID.randomUUID(), UUID.randomUUID(), LikeType.Seller));
+        }
+
+        try (RandomAccessFile log = new RandomAccessFile(directory.resolve("likes.log").toFile(), "rw")) {
+            log.setLength(log.length() - 10);
+        }
+
+        try (OperationLogDatabase db = new OperationLogDatabase(directory + "/", 0.5)) {
+            assertEquals(1, db.get(DataMap.LIKES, (l) -> true).size());
+            assertNotNull(db.get(DataMap.LIKES, like.getId()));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+/**
+ * The PagedDatabaseConformanceTest class runs the {@link DatabaseConformanceTest} suite against the PagedDatabase.
+ */
+class PagedDatabaseConformanceTest extends DatabaseConformanceTest {
+    /**
+     * Opens the database under test.
+     *
+     * @param savePath The path of the directory where the data is stored, ending with a separator.
+     *
+     * @return The database.
+     */
+    @Override
+    Database open(String savePath) {
+        return new PagedDatabase(savePath);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import com.etiennecollin.ift2255.clientCLI.models.data.products.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The PagedDatabaseTest class contains unit tests for the PagedDatabase class, focusing on the number of pages touched
+ * by the operations on a single object and on the scans with a key predicate.
+ */
+class PagedDatabaseTest {
+    /**
+     * The temporary directory in which the paged files are stored.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that operations by ID only read and write the page holding the object.
+     */
+    @Test
+    void testOperationsByIdTouchOnePage() {
+        SampleRecords samples = new SampleRecords();
+        UUID userId = UUID.randomUUID();
+        ArrayList<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            notifications.add(samples.notification(userId));
+        }
+
+        try (PagedDatabase db = new PagedDatabase(directory + "/")) {
+            db.add(DataMap.NOTIFICATIONS, notifications);
+            assertTrue(db.getPageCount(DataMap.NOTIFICATIONS) > 10);
+        }
+
+        try (PagedDatabase db = new PagedDatabase(directory + "/")) {
+            Notification target = notifications.get(1234);
+            assertEquals(target.getTitle(), db.<Notification>get(DataMap.NOTIFICATIONS, target.getId()).getTitle());
+            assertEquals(1, db.getPageAccesses(DataMap.NOTIFICATIONS));
+
+            assertTrue(db.remove(DataMap.NOTIFICATIONS, target.getId()));
+            assertEquals(3, db.getPageAccesses(DataMap.NOTIFICATIONS));
+            assertNull(db.get(DataMap.NOTIFICATIONS, target.getId()));
+            assertEquals(1999, db.<Notification>get(DataMap.NOTIFICATIONS, (n) -> n.getUserId().equals(userId)).size());
+        }
+    }
+
+    /**
+     * Tests that a record which grows beyond the free space of its page is moved to another page.
+     */
+    @Test
+    void testGrowingRecordIsMoved() {
+        List<Product> products = new SampleRecords().products(100, 5);
+        Product target = products.get(0);
+        String description = "A very long description. ".repeat(250);
+
+        try (PagedDatabase db = new PagedDatabase(directory + "/")) {
+            db.add(DataMap.PRODUCTS, products);
+            int pageCount = db.getPageCount(DataMap.PRODUCTS);
+            assertTrue(db.<Product>update(DataMap.PRODUCTS, (p) -> p.setDescription(description), target.getId()));
+            assertTrue(db.getPageCount(DataMap.PRODUCTS) > pageCount);
+            assertEquals(description, db.<Product>get(DataMap.PRODUCTS, target.getId()).getDescription());
+        }
+
+        try (PagedDatabase db = new PagedDatabase(directory + "/")) {
+            assertEquals(description, db.<Product>get(DataMap.PRODUCTS, target.getId()).getDescription());
+            assertEquals(100, db.get(DataMap.PRODUCTS, (p) -> true).size());
+        }
+    }
+
+    /**
+     * Tests that the space freed by removals is reused by later additions.
+     */
+    @Test
+    void testFreedSpaceIsReused() {
+        SampleRecords samples = new SampleRecords();
+        UUID userId = UUID.randomUUID();
+        ArrayList<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            notifications.add(samples.notification(userId));
+        }
+
+        try (PagedDatabase db = new PagedDatabase(directory + "/")) {
+            db.add(DataMap.NOTIFICATIONS, notifications);
+            int pageCount = db.getPageCount(DataMap.NOTIFICATIONS);
+            assertTrue(db.remove(DataMap.NOTIFICATIONS, (n) -> true));
+            assertFalse(db.remove(DataMap.NOTIFICATIONS, notifications.get(0).getId()));
+
+            for (int i = 0; i < 500; i++) {
+                db.add(DataMap.NOTIFICATIONS, samples.notification(userId));
+            }
+            assertEquals(pageCount, db.getPageCount(DataMap.NOTIFICATIONS));
+        }
+    }
+
+    /**
+     * Tests that a scan with a key predicate returns whole objects and ignores the non-key fields.
+     */
+    @Test
+    void testKeyPredicateScan() {
+        SampleRecords samples = new SampleRecords();
+        UUID buyerId = UUID.randomUUID();
+        ArrayList<Order> orders = new ArrayList<>(samples.orders(200, 20, 5));
+        Order target = samples.order(buyerId, UUID.randomUUID());
+        orders.add(target);
+
+        try (PagedDatabase db = new PagedDatabase(directory + "/")) {
+            db.add(DataMap.ORDERS, orders);
+            List<Order> matches = db.get(DataMap.ORDERS, KeyPredicate.of((Order o) -> o.getBuyerId().equals(buyerId)));
+            assertEquals(1, matches.size());
+            assertEquals(target.getAddress(), matches.get(0).getAddress());
+            assertEquals(target.getProducts().size(), matches.get(0).getProducts().size());
+
+            assertTrue(db.get(DataMap.ORDERS, KeyPredicate.of((Order o) -> o.getAddress() != null)).isEmpty());
+            assertEquals(201, db.get(DataMap.ORDERS, (Order o) -> o.getAddress() != null).size());
+        }
+    }
+}
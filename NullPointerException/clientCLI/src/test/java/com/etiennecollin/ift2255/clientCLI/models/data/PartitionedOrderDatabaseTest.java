@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The PartitionedOrderDatabaseTest class contains unit tests for the PartitionedOrderDatabase class, focusing on the
+ * months of orders loaded by the queries.
+ */
+class PartitionedOrderDatabaseTest {
+    /**
+     * The temporary directory in which the months are stored.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that the queries bounded by state or date only load the months which may hold a match.
+     */
+    @Test
+    void testBoundedQueriesSkipOldMonths() {
+        SampleRecords samples = new SampleRecords();
+        UUID sellerId = UUID.randomUUID();
+        ArrayList<Order> orders = new ArrayList<>();
+        for (int month = 1; month <= 12; month++) {
+            orders.add(samples.order(UUID.randomUUID(), sellerId, LocalDate.of(2022, month, 15)));
+        }
+        for (int i = 0; i < 3; i++) {
+            Order order = samples.order(UUID.randomUUID(), sellerId);
+            order.setState(OrderState.InProduction);
+            orders.add(order);
+        }
+
+        String savePath = directory + "/";
+        PartitionedOrderDatabase db = new PartitionedOrderDatabase(new JavaSerializedDatabase(savePath, true), savePath);
+        assertTrue(db.add(DataMap.ORDERS, orders));
+        assertEquals(13, db.getMonths().size());
+
+        db = new PartitionedOrderDatabase(new JavaSerializedDatabase(savePath, true), savePath);
+        assertEquals(0, db.getLoadedMonthCount());
+        List<Order> pending = db.get(DataMap.ORDERS, OrderPredicate.inStates(EnumSet.of(OrderState.InProduction), (o) -> o.getSellerId().equals(sellerId)));
+        assertEquals(3, pending.size());
+        assertEquals(1, db.getLoadedMonthCount());
+
+        List<Order> recent = db.get(DataMap.ORDERS, OrderPredicate.placedSince(LocalDate.of(2022, 11, 1), (o) -> true));
+        assertEquals(5, recent.size());
+        assertEquals(3, db.getLoadedMonthCount());
+
+        assertEquals(15, db.get(DataMap.ORDERS, (o) -> true).size());
+        assertEquals(13, db.getLoadedMonthCount());
+    }
+
+    /**
+     * Tests that an order looked up by its ID after a restart only loads the month holding it, and that an unknown ID
+     * loads no month. The IDs are fixed so that the filters of the months give the same answers on every run.
+     */
+    @Test
+    void testIdLookupLoadsOneMonth() {
+        SampleRecords samples = new SampleRecords();
+        ArrayList<Order> orders = new ArrayList<>();
+        for (int month = 1; month <= 12; month++) {
+            for (int i = 0; i < 20; i++) {
+                Order order = samples.order(UUID.randomUUID(), UUID.randomUUID(), LocalDate.of(2022, month, 1 + i));
+                setId(order, UUID.nameUUIDFromBytes(("order-" + month + "-" + i).getBytes()));
+                orders.add(order);
+            }
+        }
+
+        String savePath = directory + "/";
+        PartitionedOrderDatabase db = new PartitionedOrderDatabase(new JavaSerializedDatabase(savePath, true), savePath);
+        assertTrue(db.add(DataMap.ORDERS, orders));
+
+        db = new PartitionedOrderDatabase(new JavaSerializedDatabase(savePath, true), savePath);
+        Order old = orders.get(25);
+        Order found = db.get(DataMap.ORDERS, old.getId());
+        assertNotNull(found);
+        assertEquals(old.getOrderDate(), found.getOrderDate());
+        assertEquals(1, db.getLoadedMonthCount());
+
+        assertTrue(db.update(DataMap.ORDERS, (Order o) -> o.setState(OrderState.Cancelled), orders.get(230).getId()));
+        assertEquals(2, db.getLoadedMonthCount());
+
+        assertNull(db.get(DataMap.ORDERS, UUID.nameUUIDFromBytes("unknown".getBytes())));
+        assertEquals(2, db.getLoadedMonthCount());
+    }
+
+    /**
+     * Tests that the orders of the delegate are imported and that a change of state is reflected in the pruning of
+     * the months after a restart.
+     */
+    @Test
+    void testStateChangeIsSummarized() {
+        SampleRecords samples = new SampleRecords();
+        String savePath = directory + "/";
+        Order old = samples.order(UUID.randomUUID(), UUID.randomUUID(), LocalDate.of(2021, 3, 2));
+        JavaSerializedDatabase delegate = new JavaSerializedDatabase(savePath, true);
+        delegate.add(DataMap.ORDERS, List.of(old, samples.order(UUID.randomUUID(), UUID.randomUUID())));
+
+        PartitionedOrderDatabase db = new PartitionedOrderDatabase(delegate, savePath);
+        assertEquals(2, db.getMonths().size());
+        assertTrue(db.get(DataMap.ORDERS, OrderPredicate.inStates(EnumSet.of(OrderState.Cancelled), (o) -> true)).isEmpty());
+        assertTrue(db.<Order>update(DataMap.ORDERS, (o) -> o.setState(OrderState.Cancelled), old.getId()));
+
+        db = new PartitionedOrderDatabase(new JavaSerializedDatabase(savePath, true), savePath);
+        List<Order> cancelled = db.get(DataMap.ORDERS, OrderPredicate.inStates(EnumSet.of(OrderState.Cancelled), (o) -> true));
+        assertEquals(1, cancelled.size());
+        assertEquals(old.getId(), cancelled.get(0).getId());
+        assertEquals(1, db.getLoadedMonthCount());
+
+        assertTrue(db.remove(DataMap.ORDERS, old.getId()));
+        assertEquals(1, db.getMonths().size());
+    }
+
+    /**
+     * Tests that the orders of a buyer looked up after a restart only load the months holding an order of the buyer.
+     * The IDs of the buyers are fixed so that the filters of the months give the same answers on every run.
+     */
+    @Test
+    void testOwnerLookupLoadsItsMonths() {
+        SampleRecords samples = new SampleRecords();
+        UUID buyerId = UUID.nameUUIDFromBytes("buyer".getBytes());
+        ArrayList<Order> orders = new ArrayList<>();
+        for (int month = 1; month <= 12; month++) {
+            for (int i = 0; i < 20; i++) {
+                orders.add(samples.order(UUID.nameUUIDFromBytes(("buyer-" + month + "-" + i).getBytes()), UUID.randomUUID(), LocalDate.of(2022, month, 1 + i)));
+            }
+        }
+        orders.add(samples.order(buyerId, UUID.randomUUID(), LocalDate.of(2022, 3, 28)));
+        orders.add(samples.order(buyerId, UUID.randomUUID(), LocalDate.of(2022, 7, 28)));
+
+        String savePath = directory + "/";
+        PartitionedOrderDatabase db = new PartitionedOrderDatabase(new JavaSerializedDatabase(savePath, true), savePath);
+        assertTrue(db.add(DataMap.ORDERS, orders));
+
+        db = new PartitionedOrderDatabase(new JavaSerializedDatabase(savePath, true), savePath);
+        List<Order> owned = db.getOwned(DataMap.ORDERS, buyerId, (Order o) -> o.getBuyerId().equals(buyerId));
+        assertEquals(2, owned.size());
+        assertEquals(2, db.getLoadedMonthCount());
+    }
+
+    /**
+     * Tests that the least recently used months are evicted beyond the number of months kept in memory, and that the
+     * orders of an evicted month are read again from its file.
+     */
+    @Test
+    void testLeastRecentlyUsedMonthsAreEvicted() {
+        SampleRecords samples = new SampleRecords();
+        ArrayList<Order> orders = new ArrayList<>();
+        for (int month = 1; month <= 12; month++) {
+            orders.add(samples.order(UUID.randomUUID(), UUID.randomUUID(), LocalDate.of(2022, month, 15)));
+        }
+
+        String savePath = directory + "/";
+        PartitionedOrderDatabase db = new PartitionedOrderDatabase(new JavaSerializedDatabase(savePath, true), savePath, new BinaryRecordCodec(), 2);
+        assertTrue(db.add(DataMap.ORDERS, orders));
+        assertEquals(2, db.getLoadedMonthCount());
+        assertEquals(12, db.get(DataMap.ORDERS, (o) -> true).size());
+        assertEquals(2, db.getLoadedMonthCount());
+
+        assertTrue(db.<Order>update(DataMap.ORDERS, (o) -> o.setState(OrderState.Cancelled), orders.get(0).getId()));
+        assertEquals(OrderState.Cancelled, db.<Order>get(DataMap.ORDERS, orders.get(0).getId()).getState());
+        assertEquals(2, db.getLoadedMonthCount());
+        assertThrows(IllegalArgumentException.class, () -> new PartitionedOrderDatabase(new JavaSerializedDatabase(savePath, true), savePath, new BinaryRecordCodec(), 0));
+    }
+
+    /**
+     * Tests that the summary is only rewritten by the writes which change it.
+     */
+    @Test
+    void testSummaryIsOnlyWrittenOnChange() {
+        SampleRecords samples = new SampleRecords();
+        String savePath = directory + "/";
+        Order order = samples.order(UUID.randomUUID(), UUID.randomUUID());
+        PartitionedOrderDatabase db = new PartitionedOrderDatabase(new JavaSerializedDatabase(savePath, true), savePath);
+        assertTrue(db.add(DataMap.ORDERS, order));
+
+        File summary = new File(savePath + PartitionedOrderDatabase.SUMMARY_FILENAME);
+        assertTrue(summary.delete());
+        assertFalse(db.<Order>update(DataMap.ORDERS, (o) -> o.setState(OrderState.Cancelled), (Order o) -> false));
+        assertFalse(db.remove(DataMap.ORDERS, (Order o) -> false));
+        assertTrue(db.<Order>update(DataMap.ORDERS, (o) -> o.setShipment(new Shipment("TRACK1", LocalDate.now(), "Postes Canada")), order.getId()));
+        assertFalse(summary.exists());
+
+        assertTrue(db.<Order>update(DataMap.ORDERS, (o) -> o.setState(OrderState.Cancelled), order.getId()));
+        assertTrue(summary.exists());
+    }
+
+    /**
+     * Tests that the orders of the delegate are moved to the months on the first start, so that the delegate does not
+     * keep a stale copy of them.
+     */
+    @Test
+    void testDelegateOrdersAreMovedToMonths() {
+        SampleRecords samples = new SampleRecords();
+        String savePath = directory + "/";
+        Order order = samples.order(UUID.randomUUID(), UUID.randomUUID(), LocalDate.of(2022, 5, 4));
+        JavaSerializedDatabase delegate = new JavaSerializedDatabase(savePath, true);
+        delegate.add(DataMap.ORDERS, order);
+
+        PartitionedOrderDatabase db = new PartitionedOrderDatabase(delegate, savePath);
+        assertTrue(delegate.get(DataMap.ORDERS, (o) -> true).isEmpty());
+        assertTrue(new JavaSerializedDatabase(savePath, true).get(DataMap.ORDERS, (o) -> true).isEmpty());
+        assertEquals(order.getId(), db.<Order>get(DataMap.ORDERS, order.getId()).getId());
+    }
+
+    /**
+     * Tests that the months are written and read again with the codec of the engine, and that a month written as a
+     * serialized list is read and then replaced by a file written with the codec.
+     */
+    @Test
+    void testMonthsAreWrittenWithCodec() {
+        SampleRecords samples = new SampleRecords();
+        String savePath = directory + "/";
+        Order order = samples.order(UUID.randomUUID(), UUID.randomUUID(), LocalDate.of(2022, 5, 4));
+        Order legacy = samples.order(UUID.randomUUID(), UUID.randomUUID(), LocalDate.of(2022, 6, 4));
+        new JavaSerializedDatabase(savePath, false).save(new ArrayList<>(List.of(legacy)), "orders-2022-06.txt", Compression.FAST);
+
+        PartitionedOrderDatabase db = new PartitionedOrderDatabase(new JavaSerializedDatabase(savePath, true), savePath, new JavaSerializationCodec(), 2);
+        assertTrue(db.add(DataMap.ORDERS, order));
+        assertTrue(new File(savePath + "orders-2022-05.records").exists());
+        assertEquals(legacy.getId(), db.<Order>get(DataMap.ORDERS, legacy.getId()).getId());
+
+        assertTrue(db.<Order>update(DataMap.ORDERS, (o) -> o.setState(OrderState.Cancelled), legacy.getId()));
+        assertTrue(new File(savePath + "orders-2022-06.records").exists());
+        assertFalse(new File(savePath + "orders-2022-06.txt").exists());
+
+        db = new PartitionedOrderDatabase(new JavaSerializedDatabase(savePath, true), savePath, new JavaSerializationCodec(), 2);
+        assertEquals(2, db.get(DataMap.ORDERS, (o) -> true).size());
+        assertEquals(OrderState.Cancelled, db.<Order>get(DataMap.ORDERS, legacy.getId()).getState());
+    }
+
+    /**
+     * Replaces the ID of an object.
+     *
+     * @param object The object.
+     * @param id     The new ID.
+     */
+    private static void setId(DatabaseObject object, UUID id) {
+        try {
+            Field field = DatabaseObject.class.getDeclaredField("id");
+            field.setAccessible(true);
+            field.set(object, id);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
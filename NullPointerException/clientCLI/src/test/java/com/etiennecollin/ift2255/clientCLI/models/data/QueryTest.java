@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The QueryTest class contains unit tests for the Query class, focusing on the matches of a query and on the plan
+ * chosen for it.
+ */
+class QueryTest {
+    /**
+     * The temporary directory in which the database is stored.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that a query returns the same page of matches as the equivalent filter, sorted and paged.
+     */
+    @Test
+    void testQueryMatchesEquivalentFilter() {
+        SampleRecords samples = new SampleRecords();
+        List<Order> orders = samples.orders(80, 6, 3);
+        for (int i = 0; i < orders.size(); i += 3) {
+            orders.get(i).setState(OrderState.Cancelled);
+        }
+        Set<UUID> buyerIds = Set.of(orders.get(0).getBuyerId(), orders.get(1).getBuyerId());
+        UUID sellerId = orders.get(2).getSellerId();
+
+        try (JavaSerializedDatabase db = new JavaSerializedDatabase(directory + "/", true)) {
+            db.add(DataMap.ORDERS, orders);
+            Query<Order> query = Query.<Order>where(DataMap.ORDERS, Query.in("buyerId", buyerIds), Query.not(Query.equal("state", OrderState.Cancelled)), Query.or(Query.equal("sellerId", sellerId), Query.equal("state", OrderState.InProduction))).orderBy("id", false).page(2, 5);
+
+            List<Order> expected = orders.stream().filter((o) -> buyerIds.contains(o.getBuyerId()) && o.getState() != OrderState.Cancelled && (o.getSellerId().equals(sellerId) || o.getState() == OrderState.InProduction)).sorted(Comparator.comparing(Order::getId).reversed()).skip(2).limit(5).toList();
+            assertEquals(expected, db.get(query));
+            assertEquals(expected, new JavaSerializedDatabase(directory + "/", false).get(query));
+            assertThrows(IllegalArgumentException.class, () -> query.page(-1, 5));
+            assertThrows(IllegalArgumentException.class, () -> db.get(Query.where(DataMap.ORDERS, Query.equal("nope", 1))));
+        }
+    }
+
+    /**
+     * Tests that the planner looks up the index expected to hold the fewest candidates, never an index which is not
+     * maintained, and that the filter reads as few fields as the query allows.
+     */
+    @Test
+    void testPlannerPicksMostSelectiveIndex() {
+        UUID buyerId = UUID.randomUUID();
+        UUID sellerId = UUID.randomUUID();
+        Query<Order> query = Query.where(DataMap.ORDERS, Query.equal("buyerId", buyerId), Query.in("sellerId", List.of(sellerId)), Query.equal("state", OrderState.InProduction));
+
+        assertEquals(SecondaryIndex.ORDER_BUYER, query.plan((index, key) -> key.equals(buyerId) ? 3 : 40).index());
+        assertEquals(new Query.Plan(SecondaryIndex.ORDER_SELLER, List.of(sellerId)), query.plan((index, key) -> key.equals(buyerId) ? 40 : 3));
+        assertNull(Query.where(DataMap.ORDERS, Query.equal("state", OrderState.InProduction)).plan((index, key) -> 1).index());
+        assertNull(query.plan((index, key) -> Query.UNINDEXED).index());
+        assertEquals(SecondaryIndex.ORDER_SELLER, query.plan((index, key) -> key.equals(buyerId) ? Query.UNINDEXED : 3).index());
+
+        OrderPredicate ordersFilter = (OrderPredicate) (Object) query.toPredicate();
+        assertEquals(EnumSet.of(OrderState.InProduction), ordersFilter.states());
+        assertInstanceOf(KeyPredicate.class, Query.where(DataMap.REVIEWS, Query.equal("productId", UUID.randomUUID())).toPredicate());
+        assertFalse(Query.where(DataMap.REVIEWS, Query.atLeast("rating", 3)).toPredicate() instanceof KeyPredicate);
+    }
+
+    /**
+     * Tests that the counts and the existence checks agree with the lists of matches, with and without the groups of
+     * the secondary indexes.
+     */
+    @Test
+    void testCountAndExistsAgreeWithMatches() {
+        SampleRecords samples = new SampleRecords();
+        List<Order> orders = samples.orders(60, 4, 3);
+        UUID sellerId = orders.get(0).getSellerId();
+        Query<Order> query = Query.where(DataMap.ORDERS, Query.equal("sellerId", sellerId));
+        Query<Order> missing = Query.where(DataMap.ORDERS, Query.equal("sellerId", UUID.randomUUID()));
+
+        try (JavaSerializedDatabase db = new JavaSerializedDatabase(directory + "/", true)) {
+            db.add(DataMap.ORDERS, orders);
+            JavaSerializedDatabase uncached = new JavaSerializedDatabase(directory + "/", false);
+            for (Database database : List.of(db, uncached)) {
+                long expected = database.get(query).size();
+                assertEquals(expected, database.count(query));
+                assertEquals(Math.min(5, expected - 1), database.count(query.page(1, 5)));
+                assertEquals(expected, database.count(DataMap.ORDERS, (Order o) -> o.getSellerId().equals(sellerId)));
+                assertTrue(database.exists(query));
+                assertFalse(database.exists(missing));
+                assertFalse(database.exists(DataMap.ORDERS, (Order o) -> o.getSellerId().equals(missing.conditions().get(0).keys().get(0))));
+            }
+        }
+
+        long[] observed = {0};
+        OrderPredicate bounded = (OrderPredicate) Query.observing(OrderPredicate.inStates(EnumSet.of(OrderState.InProduction), (o) -> true), () -> false, (o) -> observed[0]++);
+        assertEquals(EnumSet.of(OrderState.InProduction), bounded.states());
+        assertFalse(bounded.test(orders.get(0)));
+        assertEquals(orders.get(0).getState() == OrderState.InProduction ? 1 : 0, observed[0]);
+    }
+
+    /**
+     * Tests that streaming a query reads the same matches as the whole page, in a stable order and with at most two runs
+     * of the query, and that a page following an object neither skips nor repeats a match.
+     */
+    @Test
+    void testStreamReadsPagesInStableOrder() {
+        SampleRecords samples = new SampleRecords();
+        List<Order> orders = samples.orders(50, 4, 3);
+        UUID sellerId = orders.get(0).getSellerId();
+        Query<Order> query = Query.<Order>where(DataMap.ORDERS, Query.equal("sellerId", sellerId)).orderBy("state", true);
+
+        try (JavaSerializedDatabase db = new JavaSerializedDatabase(directory + "/", true)) {
+            db.add(DataMap.ORDERS, orders);
+            JavaSerializedDatabase uncached = new JavaSerializedDatabase(directory + "/", false);
+            for (Database database : List.of(db, uncached)) {
+                List<Order> expected = database.get(query);
+                assertEquals(expected, database.stream(query, 4).toList());
+                assertEquals(expected.subList(3, 10), database.stream(query.page(3, 7), 2).toList());
+                assertEquals(expected.subList(6, expected.size()), database.get(query.after(expected.get(5))));
+                assertThrows(IllegalArgumentException.class, () -> database.stream(query, 0));
+            }
+
+            int[] runs = {0};
+            Database counting = new JavaSerializedDatabase(directory + "/", true) {
+                @Override
+                public <T extends DatabaseObject> List<T> get(Query<T> query) {
+                    runs[0]++;
+                    return super.get(query);
+                }
+            };
+            assertEquals(db.get(query), counting.stream(query, 2).toList());
+            assertEquals(2, runs[0]);
+        }
+    }
+
+    /**
+     * Tests that the values standing for an unknown value come after every other value, in either order and across the
+     * pages of a stream.
+     */
+    @Test
+    void testUnknownValuesSortLast() {
+        UUID userId = UUID.randomUUID();
+        ArrayList<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            notifications.add(new Notification(new DecodedFields(Map.of("id", UUID.randomUUID(), "uuid", UUID.randomUUID(), "userId", userId, "title", "Legacy", "content", "", "creationTime", i % 2 == 0 ? 0L : 1000L * i))));
+        }
+
+        try (JavaSerializedDatabase db = new JavaSerializedDatabase(directory + "/", true)) {
+            db.add(DataMap.NOTIFICATIONS, notifications);
+            for (boolean ascending : List.of(true, false)) {
+                Query<Notification> query = Query.<Notification>where(DataMap.NOTIFICATIONS, Query.equal("userId", userId)).orderBy("creationTime", ascending, 0L);
+                List<Long> times = db.stream(query, 2).map(Notification::getCreationTime).toList();
+                assertEquals(ascending ? List.of(1000L, 3000L, 5000L, 0L, 0L, 0L) : List.of(5000L, 3000L, 1000L, 0L, 0L, 0L), times);
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The RecordCodecBenchmark class compares the encode and decode throughput and the size of the encoded data of the
+ * binary codec against the ObjectOutputStream path used by {@link JavaSerializedDatabase}.
+ * <p>
+ * It is run manually with the number of orders as optional argument, for example with
+ * {@code java -cp target/classes:target/test-classes com.etiennecollin.ift2255.clientCLI.models.data.RecordCodecBenchmark 100000}.
+ */
+public class RecordCodecBenchmark {
+    /**
+     * The number of times each measurement is repeated, the first ones warming up the JIT compiler.
+     */
+    private static final int ROUNDS = 5;
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param args The number of orders to encode.
+     *
+     * @throws IOException            If the data could not be encoded.
+     * @throws ClassNotFoundException If the serialized data could not be decoded.
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+        List<Order> orders = new SampleRecords().orders(count, count / 10 + 1, 100);
+        BinaryRecordCodec codec = new BinaryRecordCodec();
+
+        System.out.println("Encoding " + count + " orders, best of " + ROUNDS + " rounds");
+        System.out.printf("%-20s %12s %12s %14s%n", "Format", "Encode (ms)", "Decode (ms)", "Size (bytes)");
+
+        long encodeTime = Long.MAX_VALUE;
+        long decodeTime = Long.MAX_VALUE;
+        byte[] bytes = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (ObjectOutputStream output = new ObjectOutputStream(buffer)) {
+                output.writeObject(new ArrayList<>(orders));
+            }
+            bytes = buffer.toByteArray();
+            encodeTime = Math.min(encodeTime, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                input.readObject();
+            }
+            decodeTime = Math.min(decodeTime, System.nanoTime() - start);
+        }
+        print("ObjectOutputStream", encodeTime, decodeTime, bytes.length);
+
+        encodeTime = Long.MAX_VALUE;
+        decodeTime = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (DataOutputStream output = new DataOutputStream(buffer)) {
+                for (Order order : orders) {
+                    codec.encode(order, output);
+                }
+            }
+            bytes = buffer.toByteArray();
+            encodeTime = Math.min(encodeTime, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes))) {
+                for (int i = 0; i < count; i++) {
+                    codec.decode(input);
+                }
+            }
+            decodeTime = Math.min(decodeTime, System.nanoTime() - start);
+        }
+        print("BinaryRecordCodec", encodeTime, decodeTime, bytes.length);
+
+        Order single = orders.get(0);
+        System.out.println("Single order record: " + new JavaSerializationCodec().encode(single).length + " bytes serialized, " + codec.encode(single).length + " bytes binary");
+    }
+
+    /**
+     * Prints a line of results.
+     *
+     * @param format     The name of the format.
+     * @param encodeTime The time to encode all the orders in nanoseconds.
+     * @param decodeTime The time to decode all the orders in nanoseconds.
+     * @param size       The size of the encoded orders in bytes.
+     */
+    private static void print(String format, long encodeTime, long decodeTime, int size) {
+        System.out.printf("%-20s %12d %12d %14d%n", format, encodeTime / 1_000_000, decodeTime / 1_000_000, size);
+    }
+}
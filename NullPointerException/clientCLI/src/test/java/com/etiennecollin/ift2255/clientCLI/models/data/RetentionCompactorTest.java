@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The RetentionCompactorTest class contains unit tests for the RetentionCompactor class, focusing on the notifications
+ * removed by the maximum age and the maximum count per user of a policy.
+ */
+class RetentionCompactorTest {
+    /**
+     * The temporary directory in which the database is stored.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that the old notifications and the oldest notifications beyond the count of a user are removed and
+     * reported.
+     */
+    @Test
+    void testAgeAndCountAreEnforced() {
+        SampleRecords samples = new SampleRecords();
+        UUID busyUser = UUID.randomUUID();
+        UUID quietUser = UUID.randomUUID();
+        long now = System.currentTimeMillis();
+        ArrayList<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            notifications.add(samples.notification(busyUser, now - Duration.ofDays(10).toMillis() - i));
+            notifications.add(samples.notification(busyUser, now - i * 1000L));
+        }
+        for (int i = 0; i < 3; i++) {
+            notifications.add(samples.notification(quietUser, now - i * 1000L));
+        }
+
+        JavaSerializedDatabase db = new JavaSerializedDatabase(directory + "/", true);
+        db.add(DataMap.NOTIFICATIONS, notifications);
+        RetentionCompactor compactor = new RetentionCompactor(db, Map.of(DataMap.NOTIFICATIONS, new RetentionPolicy(Duration.ofDays(7), 4)), 0);
+        List<CompactionReport> reports = compactor.compact();
+        assertEquals(1, reports.size());
+        assertEquals(6, reports.get(0).removedCount());
+        assertTrue(reports.get(0).reclaimedBytes() > 0);
+        assertEquals(reports, compactor.getLastReports());
+
+        List<Notification> busy = db.get(DataMap.NOTIFICATIONS, (Notification n) -> n.getUserId().equals(busyUser));
+        assertEquals(4, busy.size());
+        assertTrue(busy.stream().allMatch((n) -> n.getCreationTime() > now - 4000));
+        assertEquals(3, db.get(DataMap.NOTIFICATIONS, (Notification n) -> n.getUserId().equals(quietUser)).size());
+        assertEquals(0, compactor.compact().get(0).removedCount());
+    }
+
+    /**
+     * Tests that the notifications saved before their creation time was recorded are still read and saved again, and
+     * that they are only removed by the maximum count of their user.
+     *
+     * @throws IOException If the saved notifications could not be copied.
+     */
+    @Test
+    void testNotificationsWithoutCreationTimeAreKept() throws IOException {
+        try (InputStream saved = getClass().getResourceAsStream("notifications-baseline.txt")) {
+            assertNotNull(saved);
+            Files.copy(saved, directory.resolve(DataMap.NOTIFICATIONS.getFilename()));
+        }
+
+        JavaSerializedDatabase db = new JavaSerializedDatabase(directory + "/", true);
+        List<Notification> legacy = db.get(DataMap.NOTIFICATIONS, (Notification n) -> true);
+        assertEquals(2, legacy.size());
+        assertEquals("Your order is now shipped", legacy.get(0).getTitle());
+        assertEquals(0, legacy.get(0).getCreationTime());
+        UUID userId = legacy.get(0).getUserId();
+
+        RetentionCompactor compactor = new RetentionCompactor(db, Map.of(DataMap.NOTIFICATIONS, new RetentionPolicy(Duration.ofDays(7), RetentionPolicy.UNLIMITED)), 0);
+        assertEquals(0, compactor.compact().get(0).removedCount());
+
+        assertTrue(db.add(DataMap.NOTIFICATIONS, new SampleRecords().notification(userId)));
+        db = new JavaSerializedDatabase(directory + "/", true);
+        assertEquals(3, db.get(DataMap.NOTIFICATIONS, (Notification n) -> n.getUserId().equals(userId)).size());
+
+        compactor = new RetentionCompactor(db, Map.of(DataMap.NOTIFICATIONS, new RetentionPolicy(Duration.ofDays(7), 1)), 0);
+        assertEquals(2, compactor.compact().get(0).removedCount());
+        List<Notification> kept = db.get(DataMap.NOTIFICATIONS, (Notification n) -> true);
+        assertEquals(1, kept.size());
+        assertNotEquals(0, kept.get(0).getCreationTime());
+    }
+
+    /**
+     * Tests that a policy is refused for a DataMap of which the objects have no creation time.
+     */
+    @Test
+    void testUnsupportedDataMapIsRefused() {
+        JavaSerializedDatabase db = new JavaSerializedDatabase(directory + "/", true);
+        RetentionCompactor compactor = new RetentionCompactor(db, Map.of(), 0);
+        assertThrows(IllegalArgumentException.class, () -> compactor.setPolicy(DataMap.ORDERS, new RetentionPolicy(Duration.ofDays(1), 0)));
+        assertThrows(IllegalArgumentException.class, () -> new RetentionPolicy(null, -1));
+        assertTrue(compactor.compact().isEmpty());
+    }
+
+    /**
+     * Tests that the background compactor first runs after a whole delay instead of right away.
+     *
+     * @throws InterruptedException If the test is interrupted while waiting for the compactor.
+     */
+    @Test
+    void testBackgroundCompactorWaitsForDelay() throws InterruptedException {
+        UUID userId = UUID.randomUUID();
+        JavaSerializedDatabase db = new JavaSerializedDatabase(directory + "/", true);
+        db.add(DataMap.NOTIFICATIONS, new SampleRecords().notification(userId, System.currentTimeMillis() - Duration.ofDays(10).toMillis()));
+
+        try (RetentionCompactor compactor = new RetentionCompactor(db, Map.of(DataMap.NOTIFICATIONS, new RetentionPolicy(Duration.ofDays(7), RetentionPolicy.UNLIMITED)), 500)) {
+            Thread.sleep(100);
+            assertTrue(compactor.getLastReports().isEmpty());
+            assertEquals(1, db.count(DataMap.NOTIFICATIONS, (Notification n) -> true));
+
+            for (int i = 0; i < 50 && compactor.getLastReports().isEmpty(); i++) {
+                Thread.sleep(100);
+            }
+            assertEquals(1, compactor.getLastReports().get(0).removedCount());
+            assertEquals(0, db.count(DataMap.NOTIFICATIONS, (Notification n) -> true));
+        }
+    }
+}
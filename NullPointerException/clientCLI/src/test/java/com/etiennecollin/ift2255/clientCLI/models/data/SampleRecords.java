@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import com.etiennecollin.ift2255.clientCLI.Tuple;
+import com.etiennecollin.ift2255.clientCLI.models.data.products.*;
+
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * The SampleRecords class generates realistic records of every DataMap for the storage tests and benchmarks.
+ */
+public class SampleRecords {
+    /**
+     * The seeded random generator used so that every run generates the same records.
+     */
+    private final Random random = new Random(2255);
+
+    /**
+     * Generates a product of a random category.
+     *
+     * @param sellerId The ID of the seller of the product.
+     *
+     * @return The product.
+     */
+    public Product product(UUID sellerId) {
+        int price = 100 + random.nextInt(100000);
+        int quantity = random.nextInt(500);
+        String title = "Product " + random.nextInt(1000000);
+        String description = "Product description number " + random.nextInt(1000000) + ", long enough to look like the ones written by sellers.";
+        LocalDate releaseDate = LocalDate.of(2000 + random.nextInt(24), 1 + random.nextInt(12), 1 + random.nextInt(28));
+
+        return switch (random.nextInt(5)) {
+            case 0 -> new BookOrManual(price, quantity, title, description, sellerId, 10, "1234567890", "Bob Authorson", "University Press", BookOrManualGenre.Textbook, releaseDate, 1, 0);
+            case 1 -> new IT(price, quantity, title, description, sellerId, 10, "The Lapbook Company", "Lapbook Pro", releaseDate, ITCategory.Computer);
+            case 2 -> new LearningResource(price, quantity, title, description, sellerId, 10, "1234567890", "University", releaseDate, LearningResourceType.Electronic, 1);
+            case 3 -> new OfficeEquipment(price, quantity, title, description, sellerId, 10, "Idea", "SC1", OfficeEquipmentCategory.Chair);
+            default -> new StationeryArticle(price, quantity, title, description, sellerId, 10, "Idea", "Pen", StationeryArticleCategory.Pencil);
+        };
+    }
+
+    /**
+     * Generates a buyer.
+     *
+     * @return The buyer.
+     */
+    public Buyer buyer() {
+        int n = random.nextInt(1000000);
+        return new Buyer("buyer" + n, ("password" + n).hashCode(), "First" + n, "Last" + n, "buyer" + n + "@fakemail.com", "514-555-1111", n + " Rue des acheteurs, Montréal, CA", random.nextInt(1000));
+    }
+
+    /**
+     * Generates an order of a few products that is already shipped.
+     *
+     * @param buyerId  The ID of the buyer who placed the order.
+     * @param sellerId The ID of the seller of the products.
+     *
+     * @return The order.
+     */
+    public Order order(UUID buyerId, UUID sellerId) {
+        ArrayList<Tuple<Product, Integer>> products = new ArrayList<>();
+        for (int i = 0; i <= random.nextInt(3); i++) {
+            products.add(new Tuple<>(product(sellerId), 1 + random.nextInt(3)));
+        }
+
+        String address = random.nextInt(10000) + " Rue des acheteurs, Montréal, CA";
+        Order order = new Order(products, 1000 + random.nextInt(100000), random.nextInt(100), new PaymentMethod(1000, 0, 0), "buyer" + random.nextInt(1000000) + "@fakemail.com", "514-555-1111", address, address, "Buyer Name", "1234123412341234", YearMonth.of(2026, 5), "123", buyerId, sellerId);
+        order.setShipment(new Shipment("TRACK" + random.nextInt(1000000), LocalDate.now().plusDays(3), "Postes Canada"));
+        order.setState(OrderState.InTransit);
+        return order;
+    }
+
+    /**
+     * Generates an order of a few products that is already shipped, placed on a given date.
+     *
+     * @param buyerId   The ID of the buyer who placed the order.
+     * @param sellerId  The ID of the seller of the products.
+     * @param orderDate The date on which the order was placed.
+     *
+     * @return The order.
+     */
+    public Order order(UUID buyerId, UUID sellerId, LocalDate orderDate) {
+        Order order = order(buyerId, sellerId);
+        try {
+            Field field = Order.class.getDeclaredField("orderDate");
+            field.setAccessible(true);
+            field.set(order, orderDate);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+        return order;
+    }
+
+    /**
+     * Generates a notification.
+     *
+     * @param userId The ID of the user who receives the notification.
+     *
+     * @return The notification.
+     */
+    public Notification notification(UUID userId) {
+        return new Notification(userId, "Your order is now shipped", "Order: " + UUID.randomUUID() + "\nShipped by: Postes Canada\nTracking number: TRACK" + random.nextInt(1000000));
+    }
+
+    /**
+     * Generates a notification created at a given time.
+     *
+     * @param userId       The ID of the user to whom the notification belongs.
+     * @param creationTime The time at which the notification was created, in milliseconds since the epoch.
+     *
+     * @return The notification.
+     */
+    public Notification notification(UUID userId, long creationTime) {
+        Notification notification = notification(userId);
+        try {
+            Field field = Notification.class.getDeclaredField("creationTime");
+            field.setAccessible(true);
+            field.set(notification, creationTime);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+        return notification;
+    }
+
+    /**
+     * Generates a like.
+     *
+     * @param likedEntityId The ID of the liked entity.
+     *
+     * @return The like.
+     */
+    public Like like(UUID likedEntityId) {
+        return new Like(likedEntityId, UUID.randomUUID(), LikeType.Product);
+    }
+
+    /**
+     * Generates orders spread over a number of buyers and sellers.
+     *
+     * @param count   The number of orders.
+     * @param buyers  The number of distinct buyers.
+     * @param sellers The number of distinct sellers.
+     *
+     * @return The orders.
+     */
+    public List<Order> orders(int count, int buyers, int sellers) {
+        List<UUID> buyerIds = ids(buyers);
+        List<UUID> sellerIds = ids(sellers);
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orders.add(order(buyerIds.get(random.nextInt(buyers)), sellerIds.get(random.nextInt(sellers))));
+        }
+        return orders;
+    }
+
+    /**
+     * Generates products spread over a number of sellers.
+     *
+     * @param count   The number of products.
+     * @param sellers The number of distinct sellers.
+     *
+     * @return The products.
+     */
+    public List<Product> products(int count, int sellers) {
+        List<UUID> sellerIds = ids(sellers);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(product(sellerIds.get(random.nextInt(sellers))));
+        }
+        return products;
+    }
+
+    /**
+     * Generates random identifiers.
+     *
+     * @param count The number of identifiers.
+     *
+     * @return The identifiers.
+     */
+    public List<UUID> ids(int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        return ids;
+    }
+}
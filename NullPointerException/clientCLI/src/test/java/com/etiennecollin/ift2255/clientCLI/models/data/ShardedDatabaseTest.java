@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import com.etiennecollin.ift2255.clientCLI.MockDatabase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The ShardedDatabaseTest class contains unit tests for the ShardedDatabase class, focusing on the routing of the
+ * objects to the shard of their owner and on resharding.
+ */
+class ShardedDatabaseTest {
+    /**
+     * The temporary directory in which the shards are stored.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Creates a ShardedDatabase over uncached shards in the temporary directory.
+     *
+     * @param shardCount The number of shards.
+     *
+     * @return The database.
+     */
+    private ShardedDatabase open(int shardCount) {
+        return new ShardedDatabase(new MockDatabase(), directory + "/", shardCount, (path) -> new JavaSerializedDatabase(path, false));
+    }
+
+    /**
+     * Tests that each order is stored in a single shard and that the queries of an owner only read its shard.
+     */
+    @Test
+    void testObjectsAreRoutedByOwner() {
+        List<Order> orders = new SampleRecords().orders(400, 40, 5);
+        UUID buyerId = orders.get(0).getBuyerId();
+
+        try (ShardedDatabase db = open(4)) {
+            db.add(DataMap.ORDERS, orders);
+
+            int total = 0;
+            for (int i = 0; i < 4; i++) {
+                List<Order> shard = new JavaSerializedDatabase(directory + "/shard-" + i + "/", false).get(DataMap.ORDERS, (o) -> true);
+                assertTrue(shard.size() < orders.size());
+                total += shard.size();
+            }
+            assertEquals(orders.size(), total);
+
+            List<Order> owned = db.getOwned(DataMap.ORDERS, buyerId, (Order o) -> o.getBuyerId().equals(buyerId));
+            assertEquals(db.get(DataMap.ORDERS, (Order o) -> o.getBuyerId().equals(buyerId)).size(), owned.size());
+            assertFalse(owned.isEmpty());
+
+            Order target = orders.get(123);
+            assertTrue(db.<Order>update(DataMap.ORDERS, (o) -> o.setState(OrderState.Delivered), target.getId()));
+            assertEquals(OrderState.Delivered, db.<Order>get(DataMap.ORDERS, target.getId()).getState());
+            assertTrue(db.remove(DataMap.ORDERS, target.getId()));
+            assertNull(db.get(DataMap.ORDERS, target.getId()));
+            assertEquals(orders.size() - 1, db.get(DataMap.ORDERS, (o) -> true).size());
+        }
+    }
+
+    /**
+     * Tests that resharding keeps every object and that a database cannot be opened with another number of shards.
+     */
+    @Test
+    void testReshard() {
+        String savePath = directory + "/";
+        List<Order> orders = new SampleRecords().orders(200, 20, 5);
+        new JavaSerializedDatabase(savePath, false).add(DataMap.ORDERS, orders);
+
+        assertThrows(IllegalStateException.class, () -> open(4));
+        ShardedDatabase.reshard(savePath, 4);
+        assertEquals(4, ShardedDatabase.getShardCount(savePath));
+        try (ShardedDatabase db = open(4)) {
+            assertEquals(orders.size(), db.get(DataMap.ORDERS, (o) -> true).size());
+        }
+
+        assertThrows(IllegalStateException.class, () -> open(2));
+        ShardedDatabase.reshard(savePath, 2);
+        try (ShardedDatabase db = open(2)) {
+            Order target = orders.get(42);
+            assertEquals(target.getAddress(), db.<Order>get(DataMap.ORDERS, target.getId()).getAddress());
+            assertEquals(orders.size(), db.get(DataMap.ORDERS, (o) -> true).size());
+        }
+
+        ShardedDatabase.reshard(savePath, 1);
+        assertEquals(1, ShardedDatabase.getShardCount(savePath));
+        assertEquals(orders.size(), new JavaSerializedDatabase(savePath, false).get(DataMap.ORDERS, (o) -> true).size());
+    }
+
+    /**
+     * Tests that a reshard interrupted before its commit leaves the previous layout untouched, and that one interrupted
+     * while replacing the previous files is completed without losing any object.
+     */
+    @Test
+    void testInterruptedReshardIsRecovered() throws IOException {
+        String savePath = directory + "/";
+        List<Order> orders = new SampleRecords().orders(200, 20, 5);
+        new JavaSerializedDatabase(savePath, false).add(DataMap.ORDERS, orders);
+        ShardedDatabase.reshard(savePath, 2);
+
+        ShardedDatabase.stageReshard(savePath, 4);
+        Files.delete(directory.resolve(ShardedDatabase.STAGING_DIRECTORY).resolve(ShardedDatabase.COMMIT_FILENAME));
+        ShardedDatabase.recoverReshard(savePath);
+        assertFalse(Files.exists(directory.resolve(ShardedDatabase.STAGING_DIRECTORY)));
+        assertEquals(2, ShardedDatabase.getShardCount(savePath));
+        try (ShardedDatabase db = open(2)) {
+            assertEquals(orders.size(), db.get(DataMap.ORDERS, (o) -> true).size());
+        }
+
+        // Only the first new shard was moved in place before the interruption
+        ShardedDatabase.stageReshard(savePath, 4);
+        Path staged = directory.resolve(ShardedDatabase.STAGING_DIRECTORY).resolve("shard-0").resolve(DataMap.ORDERS.getFilename());
+        Files.move(staged, directory.resolve("shard-0").resolve(DataMap.ORDERS.getFilename()), StandardCopyOption.REPLACE_EXISTING);
+        assertEquals(2, ShardedDatabase.getShardCount(savePath));
+        ShardedDatabase.recoverReshard(savePath);
+        assertEquals(4, ShardedDatabase.getShardCount(savePath));
+        try (ShardedDatabase db = open(4)) {
+            assertEquals(orders.size(), db.get(DataMap.ORDERS, (o) -> true).size());
+        }
+
+        // Opening the database completes the committed reshard first
+        ShardedDatabase.stageReshard(savePath, 1);
+        assertThrows(IllegalStateException.class, () -> open(4));
+        assertEquals(1, ShardedDatabase.getShardCount(savePath));
+        assertEquals(orders.size(), new JavaSerializedDatabase(savePath, false).get(DataMap.ORDERS, (o) -> true).size());
+    }
+}
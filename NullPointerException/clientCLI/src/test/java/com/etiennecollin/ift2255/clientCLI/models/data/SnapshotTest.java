@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The SnapshotTest class contains unit tests for the Snapshot class, focusing on the writes made after the files were
+ * pinned, which must not reach the copy.
+ */
+class SnapshotTest {
+    /**
+     * The temporary directory in which the database and its copy are stored.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that the serialized files are copied as they were pinned although they are replaced before the copy.
+     */
+    @Test
+    void testSerializedFilesArePinned() throws IOException {
+        CartProduct pinned = new CartProduct(UUID.randomUUID(), UUID.randomUUID(), 1);
+        CartProduct later = new CartProduct(UUID.randomUUID(), UUID.randomUUID(), 2);
+        Path data = Files.createDirectories(directory.resolve("data"));
+        Path backup = directory.resolve("backup");
+
+        try (JavaSerializedDatabase db = new JavaSerializedDatabase(data + "/", true); Snapshot snapshot = new Snapshot(data + "/", backup)) {
+            db.add(DataMap.CARTS, List.of(pinned));
+            db.snapshot(snapshot);
+            db.add(DataMap.CARTS, List.of(later));
+            db.<CartProduct>update(DataMap.CARTS, (c) -> c.setQuantity(5), pinned.getId());
+            assertTrue(snapshot.write() > 0);
+        }
+
+        try (JavaSerializedDatabase copy = new JavaSerializedDatabase(backup + "/", true)) {
+            assertEquals(1, copy.<CartProduct>get(DataMap.CARTS, pinned.getId()).getQuantity());
+            assertNull(copy.get(DataMap.CARTS, later.getId()));
+        }
+    }
+
+    /**
+     * Tests that the runs and the write-ahead log of a tree are copied as they were pinned although the tree is
+     * flushed and compacted before the copy.
+     */
+    @Test
+    void testLsmTreeIsPinned() throws IOException {
+        SampleRecords samples = new SampleRecords();
+        ArrayList<Order> orders = new ArrayList<>(samples.orders(200, 20, 5));
+        Order later = samples.order(UUID.randomUUID(), UUID.randomUUID());
+        Path data = Files.createDirectories(directory.resolve("data"));
+        Path backup = directory.resolve("backup");
+
+        try (LsmDatabase db = new LsmDatabase(data + "/", 4096); Snapshot snapshot = new Snapshot(data + "/", backup)) {
+            db.add(DataMap.ORDERS, orders);
+            assertTrue(db.getRunCount(DataMap.ORDERS) > 0);
+            db.snapshot(snapshot);
+            db.add(DataMap.ORDERS, List.of(later));
+            db.remove(DataMap.ORDERS, orders.get(0).getId());
+            db.compact(DataMap.ORDERS);
+            snapshot.write();
+        }
+
+        try (LsmDatabase copy = new LsmDatabase(backup + "/", 4096)) {
+            assertEquals(orders.size(), copy.get(DataMap.ORDERS, (o) -> true).size());
+            assertNotNull(copy.get(DataMap.ORDERS, orders.get(0).getId()));
+            assertNull(copy.get(DataMap.ORDERS, later.getId()));
+        }
+    }
+}
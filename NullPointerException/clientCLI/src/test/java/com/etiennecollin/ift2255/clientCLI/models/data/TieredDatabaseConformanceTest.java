@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import java.time.Period;
+
+/**
+ * The TieredDatabaseConformanceTest class runs the {@link DatabaseConformanceTest} suite against a TieredDatabase
+ * over a JavaSerializedDatabase, without a background mover.
+ */
+class TieredDatabaseConformanceTest extends DatabaseConformanceTest {
+    /**
+     * Opens the database under test.
+     *
+     * @param savePath The path of the directory where the data is stored, ending with a separator.
+     *
+     * @return The database.
+     */
+    @Override
+    Database open(String savePath) {
+        return new TieredDatabase(new JavaSerializedDatabase(savePath, true), savePath, Period.ofDays(30), 0);
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2023. Etienne Collin #20237904, Nicholas Cooper #20241729, Aboubakre Walid Diongue #20198446, Charlotte Locas #20211755
+ */
+
+package com.etiennecollin.ift2255.clientCLI.models.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The TieredDatabaseTest class contains unit tests for the TieredDatabase class, focusing on the objects moved to the
+ * cold store and on the lookups falling back to it.
+ */
+class TieredDatabaseTest {
+    /**
+     * The temporary directory in which the hot database and the cold store are stored.
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that only the old orders in a final state are archived, that they are still found by ID and by the queries
+     * reading the archive, and that an archived order updated out of its final state is moved back to the hot database.
+     */
+    @Test
+    void testOldFinalOrdersAreArchived() {
+        SampleRecords samples = new SampleRecords();
+        String savePath = directory + "/";
+        Order oldDelivered = samples.order(UUID.randomUUID(), UUID.randomUUID(), LocalDate.now().minusMonths(6));
+        oldDelivered.setState(OrderState.Delivered);
+        Order oldInTransit = samples.order(UUID.randomUUID(), UUID.randomUUID(), LocalDate.now().minusMonths(6));
+        Order recentDelivered = samples.order(UUID.randomUUID(), UUID.randomUUID());
+        recentDelivered.setState(OrderState.Delivered);
+
+        JavaSerializedDatabase hot = new JavaSerializedDatabase(savePath, true);
+        TieredDatabase db = new TieredDatabase(hot, savePath, Period.ofDays(30), 0);
+        assertTrue(db.add(DataMap.ORDERS, List.of(oldDelivered, oldInTransit, recentDelivered)));
+        assertEquals(1, db.archive());
+        assertEquals(0, db.archive());
+
+        assertNull(hot.get(DataMap.ORDERS, oldDelivered.getId()));
+        assertEquals(1, db.getArchivedCount(DataMap.ORDERS));
+        assertEquals(oldDelivered.getAddress(), db.<Order>get(DataMap.ORDERS, oldDelivered.getId()).getAddress());
+        assertEquals(2, db.get(DataMap.ORDERS, (o) -> true).size());
+        assertEquals(1, db.getArchived(DataMap.ORDERS, (o) -> true).size());
+        assertEquals(1, db.getByIndex(SecondaryIndex.ORDER_SELLER, oldDelivered.getSellerId(), (o) -> true).size());
+        assertEquals(1, db.get(DataMap.ORDERS, OrderPredicate.inStates(EnumSet.of(OrderState.InTransit), (o) -> true)).size());
+
+        assertTrue(db.<Order>update(DataMap.ORDERS, (o) -> o.setState(OrderState.PendingTicket), oldDelivered.getId()));
+        assertEquals(0, db.getArchivedCount(DataMap.ORDERS));
+        assertEquals(OrderState.PendingTicket, hot.<Order>get(DataMap.ORDERS, oldDelivered.getId()).getState());
+    }
+
+    /**
+     * Tests that an archival over a partitioned hot database only loads the old months holding orders in a final state.
+     */
+    @Test
+    void testArchivalOnlyLoadsMonthsToArchive() {
+        SampleRecords samples = new SampleRecords();
+        String savePath = directory + "/";
+        ArrayList<Order> orders = new ArrayList<>();
+        for (int month = 0; month < 12; month++) {
+            orders.add(samples.order(UUID.randomUUID(), UUID.randomUUID(), LocalDate.now().minusMonths(month)));
+        }
+        Order oldDelivered = samples.order(UUID.randomUUID(), UUID.randomUUID(), LocalDate.now().minusMonths(6));
+        oldDelivered.setState(OrderState.Delivered);
+        orders.add(oldDelivered);
+        Order recentDelivered = samples.order(UUID.randomUUID(), UUID.randomUUID());
+        recentDelivered.setState(OrderState.Delivered);
+        orders.add(recentDelivered);
+
+        PartitionedOrderDatabase hot = new PartitionedOrderDatabase(new JavaSerializedDatabase(savePath, true), savePath);
+        assertTrue(hot.add(DataMap.ORDERS, orders));
+
+        hot = new PartitionedOrderDatabase(new JavaSerializedDatabase(savePath, true), savePath);
+        TieredDatabase db = new TieredDatabase(hot, savePath, Period.ofDays(30), 0);
+        assertEquals(1, db.archive());
+        assertEquals(1, hot.getLoadedMonthCount());
+        assertNull(hot.get(DataMap.ORDERS, oldDelivered.getId()));
+        assertNotNull(hot.get(DataMap.ORDERS, recentDelivered.getId()));
+    }
+
+    /**
+     * Tests that the queries by owner, by index or by ID of objects which were never archived do not read the cold
+     * store, while a query by the owner of archived objects does.
+     */
+    @Test
+    void testHotQueriesDoNotReadArchive() {
+        SampleRecords samples = new SampleRecords();
+        String savePath = directory + "/";
+        UUID archivedBuyerId = UUID.randomUUID();
+        UUID activeBuyerId = UUID.randomUUID();
+        Order archived = samples.order(archivedBuyerId, UUID.randomUUID(), LocalDate.now().minusMonths(6));
+        archived.setState(OrderState.Delivered);
+        Order active = samples.order(activeBuyerId, UUID.randomUUID());
+
+        JavaSerializedDatabase hot = new JavaSerializedDatabase(savePath, true);
+        TieredDatabase db = new TieredDatabase(hot, savePath, Period.ofDays(30), 0);
+        assertTrue(db.add(DataMap.ORDERS, List.of(archived, active)));
+        assertEquals(1, db.archive());
+
+        CountingDatabase cold = new CountingDatabase(savePath + TieredDatabase.ARCHIVE_DIRECTORY + "/");
+        db = new TieredDatabase(hot, cold, Period.ofDays(30), 0);
+        assertEquals(1, db.getOwned(DataMap.ORDERS, activeBuyerId, (o) -> true).size());
+        assertEquals(1, db.get(Query.<Order>where(DataMap.ORDERS, Query.equal("buyerId", activeBuyerId))).size());
+        assertTrue(db.exists(DataMap.ORDERS, (Order o) -> o.getBuyerId().equals(activeBuyerId)));
+        assertNotNull(db.get(DataMap.ORDERS, active.getId()));
+        assertEquals(0, cold.loadCount);
+
+        assertEquals(1, db.getOwned(DataMap.ORDERS, archivedBuyerId, (o) -> true).size());
+        assertEquals(1, cold.loadCount);
+    }
+
+    /**
+     * Tests that the reads, updates and removals with a filter only reach the hot database, so that they never read the
+     * cold store.
+     */
+    @Test
+    void testFilterQueriesDoNotReadArchive() {
+        SampleRecords samples = new SampleRecords();
+        String savePath = directory + "/";
+        Order archived = samples.order(UUID.randomUUID(), UUID.randomUUID(), LocalDate.now().minusMonths(6));
+        archived.setState(OrderState.Delivered);
+        Order active = samples.order(UUID.randomUUID(), UUID.randomUUID());
+
+        JavaSerializedDatabase hot = new JavaSerializedDatabase(savePath, true);
+        TieredDatabase db = new TieredDatabase(hot, savePath, Period.ofDays(30), 0);
+        assertTrue(db.add(DataMap.ORDERS, List.of(archived, active)));
+        assertEquals(1, db.archive());
+
+        CountingDatabase cold = new CountingDatabase(savePath + TieredDatabase.ARCHIVE_DIRECTORY + "/");
+        db = new TieredDatabase(hot, cold, Period.ofDays(30), 0);
+        assertEquals(1, db.get(DataMap.ORDERS, (o) -> true).size());
+        assertFalse(db.exists(DataMap.ORDERS, (Order o) -> o.getId().equals(archived.getId())));
+        assertFalse(db.<Order>update(DataMap.ORDERS, (o) -> o.setState(OrderState.Cancelled), (Order o) -> o.getId().equals(archived.getId())));
+        assertFalse(db.remove(DataMap.ORDERS, (Order o) -> o.getId().equals(archived.getId())));
+        assertEquals(0, cold.loadCount);
+        assertEquals(1, db.getArchivedCount(DataMap.ORDERS));
+    }
+
+    /**
+     * Tests that an order left in both tiers by an interrupted archival is only returned, and only given to the filter,
+     * once, even when its hot copy does not match.
+     */
+    @Test
+    void testInterruptedArchivalIsMergedOnce() {
+        SampleRecords samples = new SampleRecords();
+        String savePath = directory + "/";
+        UUID buyerId = UUID.randomUUID();
+        Order order = samples.order(buyerId, UUID.randomUUID(), LocalDate.now().minusMonths(6));
+        order.setState(OrderState.Delivered);
+
+        JavaSerializedDatabase hot = new JavaSerializedDatabase(savePath, true);
+        TieredDatabase db = new TieredDatabase(hot, savePath, Period.ofDays(30), 0);
+        assertTrue(db.add(DataMap.ORDERS, order));
+        assertEquals(1, db.archive());
+        order.setState(OrderState.Cancelled);
+        assertTrue(hot.add(DataMap.ORDERS, order));
+
+        ArrayList<UUID> tested = new ArrayList<>();
+        List<Order> matches = db.getOwned(DataMap.ORDERS, buyerId, (Order o) -> tested.add(o.getId()) && o.getState() == OrderState.Cancelled);
+        assertEquals(1, matches.size());
+        assertEquals(List.of(order.getId()), tested);
+        assertTrue(db.getOwned(DataMap.ORDERS, buyerId, (Order o) -> o.getState() == OrderState.Delivered).isEmpty());
+    }
+
+    /**
+     * Tests that the archived tickets are kept in the cold store across restarts and removed from it.
+     */
+    @Test
+    void testArchivedTicketsPersist() {
+        String savePath = directory + "/";
+        ArrayList<Ticket> tickets = new ArrayList<>();
+        for (TicketState state : List.of(TicketState.Closed, TicketState.Cancelled, TicketState.OpenManual)) {
+            tickets.add(new Ticket("Broken", UUID.randomUUID(), new ArrayList<>(), TicketCause.DefectiveProduct, state, UUID.randomUUID(), UUID.randomUUID()));
+        }
+
+        TieredDatabase db = new TieredDatabase(new JavaSerializedDatabase(savePath, true), savePath, Period.ZERO, 0);
+        assertTrue(db.add(DataMap.TICKETS, tickets));
+        assertEquals(2, db.archive());
+
+        db = new TieredDatabase(new JavaSerializedDatabase(savePath, true), savePath, Period.ZERO, 0);
+        assertEquals(2, db.getArchivedCount(DataMap.TICKETS));
+        assertEquals(1, db.get(DataMap.TICKETS, (t) -> true).size());
+        assertEquals(2, db.getArchived(DataMap.TICKETS, (t) -> true).size());
+        assertEquals(TicketState.Closed, db.<Ticket>get(DataMap.TICKETS, tickets.get(0).getId()).getState());
+
+        assertTrue(db.remove(DataMap.TICKETS, tickets.get(0).getId()));
+        assertEquals(1, db.getArchivedCount(DataMap.TICKETS));
+        assertEquals(1, db.getArchived(DataMap.TICKETS, (t) -> true).size());
+    }
+
+    /**
+     * Tests that the archived tickets of a buyer and of a seller are found by a query on their index, including after a
+     * restart with a keys file written before the tickets were indexed by buyer and seller.
+     */
+    @Test
+    void testArchivedTicketsFoundByBuyerAndSeller() throws IOException {
+        String savePath = directory + "/";
+        UUID buyerId = UUID.randomUUID();
+        UUID sellerId = UUID.randomUUID();
+        Ticket ticket = new Ticket("Broken", UUID.randomUUID(), new ArrayList<>(), TicketCause.DefectiveProduct, TicketState.Closed, buyerId, sellerId);
+
+        TieredDatabase db = new TieredDatabase(new JavaSerializedDatabase(savePath, true), savePath, Period.ZERO, 0);
+        assertTrue(db.add(DataMap.TICKETS, ticket));
+        assertEquals(1, db.archive());
+        assertEquals(1, db.get(Query.<Ticket>where(DataMap.TICKETS, Query.equal("buyerId", buyerId))).size());
+
+        Path keys = directory.resolve(TieredDatabase.ARCHIVE_DIRECTORY).resolve(TieredDatabase.KEYS_FILENAME);
+        Files.writeString(keys, "TICKET_ORDER " + ticket.getOrderId() + "\n");
+        db = new TieredDatabase(new JavaSerializedDatabase(savePath, true), savePath, Period.ZERO, 0);
+        assertEquals(1, db.get(Query.<Ticket>where(DataMap.TICKETS, Query.equal("buyerId", buyerId))).size());
+        assertEquals(1, db.get(Query.<Ticket>where(DataMap.TICKETS, Query.equal("sellerId", sellerId))).size());
+        assertTrue(db.get(Query.<Ticket>where(DataMap.TICKETS, Query.equal("sellerId", buyerId))).isEmpty());
+        assertTrue(Files.readString(keys).contains("TICKET_SELLER " + sellerId));
+    }
+
+    /**
+     * An uncached database counting the files it reads.
+     */
+    private static class CountingDatabase extends JavaSerializedDatabase {
+        /**
+         * The number of files read.
+         */
+        private int loadCount;
+
+        /**
+         * Constructs a CountingDatabase.
+         *
+         * @param savePath The path of the directory where the serialized data is stored, ending with a separator.
+         */
+        private CountingDatabase(String savePath) {
+            super(savePath, false);
+        }
+
+        /**
+         * Reads a file and counts it.
+         *
+         * @param filename The name of the file.
+         * @param <T>      The type of the data.
+         *
+         * @return The data in the file.
+         */
+        @Override
+        protected <T> T load(String filename) {
+            loadCount++;
+            return super.load(filename);
+        }
+    }
+}